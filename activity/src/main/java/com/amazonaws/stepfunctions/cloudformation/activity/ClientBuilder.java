@@ -2,18 +2,34 @@ package com.amazonaws.stepfunctions.cloudformation.activity;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
 import com.amazonaws.services.stepfunctions.AWSStepFunctionsClientBuilder;
 
 public class ClientBuilder {
 
+    // Set by tests to run the handlers against an in-memory implementation of the service
+    private static volatile AWSStepFunctions clientOverride;
+
+    static void setClientOverride(final AWSStepFunctions client) {
+        clientOverride = client;
+    }
+
     public static AWSStepFunctions getClient() {
+        if (clientOverride != null) {
+            return clientOverride;
+        }
+
         ClientConfiguration clientConfiguration = new ClientConfiguration()
-                .withRetryPolicy(PredefinedRetryPolicies.getDefaultRetryPolicyWithCustomMaxRetries(10));
+                .withRetryPolicy(getRetryPolicy());
 
         return AWSStepFunctionsClientBuilder.standard()
                 .withClientConfiguration(clientConfiguration)
                 .build();
     }
 
+    public static RetryPolicy getRetryPolicy() {
+        return PredefinedRetryPolicies.getDefaultRetryPolicyWithCustomMaxRetries(Constants.MAX_ERROR_RETRIES);
+    }
+
 }
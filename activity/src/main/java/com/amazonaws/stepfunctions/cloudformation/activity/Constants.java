@@ -9,10 +9,36 @@ public class Constants {
     public static final String THROTTLING_ERROR_CODE = "ThrottlingException";
     public static final String ACCESS_DENIED_ERROR_CODE = "AccessDeniedException";
     public static final String INTERNAL_FAILURE_MESSAGE = "Internal Failure";
+    public static final int MAX_ERROR_RETRIES = 10;
     public static final String ACTIVITY_ARN_NOT_FOUND_MESSAGE = "ActivityArnNotFound";
     public static final String ACTIVITY_DOES_NOT_EXIST_ERROR_CODE = "ActivityDoesNotExist";
     public static final String RESOURCE_NOT_FOUND_ERROR_CODE = "ResourceNotFound";
     public static final String INVALID_TOKEN = "InvalidToken";
+    public static final long ACCESS_DENIED_CACHE_TTL_MILLIS = 5 * 60 * 1000;
+    public static final int ACCESS_DENIED_CACHE_MAX_ENTRIES = 10000;
+    public static final String LIST_TAGS_FOR_RESOURCE_API_NAME = "ListTagsForResource";
+    public static final String HEDGED_REQUESTS_ENABLED_ENVIRONMENT_VARIABLE = "HEDGED_REQUESTS_ENABLED";
+    public static final int HEDGE_LATENCY_WINDOW = 128;
+    public static final int HEDGE_MIN_SAMPLES = 20;
+    // Hedges are paid for in tokens: every call earns a tenth of a hedge, so at most 10% of calls are hedged after
+    // a burst of 10
+    public static final long HEDGE_COST_TOKENS = 1000;
+    public static final long HEDGE_TOKENS_PER_CALL = 100;
+    public static final long MAX_HEDGE_TOKENS = 10 * HEDGE_COST_TOKENS;
+    public static final String TRACE_EXPORTER_ENVIRONMENT_VARIABLE = "TRACE_EXPORTER";
+    public static final String TRACE_FILE_ENVIRONMENT_VARIABLE = "TRACE_FILE";
+    public static final String DEFAULT_TRACE_FILE = "/tmp/traces.jsonl";
+    public static final String TRACE_LOGGING_PREFIX = "TRACE";
+    public static final int MAX_TRACE_SPANS = 64;
+    public static final String LIST_HYDRATION_ENABLED_ENVIRONMENT_VARIABLE = "LIST_HYDRATION_ENABLED";
+    public static final int LIST_HYDRATION_MAX_CONCURRENCY = 8;
+    public static final int LIST_HYDRATION_MAX_ATTEMPTS = 3;
+    public static final long LIST_HYDRATION_BASE_BACKOFF_MILLIS = 100;
+    public static final String LIST_PAGE_COALESCING_ENABLED_ENVIRONMENT_VARIABLE = "LIST_PAGE_COALESCING_ENABLED";
+    public static final int LIST_MAX_PAGE_SIZE = 1000;
+    public static final int LIST_COALESCING_MAX_ITEMS = 5000;
+    public static final long LIST_COALESCING_TIME_BUDGET_MILLIS = 20 * 1000;
+    public static final int LIST_HYDRATION_MAX_ITEMS = 100;
 
     public static final Set<String> RESOURCE_NOT_FOUND_ERROR_CODES = Collections.unmodifiableSet(ImmutableSet.of(
             RESOURCE_NOT_FOUND_ERROR_CODE,
@@ -21,4 +47,9 @@ public class Constants {
 
     // Setting 60 seconds stabilization delay to account for eventual consistency of DescribeActivity call due to caching
     public static final int CALLBACK_DELAY_SECONDS_FOR_STABILIZATION = 60;
+
+    public static final String LOG_LEVEL_ENVIRONMENT_VARIABLE = "LOG_LEVEL";
+    public static final int LOG_SAMPLE_INTERVAL = 10;
+
+    public static final String METRICS_LOGGING_PREFIX = "METRICS";
 }
@@ -15,16 +15,20 @@ import java.util.List;
 public class CreateHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
         final CallbackContext callbackContext,
         final Logger logger) {
 
-        logger.log("INFO Activity CreateHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "CreateHandler");
+        handlerLogger.info("Activity CreateHandler invoked");
 
         final ResourceModel model = request.getDesiredResourceState();
 
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setMetricsFromResourceModel(model);
+
         try {
             AWSStepFunctions sfnClient = ClientBuilder.getClient();
 
@@ -34,16 +38,23 @@ public class CreateHandler extends ResourceHandler {
                     .withName(model.getName())
                     .withTags(tags);
 
-            CreateActivityResult createActivityResult = proxy.injectCredentialsAndInvoke(createActivityRequest, sfnClient::createActivity);
+            CreateActivityResult createActivityResult;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.CREATE)) {
+                createActivityResult = proxy.injectCredentialsAndInvoke(createActivityRequest, sfnClient::createActivity);
+            }
             model.setArn(createActivityResult.getActivityArn());
 
+            metricsRecorder.setOperationSuccessful(true);
+
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
                     .resourceModel(model)
                     .status(OperationStatus.SUCCESS)
                     .build();
         } catch (Exception e) {
-            logger.log("ERROR Creating Activity, caused by " + e.toString());
+            handlerLogger.error("Error creating Activity", e);
             return handleDefaultError(request, e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 
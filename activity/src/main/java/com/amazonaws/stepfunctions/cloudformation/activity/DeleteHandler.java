@@ -14,25 +14,31 @@ import static com.amazonaws.stepfunctions.cloudformation.activity.Constants.CALL
 public class DeleteHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO Activity DeleteHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "DeleteHandler");
+        handlerLogger.info("Activity DeleteHandler invoked");
 
         final ResourceModel model = request.getDesiredResourceState();
 
         final CallbackContext context = (callbackContext == null) ? new CallbackContext() : callbackContext;
 
-        if (context.isPropagationDelayDone()) {
-            return ProgressEvent.<ResourceModel, CallbackContext>builder()
-                    .status(OperationStatus.SUCCESS)
-                    .build();
-        }
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.DELETE);
 
         try {
+            if (context.isPropagationDelayDone()) {
+                // The callback after the stabilization delay is the only poll of a deletion
+                metricsRecorder.setStabilizationPollCount(1);
+                metricsRecorder.setOperationSuccessful(true);
+                return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                        .status(OperationStatus.SUCCESS)
+                        .build();
+            }
+
             verifyActivityArnIsPresent(model.getArn());
 
             AWSStepFunctions sfnClient = ClientBuilder.getClient();
@@ -40,18 +46,26 @@ public class DeleteHandler extends ResourceHandler {
             // Validate that the activity exists
             DescribeActivityRequest describeActivityRequest = new DescribeActivityRequest();
             describeActivityRequest.setActivityArn(model.getArn());
-            proxy.injectCredentialsAndInvoke(describeActivityRequest, sfnClient::describeActivity);
+            metricsRecorder.incrementExistenceCheckCallCount();
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.EXISTENCE_CHECK)) {
+                HedgedInvoker.invoke(proxy, describeActivityRequest, sfnClient::describeActivity);
+            }
 
             DeleteActivityRequest deleteActivityRequest = new DeleteActivityRequest();
             deleteActivityRequest.setActivityArn(model.getArn());
 
-            proxy.injectCredentialsAndInvoke(deleteActivityRequest, sfnClient::deleteActivity);
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.DELETE)) {
+                proxy.injectCredentialsAndInvoke(deleteActivityRequest, sfnClient::deleteActivity);
+            }
 
             context.setPropagationDelayDone(true);
+            metricsRecorder.setOperationSuccessful(true);
             return ProgressEvent.defaultInProgressHandler(context, CALLBACK_DELAY_SECONDS_FOR_STABILIZATION, model);
         } catch (Exception e) {
-            logger.log("ERROR Deleting Activity, caused by " + e.toString());
+            handlerLogger.error("Error deleting Activity", e);
             return handleDefaultError(request, e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 
@@ -0,0 +1,13 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+/**
+ *  Enum to represent the CloudFormation handler operations supported by this resource
+ *  Used to identify the operation being performed when logging resource property usage metrics
+*/
+public enum HandlerOperationType {
+    CREATE,
+    DELETE,
+    READ,
+    UPDATE,
+    LIST
+}
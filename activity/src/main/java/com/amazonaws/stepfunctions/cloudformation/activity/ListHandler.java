@@ -17,44 +17,72 @@ import java.util.List;
 public class ListHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> resourceHandlerRequest,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO Activity ListHandler with clientRequestToken: " + resourceHandlerRequest.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, resourceHandlerRequest, "ListHandler");
+        handlerLogger.info("Activity ListHandler invoked");
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.LIST);
 
         try {
             final AWSStepFunctions sfnClient = ClientBuilder.getClient();
-            final List<ResourceModel> models = new ArrayList<>();
+            final List<ResourceModel> listedModels = new ArrayList<>();
 
-            final ListActivitiesRequest listActivitiesRequest = new ListActivitiesRequest();
-            listActivitiesRequest.setNextToken(resourceHandlerRequest.getNextToken());
+            // Hydrated models are far larger, so fewer of them are returned per invocation
+            final int maxItems = ListHydrator.isEnabled() ? Constants.LIST_HYDRATION_MAX_ITEMS : Constants.LIST_COALESCING_MAX_ITEMS;
+            final String nextTokenToReturn = PageCoalescer.fetchPages(resourceHandlerRequest.getNextToken(), listedModels, maxItems,
+                    (pageNextToken, maxResults) -> listPage(proxy, sfnClient, pageNextToken, maxResults, listedModels));
 
-            final ListActivitiesResult listActivitiesResult = proxy.injectCredentialsAndInvoke(
-                    listActivitiesRequest,
-                    sfnClient::listActivities
-            );
-
-            listActivitiesResult.getActivities()
-                    .stream()
-                    .map(this::buildResourceModelFromActivityListItem)
-                    .forEach(models::add);
+            List<ResourceModel> models = listedModels;
+            if (ListHydrator.isEnabled()) {
+                // The items are hydrated on a pool, so the tagging calls of the workers have no spans of their own
+                try (Tracing.Span span = Tracing.span(Tracing.Phase.HYDRATE)) {
+                    models = ListHydrator.hydrate(proxy, sfnClient, listedModels, handlerLogger, metricsRecorder);
+                }
+            }
 
             final ProgressEvent<ResourceModel, CallbackContext> progressEvent =
                     ProgressEvent.<ResourceModel, CallbackContext>builder()
                             .resourceModels(models)
-                            .nextToken(listActivitiesResult.getNextToken())
+                            .nextToken(nextTokenToReturn)
                             .status(OperationStatus.SUCCESS)
                             .build();
 
+            metricsRecorder.setOperationSuccessful(true);
             return progressEvent;
         } catch (final Exception e) {
-            logger.log("ERROR Listing Activities, caused by " + e.toString());
+            handlerLogger.error("Error listing Activities", e);
 
             return handleDefaultError(resourceHandlerRequest, e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
+        }
+    }
+
+    private String listPage(final AmazonWebServicesClientProxy proxy, final AWSStepFunctions sfnClient,
+                            final String nextToken, final Integer maxResults, final List<ResourceModel> models) {
+        final ListActivitiesRequest listActivitiesRequest = new ListActivitiesRequest();
+        listActivitiesRequest.setNextToken(nextToken);
+        listActivitiesRequest.setMaxResults(maxResults);
+
+        final ListActivitiesResult listActivitiesResult;
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.LIST)) {
+            listActivitiesResult = proxy.injectCredentialsAndInvoke(
+                    listActivitiesRequest,
+                    sfnClient::listActivities
+            );
         }
+
+        listActivitiesResult.getActivities()
+                .stream()
+                .map(this::buildResourceModelFromActivityListItem)
+                .forEach(models::add);
+
+        return listActivitiesResult.getNextToken();
     }
 
     private ResourceModel buildResourceModelFromActivityListItem(final ActivityListItem activityListItem) {
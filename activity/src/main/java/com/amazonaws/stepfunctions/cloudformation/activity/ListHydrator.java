@@ -0,0 +1,175 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.DescribeActivityRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeActivityResult;
+import com.amazonaws.services.stepfunctions.model.Tag;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Enriches the models of a ListHandler page with DescribeActivity and ListTagsForResource, so that callers that
+ *   need tags do not have to read every listed activity one after another.
+ * Items are hydrated on a bounded pool of workers. The number of calls in flight is halved whenever a call is
+ *   throttled and grows back by one with every call that is not, and a throttled item is retried with backoff. An
+ *   item that still cannot be hydrated keeps the properties from the list result, so one failure does not fail the
+ *   page. Hydration is enabled by setting the LIST_HYDRATION_ENABLED environment variable to true.
+ */
+public class ListHydrator {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(Constants.LIST_HYDRATION_MAX_CONCURRENCY, runnable -> {
+        final Thread thread = new Thread(runnable, "list-hydration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Set by tests, read from the environment otherwise
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getenv(Constants.LIST_HYDRATION_ENABLED_ENVIRONMENT_VARIABLE));
+
+    private ListHydrator() {
+    }
+
+    static void setEnabled(final boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hydrates the listed models concurrently
+     * @param proxy The proxy that injects the caller's credentials
+     * @param sfnClient The Step Functions client
+     * @param models The models built from the list result
+     * @param handlerLogger The handler's logger
+     * @param metricsRecorder Records whether any item could not be hydrated
+     * @return The hydrated models in the order they were listed in, with the listed model in place of any item
+     *   that could not be hydrated
+     */
+    public static List<ResourceModel> hydrate(final AmazonWebServicesClientProxy proxy,
+                                              final AWSStepFunctions sfnClient,
+                                              final List<ResourceModel> models,
+                                              final HandlerLogger handlerLogger,
+                                              final MetricsRecorder metricsRecorder) {
+        final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit(Constants.LIST_HYDRATION_MAX_CONCURRENCY);
+        final List<CompletableFuture<ResourceModel>> hydratedModelFutures = new ArrayList<>(models.size());
+        for (final ResourceModel model : models) {
+            hydratedModelFutures.add(CompletableFuture.supplyAsync(
+                    () -> hydrateWithRetries(proxy, sfnClient, model, concurrencyLimit, handlerLogger),
+                    executor
+            ));
+        }
+
+        final List<ResourceModel> hydratedModels = new ArrayList<>(models.size());
+        for (int i = 0; i < models.size(); i++) {
+            final ResourceModel hydratedModel = hydratedModelFutures.get(i).join();
+            if (hydratedModel != null) {
+                hydratedModels.add(hydratedModel);
+            } else {
+                hydratedModels.add(models.get(i));
+                metricsRecorder.setListHydrationPartial(true);
+            }
+        }
+        metricsRecorder.setListHydrated(true);
+        return hydratedModels;
+    }
+
+    // Returns null instead of throwing, so that the item keeps its listed properties
+    private static ResourceModel hydrateWithRetries(final AmazonWebServicesClientProxy proxy,
+                                                    final AWSStepFunctions sfnClient,
+                                                    final ResourceModel model,
+                                                    final ConcurrencyLimit concurrencyLimit,
+                                                    final HandlerLogger handlerLogger) {
+        for (int attempt = 1; ; attempt++) {
+            boolean isThrottled = false;
+            try {
+                concurrencyLimit.acquire();
+                try {
+                    return hydrateModel(proxy, sfnClient, model, handlerLogger);
+                } catch (final AmazonServiceException e) {
+                    isThrottled = Constants.THROTTLING_ERROR_CODE.equals(e.getErrorCode());
+                    if (!isThrottled || attempt >= Constants.LIST_HYDRATION_MAX_ATTEMPTS) {
+                        handlerLogger.warn(() -> "Unable to hydrate " + model.getArn(), e);
+                        return null;
+                    }
+                } finally {
+                    concurrencyLimit.release(isThrottled);
+                }
+
+                Thread.sleep(getBackoffMillis(attempt));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (final RuntimeException e) {
+                handlerLogger.warn(() -> "Unable to hydrate " + model.getArn(), e);
+                return null;
+            }
+        }
+    }
+
+    private static ResourceModel hydrateModel(final AmazonWebServicesClientProxy proxy,
+                                              final AWSStepFunctions sfnClient,
+                                              final ResourceModel model,
+                                              final HandlerLogger handlerLogger) {
+        final DescribeActivityRequest describeActivityRequest = new DescribeActivityRequest().withActivityArn(model.getArn());
+        final DescribeActivityResult describeActivityResult = HedgedInvoker.invoke(proxy,
+                describeActivityRequest, sfnClient::describeActivity);
+
+        final String callerIdentity = AccessDeniedCache.getCallerIdentity(describeActivityRequest);
+        List<Tag> activityTags = null;
+        if (!AccessDeniedCache.isDenied(callerIdentity, Constants.LIST_TAGS_FOR_RESOURCE_API_NAME)) {
+            try {
+                activityTags = TaggingHelper.listTagsForResource(model.getArn(), proxy, sfnClient);
+            } catch (final AmazonServiceException e) {
+                // As in the ReadHandler, tags are left out if ListTagsForResource permissions are not present
+                if (!Constants.ACCESS_DENIED_ERROR_CODE.equals(e.getErrorCode())) {
+                    throw e;
+                }
+
+                AccessDeniedCache.recordDenied(callerIdentity, Constants.LIST_TAGS_FOR_RESOURCE_API_NAME);
+                handlerLogger.info("ListTagsForResource permission not present, excluding tags from listed resource models");
+            }
+        }
+
+        return ResourceModelUtils.getUpdatedResourceModelFromReadResults(describeActivityResult, activityTags);
+    }
+
+    // Full jitter over an exponentially growing window
+    private static long getBackoffMillis(final int attempt) {
+        final long windowMillis = Constants.LIST_HYDRATION_BASE_BACKOFF_MILLIS << (attempt - 1);
+        return ThreadLocalRandom.current().nextLong(windowMillis + 1);
+    }
+
+    private static class ConcurrencyLimit {
+        private final int maxLimit;
+        private int limit;
+        private int inFlight;
+
+        ConcurrencyLimit(final int maxLimit) {
+            this.maxLimit = maxLimit;
+            this.limit = maxLimit;
+        }
+
+        synchronized void acquire() throws InterruptedException {
+            while (inFlight >= limit) {
+                wait();
+            }
+            inFlight++;
+        }
+
+        synchronized void release(final boolean isThrottled) {
+            inFlight--;
+            limit = isThrottled ? Math.max(1, limit / 2) : Math.min(maxLimit, limit + 1);
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+/**
+ *  Enum to represent the logging keys used in the metrics string generated
+ *  by the MetricsRecorder class.
+ */
+public enum MetricsLoggingKeys {
+    OPERATION_TYPE("OperationType"),
+    OPERATION_STATUS("OperationStatus"),
+    OPERATION_SUCCESS("SUCCESS"),
+    OPERATION_FAILURE("FAILURE"),
+    EXISTENCE_CHECK_CALL_COUNT("ExistenceCheckCallCount"),
+    STABILIZATION_POLL_COUNT("StabilizationPollCount"),
+    TAGS_PROVIDED("TagsProvided"),
+    TAGS_EXCLUDED("TagsExcluded"),
+    LIST_HYDRATED("ListHydrated"),
+    LIST_HYDRATION_PARTIAL("ListHydrationPartial");
+
+    public final String loggingKey;
+
+    MetricsLoggingKeys(String loggingKey) {
+        this.loggingKey = loggingKey;
+    }
+}
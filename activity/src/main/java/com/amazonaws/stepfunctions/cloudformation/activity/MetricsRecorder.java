@@ -0,0 +1,164 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.LIST_HYDRATED;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.LIST_HYDRATION_PARTIAL;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_STATUS;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_TYPE;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.STABILIZATION_POLL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.TAGS_EXCLUDED;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.TAGS_PROVIDED;
+
+/**
+ *  Class to encapsulate the logic behind tracking resource property usage and the calls made by an operation
+ *  Properties that are changed from their default values, and the counts that have been recorded, are included in
+ *  the string generated for metrics tracking.
+ *  Properties are stored as bits indexed by their MetricsLoggingKeys ordinal, as in the StateMachine resource.
+ */
+public class MetricsRecorder {
+
+    // Counts listed as key-value pairs after the operation status, in the order they are listed in
+    private static final MetricsLoggingKeys[] VALUE_KEYS = {
+            EXISTENCE_CHECK_CALL_COUNT,
+            STABILIZATION_POLL_COUNT
+    };
+
+    // Properties listed after the counts, in the order they are listed in
+    private static final MetricsLoggingKeys[] LISTED_KEYS = {
+            TAGS_PROVIDED,
+            TAGS_EXCLUDED,
+            LIST_HYDRATED,
+            LIST_HYDRATION_PARTIAL
+    };
+
+    // The metrics string up to the operation status, by HandlerOperationType ordinal
+    private static final String[] OPERATION_TYPE_FRAGMENTS = new String[HandlerOperationType.values().length];
+    private static final String OPERATION_SUCCESS_FRAGMENT = OPERATION_SUCCESS.loggingKey + ", ";
+    private static final String OPERATION_FAILURE_FRAGMENT = OPERATION_FAILURE.loggingKey + ", ";
+    // A count's key followed by its separator, by MetricsLoggingKeys ordinal
+    private static final String[] VALUE_KEY_FRAGMENTS = new String[MetricsLoggingKeys.values().length];
+    // A listed property preceded by its separator, by MetricsLoggingKeys ordinal
+    private static final String[] SEPARATED_KEY_FRAGMENTS = new String[MetricsLoggingKeys.values().length];
+    private static final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    static {
+        if (MetricsLoggingKeys.values().length > Long.SIZE) {
+            throw new IllegalStateException("MetricsRecorder stores at most " + Long.SIZE + " properties");
+        }
+        for (final HandlerOperationType operationType : HandlerOperationType.values()) {
+            OPERATION_TYPE_FRAGMENTS[operationType.ordinal()] = String.format("%s - %s: %s, %s: ",
+                    Constants.METRICS_LOGGING_PREFIX, OPERATION_TYPE.loggingKey, operationType, OPERATION_STATUS.loggingKey);
+        }
+        for (final MetricsLoggingKeys key : MetricsLoggingKeys.values()) {
+            VALUE_KEY_FRAGMENTS[key.ordinal()] = key.loggingKey + ": ";
+            SEPARATED_KEY_FRAGMENTS[key.ordinal()] = ", " + key.loggingKey;
+        }
+    }
+
+    // CloudFormation operation type, the status and every other property are bits of the flags, as is whether a
+    // count has been recorded
+    private final HandlerOperationType operationType;
+    private final long[] values = new long[MetricsLoggingKeys.values().length];
+    private long flags;
+
+    public MetricsRecorder(HandlerOperationType operationType) {
+        this.operationType = operationType;
+    }
+
+    // CloudFormation operation status
+    public void setOperationSuccessful(final boolean value) {
+        set(OPERATION_SUCCESS, value);
+    }
+
+    // Calls made to determine whether the activity exists
+    public void incrementExistenceCheckCallCount() {
+        add(EXISTENCE_CHECK_CALL_COUNT, 1);
+    }
+
+    // Callbacks made after the deletion, to account for the eventual consistency of DescribeActivity
+    public void setStabilizationPollCount(final long count) {
+        record(STABILIZATION_POLL_COUNT, count);
+    }
+
+    // Tags
+    public void setTagsProvided(final boolean value) {
+        set(TAGS_PROVIDED, value);
+    }
+
+    public void setTagsExcluded(final boolean value) {
+        set(TAGS_EXCLUDED, value);
+    }
+
+    // List hydration
+    public void setListHydrated(final boolean value) {
+        set(LIST_HYDRATED, value);
+    }
+
+    public void setListHydrationPartial(final boolean value) {
+        set(LIST_HYDRATION_PARTIAL, value);
+    }
+
+    public void setMetricsFromResourceModel(final ResourceModel model) {
+        if (model.getTags() != null && !model.getTags().isEmpty()) {
+            setTagsProvided(true);
+        }
+    }
+
+    public String generateMetricsString() {
+        final StringBuilder sb = builders.get();
+        sb.setLength(0);
+
+        // Prefix for identifying logging entries used for metrics, then the operation type and status
+        sb.append(OPERATION_TYPE_FRAGMENTS[operationType.ordinal()]);
+        sb.append(isSet(OPERATION_SUCCESS) ? OPERATION_SUCCESS_FRAGMENT : OPERATION_FAILURE_FRAGMENT);
+
+        // Recorded counts, each followed by a comma
+        for (final MetricsLoggingKeys key : VALUE_KEYS) {
+            if (isSet(key)) {
+                sb.append(VALUE_KEY_FRAGMENTS[key.ordinal()]).append(values[key.ordinal()]).append(", ");
+            }
+        }
+
+        // Listed metric keys, separated by commas
+        boolean isFirstKey = true;
+        for (final MetricsLoggingKeys key : LISTED_KEYS) {
+            if (isSet(key)) {
+                if (isFirstKey) {
+                    sb.append(key.loggingKey);
+                    isFirstKey = false;
+                } else {
+                    sb.append(SEPARATED_KEY_FRAGMENTS[key.ordinal()]);
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    boolean isSet(final MetricsLoggingKeys key) {
+        return (flags & (1L << key.ordinal())) != 0;
+    }
+
+    long getValue(final MetricsLoggingKeys key) {
+        return values[key.ordinal()];
+    }
+
+    private void set(final MetricsLoggingKeys key, final boolean value) {
+        if (value) {
+            flags |= 1L << key.ordinal();
+        } else {
+            flags &= ~(1L << key.ordinal());
+        }
+    }
+
+    private void add(final MetricsLoggingKeys key, final long delta) {
+        record(key, values[key.ordinal()] + delta);
+    }
+
+    private void record(final MetricsLoggingKeys key, final long value) {
+        values[key.ordinal()] = value;
+        flags |= 1L << key.ordinal();
+    }
+}
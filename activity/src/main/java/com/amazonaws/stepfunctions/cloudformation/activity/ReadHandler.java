@@ -16,13 +16,16 @@ import java.util.List;
 public class ReadHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO Activity ReadHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "ReadHandler");
+        handlerLogger.info("Activity ReadHandler invoked");
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.READ);
 
         final ResourceModel model = request.getDesiredResourceState();
 
@@ -33,32 +36,46 @@ public class ReadHandler extends ResourceHandler {
 
             final DescribeActivityRequest describeActivityRequest = new DescribeActivityRequest()
                     .withActivityArn(model.getArn());
-            final DescribeActivityResult describeActivityResult =
-                    proxy.injectCredentialsAndInvoke(describeActivityRequest, sfnClient::describeActivity);
+            final DescribeActivityResult describeActivityResult;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.READ)) {
+                describeActivityResult = HedgedInvoker.invoke(proxy, describeActivityRequest, sfnClient::describeActivity);
+            }
 
+            final String callerIdentity = AccessDeniedCache.getCallerIdentity(describeActivityRequest);
             List<Tag> activityTags = null;
-            try {
-                activityTags = TaggingHelper.listTagsForResource(model.getArn(), proxy, sfnClient);
-            } catch (final AmazonServiceException e) {
-                // To provide backwards compatibility, do not fail the request if ListTagsForResource
-                // permissions are not present
-                if (!Constants.ACCESS_DENIED_ERROR_CODE.equals(e.getErrorCode())) {
-                    throw e;
-                }
+            if (AccessDeniedCache.isDenied(callerIdentity, Constants.LIST_TAGS_FOR_RESOURCE_API_NAME)) {
+                handlerLogger.info("ListTagsForResource permission recently not present, excluding tags from resource model");
+                metricsRecorder.setTagsExcluded(true);
+            } else {
+                try {
+                    activityTags = TaggingHelper.listTagsForResource(model.getArn(), proxy, sfnClient);
+                } catch (final AmazonServiceException e) {
+                    // To provide backwards compatibility, do not fail the request if ListTagsForResource
+                    // permissions are not present
+                    if (!Constants.ACCESS_DENIED_ERROR_CODE.equals(e.getErrorCode())) {
+                        throw e;
+                    }
 
-                logger.log("INFO ListTagsForResource permission not present, excluding tags from resource model");
+                    AccessDeniedCache.recordDenied(callerIdentity, Constants.LIST_TAGS_FOR_RESOURCE_API_NAME);
+                    handlerLogger.info("ListTagsForResource permission not present, excluding tags from resource model");
+                    metricsRecorder.setTagsExcluded(true);
+                }
             }
 
             final ResourceModel updatedModel =
                     ResourceModelUtils.getUpdatedResourceModelFromReadResults(describeActivityResult, activityTags);
 
+            metricsRecorder.setOperationSuccessful(true);
+
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
                     .resourceModel(updatedModel)
                     .status(OperationStatus.SUCCESS)
                     .build();
         } catch (final Exception e) {
-            logger.log("ERROR Reading Activity, caused by " + e.toString());
+            handlerLogger.error("Error reading Activity", e);
             return handleDefaultError(request, e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 
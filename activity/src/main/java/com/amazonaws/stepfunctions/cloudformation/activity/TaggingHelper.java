@@ -51,7 +51,10 @@ public class TaggingHelper {
         ListTagsForResourceRequest listTagsForResourceRequest = new ListTagsForResourceRequest();
         listTagsForResourceRequest.setResourceArn(resourceArn);
 
-        ListTagsForResourceResult listTagsForResourceResult = proxy.injectCredentialsAndInvoke(listTagsForResourceRequest, client::listTagsForResource);
+        ListTagsForResourceResult listTagsForResourceResult;
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.TAGGING)) {
+            listTagsForResourceResult = HedgedInvoker.invoke(proxy, listTagsForResourceRequest, client::listTagsForResource);
+        }
         if (listTagsForResourceResult.getTags() != null) {
             return listTagsForResourceResult.getTags();
         }
@@ -89,11 +92,13 @@ public class TaggingHelper {
                                   AWSStepFunctions client) {
         Set<Tag> tagsToAdd = Sets.difference(currentTags, previousTags);
         Set<Tag> tagsToRemove = Sets.difference(previousTags, currentTags);
-        if (!tagsToRemove.isEmpty()) {
-            removeTags(resourceArn, tagsToRemove, proxy, client);
-        }
-        if (!tagsToAdd.isEmpty()) {
-            addTags(resourceArn, tagsToAdd, proxy, client);
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.TAGGING)) {
+            if (!tagsToRemove.isEmpty()) {
+                removeTags(resourceArn, tagsToRemove, proxy, client);
+            }
+            if (!tagsToAdd.isEmpty()) {
+                addTags(resourceArn, tagsToAdd, proxy, client);
+            }
         }
     }
 
@@ -1,7 +1,6 @@
 package com.amazonaws.stepfunctions.cloudformation.activity;
 
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
-import com.amazonaws.services.stepfunctions.AWSStepFunctionsClientBuilder;
 import com.amazonaws.services.stepfunctions.model.Tag;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
@@ -15,30 +14,38 @@ import java.util.Set;
 public class UpdateHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
         final CallbackContext callbackContext,
         final Logger logger) {
 
-        logger.log("INFO Activity UpdateHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "UpdateHandler");
+        handlerLogger.info("Activity UpdateHandler invoked");
 
         final ResourceModel model = request.getDesiredResourceState();
 
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.UPDATE);
+        metricsRecorder.setMetricsFromResourceModel(model);
+
         try {
             verifyActivityArnIsPresent(model.getArn());
 
-            AWSStepFunctions sfnClient = AWSStepFunctionsClientBuilder.defaultClient();
+            AWSStepFunctions sfnClient = ClientBuilder.getClient();
 
             updateTags(request, proxy, sfnClient);
 
+            metricsRecorder.setOperationSuccessful(true);
+
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
                     .resourceModel(model)
                     .status(OperationStatus.SUCCESS)
                     .build();
         } catch (Exception e) {
-            logger.log("ERROR Updating Activity, caused by " + e.toString());
+            handlerLogger.error("Error updating Activity", e);
             return handleDefaultError(request, e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 
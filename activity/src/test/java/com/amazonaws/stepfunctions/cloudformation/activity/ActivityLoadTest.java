@@ -0,0 +1,104 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.ContractTestInputs;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.LoadTestHarness;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *  Replays Create, Read, Update, List and Delete lifecycles concurrently against the in-memory service fake.
+ *  Run with: mvn test -Dtest=ActivityLoadTest -DloadTest=true [-DloadTest.lifecycles=N] [-DloadTest.concurrency=N]
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+public class ActivityLoadTest {
+
+    private static final int LIFECYCLES = Integer.getInteger("loadTest.lifecycles", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("loadTest.concurrency", 64);
+    private static final int MAX_SYNTHETIC_TAGS = 50;
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final Logger logger = message -> { };
+
+    @Test
+    public void testConcurrentLifecycles() throws InterruptedException {
+        final FakeServiceBehavior behavior = new FakeServiceBehavior()
+                .withDefaultLatency(FakeServiceBehavior.LatencyDistribution.logNormal(15, 0.5));
+        final List<ContractTestInputs> contractTestInputs = ContractTestInputs.load();
+        final LoadTestHarness harness = new LoadTestHarness(CONCURRENCY);
+
+        final LoadTestHarness.Report report;
+        try (InMemoryServices services = InMemoryServices.install(behavior)) {
+            report = harness.run(LIFECYCLES, index -> {
+                // Alternate between the contract test inputs and synthetic inputs
+                final ContractTestInputs.Instance inputs = contractTestInputs.get(index / 2 % contractTestInputs.size())
+                        .instantiate(Collections.emptyMap());
+                final ResourceModel createModel = index % 2 == 0 ? inputs.getCreateModel(ResourceModel.class) : getSyntheticModel(index, index);
+                final ResourceModel updateModel = index % 2 == 0 ? inputs.getUpdateModel(ResourceModel.class) : getSyntheticModel(index, index + LIFECYCLES);
+                runLifecycle(harness, createModel, updateModel);
+            });
+        }
+
+        System.out.println(report);
+        assertThat(report.getErroredLifecycles()).isEqualTo(0);
+        assertThat(report.getFailures("Create")).isEqualTo(0);
+        assertThat(report.getCallbacks("Delete")).isEqualTo(LIFECYCLES);
+    }
+
+    void runLifecycle(final LoadTestHarness harness, final ResourceModel createModel, final ResourceModel updateModel) {
+        final ProgressEvent<ResourceModel, CallbackContext> createEvent = harness.invoke("Create", context ->
+                new CreateHandler().handleRequest(proxy, request(createModel, null), context, logger));
+        assertThat(createEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final String activityArn = createEvent.getResourceModel().getArn();
+
+        harness.invoke("Read", context ->
+                new ReadHandler().handleRequest(proxy, request(ResourceModel.builder().arn(activityArn).build(), null), context, logger));
+
+        updateModel.setArn(activityArn);
+        updateModel.setName(createModel.getName());
+        harness.invoke("Update", context ->
+                new UpdateHandler().handleRequest(proxy, request(updateModel, createEvent.getResourceModel()), context, logger));
+
+        harness.invoke("List", context ->
+                new ListHandler().handleRequest(proxy, request(new ResourceModel(), null), context, logger));
+
+        final ProgressEvent<ResourceModel, CallbackContext> deleteEvent = harness.invoke("Delete", context ->
+                new DeleteHandler().handleRequest(proxy, request(ResourceModel.builder().arn(activityArn).build(), null), context, logger));
+        assertThat(deleteEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+    }
+
+    // Synthetic inputs vary the number of tags, which drives the size of the tagging requests
+    static ResourceModel getSyntheticModel(final int index, final long seed) {
+        final Random random = new Random(seed);
+        final int tagCount = random.nextInt(MAX_SYNTHETIC_TAGS + 1);
+        final List<TagsEntry> tags = new ArrayList<>();
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(new TagsEntry("Key" + i, "Value" + random.nextInt(10)));
+        }
+        return ResourceModel.builder()
+                .name("LoadTestActivity-" + index)
+                .tags(tags)
+                .build();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model, final ResourceModel previousModel) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .region(InMemoryServices.REGION)
+                .awsAccountId(InMemoryServices.AWS_ACCOUNT_ID)
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+    }
+}
@@ -15,11 +15,15 @@ import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.function.Function;
 
 import static com.amazonaws.stepfunctions.cloudformation.activity.Constants.ACCESS_DENIED_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.activity.Constants.ACTIVITY_DOES_NOT_EXIST_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.activity.Constants.THROTTLING_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.TAGS_PROVIDED;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(MockitoExtension.class)
@@ -144,4 +148,35 @@ public class CreateHandlerTest extends HandlerTestBase {
         assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.InternalFailure);
     }
 
+    @Test
+    public void testLogsCorrectOperationStatus_Success() {
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(CreateActivityRequest.class), Mockito.any(Function.class)))
+                .thenReturn(new CreateActivityResult().withActivityArn(ACTIVITY_ARN));
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey).doesNotContain(TAGS_PROVIDED.loggingKey);
+    }
+
+    @Test
+    public void testLogsCorrectOperationStatus_Failure() {
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(CreateActivityRequest.class), Mockito.any(Function.class))).thenThrow(exception500);
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey);
+    }
+
+    @Test
+    public void testLogsTagsProvided_whenTagsInModel() {
+        request.getDesiredResourceState().setTags(Collections.singletonList(new TagsEntry("Key", "Value")));
+
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(CreateActivityRequest.class), Mockito.any(Function.class)))
+                .thenReturn(new CreateActivityResult().withActivityArn(ACTIVITY_ARN));
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, TAGS_PROVIDED.loggingKey);
+    }
+
 }
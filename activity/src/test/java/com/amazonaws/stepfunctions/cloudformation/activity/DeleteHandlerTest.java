@@ -15,6 +15,10 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.util.function.Function;
 
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.STABILIZATION_POLL_COUNT;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(MockitoExtension.class)
@@ -129,4 +133,33 @@ public class DeleteHandlerTest extends HandlerTestBase {
         assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotFound);
     }
 
+    @Test
+    public void testLogsExistenceCheckCallCount_thenStabilizationPollCount() {
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class)))
+                .thenReturn(new DescribeActivityResult());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString())
+                .contains(OPERATION_SUCCESS.loggingKey, EXISTENCE_CHECK_CALL_COUNT.loggingKey + ": 1")
+                .doesNotContain(STABILIZATION_POLL_COUNT.loggingKey);
+
+        handler.handleRequest(proxy, request, response.getCallbackContext(), logger);
+
+        assertThat(getMetricsString())
+                .contains(OPERATION_SUCCESS.loggingKey, STABILIZATION_POLL_COUNT.loggingKey + ": 1")
+                .doesNotContain(EXISTENCE_CHECK_CALL_COUNT.loggingKey);
+    }
+
+    @Test
+    public void testLogsCorrectOperationStatus_Failure() {
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class)))
+                .thenThrow(activityDoesNotExistException);
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey, EXISTENCE_CHECK_CALL_COUNT.loggingKey + ": 1");
+    }
+
 }
@@ -0,0 +1,190 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.AbstractAWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.ActivityDoesNotExistException;
+import com.amazonaws.services.stepfunctions.model.ActivityListItem;
+import com.amazonaws.services.stepfunctions.model.CreateActivityRequest;
+import com.amazonaws.services.stepfunctions.model.CreateActivityResult;
+import com.amazonaws.services.stepfunctions.model.DeleteActivityRequest;
+import com.amazonaws.services.stepfunctions.model.DeleteActivityResult;
+import com.amazonaws.services.stepfunctions.model.DescribeActivityRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeActivityResult;
+import com.amazonaws.services.stepfunctions.model.InvalidTokenException;
+import com.amazonaws.services.stepfunctions.model.ListActivitiesRequest;
+import com.amazonaws.services.stepfunctions.model.ListActivitiesResult;
+import com.amazonaws.services.stepfunctions.model.ListTagsForResourceRequest;
+import com.amazonaws.services.stepfunctions.model.ListTagsForResourceResult;
+import com.amazonaws.services.stepfunctions.model.ResourceNotFoundException;
+import com.amazonaws.services.stepfunctions.model.Tag;
+import com.amazonaws.services.stepfunctions.model.TagResourceRequest;
+import com.amazonaws.services.stepfunctions.model.TagResourceResult;
+import com.amazonaws.services.stepfunctions.model.UntagResourceRequest;
+import com.amazonaws.services.stepfunctions.model.UntagResourceResult;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ *  Stateful in-memory implementation of the Step Functions activity and tagging APIs used by the handlers.
+ *  Every call first goes through the FakeServiceBehavior, which applies the configured latency and throttling.
+ */
+public class FakeStepFunctions extends AbstractAWSStepFunctions {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final FakeServiceBehavior behavior;
+    private final String region;
+    private final String accountId;
+    private final NavigableMap<String, StoredActivity> activities = new TreeMap<>();
+
+    public FakeStepFunctions(final FakeServiceBehavior behavior, final String region, final String accountId) {
+        this.behavior = behavior;
+        this.region = region;
+        this.accountId = accountId;
+    }
+
+    @Override
+    public CreateActivityResult createActivity(final CreateActivityRequest request) {
+        behavior.onCall("CreateActivity");
+        synchronized (this) {
+            final String activityArn = String.format("arn:aws:states:%s:%s:activity:%s", region, accountId, request.getName());
+            // CreateActivity is idempotent, creating an existing activity returns it
+            final StoredActivity activity = activities.computeIfAbsent(activityArn, arn -> new StoredActivity(request.getName()));
+            if (request.getTags() != null) {
+                request.getTags().forEach(tag -> activity.tags.put(tag.getKey(), tag.getValue()));
+            }
+            return new CreateActivityResult()
+                    .withActivityArn(activityArn)
+                    .withCreationDate(activity.creationDate);
+        }
+    }
+
+    @Override
+    public DescribeActivityResult describeActivity(final DescribeActivityRequest request) {
+        behavior.onCall("DescribeActivity");
+        synchronized (this) {
+            final StoredActivity activity = activities.get(request.getActivityArn());
+            if (activity == null) {
+                throw serviceException(new ActivityDoesNotExistException("Activity does not exist: " + request.getActivityArn()),
+                        Constants.ACTIVITY_DOES_NOT_EXIST_ERROR_CODE);
+            }
+            return new DescribeActivityResult()
+                    .withActivityArn(request.getActivityArn())
+                    .withName(activity.name)
+                    .withCreationDate(activity.creationDate);
+        }
+    }
+
+    @Override
+    public DeleteActivityResult deleteActivity(final DeleteActivityRequest request) {
+        behavior.onCall("DeleteActivity");
+        synchronized (this) {
+            activities.remove(request.getActivityArn());
+            return new DeleteActivityResult();
+        }
+    }
+
+    @Override
+    public ListActivitiesResult listActivities(final ListActivitiesRequest request) {
+        behavior.onCall("ListActivities");
+        synchronized (this) {
+            final List<ActivityListItem> page = new ArrayList<>();
+            final String nextToken = getPage(activities, request.getNextToken(), request.getMaxResults(), (arn, activity) ->
+                    page.add(new ActivityListItem().withActivityArn(arn).withName(activity.name).withCreationDate(activity.creationDate))
+            );
+            return new ListActivitiesResult()
+                    .withActivities(page)
+                    .withNextToken(nextToken);
+        }
+    }
+
+    @Override
+    public TagResourceResult tagResource(final TagResourceRequest request) {
+        behavior.onCall("TagResource");
+        synchronized (this) {
+            request.getTags().forEach(tag -> getTaggedActivity(request.getResourceArn()).tags.put(tag.getKey(), tag.getValue()));
+            return new TagResourceResult();
+        }
+    }
+
+    @Override
+    public UntagResourceResult untagResource(final UntagResourceRequest request) {
+        behavior.onCall("UntagResource");
+        synchronized (this) {
+            getTaggedActivity(request.getResourceArn()).tags.keySet().removeAll(request.getTagKeys());
+            return new UntagResourceResult();
+        }
+    }
+
+    @Override
+    public ListTagsForResourceResult listTagsForResource(final ListTagsForResourceRequest request) {
+        behavior.onCall("ListTagsForResource");
+        synchronized (this) {
+            return new ListTagsForResourceResult().withTags(
+                    getTaggedActivity(request.getResourceArn()).tags.entrySet().stream()
+                            .map(tag -> new Tag().withKey(tag.getKey()).withValue(tag.getValue()))
+                            .collect(Collectors.toList())
+            );
+        }
+    }
+
+    public synchronized int getActivityCount() {
+        return activities.size();
+    }
+
+    private StoredActivity getTaggedActivity(final String resourceArn) {
+        final StoredActivity activity = activities.get(resourceArn);
+        if (activity == null) {
+            throw serviceException(new ResourceNotFoundException("Resource not found: " + resourceArn), Constants.RESOURCE_NOT_FOUND_ERROR_CODE);
+        }
+        return activity;
+    }
+
+    // Pages are keyed by ARN, and the next token is the last ARN of the current page
+    private static <T> String getPage(final NavigableMap<String, T> resources, final String nextToken, final Integer maxResults,
+                                      final BiConsumer<String, T> pageConsumer) {
+        if (nextToken != null && !resources.containsKey(nextToken)) {
+            throw serviceException(new InvalidTokenException("Invalid token: " + nextToken), Constants.INVALID_TOKEN);
+        }
+        final int pageSize = maxResults == null || maxResults == 0 ? DEFAULT_PAGE_SIZE : maxResults;
+        final NavigableMap<String, T> remaining = nextToken == null ? resources : resources.tailMap(nextToken, false);
+
+        String lastKey = null;
+        int count = 0;
+        for (final Map.Entry<String, T> entry : remaining.entrySet()) {
+            if (count == pageSize) {
+                return lastKey;
+            }
+            pageConsumer.accept(entry.getKey(), entry.getValue());
+            lastKey = entry.getKey();
+            count++;
+        }
+        return null;
+    }
+
+    private static <T extends AmazonServiceException> T serviceException(final T exception, final String errorCode) {
+        exception.setStatusCode(400);
+        exception.setErrorCode(errorCode);
+        exception.setErrorType(AmazonServiceException.ErrorType.Client);
+        return exception;
+    }
+
+    private static class StoredActivity {
+        private final String name;
+        private final Date creationDate = new Date();
+        private final Map<String, String> tags = new LinkedHashMap<>();
+
+        private StoredActivity(final String name) {
+            this.name = name;
+        }
+    }
+}
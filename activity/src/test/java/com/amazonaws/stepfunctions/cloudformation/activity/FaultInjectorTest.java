@@ -0,0 +1,88 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.ListActivitiesRequest;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FaultInjector;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.RetryingClient;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+public class FaultInjectorTest {
+
+    private static final RetryPolicy.BackoffStrategy NO_BACKOFF = (request, e, retriesAttempted) -> 0L;
+
+    private final FakeStepFunctions fakeClient = new FakeStepFunctions(new FakeServiceBehavior(), InMemoryServices.REGION, InMemoryServices.AWS_ACCOUNT_ID);
+
+    @Test
+    public void testNoFaults() {
+        final FaultInjector faultInjector = new FaultInjector();
+        final RetryingClient retryingClient = new RetryingClient(ClientBuilder.getRetryPolicy());
+        final AWSStepFunctions client = retryingClient.wrap(AWSStepFunctions.class, faultInjector.wrap(AWSStepFunctions.class, fakeClient));
+
+        assertThat(client.listActivities(new ListActivitiesRequest()).getActivities()).isEmpty();
+        assertThat(retryingClient.getCallCount()).isEqualTo(1);
+        assertThat(faultInjector.getAttemptCount()).isEqualTo(1);
+        assertThat(faultInjector.getTotalFaultCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRetriesThrottlingAndServerErrors() {
+        for (final FaultInjector.Fault fault : new FaultInjector.Fault[] {FaultInjector.Fault.THROTTLING, FaultInjector.Fault.SERVER_ERROR}) {
+            final FaultInjector faultInjector = new FaultInjector().withFaultRate(fault, 1);
+            final RetryingClient retryingClient = new RetryingClient(new RetryPolicy(PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION, NO_BACKOFF, 3, false));
+            final AWSStepFunctions client = retryingClient.wrap(AWSStepFunctions.class, faultInjector.wrap(AWSStepFunctions.class, fakeClient));
+
+            final AmazonServiceException exception = catchThrowableOfType(
+                    () -> client.listActivities(new ListActivitiesRequest()), AmazonServiceException.class);
+
+            assertThat(exception.getErrorCode()).isEqualTo(fault.toException().getErrorCode());
+            assertThat(retryingClient.getRetryCount()).isEqualTo(3);
+            assertThat(faultInjector.getFaultCount(fault)).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void testDoesNotRetryAccessDenied() {
+        final FaultInjector faultInjector = new FaultInjector().withFaultRate(FaultInjector.Fault.MANAGED_RULE_ACCESS_DENIED, 1);
+        final RetryingClient retryingClient = new RetryingClient(ClientBuilder.getRetryPolicy());
+        final AWSStepFunctions client = retryingClient.wrap(AWSStepFunctions.class, faultInjector.wrap(AWSStepFunctions.class, fakeClient));
+
+        catchThrowableOfType(() -> client.listActivities(new ListActivitiesRequest()), AmazonServiceException.class);
+
+        assertThat(retryingClient.getRetryCount()).isEqualTo(0);
+        assertThat(faultInjector.getAttemptCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDoesNotRetryWithoutRetries() {
+        final FaultInjector faultInjector = new FaultInjector().withFaultRate(FaultInjector.Fault.THROTTLING, 1);
+        final RetryingClient retryingClient = new RetryingClient(new RetryPolicy(PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION, NO_BACKOFF, 0, false));
+        final AWSStepFunctions client = retryingClient.wrap(AWSStepFunctions.class, faultInjector.wrap(AWSStepFunctions.class, fakeClient));
+
+        catchThrowableOfType(() -> client.listActivities(new ListActivitiesRequest()), AmazonServiceException.class);
+
+        assertThat(retryingClient.getRetryCount()).isEqualTo(0);
+        assertThat(faultInjector.getAttemptCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRecoversFromIntermittentFaults() {
+        final FaultInjector faultInjector = new FaultInjector(42L).withFaultRate(FaultInjector.Fault.SERVER_ERROR, 0.5);
+        final RetryingClient retryingClient = new RetryingClient(new RetryPolicy(PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION, NO_BACKOFF, 50, false));
+        final AWSStepFunctions client = retryingClient.wrap(AWSStepFunctions.class, faultInjector.wrap(AWSStepFunctions.class, fakeClient));
+
+        for (int i = 0; i < 20; i++) {
+            client.listActivities(new ListActivitiesRequest());
+        }
+
+        assertThat(retryingClient.getCallCount()).isEqualTo(20);
+        assertThat(faultInjector.getAttemptCount()).isEqualTo(20 + retryingClient.getRetryCount());
+        assertThat(faultInjector.getTotalFaultCount()).isEqualTo(retryingClient.getRetryCount());
+    }
+}
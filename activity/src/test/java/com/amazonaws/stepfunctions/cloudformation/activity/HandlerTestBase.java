@@ -1,12 +1,21 @@
 package com.amazonaws.stepfunctions.cloudformation.activity;
 
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicSessionCredentials;
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
 import com.amazonaws.services.stepfunctions.model.AWSStepFunctionsException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 
+import java.util.List;
+
 public abstract class HandlerTestBase {
 
     protected final static AmazonServiceException exception500 = new AmazonServiceException("Server error");
@@ -23,6 +32,10 @@ public abstract class HandlerTestBase {
     protected final static AmazonServiceException accessDeniedException = new AmazonServiceException("");
     protected final static String AWS_ACCOUNT_ID = "1234567890";
     protected final static String REGION = "us-east-1";
+    protected final static AWSCredentialsProvider CALLER_CREDENTIALS = new AWSStaticCredentialsProvider(
+            new BasicSessionCredentials("ASIACALLER", "secretKey", "sessionToken"));
+    protected final static AWSCredentialsProvider OTHER_CALLER_CREDENTIALS = new AWSStaticCredentialsProvider(
+            new BasicSessionCredentials("ASIAOTHERCALLER", "secretKey", "sessionToken"));
     protected final static String ACTIVITY_NAME = "TestActivity";
     protected final static String ACTIVITY_ARN = "arn:aws:states:us-east-1:1234567890:activity:TestActivity";
 
@@ -49,4 +62,20 @@ public abstract class HandlerTestBase {
     @Mock
     protected Logger logger;
 
+    // Answers like the proxy, which injects the caller's credentials into the requests it sends
+    protected static Answer<Object> withCredentials(final AWSCredentialsProvider credentialsProvider, final Object result) {
+        return invocation -> {
+            invocation.<AmazonWebServiceRequest>getArgument(0).setRequestCredentialsProvider(credentialsProvider);
+            return result;
+        };
+    }
+
+    // The metrics string is the last line each handler logs
+    protected String getMetricsString() {
+        final ArgumentCaptor<String> argumentCaptor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(logger, Mockito.atLeastOnce()).log(argumentCaptor.capture());
+        final List<String> loggedStrings = argumentCaptor.getAllValues();
+        return loggedStrings.get(loggedStrings.size() - 1);
+    }
+
 }
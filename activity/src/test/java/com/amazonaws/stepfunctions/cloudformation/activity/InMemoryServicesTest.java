@@ -0,0 +1,137 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class InMemoryServicesTest {
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final Logger logger = mock(Logger.class);
+    private FakeServiceBehavior behavior;
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        behavior = new FakeServiceBehavior();
+        services = InMemoryServices.install(behavior);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        services.close();
+    }
+
+    @Test
+    public void testActivityLifecycle() {
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestActivity")
+                .tags(Collections.singletonList(new TagsEntry("Key", "Value")))
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> createResponse = new CreateHandler().handleRequest(proxy, request(model), null, logger);
+        assertThat(createResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final String activityArn = createResponse.getResourceModel().getArn();
+
+        final ProgressEvent<ResourceModel, CallbackContext> readResponse = new ReadHandler().handleRequest(
+                proxy, request(ResourceModel.builder().arn(activityArn).build()), null, logger);
+        assertThat(readResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(readResponse.getResourceModel().getName()).isEqualTo("TestActivity");
+        assertThat(readResponse.getResourceModel().getTags()).containsExactly(new TagsEntry("Key", "Value"));
+
+        final ProgressEvent<ResourceModel, CallbackContext> listResponse = new ListHandler().handleRequest(
+                proxy, request(ResourceModel.builder().build()), null, logger);
+        assertThat(listResponse.getResourceModels()).hasSize(1);
+
+        final ProgressEvent<ResourceModel, CallbackContext> deleteResponse = new DeleteHandler().handleRequest(
+                proxy, request(ResourceModel.builder().arn(activityArn).build()), null, logger);
+        assertThat(deleteResponse.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(services.getSfnClient().getActivityCount()).isEqualTo(0);
+
+        final ProgressEvent<ResourceModel, CallbackContext> readAfterDeleteResponse = new ReadHandler().handleRequest(
+                proxy, request(ResourceModel.builder().arn(activityArn).build()), null, logger);
+        assertThat(readAfterDeleteResponse.getErrorCode()).isEqualTo(HandlerErrorCode.NotFound);
+    }
+
+    @Test
+    public void testListActivities_paginatesThroughAllActivities() {
+        for (int i = 0; i < 150; i++) {
+            new CreateHandler().handleRequest(proxy, request(ResourceModel.builder().name("Activity" + i).build()), null, logger);
+        }
+
+        final ProgressEvent<ResourceModel, CallbackContext> firstPage = new ListHandler().handleRequest(
+                proxy, request(ResourceModel.builder().build()), null, logger);
+        assertThat(firstPage.getResourceModels()).hasSize(100);
+        assertThat(firstPage.getNextToken()).isNotNull();
+
+        final ResourceHandlerRequest<ResourceModel> secondPageRequest = request(ResourceModel.builder().build());
+        secondPageRequest.setNextToken(firstPage.getNextToken());
+        final ProgressEvent<ResourceModel, CallbackContext> secondPage = new ListHandler().handleRequest(proxy, secondPageRequest, null, logger);
+        assertThat(secondPage.getResourceModels()).hasSize(50);
+        assertThat(secondPage.getNextToken()).isNull();
+    }
+
+    @Test
+    public void testListActivities_hydratesListedActivitiesWhenEnabled() {
+        new CreateHandler().handleRequest(proxy, request(ResourceModel.builder()
+                .name("Tagged").tags(Collections.singletonList(new TagsEntry("Key", "Value"))).build()), null, logger);
+        new CreateHandler().handleRequest(proxy, request(ResourceModel.builder().name("Untagged").build()), null, logger);
+
+        ListHydrator.setEnabled(true);
+        final ProgressEvent<ResourceModel, CallbackContext> response;
+        try {
+            response = new ListHandler().handleRequest(proxy, request(ResourceModel.builder().build()), null, logger);
+        } finally {
+            ListHydrator.setEnabled(false);
+        }
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getName).containsExactly("Tagged", "Untagged");
+        assertThat(response.getResourceModels().get(0).getTags()).containsExactly(new TagsEntry("Key", "Value"));
+        assertThat(response.getResourceModels().get(1).getTags()).isEmpty();
+        assertThat(behavior.getCallCount("DescribeActivity")).isEqualTo(2);
+    }
+
+    @Test
+    public void testThrottleRate_returnsThrottlingError() {
+        behavior.withThrottleRate("CreateActivity", 1.0);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = new CreateHandler().handleRequest(
+                proxy, request(ResourceModel.builder().name("TestActivity").build()), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.Throttling);
+        assertThat(behavior.getThrottleCount("CreateActivity")).isEqualTo(1);
+    }
+
+    @Test
+    public void testLatency_delaysEachCall() {
+        behavior.withLatency("CreateActivity", FakeServiceBehavior.LatencyDistribution.fixed(50));
+
+        final long start = System.nanoTime();
+        new CreateHandler().handleRequest(proxy, request(ResourceModel.builder().name("TestActivity").build()), null, logger);
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50_000_000L);
+        assertThat(behavior.getCallCount("CreateActivity")).isEqualTo(1);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .region(InMemoryServices.REGION)
+                .awsAccountId(InMemoryServices.AWS_ACCOUNT_ID)
+                .desiredResourceState(model)
+                .build();
+    }
+}
@@ -2,33 +2,50 @@ package com.amazonaws.stepfunctions.cloudformation.activity;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.stepfunctions.model.ActivityListItem;
+import com.amazonaws.services.stepfunctions.model.DescribeActivityRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeActivityResult;
 import com.amazonaws.services.stepfunctions.model.ListActivitiesRequest;
 import com.amazonaws.services.stepfunctions.model.ListActivitiesResult;
+import com.amazonaws.services.stepfunctions.model.ListTagsForResourceRequest;
+import com.amazonaws.services.stepfunctions.model.ListTagsForResourceResult;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.function.Function;
 
 import static com.amazonaws.stepfunctions.cloudformation.activity.Constants.ACCESS_DENIED_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.activity.Constants.INVALID_TOKEN;
 import static com.amazonaws.stepfunctions.cloudformation.activity.Constants.THROTTLING_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.LIST_HYDRATED;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.LIST_HYDRATION_PARTIAL;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_SUCCESS;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(MockitoExtension.class)
 public class ListHandlerTest extends HandlerTestBase {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final List<Integer> requestedPageSizes = new ArrayList<>();
+
     private ListHandler handler = new ListHandler();
 
     @Mock
@@ -50,6 +67,12 @@ public class ListHandlerTest extends HandlerTestBase {
                 .build();
     }
 
+    @AfterEach
+    public void tearDown() {
+        PageCoalescer.setEnabled(false);
+        ListHydrator.setEnabled(false);
+    }
+
     @Test
     public void testSuccess() {
         final ResourceModel expectedModel = ResourceModel.builder()
@@ -137,6 +160,122 @@ public class ListHandlerTest extends HandlerTestBase {
         assertFailure(exception500.getMessage(), HandlerErrorCode.ServiceInternalError);
     }
 
+    @Test
+    public void testCoalescing_followsEveryPageInOneInvocation() {
+        PageCoalescer.setEnabled(true);
+        when(proxy.injectCredentialsAndInvoke(any(ListActivitiesRequest.class), any(Function.class))).thenAnswer(pagesOf(PAGE_SIZE, PAGE_SIZE * 3));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(PAGE_SIZE * 3);
+        assertThat(response.getNextToken()).isNull();
+        // Every page is requested at the service's maximum page size
+        assertThat(requestedPageSizes).containsExactly(Constants.LIST_MAX_PAGE_SIZE, Constants.LIST_MAX_PAGE_SIZE, Constants.LIST_MAX_PAGE_SIZE);
+    }
+
+    @Test
+    public void testCoalescing_sizesTheLastRequestToTheItemBudget() {
+        PageCoalescer.setEnabled(true);
+        // Pages hold fewer items than the maximum page size, so less than a page is left of the item budget for the last request
+        final int itemsPerPage = Constants.LIST_MAX_PAGE_SIZE - 1;
+        when(proxy.injectCredentialsAndInvoke(any(ListActivitiesRequest.class), any(Function.class)))
+                .thenAnswer(pagesOf(itemsPerPage, Constants.LIST_COALESCING_MAX_ITEMS * 2));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        final int fullPageCount = Constants.LIST_COALESCING_MAX_ITEMS / itemsPerPage;
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(Constants.LIST_COALESCING_MAX_ITEMS);
+        assertThat(requestedPageSizes).hasSize(fullPageCount + 1);
+        assertThat(requestedPageSizes.get(fullPageCount)).isEqualTo(Constants.LIST_COALESCING_MAX_ITEMS - fullPageCount * itemsPerPage);
+        // The token of the last page fetched is returned, so the next invocation starts right after it
+        assertThat(response.getNextToken()).isEqualTo(String.valueOf(Constants.LIST_COALESCING_MAX_ITEMS));
+    }
+
+    @Test
+    public void testCoalescingDisabled_fetchesSinglePageOfDefaultSize() {
+        PageCoalescer.setEnabled(false);
+        when(proxy.injectCredentialsAndInvoke(any(ListActivitiesRequest.class), any(Function.class))).thenAnswer(pagesOf(PAGE_SIZE, PAGE_SIZE * 3));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(PAGE_SIZE);
+        assertThat(response.getNextToken()).isEqualTo(String.valueOf(PAGE_SIZE));
+        assertThat(requestedPageSizes).containsExactly((Integer) null);
+    }
+
+    @Test
+    public void testLogsCorrectOperationStatus_Success() {
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListActivitiesRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(pagesOf(PAGE_SIZE, PAGE_SIZE));
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey).doesNotContain(LIST_HYDRATED.loggingKey);
+    }
+
+    @Test
+    public void testLogsCorrectOperationStatus_Failure() {
+        createAndMockAmazonServiceException(THROTTLING_ERROR_CODE);
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey);
+    }
+
+    @Test
+    public void testHydration_logsListHydrated() {
+        ListHydrator.setEnabled(true);
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListActivitiesRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(pagesOf(PAGE_SIZE, 2));
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class)))
+                .thenReturn(new DescribeActivityResult().withActivityArn(ACTIVITY_ARN).withName(ACTIVITY_NAME));
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class)))
+                .thenReturn(new ListTagsForResourceResult());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getResourceModels()).hasSize(2);
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, LIST_HYDRATED.loggingKey)
+                .doesNotContain(LIST_HYDRATION_PARTIAL.loggingKey);
+    }
+
+    @Test
+    public void testHydration_logsListHydrationPartial_whenItemsCannotBeDescribed() {
+        ListHydrator.setEnabled(true);
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListActivitiesRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(pagesOf(PAGE_SIZE, 2));
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class)))
+                .thenThrow(exception500);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        // The items that could not be hydrated keep their listed properties
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(2);
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, LIST_HYDRATED.loggingKey, LIST_HYDRATION_PARTIAL.loggingKey);
+    }
+
+    // Pages of at most itemsPerPage items, whose tokens are the index of their first item
+    private Answer<ListActivitiesResult> pagesOf(final int itemsPerPage, final int itemCount) {
+        return invocation -> {
+            final ListActivitiesRequest listRequest = invocation.getArgument(0);
+            requestedPageSizes.add(listRequest.getMaxResults());
+            final int first = listRequest.getNextToken() == null ? 0 : Integer.parseInt(listRequest.getNextToken());
+            final int pageSize = listRequest.getMaxResults() == null ? itemsPerPage : Math.min(itemsPerPage, listRequest.getMaxResults());
+            final int end = Math.min(itemCount, first + pageSize);
+            final List<ActivityListItem> activities = new ArrayList<>();
+            for (int i = first; i < end; i++) {
+                activities.add(new ActivityListItem().withActivityArn(ACTIVITY_ARN + i).withName(ACTIVITY_NAME + i));
+            }
+            return new ListActivitiesResult()
+                    .withActivities(activities)
+                    .withNextToken(end < itemCount ? String.valueOf(end) : null);
+        };
+    }
+
     private AmazonServiceException createAndMockAmazonServiceException(final String errorCode) {
         final AmazonServiceException amazonServiceException = new AmazonServiceException(errorCode);
         amazonServiceException.setStatusCode(400);
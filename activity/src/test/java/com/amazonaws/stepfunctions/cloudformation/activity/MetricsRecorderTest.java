@@ -0,0 +1,49 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsRecorderTest {
+
+    @Test
+    public void testDefaultRecorder_listsOperationOnly() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.UPDATE);
+
+        assertThat(metricsRecorder.generateMetricsString()).isEqualTo("METRICS - OperationType: UPDATE, OperationStatus: FAILURE, ");
+    }
+
+    @Test
+    public void testTagsProvided() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setMetricsFromResourceModel(ResourceModel.builder()
+                .tags(Collections.singletonList(new TagsEntry("Key", "Value")))
+                .build());
+        metricsRecorder.setOperationSuccessful(true);
+
+        assertThat(metricsRecorder.generateMetricsString()).isEqualTo("METRICS - OperationType: CREATE, OperationStatus: SUCCESS, TagsProvided");
+    }
+
+    @Test
+    public void testEmptyTags_areNotListed() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setMetricsFromResourceModel(ResourceModel.builder().tags(Collections.emptyList()).build());
+
+        assertThat(metricsRecorder.isSet(MetricsLoggingKeys.TAGS_PROVIDED)).isFalse();
+    }
+
+    @Test
+    public void testCountsPrecedeProperties() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.LIST);
+        metricsRecorder.incrementExistenceCheckCallCount();
+        metricsRecorder.incrementExistenceCheckCallCount();
+        metricsRecorder.setListHydrated(true);
+        metricsRecorder.setListHydrationPartial(true);
+
+        assertThat(metricsRecorder.getValue(MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT)).isEqualTo(2);
+        assertThat(metricsRecorder.generateMetricsString()).isEqualTo("METRICS - OperationType: LIST, OperationStatus: FAILURE, "
+                + "ExistenceCheckCallCount: 2, ListHydrated, ListHydrationPartial");
+    }
+}
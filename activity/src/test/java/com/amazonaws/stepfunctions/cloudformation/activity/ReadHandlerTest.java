@@ -2,22 +2,32 @@ package com.amazonaws.stepfunctions.cloudformation.activity;
 
 import com.amazonaws.services.stepfunctions.model.DescribeActivityRequest;
 import com.amazonaws.services.stepfunctions.model.DescribeActivityResult;
+import com.amazonaws.services.stepfunctions.model.ListTagsForResourceRequest;
 import com.amazonaws.services.stepfunctions.model.ListTagsForResourceResult;
 import com.amazonaws.services.stepfunctions.model.Tag;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.TAGS_EXCLUDED;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +50,13 @@ public class ReadHandlerTest extends HandlerTestBase {
                 .build();
     }
 
+    @AfterEach
+    public void tearDown() {
+        AccessDeniedCache.clear();
+        HedgedInvoker.setEnabled(false);
+        HedgedInvoker.reset();
+    }
+
     @Test
     public void testSuccess() {
         final DescribeActivityResult describeActivityResult = new DescribeActivityResult();
@@ -141,4 +158,177 @@ public class ReadHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).contains(Constants.ACTIVITY_ARN_NOT_FOUND_MESSAGE);
     }
 
+    @Test
+    public void testSkipsListTagsForResource_whenRecentlyDeniedToSameCredentials() {
+        final DescribeActivityResult describeActivityResult = new DescribeActivityResult();
+        describeActivityResult.setName(ACTIVITY_NAME);
+        describeActivityResult.setActivityArn(ACTIVITY_ARN);
+
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(withCredentials(CALLER_CREDENTIALS, describeActivityResult));
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class)))
+                .thenThrow(accessDeniedException);
+
+        handler.handleRequest(proxy, request, null, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(new ResourceModel(ACTIVITY_ARN, ACTIVITY_NAME, null));
+        Mockito.verify(proxy, Mockito.times(1))
+                .injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class));
+    }
+
+    @Test
+    public void testCallsListTagsForResource_whenDeniedToOtherCredentials() {
+        final DescribeActivityResult describeActivityResult = new DescribeActivityResult();
+        describeActivityResult.setName(ACTIVITY_NAME);
+        describeActivityResult.setActivityArn(ACTIVITY_ARN);
+
+        // Both callers are in the same stack, but only the first one is denied
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(withCredentials(CALLER_CREDENTIALS, describeActivityResult))
+                .thenAnswer(withCredentials(OTHER_CALLER_CREDENTIALS, describeActivityResult));
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class)))
+                .thenThrow(accessDeniedException)
+                .thenReturn(new ListTagsForResourceResult().withTags(new Tag().withKey("Key").withValue("Value")));
+
+        handler.handleRequest(proxy, request, null, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getResourceModel().getTags()).hasSize(1);
+        Mockito.verify(proxy, Mockito.times(2))
+                .injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class));
+    }
+
+    @Test
+    public void testCallsListTagsForResource_whenDeniedWithoutCredentials() {
+        final DescribeActivityResult describeActivityResult = new DescribeActivityResult();
+        describeActivityResult.setName(ACTIVITY_NAME);
+        describeActivityResult.setActivityArn(ACTIVITY_ARN);
+
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class)))
+                .thenReturn(describeActivityResult);
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class)))
+                .thenThrow(accessDeniedException);
+
+        handler.handleRequest(proxy, request, null, logger);
+        handler.handleRequest(proxy, request, null, logger);
+
+        Mockito.verify(proxy, Mockito.times(2))
+                .injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class));
+    }
+
+    @Test
+    public void testLogsCorrectOperationStatus_Success() {
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(), Mockito.any(Function.class)))
+                .thenReturn(new DescribeActivityResult().withActivityArn(ACTIVITY_ARN).withName(ACTIVITY_NAME))
+                .thenReturn(new ListTagsForResourceResult());
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey).doesNotContain(TAGS_EXCLUDED.loggingKey);
+    }
+
+    @Test
+    public void testLogsCorrectOperationStatus_Failure() {
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class),
+                Mockito.any(Function.class))).thenThrow(exception500);
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey);
+    }
+
+    @Test
+    public void testLogsTagsExcluded_whenListTagsForResourceThrowsAccessDenied() {
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(), Mockito.any(Function.class)))
+                .thenReturn(new DescribeActivityResult().withActivityArn(ACTIVITY_ARN).withName(ACTIVITY_NAME))
+                .thenThrow(accessDeniedException);
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, TAGS_EXCLUDED.loggingKey);
+    }
+
+    @Test
+    public void testHedgingEnabled_slowDescribeActivityIsHedged() {
+        final DescribeActivityResult describeActivityResult = new DescribeActivityResult();
+        describeActivityResult.setName(ACTIVITY_NAME);
+        describeActivityResult.setActivityArn(ACTIVITY_ARN);
+
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(slowUntilHedged(invocation -> describeActivityResult));
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class)))
+                .thenReturn(new ListTagsForResourceResult().withTags(new Tag().withKey("Key").withValue("Value")));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = readWithHedgingEnabled();
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(new ResourceModel(ACTIVITY_ARN, ACTIVITY_NAME,
+                Collections.singletonList(new TagsEntry("Key", "Value"))));
+        // ListTagsForResource is hedged too when it happens to be slow, so only the describes are counted
+        assertThat(HedgedInvoker.getHedgeCount()).isPositive();
+        Mockito.verify(proxy, Mockito.times(Constants.HEDGE_MIN_SAMPLES + 2))
+                .injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class));
+    }
+
+    @Test
+    public void testHedgingEnabled_whenBothDescribeActivityAttemptsFail_thenReturnsFailed() {
+        final DescribeActivityResult describeActivityResult = new DescribeActivityResult();
+        describeActivityResult.setName(ACTIVITY_NAME);
+        describeActivityResult.setActivityArn(ACTIVITY_ARN);
+
+        // The warm-up reads succeed, both attempts of the hedged read fail
+        final AtomicInteger describeCount = new AtomicInteger();
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(slowUntilHedged(invocation -> {
+                    if (describeCount.incrementAndGet() > Constants.HEDGE_MIN_SAMPLES) {
+                        throw exception500;
+                    }
+                    return describeActivityResult;
+                }));
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class)))
+                .thenReturn(new ListTagsForResourceResult());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = readWithHedgingEnabled();
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getMessage()).isEqualTo(exception500.getMessage());
+        Mockito.verify(proxy, Mockito.times(Constants.HEDGE_MIN_SAMPLES + 2))
+                .injectCredentialsAndInvoke(Mockito.any(DescribeActivityRequest.class), Mockito.any(Function.class));
+    }
+
+    /**
+     * Reads the activity often enough for the hedge delay to be known, then returns the response of one more read
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> readWithHedgingEnabled() {
+        HedgedInvoker.reset();
+        HedgedInvoker.setEnabled(true);
+        for (int i = 0; i < Constants.HEDGE_MIN_SAMPLES; i++) {
+            assertThat(handler.handleRequest(proxy, request, null, logger).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        }
+        assertThat(HedgedInvoker.getHedgeCount()).isZero();
+        return handler.handleRequest(proxy, request, null, logger);
+    }
+
+    /**
+     * Answers the warm-up describes at once. The first attempt of the next describe only answers once its hedge
+     * has been sent, so that the read can only complete through the hedge.
+     */
+    private static Answer<Object> slowUntilHedged(final Answer<Object> answer) {
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch hedgeSent = new CountDownLatch(1);
+        return invocation -> {
+            final int attempt = attempts.incrementAndGet();
+            if (attempt == Constants.HEDGE_MIN_SAMPLES + 1) {
+                hedgeSent.await(10, TimeUnit.SECONDS);
+            } else if (attempt == Constants.HEDGE_MIN_SAMPLES + 2) {
+                hedgeSent.countDown();
+            }
+            return answer.answer(invocation);
+        };
+    }
+
 }
@@ -0,0 +1,191 @@
+package com.amazonaws.stepfunctions.cloudformation.activity;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracingTest {
+
+    private static final String CLIENT_REQUEST_TOKEN = "trace-token";
+    private static final String TRACE_PREFIX = Constants.TRACE_LOGGING_PREFIX + " - ";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final List<String> logLines = new ArrayList<>();
+    private final Logger logger = logLines::add;
+
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        services = InMemoryServices.install(new FakeServiceBehavior());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Tracing.setExporter(Tracing.Exporter.NONE, null);
+        services.close();
+    }
+
+    @Test
+    public void testDisabledTracingReturnsNoOpSpans() {
+        Tracing.setExporter(Tracing.Exporter.NONE, null);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = create("Untraced");
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(Tracing.span(Tracing.Phase.CREATE)).isSameAs(Tracing.span(Tracing.Phase.READ));
+        assertThat(logLines).noneMatch(line -> line.startsWith(TRACE_PREFIX));
+    }
+
+    @Test
+    public void testLoggerExporterLogsSpansOfTheInvocation() throws IOException {
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = create("Traced");
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("traceId").asText()).isEqualTo(CLIENT_REQUEST_TOKEN);
+        assertThat(trace.get("handler").asText()).isEqualTo("CreateHandler");
+        assertThat(trace.get("callback").asBoolean()).isFalse();
+        assertThat(trace.get("status").asText()).isEqualTo("SUCCESS");
+        assertThat(trace.get("droppedSpans").asInt()).isZero();
+        assertThat(getSpanNames(trace)).containsExactly("create");
+    }
+
+    @Test
+    public void testFailedInvocationIsTraced() throws IOException {
+        final String activityArn = create("Deleted").getResourceModel().getArn();
+        new DeleteHandler().handleRequest(proxy, request(ResourceModel.builder().arn(activityArn).build()), null, logger);
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = read(activityArn);
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.FAILED);
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("handler").asText()).isEqualTo("ReadHandler");
+        assertThat(trace.get("status").asText()).isEqualTo("FAILED");
+        assertThat(getSpanNames(trace)).containsExactly("read");
+    }
+
+    @Test
+    public void testHydrationTracesTheWaitForItsWorkers() throws IOException {
+        final String activityArn = create("Hydrated").getResourceModel().getArn();
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+
+        // The tags are listed on the handler thread when the activity is read
+        read(activityArn);
+        assertThat(getSpanNames(getLoggedTrace())).containsExactly("read", "tagging");
+        logLines.clear();
+
+        ListHydrator.setEnabled(true);
+        final ProgressEvent<ResourceModel, CallbackContext> event;
+        try {
+            event = new ListHandler().handleRequest(proxy, request(ResourceModel.builder().build()), null, logger);
+        } finally {
+            ListHydrator.setEnabled(false);
+        }
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(event.getResourceModels()).hasSize(1);
+        // The items are hydrated on the pool's threads, so their tagging calls have no spans of their own
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("handler").asText()).isEqualTo("ListHandler");
+        assertThat(getSpanNames(trace)).containsExactly("list", "hydrate");
+        assertThat(trace.get("droppedSpans").asInt()).isZero();
+    }
+
+    @Test
+    public void testFileExporterAppendsOneLinePerInvocation(@TempDir final Path tempDir) throws IOException {
+        final Path traceFile = tempDir.resolve("traces.jsonl");
+        Tracing.setExporter(Tracing.Exporter.FILE, traceFile);
+
+        create("First");
+        create("Second");
+
+        final List<String> lines = Files.readAllLines(traceFile, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2);
+        for (final String line : lines) {
+            assertThat(objectMapper.readTree(line).get("traceId").asText()).isEqualTo(CLIENT_REQUEST_TOKEN);
+        }
+        assertThat(logLines).noneMatch(line -> line.startsWith(TRACE_PREFIX));
+    }
+
+    @Test
+    public void testSpansBeyondTheLimitAreDropped() throws IOException {
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+        final ResourceHandlerRequest<ResourceModel> request = request(ResourceModel.builder().build());
+
+        Tracing.begin(request, "TestHandler", true);
+        for (int i = 0; i < Constants.MAX_TRACE_SPANS + 3; i++) {
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.LIST)) {
+                // Spans are closed immediately
+            }
+        }
+        Tracing.end(OperationStatus.IN_PROGRESS, logger);
+
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("callback").asBoolean()).isTrue();
+        assertThat(trace.get("spans")).hasSize(Constants.MAX_TRACE_SPANS);
+        assertThat(trace.get("droppedSpans").asInt()).isEqualTo(3);
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> create(final String activityName) {
+        final ResourceModel model = ResourceModel.builder()
+                .name(activityName)
+                .tags(Collections.singletonList(new TagsEntry("Key", "Value")))
+                .build();
+        return new CreateHandler().handleRequest(proxy, request(model), null, logger);
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> read(final String activityArn) {
+        return new ReadHandler().handleRequest(proxy, request(ResourceModel.builder().arn(activityArn).build()), null, logger);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .region(InMemoryServices.REGION)
+                .awsAccountId(InMemoryServices.AWS_ACCOUNT_ID)
+                .logicalResourceIdentifier("Activity")
+                .clientRequestToken(CLIENT_REQUEST_TOKEN)
+                .desiredResourceState(model)
+                .build();
+    }
+
+    private JsonNode getLoggedTrace() throws IOException {
+        final List<String> traces = new ArrayList<>();
+        for (final String line : logLines) {
+            if (line.startsWith(TRACE_PREFIX)) {
+                traces.add(line.substring(TRACE_PREFIX.length()));
+            }
+        }
+        assertThat(traces).hasSize(1);
+        return objectMapper.readTree(traces.get(0));
+    }
+
+    private static List<String> getSpanNames(final JsonNode trace) {
+        final List<String> names = new ArrayList<>();
+        trace.get("spans").forEach(span -> names.add(span.get("name").asText()));
+        return names;
+    }
+}
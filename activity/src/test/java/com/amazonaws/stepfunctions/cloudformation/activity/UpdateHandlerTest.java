@@ -19,12 +19,16 @@ import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.activity.MetricsLoggingKeys.TAGS_PROVIDED;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(MockitoExtension.class)
@@ -153,4 +157,25 @@ public class UpdateHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).isEqualTo(resourceNotFoundException.getMessage());
     }
 
+    @Test
+    public void testLogsCorrectOperationStatus_Success() {
+        request.getDesiredResourceState().setTags(Collections.singletonList(new TagsEntry("Key", "Value")));
+
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(TagResourceRequest.class), Mockito.any(Function.class))).thenReturn(new TagResourceResult());
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, TAGS_PROVIDED.loggingKey);
+    }
+
+    @Test
+    public void testLogsCorrectOperationStatus_Failure() {
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(TagResourceRequest.class), Mockito.any(Function.class))).thenThrow(exception500);
+        request.getDesiredResourceState().setTags(Collections.singletonList(new TagsEntry("Key", "Value")));
+
+        handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey);
+    }
+
 }
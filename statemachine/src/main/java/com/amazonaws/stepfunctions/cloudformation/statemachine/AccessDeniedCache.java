@@ -0,0 +1,112 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, for a limited time, which optional API calls were denied to a caller, so that requests from the same
+ *   caller skip calls that are tolerated to fail with AccessDeniedException for backwards compatibility.
+ * Callers are identified by a hash of the credentials the proxy injected into a request they sent, so that a denial
+ *   is never applied to other roles, even within the same stack. Callers without credentials are never cached.
+ * Only calls whose outcome is not needed for correctness may be skipped this way, which rules out existence checks.
+ */
+public class AccessDeniedCache {
+
+    private static final Map<String, Long> deniedUntilMillis = new ConcurrentHashMap<>();
+
+    // Set by tests to control expiry
+    private static volatile Clock clock = Clock.systemUTC();
+
+    private AccessDeniedCache() {
+    }
+
+    static void setClock(final Clock testClock) {
+        clock = testClock != null ? testClock : Clock.systemUTC();
+    }
+
+    static void clear() {
+        deniedUntilMillis.clear();
+    }
+
+    /**
+     * @param sentRequest A request the caller already sent through the proxy, which injected the caller's credentials
+     * @return A hash identifying the caller's credentials, or null if the request was sent without credentials
+     */
+    public static String getCallerIdentity(final AmazonWebServiceRequest sentRequest) {
+        final AWSCredentialsProvider credentialsProvider = sentRequest.getRequestCredentialsProvider();
+        if (credentialsProvider == null) {
+            return null;
+        }
+        final AWSCredentials credentials = credentialsProvider.getCredentials();
+        if (credentials == null || credentials.getAWSAccessKeyId() == null) {
+            return null;
+        }
+
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(credentials.getAWSAccessKeyId().getBytes(StandardCharsets.UTF_8));
+            final StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (final byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            // Every JVM provides SHA-256, but not caching is always safe
+            return null;
+        }
+    }
+
+    /**
+     * @param callerIdentity The caller, see getCallerIdentity
+     * @param apiName The name of the API, e.g. "ListTagsForResource"
+     * @return Whether the API was denied to the caller within the TTL
+     */
+    public static boolean isDenied(final String callerIdentity, final String apiName) {
+        final String key = getKey(callerIdentity, apiName);
+        if (key == null) {
+            return false;
+        }
+
+        final Long deniedUntil = deniedUntilMillis.get(key);
+        if (deniedUntil == null) {
+            return false;
+        }
+        if (deniedUntil <= clock.millis()) {
+            deniedUntilMillis.remove(key, deniedUntil);
+            return false;
+        }
+        return true;
+    }
+
+    public static void recordDenied(final String callerIdentity, final String apiName) {
+        final String key = getKey(callerIdentity, apiName);
+        if (key == null) {
+            return;
+        }
+
+        final long now = clock.millis();
+        if (deniedUntilMillis.size() >= Constants.ACCESS_DENIED_CACHE_MAX_ENTRIES) {
+            deniedUntilMillis.values().removeIf(deniedUntil -> deniedUntil <= now);
+            if (deniedUntilMillis.size() >= Constants.ACCESS_DENIED_CACHE_MAX_ENTRIES) {
+                // Skipping the cache only costs the round trips it would have saved
+                deniedUntilMillis.clear();
+            }
+        }
+        deniedUntilMillis.put(key, now + Constants.ACCESS_DENIED_CACHE_TTL_MILLIS);
+    }
+
+    private static String getKey(final String callerIdentity, final String apiName) {
+        if (callerIdentity == null) {
+            return null;
+        }
+        return callerIdentity + "|" + apiName;
+    }
+}
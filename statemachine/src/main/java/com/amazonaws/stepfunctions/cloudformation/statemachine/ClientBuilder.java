@@ -13,13 +13,33 @@ import com.amazonaws.services.stepfunctions.AWSStepFunctionsClientBuilder;
 
 public class ClientBuilder {
 
+    // Set by tests to run the handlers against in-memory implementations of the services
+    private static volatile AWSStepFunctions clientOverride;
+    private static volatile AmazonS3 s3ClientOverride;
+
+    static void setClientOverride(final AWSStepFunctions client) {
+        clientOverride = client;
+    }
+
+    static void setS3ClientOverride(final AmazonS3 s3Client) {
+        s3ClientOverride = s3Client;
+    }
+
     public static AmazonS3 getS3Client() {
+        if (s3ClientOverride != null) {
+            return s3ClientOverride;
+        }
+
         return AmazonS3ClientBuilder.standard()
                 .withForceGlobalBucketAccessEnabled(true)
                 .build();
     }
 
     public static AWSStepFunctions getClient() {
+        if (clientOverride != null) {
+            return clientOverride;
+        }
+
         ClientConfiguration clientConfiguration = new ClientConfiguration()
                 .withRetryPolicy(getRetryPolicy());
 
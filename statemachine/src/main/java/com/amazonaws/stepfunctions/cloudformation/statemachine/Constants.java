@@ -20,6 +20,12 @@ public class Constants {
     public static final String DEFINITION_INVALID_FORMAT_ERROR_MESSAGE = "Invalid StateMachine definition.";
     public static final String DEFINITION_MISSING_ERROR_MESSAGE = "Property validation failed. Required key [DefinitionS3Location], [DefinitionString] or [Definition] not found.";
     public static final String DEFINITION_REDUNDANT_ERROR_MESSAGE = "Property validation failed. Please use one of [DefinitionS3Location], [DefinitionString] or [Definition].";
+    public static final String VERSION_DESCRIPTION_WITHOUT_PUBLISH_ERROR_MESSAGE = "Property validation failed. [VersionDescription] can only be used when [Publish] is true.";
+    public static final String DEFINITION_MERGE_RULE_INVALID_ERROR_MESSAGE = "Invalid MergeRule. The only supported MergeRule is MergeStates.";
+    public static final String DEFINITION_FRAGMENT_MISSING_STATES_ERROR_MESSAGE = "Definitions assembled from fragments must contain States in every fragment.";
+    public static final String DEFINITION_FRAGMENT_DUPLICATE_STATE_ERROR_MESSAGE = "State %s is defined in more than one definition fragment.";
+    public static final String MERGE_STATES_RULE = "MergeStates";
+    public static final int MAX_DEFINITION_FRAGMENTS = 10;
     public static final String DEFINITION_SUBSTITUTION_INVALID_TYPE_ERROR_MESSAGE = "Invalid definition substitution type. Input should be either String, Integer, or Boolean";
     public static final String STATE_MACHINE_ALREADY_EXISTS_ERROR_CODE = "StateMachineAlreadyExists";
     public static final String STATE_MACHINE_ALREADY_EXISTS_ERROR_MESSAGE = "State machine already exists";
@@ -30,4 +36,37 @@ public class Constants {
     public static final String EXPRESS_STATE_MACHINE_TYPE = "EXPRESS";
     public static final String METRICS_LOGGING_PREFIX = "METRICS";
     public static final String STATE_MACHINE_INITIAL_REVISION_ID = "INITIAL";
+    public static final String PRIMING_ENABLED_ENVIRONMENT_VARIABLE = "PRIMING_ENABLED";
+    public static final long ACCESS_DENIED_CACHE_TTL_MILLIS = 5 * 60 * 1000;
+    public static final int ACCESS_DENIED_CACHE_MAX_ENTRIES = 10000;
+    public static final String LIST_TAGS_FOR_RESOURCE_API_NAME = "ListTagsForResource";
+    public static final String HEDGED_REQUESTS_ENABLED_ENVIRONMENT_VARIABLE = "HEDGED_REQUESTS_ENABLED";
+    public static final int HEDGE_LATENCY_WINDOW = 128;
+    public static final int HEDGE_MIN_SAMPLES = 20;
+    // Hedges are paid for in tokens: every call earns a tenth of a hedge, so at most 10% of calls are hedged after
+    // a burst of 10
+    public static final long HEDGE_COST_TOKENS = 1000;
+    public static final long HEDGE_TOKENS_PER_CALL = 100;
+    public static final long MAX_HEDGE_TOKENS = 10 * HEDGE_COST_TOKENS;
+    public static final int DEFINITION_CACHE_MAX_ENTRIES = 128;
+    public static final long DEFINITION_CACHE_MAX_BYTES = 16 * 1024 * 1024;
+    public static final long DEFINITION_CACHE_MAX_ENTRY_BYTES = 4 * 1024 * 1024;
+    public static final String TRACE_EXPORTER_ENVIRONMENT_VARIABLE = "TRACE_EXPORTER";
+    public static final String TRACE_FILE_ENVIRONMENT_VARIABLE = "TRACE_FILE";
+    public static final String DEFAULT_TRACE_FILE = "/tmp/traces.jsonl";
+    public static final String TRACE_LOGGING_PREFIX = "TRACE";
+    public static final int MAX_TRACE_SPANS = 64;
+    public static final String LIST_HYDRATION_ENABLED_ENVIRONMENT_VARIABLE = "LIST_HYDRATION_ENABLED";
+    public static final int LIST_HYDRATION_MAX_CONCURRENCY = 8;
+    public static final int LIST_HYDRATION_MAX_ATTEMPTS = 3;
+    public static final long LIST_HYDRATION_BASE_BACKOFF_MILLIS = 100;
+    public static final String LIST_PAGE_COALESCING_ENABLED_ENVIRONMENT_VARIABLE = "LIST_PAGE_COALESCING_ENABLED";
+    public static final int LIST_MAX_PAGE_SIZE = 1000;
+    public static final int LIST_COALESCING_MAX_ITEMS = 5000;
+    public static final long LIST_COALESCING_TIME_BUDGET_MILLIS = 20 * 1000;
+    public static final int LIST_HYDRATION_MAX_ITEMS = 100;
+    // Lambda responses are limited to 6 MB, which leaves room for the rest of the progress event
+    public static final long LIST_RESPONSE_MAX_BYTES = 5 * 1024 * 1024;
+    public static final String LOG_LEVEL_ENVIRONMENT_VARIABLE = "LOG_LEVEL";
+    public static final int LOG_SAMPLE_INTERVAL = 10;
 }
@@ -19,17 +19,19 @@ import static com.amazonaws.stepfunctions.cloudformation.statemachine.Definition
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.DefinitionProcessor.validateDefinitionCount;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.ResourceModelUtils.processStateMachineName;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.ResourceModelUtils.updateModelFromResult;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.ResourceModelUtils.validateVersionDescription;
 
 public class CreateHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachine CreateHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "CreateHandler");
+        handlerLogger.info("StateMachine CreateHandler invoked");
 
         final ResourceModel model = request.getDesiredResourceState();
 
@@ -41,15 +43,25 @@ public class CreateHandler extends ResourceHandler {
 
             List<Tag> tags = TaggingHelper.consolidateTags(request);
 
-            processStateMachineName(request, model);
-            validateDefinitionCount(model);
-            processDefinition(proxy, model, metricsRecorder);
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.VALIDATE)) {
+                processStateMachineName(request, model);
+                validateDefinitionCount(model);
+                validateVersionDescription(model);
+            }
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.RESOLVE_DEFINITION)) {
+                processDefinition(proxy, model, metricsRecorder);
+            }
 
-            failIfStateMachineAlreadyExists(request, sfnClient, proxy);
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.EXISTENCE_CHECK)) {
+                failIfStateMachineAlreadyExists(request, sfnClient, proxy);
+            }
 
             CreateStateMachineRequest createStateMachineRequest = buildCreateStateMachineRequestFromModel(model, tags);
 
-            CreateStateMachineResult createStateMachineResult = proxy.injectCredentialsAndInvoke(createStateMachineRequest, sfnClient::createStateMachine);
+            CreateStateMachineResult createStateMachineResult;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.CREATE)) {
+                createStateMachineResult = proxy.injectCredentialsAndInvoke(createStateMachineRequest, sfnClient::createStateMachine);
+            }
 
             updateModelFromResult(model, createStateMachineResult);
             // The model's name is only required if the handler operation is successful.
@@ -65,7 +77,7 @@ public class CreateHandler extends ResourceHandler {
 
             return progressEvent;
         } catch (Exception e) {
-            logger.log("ERROR Creating StateMachine, caused by " + e.toString());
+            handlerLogger.error("Error creating StateMachine", e);
 
             return handleDefaultError(request, e, metricsRecorder);
         } finally {
@@ -90,7 +102,7 @@ public class CreateHandler extends ResourceHandler {
                 request.getDesiredResourceState().getStateMachineName());
 
         try {
-            proxy.injectCredentialsAndInvoke(new DescribeStateMachineRequest().withStateMachineArn(stateMachineArn), sfnClient::describeStateMachine);
+            HedgedInvoker.invoke(proxy, new DescribeStateMachineRequest().withStateMachineArn(stateMachineArn), sfnClient::describeStateMachine);
 
             // State machine already exists
             throw getStateMachineAlreadyExistsException();
@@ -109,13 +121,15 @@ public class CreateHandler extends ResourceHandler {
         }
     }
 
-    private CreateStateMachineRequest buildCreateStateMachineRequestFromModel(ResourceModel model, List<Tag> tags) {
+    static CreateStateMachineRequest buildCreateStateMachineRequestFromModel(ResourceModel model, List<Tag> tags) {
         CreateStateMachineRequest createStateMachineRequest = new CreateStateMachineRequest();
         createStateMachineRequest.setRoleArn(model.getRoleArn());
         createStateMachineRequest.setName(model.getStateMachineName());
         createStateMachineRequest.setTags(tags);
         createStateMachineRequest.setDefinition(model.getDefinitionString());
         createStateMachineRequest.setType(model.getStateMachineType());
+        createStateMachineRequest.setPublish(model.getPublish());
+        createStateMachineRequest.setVersionDescription(model.getVersionDescription());
 
         if (model.getLoggingConfiguration() != null) {
             createStateMachineRequest.setLoggingConfiguration(Translator.getLoggingConfiguration(model.getLoggingConfiguration()));
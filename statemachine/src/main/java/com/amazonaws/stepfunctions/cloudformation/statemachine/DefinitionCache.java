@@ -0,0 +1,218 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the definition strings that DefinitionProcessor produced from a Definition object, or from a
+ *   DefinitionString with DefinitionSubstitutions, so that containers which see the same template again (retries,
+ *   stacks created from one template, updates that do not change the definition) skip serializing and substituting it.
+ * Entries are keyed by a SHA-256 hash of the definition and its substitutions, and the least recently used entries
+ *   are evicted once the cache holds more than DEFINITION_CACHE_MAX_ENTRIES entries or DEFINITION_CACHE_MAX_BYTES.
+ */
+public class DefinitionCache {
+
+    private static final Map<String, String> definitions = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedBytes;
+
+    private DefinitionCache() {
+    }
+
+    static synchronized void clear() {
+        definitions.clear();
+        cachedBytes = 0;
+    }
+
+    static synchronized int size() {
+        return definitions.size();
+    }
+
+    /**
+     * @param model The resource model, whose definition was not processed yet
+     * @return The key of the model's processed definition, or null if it is not cached since it comes from S3, needs
+     *   no processing, or contains values that can not be hashed
+     */
+    public static String getKey(final ResourceModel model) {
+        if (model.getDefinitionS3Location() != null) {
+            return null;
+        }
+
+        final KeyDigest digest = new KeyDigest();
+        if (model.getDefinitionString() != null) {
+            // A definition string is only processed when substitutions are applied to it
+            if (model.getDefinitionSubstitutions() == null) {
+                return null;
+            }
+            digest.updateTag('S');
+            digest.updateString(model.getDefinitionString());
+        } else if (model.getDefinition() != null) {
+            digest.updateTag('O');
+            if (!digest.updateValue(model.getDefinition())) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        if (model.getDefinitionSubstitutions() != null) {
+            // Substitutions are applied in the order of the map, so they are hashed in that order
+            digest.updateTag('V');
+            digest.updateLength(model.getDefinitionSubstitutions().size());
+            for (final Map.Entry<String, Object> substitution : model.getDefinitionSubstitutions().entrySet()) {
+                digest.updateString(substitution.getKey());
+                if (!digest.updateValue(substitution.getValue())) {
+                    return null;
+                }
+            }
+        }
+        return digest.toKey();
+    }
+
+    /**
+     * @param key The key returned by getKey
+     * @param metricsRecorder Records whether the definition was cached
+     * @return The processed definition, or null if it is not cached
+     */
+    public static synchronized String get(final String key, final MetricsRecorder metricsRecorder) {
+        final String definition = definitions.get(key);
+        if (definition != null) {
+            metricsRecorder.setDefinitionCacheHit(true);
+        } else {
+            metricsRecorder.setDefinitionCacheMiss(true);
+        }
+        return definition;
+    }
+
+    /**
+     * Caches a processed definition, evicting the least recently used definitions to stay within the memory cap
+     * @param key The key returned by getKey
+     * @param definition The processed definition
+     * @param metricsRecorder Records whether definitions were evicted, or the definition was too large to cache
+     */
+    public static synchronized void put(final String key, final String definition, final MetricsRecorder metricsRecorder) {
+        final long bytes = getBytes(definition);
+        if (bytes > Constants.DEFINITION_CACHE_MAX_ENTRY_BYTES) {
+            metricsRecorder.setDefinitionCacheEntryTooLarge(true);
+            return;
+        }
+
+        final String previous = definitions.put(key, definition);
+        if (previous != null) {
+            cachedBytes -= getBytes(previous);
+        }
+        cachedBytes += bytes;
+
+        final Iterator<String> leastRecentlyUsed = definitions.values().iterator();
+        while (definitions.size() > Constants.DEFINITION_CACHE_MAX_ENTRIES || cachedBytes > Constants.DEFINITION_CACHE_MAX_BYTES) {
+            cachedBytes -= getBytes(leastRecentlyUsed.next());
+            leastRecentlyUsed.remove();
+            metricsRecorder.setDefinitionCacheEviction(true);
+        }
+    }
+
+    // Strings hold up to two bytes per character
+    private static long getBytes(final String definition) {
+        return 2L * definition.length();
+    }
+
+    /**
+     * Hashes the values a definition is processed from, feeding strings through a fixed buffer rather than
+     *   encoding them as a whole, since definitions are up to 1 MB. Map keys are hashed in sorted order, as
+     *   definitions are serialized with their keys sorted.
+     */
+    private static class KeyDigest {
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[8192];
+
+        KeyDigest() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (final NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void updateTag(final char tag) {
+            digest.update((byte) tag);
+        }
+
+        void updateString(final String value) {
+            updateLength(value.length());
+            int position = 0;
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                buffer[position++] = (byte) (c >> 8);
+                buffer[position++] = (byte) c;
+                if (position == buffer.length) {
+                    digest.update(buffer, 0, position);
+                    position = 0;
+                }
+            }
+            digest.update(buffer, 0, position);
+        }
+
+        // Returns false for values that are not produced by deserializing a template
+        boolean updateValue(final Object value) {
+            if (value == null) {
+                updateTag('n');
+            } else if (value instanceof String) {
+                updateTag('s');
+                updateString((String) value);
+            } else if (value instanceof Boolean || value instanceof Number) {
+                // The type is hashed as well, since e.g. 1 and 1.0 are serialized differently
+                updateTag('p');
+                updateString(value.getClass().getName());
+                updateString(value.toString());
+            } else if (value instanceof Map) {
+                final Map<?, ?> map = (Map<?, ?>) value;
+                final List<String> keys = new ArrayList<>(map.size());
+                for (final Object key : map.keySet()) {
+                    if (!(key instanceof String)) {
+                        return false;
+                    }
+                    keys.add((String) key);
+                }
+                keys.sort(null);
+
+                updateTag('m');
+                updateLength(keys.size());
+                for (final String key : keys) {
+                    updateString(key);
+                    if (!updateValue(map.get(key))) {
+                        return false;
+                    }
+                }
+            } else if (value instanceof List) {
+                final List<?> list = (List<?>) value;
+                updateTag('l');
+                updateLength(list.size());
+                for (final Object element : list) {
+                    if (!updateValue(element)) {
+                        return false;
+                    }
+                }
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        void updateLength(final int length) {
+            digest.update((byte) (length >>> 24));
+            digest.update((byte) (length >>> 16));
+            digest.update((byte) (length >>> 8));
+            digest.update((byte) length);
+        }
+
+        String toKey() {
+            return Base64.getEncoder().encodeToString(digest.digest());
+        }
+    }
+}
@@ -2,12 +2,17 @@ package com.amazonaws.stepfunctions.cloudformation.statemachine;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.stepfunctions.cloudformation.statemachine.s3.GetObjectFunction;
 import com.amazonaws.stepfunctions.cloudformation.statemachine.s3.GetObjectResult;
+import com.amazonaws.stepfunctions.cloudformation.statemachine.s3.SizeLimitedInputStream;
+import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import org.apache.commons.lang3.StringUtils;
 import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
@@ -15,13 +20,24 @@ import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.exceptions.TerminalException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
 
 /**
  * Encapsulates the logic behind generating the final state machine definition string
@@ -29,11 +45,18 @@ import java.util.stream.Collectors;
 public class DefinitionProcessor {
 
     private static final ObjectMapper jsonMapper = new ObjectMapper();
-    private static final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
 
     static {
         jsonMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
-        yamlMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    }
+
+    // Most requests never parse YAML, so the YAML mapper (and SnakeYAML with it) is only loaded on first use
+    private static class YamlMapperHolder {
+        static final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+
+        static {
+            yamlMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        }
     }
 
     /**
@@ -73,54 +96,153 @@ public class DefinitionProcessor {
 
     /**
      * Sets definitionString of the resource model to be the value of the definition in string format with
-     *   any definition substitutions applied.
+     *   any definition substitutions applied. Definitions that are not fetched from S3 are looked up in the
+     *   DefinitionCache first, and definitions in S3 with fragments are assembled from the fragments.
      * @param proxy The AmazonWebsServicesClientProxy used to retrieve the definition from S3 if DefinitionS3Location is provided
      * @param model The resource model representing the ResourceHandlerRequest's desiredResourceState
      * @param metricsRecorder The MetricsRecorder object used for collecting anonymous property usage metrics
      */
     public static void processDefinition(final AmazonWebServicesClientProxy proxy, final ResourceModel model, final MetricsRecorder metricsRecorder) {
+        final String cacheKey = DefinitionCache.getKey(model);
+        if (cacheKey != null) {
+            final String cachedDefinition = DefinitionCache.get(cacheKey, metricsRecorder);
+            if (cachedDefinition != null) {
+                model.setDefinitionString(cachedDefinition);
+                return;
+            }
+        }
+
+        if (hasFragments(model.getDefinitionS3Location())) {
+            model.setDefinitionString(assembleS3Definition(proxy, model, metricsRecorder));
+            return;
+        }
+
         String definition;
         if(model.getDefinitionString() != null) {
             definition = model.getDefinitionString();
         }
+        else if (model.getDefinitionS3Location() != null) {
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.S3_FETCH)) {
+                definition = S3DefinitionFetcher.fetchS3Definition(model.getDefinitionS3Location(), proxy, metricsRecorder);
+            }
+        }
         else{
-            definition = model.getDefinitionS3Location() != null ? fetchS3Definition(model.getDefinitionS3Location(), proxy) : convertDefinitionObjectToString(model.getDefinition());
+            definition = convertDefinitionObjectToString(model.getDefinition());
         }
 
         if (model.getDefinitionSubstitutions() != null) {
-            definition = transformDefinition(definition, model.getDefinitionSubstitutions());
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.SUBSTITUTE)) {
+                definition = transformDefinition(definition, model.getDefinitionSubstitutions());
+            }
         }
 
         if(model.getDefinitionS3Location() != null){
-            definition = parseJsonOrYaml(definition, metricsRecorder);
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.PARSE)) {
+                definition = parseJsonOrYaml(definition, metricsRecorder);
+            }
         }
 
+        if (cacheKey != null) {
+            DefinitionCache.put(cacheKey, definition, metricsRecorder);
+        }
         model.setDefinitionString(definition);
     }
 
-    private static String fetchS3Definition(final S3Location s3Location, final AmazonWebServicesClientProxy proxy) {
-        AmazonS3 s3Client = ClientBuilder.getS3Client();
-        GetObjectRequest getObjectRequest = new GetObjectRequest(s3Location.getBucket(), s3Location.getKey());
-        if (s3Location.getVersion() != null && !s3Location.getVersion().isEmpty()) {
-            getObjectRequest.setVersionId(s3Location.getVersion());
+    /**
+     * Processes a definition that is not fetched from S3, for callers that have no AmazonWebServicesClientProxy
+     * @param model The resource model, which must not have a DefinitionS3Location
+     * @param metricsRecorder The MetricsRecorder object used for collecting anonymous property usage metrics
+     * @throws IllegalArgumentException Thrown if the model has a DefinitionS3Location
+     */
+    static void processInlineDefinition(final ResourceModel model, final MetricsRecorder metricsRecorder) {
+        if (model.getDefinitionS3Location() != null) {
+            throw new IllegalArgumentException("A definition in S3 can only be processed with a proxy");
         }
+        processDefinition(null, model, metricsRecorder);
+    }
 
-        GetObjectResult getObjectResult = proxy.injectCredentialsAndInvoke(getObjectRequest, new GetObjectFunction(s3Client)::get);
-        if (getObjectResult.getS3Object().getObjectMetadata().getContentLength() > Constants.MAX_DEFINITION_SIZE) {
-            throw new CfnInvalidRequestException(Constants.DEFINITION_SIZE_LIMIT_ERROR_MESSAGE);
+    private static boolean hasFragments(final S3Location s3Location) {
+        return s3Location != null && s3Location.getFragments() != null && !s3Location.getFragments().isEmpty();
+    }
+
+    // Fetches the document at the S3 location and its fragments concurrently, applies the definition substitutions
+    // to each of them, and merges the States of the fragments into the States of the document
+    private static String assembleS3Definition(final AmazonWebServicesClientProxy proxy, final ResourceModel model,
+                                               final MetricsRecorder metricsRecorder) {
+        final S3Location s3Location = model.getDefinitionS3Location();
+        if (s3Location.getMergeRule() != null && !Constants.MERGE_STATES_RULE.equals(s3Location.getMergeRule())) {
+            throw new TerminalException(Constants.DEFINITION_MERGE_RULE_INVALID_ERROR_MESSAGE);
         }
 
-        String definition;
+        final List<String> documents;
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.S3_FETCH)) {
+            documents = S3DefinitionFetcher.fetchS3DefinitionAndFragments(s3Location, proxy, metricsRecorder);
+        }
+
+        ObjectNode root = null;
+        for (String document : documents) {
+            if (model.getDefinitionSubstitutions() != null) {
+                try (Tracing.Span span = Tracing.span(Tracing.Phase.SUBSTITUTE)) {
+                    document = transformDefinition(document, model.getDefinitionSubstitutions());
+                }
+            }
+
+            final JsonNode tree;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.PARSE)) {
+                tree = readJsonOrYaml(document, metricsRecorder);
+            }
+            if (!tree.path("States").isObject()) {
+                throw new TerminalException(Constants.DEFINITION_FRAGMENT_MISSING_STATES_ERROR_MESSAGE);
+            }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(getObjectResult.getS3Object().getObjectContent()))) {
-            definition = reader.lines().collect(Collectors.joining("\n"));
-        } catch (IOException e) {
-            throw new CfnInternalFailureException(e);
+            if (root == null) {
+                root = (ObjectNode) tree;
+            } else {
+                mergeStates((ObjectNode) root.get("States"), (ObjectNode) tree.get("States"));
+            }
         }
 
+        final String definition;
+        try {
+            definition = jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new TerminalException(Constants.DEFINITION_INVALID_FORMAT_ERROR_MESSAGE);
+        }
+        // Each fragment is within the size limit, which the assembled definition has to meet as well
+        if (definition.getBytes(StandardCharsets.UTF_8).length > Constants.MAX_DEFINITION_SIZE) {
+            throw new CfnInvalidRequestException(Constants.DEFINITION_SIZE_LIMIT_ERROR_MESSAGE);
+        }
         return definition;
     }
 
+    private static void mergeStates(final ObjectNode rootStates, final ObjectNode fragmentStates) {
+        final Iterator<Map.Entry<String, JsonNode>> states = fragmentStates.fields();
+        while (states.hasNext()) {
+            final Map.Entry<String, JsonNode> state = states.next();
+            if (rootStates.has(state.getKey())) {
+                throw new TerminalException(String.format(Constants.DEFINITION_FRAGMENT_DUPLICATE_STATE_ERROR_MESSAGE, state.getKey()));
+            }
+            rootStates.set(state.getKey(), state.getValue());
+        }
+    }
+
+    private static JsonNode readJsonOrYaml(final String document, final MetricsRecorder metricsRecorder) {
+        // Parse JSON format first, then YAML.
+        try {
+            final JsonNode tree = jsonMapper.readTree(document);
+            metricsRecorder.setS3DefinitionJson(true);
+            return tree;
+        } catch (IOException jsonException) {
+            try {
+                final JsonNode tree = YamlMapperHolder.yamlMapper.readTree(document);
+                metricsRecorder.setS3DefinitionYaml(true);
+                return tree;
+            } catch (IOException yamlException) {
+                throw new TerminalException(Constants.DEFINITION_INVALID_FORMAT_ERROR_MESSAGE);
+            }
+        }
+    }
+
     private static String parseJsonOrYaml(String definition, final MetricsRecorder metricsRecorder){
         // Parse JSON format first, then YAML.
         try {
@@ -128,8 +250,7 @@ public class DefinitionProcessor {
             metricsRecorder.setS3DefinitionJson(true);
         } catch (IOException jsonException) {
             try {
-                JsonNode root = yamlMapper.readTree(definition);
-                definition = jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+                definition = convertYamlToJson(definition);
                 metricsRecorder.setS3DefinitionYaml(true);
             } catch (IOException yamlException) {
                 throw new TerminalException(Constants.DEFINITION_INVALID_FORMAT_ERROR_MESSAGE);
@@ -139,6 +260,16 @@ public class DefinitionProcessor {
         return definition;
     }
 
+    private static String convertYamlToJson(final String definition) throws IOException {
+        try {
+            return YamlToJsonConverter.convert(definition, YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.PRETTY);
+        } catch (JsonGenerationException duplicateKeyException) {
+            // Repeated keys are rare, so only then is the document read into a tree, where the last value of a key wins
+            JsonNode root = YamlMapperHolder.yamlMapper.readTree(definition);
+            return jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+        }
+    }
+
     private static String convertDefinitionObjectToString(final Map<String, Object> definitionObject) {
         try {
             return jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(definitionObject);
@@ -160,4 +291,115 @@ public class DefinitionProcessor {
         return StringUtils.replaceEachRepeatedly(definitionString, searchList.toArray(new String[0]), replacementList.toArray(new String[0]));
     }
 
+    // Loading the S3 SDK is deferred until a definition is fetched from S3, since most requests provide it inline
+    private static class S3DefinitionFetcher {
+
+        // Fragments are fetched on up to as many threads as a location can have fragments, which are only started
+        // once a definition has fragments
+        private static final ExecutorService fragmentExecutor = Executors.newFixedThreadPool(Constants.MAX_DEFINITION_FRAGMENTS, runnable -> {
+            final Thread thread = new Thread(runnable, "definition-fragment");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static String fetchS3Definition(final S3Location s3Location, final AmazonWebServicesClientProxy proxy,
+                                        final MetricsRecorder metricsRecorder) {
+            return fetchS3Definition(s3Location.getBucket(), s3Location.getKey(), s3Location.getVersion(), proxy, metricsRecorder);
+        }
+
+        /**
+         * Fetches the fragments in the background while the document at the S3 location is fetched on the calling
+         *   thread, so that fetching takes as long as the slowest fetch
+         * @return The document followed by the fragments, in the order they are listed in
+         */
+        static List<String> fetchS3DefinitionAndFragments(final S3Location s3Location, final AmazonWebServicesClientProxy proxy,
+                                                          final MetricsRecorder metricsRecorder) {
+            final List<CompletableFuture<String>> fragmentFutures = new ArrayList<>();
+            for (final S3Fragment fragment : s3Location.getFragments()) {
+                fragmentFutures.add(CompletableFuture.supplyAsync(
+                        () -> fetchS3Definition(fragment.getBucket(), fragment.getKey(), fragment.getVersion(), proxy, metricsRecorder),
+                        fragmentExecutor
+                ));
+            }
+
+            final List<String> documents = new ArrayList<>(fragmentFutures.size() + 1);
+            documents.add(fetchS3Definition(s3Location, proxy, metricsRecorder));
+            for (final CompletableFuture<String> fragmentFuture : fragmentFutures) {
+                documents.add(joinUnwrapped(fragmentFuture));
+            }
+            return documents;
+        }
+
+        private static <T> T joinUnwrapped(final CompletableFuture<T> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                // Surface the exception itself so that handleDefaultError can map it to the right error code
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        private static String fetchS3Definition(final String bucket, final String key, final String version,
+                                                final AmazonWebServicesClientProxy proxy, final MetricsRecorder metricsRecorder) {
+            AmazonS3 s3Client = ClientBuilder.getS3Client();
+            GetObjectRequest getObjectRequest = new GetObjectRequest(bucket, key);
+            if (version != null && !version.isEmpty()) {
+                getObjectRequest.setVersionId(version);
+            }
+
+            GetObjectResult getObjectResult = proxy.injectCredentialsAndInvoke(getObjectRequest, new GetObjectFunction(s3Client)::get);
+            // A compressed object is never larger than its content, so this rejects oversized objects before reading them
+            if (getObjectResult.getS3Object().getObjectMetadata().getContentLength() > Constants.MAX_DEFINITION_SIZE) {
+                throw new CfnInvalidRequestException(Constants.DEFINITION_SIZE_LIMIT_ERROR_MESSAGE);
+            }
+
+            String definition;
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(openDefinitionContent(getObjectResult.getS3Object(), metricsRecorder)))) {
+                definition = reader.lines().collect(Collectors.joining("\n"));
+            } catch (ZipException e) {
+                throw new TerminalException(Constants.DEFINITION_INVALID_FORMAT_ERROR_MESSAGE);
+            } catch (UncheckedIOException e) {
+                if (e.getCause() instanceof ZipException) {
+                    throw new TerminalException(Constants.DEFINITION_INVALID_FORMAT_ERROR_MESSAGE);
+                }
+                throw new CfnInternalFailureException(e.getCause());
+            } catch (IOException e) {
+                throw new CfnInternalFailureException(e);
+            }
+
+            return definition;
+        }
+
+        /**
+         * Decompresses objects stored with a gzip Content-Encoding or starting with the gzip magic bytes while they
+         *   are read, and fails reading once the decompressed definition exceeds the size limit
+         */
+        private static InputStream openDefinitionContent(final S3Object s3Object, final MetricsRecorder metricsRecorder) throws IOException {
+            final InputStream content = new BufferedInputStream(s3Object.getObjectContent());
+            if (!isGzipContentEncoding(s3Object.getObjectMetadata()) && !startsWithGzipMagic(content)) {
+                return content;
+            }
+
+            metricsRecorder.setS3DefinitionGzip(true);
+            return new SizeLimitedInputStream(new GZIPInputStream(content), Constants.MAX_DEFINITION_SIZE);
+        }
+
+        private static boolean isGzipContentEncoding(final ObjectMetadata metadata) {
+            return metadata.getContentEncoding() != null && metadata.getContentEncoding().toLowerCase().contains("gzip");
+        }
+
+        private static boolean startsWithGzipMagic(final InputStream content) throws IOException {
+            content.mark(2);
+            try {
+                return content.read() == (GZIPInputStream.GZIP_MAGIC & 0xff) && content.read() == (GZIPInputStream.GZIP_MAGIC >> 8);
+            } finally {
+                content.reset();
+            }
+        }
+    }
+
 }
@@ -13,13 +13,14 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 public class DeleteHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachine DeleteHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "DeleteHandler");
+        handlerLogger.info("StateMachine DeleteHandler invoked");
 
         final ResourceModel model = request.getDesiredResourceState();
         final CallbackContext currentContext = callbackContext == null ?
@@ -32,23 +33,31 @@ public class DeleteHandler extends ResourceHandler {
             AWSStepFunctions sfnClient = ClientBuilder.getClient();
 
             if (!currentContext.isDeletionStarted()) {
-                if (!doesStateMachineExist(model, proxy, sfnClient)) {
-                    throw getStateMachineDoesNotExistException();
+                try (Tracing.Span span = Tracing.span(Tracing.Phase.EXISTENCE_CHECK)) {
+                    if (!doesStateMachineExist(model, proxy, sfnClient)) {
+                        throw getStateMachineDoesNotExistException();
+                    }
                 }
 
-                deleteStateMachine(model, proxy, sfnClient);
+                try (Tracing.Span span = Tracing.span(Tracing.Phase.DELETE)) {
+                    deleteStateMachine(model, proxy, sfnClient);
+                }
                 currentContext.setDeletionStarted(true);
 
                 return ProgressEvent.<ResourceModel, CallbackContext>builder()
                         .callbackContext(currentContext)
-                        .resourceModel(model)
+                        .resourceModel(getInProgressModel(model))
                         .status(OperationStatus.IN_PROGRESS)
                         .build();
             } else {
-                if (doesStateMachineExist(model, proxy, sfnClient)) {
+                final boolean stateMachineExists;
+                try (Tracing.Span span = Tracing.span(Tracing.Phase.STABILIZATION_POLL)) {
+                    stateMachineExists = doesStateMachineExist(model, proxy, sfnClient);
+                }
+                if (stateMachineExists) {
                     return ProgressEvent.<ResourceModel, CallbackContext>builder()
                             .callbackContext(currentContext)
-                            .resourceModel(model)
+                            .resourceModel(getInProgressModel(model))
                             .status(OperationStatus.IN_PROGRESS)
                             .build();
                 } else {
@@ -58,19 +67,27 @@ public class DeleteHandler extends ResourceHandler {
                 }
             }
         } catch (Exception e) {
-            logger.log("ERROR Deleting StateMachine, caused by " + e.toString());
+            handlerLogger.error("Error deleting StateMachine", e);
 
             return handleDefaultError(request, e, null);
         }
     }
 
+    // The model is sent back to the handler until the deletion completes, which only needs the ARN, so the definition
+    // and other properties are not serialized on every callback
+    private ResourceModel getInProgressModel(final ResourceModel model) {
+        return ResourceModel.builder()
+                .arn(model.getArn())
+                .build();
+    }
+
     // Returns true if the state machine in the model exists, else false
     private boolean doesStateMachineExist(final ResourceModel model,
                                           final AmazonWebServicesClientProxy proxy,
                                           final AWSStepFunctions sfnClient) {
         DescribeStateMachineRequest describeStateMachineRequest = buildDescribeStateMachineRequestFromModel(model);
         try {
-            proxy.injectCredentialsAndInvoke(describeStateMachineRequest, sfnClient::describeStateMachine);
+            HedgedInvoker.invoke(proxy, describeStateMachineRequest, sfnClient::describeStateMachine);
             return true;
         } catch (Exception e) {
             if (isStateMachineNotFoundError(e)) {
@@ -102,6 +119,8 @@ public class DeleteHandler extends ResourceHandler {
         return errorStatus == 400 && Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE.equals(errorCode);
     }
 
+    // DeleteStateMachine also deletes the versions published by the resource, and any other versions and aliases of the
+    // state machine, so they are not deleted one by one
     private void deleteStateMachine(final ResourceModel model,
                                     final AmazonWebServicesClientProxy proxy,
                                     final AWSStepFunctions sfnClient) {
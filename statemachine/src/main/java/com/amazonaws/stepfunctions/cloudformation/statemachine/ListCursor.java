@@ -0,0 +1,69 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The continuation token of a ListHandler invocation. An invocation that ends on a page boundary returns the
+ *   ListStateMachines token unchanged. One that ends within a page, because the rest of the page would not fit in the
+ *   response, returns the token of that page and the number of its items that were already returned, which are
+ *   skipped when the page is fetched again.
+ */
+class ListCursor {
+
+    private static final String PARTIAL_PAGE_PREFIX = "page.";
+    private static final String NULL_TOKEN = "~";
+
+    private final String pageToken;
+    private final int skippedItems;
+
+    ListCursor(final String pageToken, final int skippedItems) {
+        this.pageToken = pageToken;
+        this.skippedItems = skippedItems;
+    }
+
+    String getPageToken() {
+        return pageToken;
+    }
+
+    int getSkippedItems() {
+        return skippedItems;
+    }
+
+    String encode() {
+        if (skippedItems == 0) {
+            return pageToken;
+        }
+        final String encodedPageToken = pageToken == null ? NULL_TOKEN
+                : Base64.getUrlEncoder().withoutPadding().encodeToString(pageToken.getBytes(StandardCharsets.UTF_8));
+        return PARTIAL_PAGE_PREFIX + skippedItems + "." + encodedPageToken;
+    }
+
+    static ListCursor decode(final String token) {
+        if (token == null || !token.startsWith(PARTIAL_PAGE_PREFIX)) {
+            return new ListCursor(token, 0);
+        }
+
+        final String[] parts = token.substring(PARTIAL_PAGE_PREFIX.length()).split("\\.", -1);
+        if (parts.length != 2) {
+            throw invalidToken(token);
+        }
+        try {
+            final int skippedItems = Integer.parseInt(parts[0]);
+            if (skippedItems <= 0 || skippedItems >= Constants.LIST_MAX_PAGE_SIZE) {
+                throw invalidToken(token);
+            }
+            final String pageToken = NULL_TOKEN.equals(parts[1]) ? null
+                    : new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            return new ListCursor(pageToken, skippedItems);
+        } catch (final IllegalArgumentException e) {
+            throw invalidToken(token);
+        }
+    }
+
+    private static CfnInvalidRequestException invalidToken(final String token) {
+        return new CfnInvalidRequestException("Invalid token: " + token);
+    }
+}
@@ -17,34 +17,47 @@ import java.util.List;
 public class ListHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachine ListHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "ListHandler");
+        handlerLogger.info("StateMachine ListHandler invoked");
         final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.LIST);
 
         try {
             final AWSStepFunctions sfnClient = ClientBuilder.getClient();
-            final List<ResourceModel> models = new ArrayList<>();
-            final String nextTokenProvided = request.getNextToken();
-
-            final ListStateMachinesRequest listStateMachinesRequest = new ListStateMachinesRequest();
-            listStateMachinesRequest.setNextToken(nextTokenProvided);
-
-            final ListStateMachinesResult listStateMachinesResult = proxy.injectCredentialsAndInvoke(
-                    listStateMachinesRequest,
-                    sfnClient::listStateMachines
-            );
-
-            listStateMachinesResult.getStateMachines()
-                    .stream()
-                    .map(this::buildResourceModelFromStateMachineListItem)
-                    .forEach(models::add);
-
-            final String nextTokenToReturn = listStateMachinesResult.getNextToken();
+            final List<ResourceModel> listedModels = new ArrayList<>();
+            final ListCursor cursor = ListCursor.decode(request.getNextToken());
+            // The token each page was fetched with, and the index of its first item in the listed models
+            final List<String> pageTokens = new ArrayList<>();
+            final List<Integer> pageStartIndexes = new ArrayList<>();
+
+            // Hydrated models are far larger, so fewer of them are returned per invocation. Items of the first page
+            // that a previous invocation already returned are fetched again, and skipped
+            final int maxItems = cursor.getSkippedItems()
+                    + (ListHydrator.isEnabled() ? Constants.LIST_HYDRATION_MAX_ITEMS : Constants.LIST_COALESCING_MAX_ITEMS);
+            String nextTokenToReturn = PageCoalescer.fetchPages(cursor.getPageToken(), listedModels, maxItems,
+                    Constants.LIST_RESPONSE_MAX_BYTES, (pageNextToken, maxResults) -> {
+                        pageTokens.add(pageNextToken);
+                        pageStartIndexes.add(listedModels.size());
+                        return listPage(proxy, sfnClient, pageNextToken, maxResults, listedModels);
+                    });
+
+            final int firstIndex = Math.min(cursor.getSkippedItems(), listedModels.size());
+            List<ResourceModel> models = listedModels.subList(firstIndex, listedModels.size());
+            if (ListHydrator.isEnabled()) {
+                final int listedCount = models.size();
+                try (Tracing.Span span = Tracing.span(Tracing.Phase.HYDRATE)) {
+                    models = ListHydrator.hydrate(proxy, sfnClient, models, Constants.LIST_RESPONSE_MAX_BYTES,
+                            handlerLogger, metricsRecorder);
+                }
+                if (models.size() < listedCount) {
+                    nextTokenToReturn = getPartialPageToken(pageTokens, pageStartIndexes, firstIndex + models.size());
+                }
+            }
 
             final ProgressEvent<ResourceModel, CallbackContext> progressEvent =
                     ProgressEvent.<ResourceModel, CallbackContext>builder()
@@ -57,7 +70,7 @@ public class ListHandler extends ResourceHandler {
 
             return progressEvent;
         } catch (final Exception e) {
-            logger.log("ERROR listing state machines, caused by " + e);
+            handlerLogger.error("Error listing state machines", e);
 
             return handleDefaultError(request, e, metricsRecorder);
         } finally {
@@ -65,6 +78,38 @@ public class ListHandler extends ResourceHandler {
         }
     }
 
+    // The token to continue listing from the listed model at the given index, within the page that contains it
+    private static String getPartialPageToken(final List<String> pageTokens, final List<Integer> pageStartIndexes,
+                                              final int index) {
+        int page = pageStartIndexes.size() - 1;
+        while (pageStartIndexes.get(page) > index) {
+            page--;
+        }
+        return new ListCursor(pageTokens.get(page), index - pageStartIndexes.get(page)).encode();
+    }
+
+    private String listPage(final AmazonWebServicesClientProxy proxy, final AWSStepFunctions sfnClient,
+                            final String nextToken, final Integer maxResults, final List<ResourceModel> models) {
+        final ListStateMachinesRequest listStateMachinesRequest = new ListStateMachinesRequest();
+        listStateMachinesRequest.setNextToken(nextToken);
+        listStateMachinesRequest.setMaxResults(maxResults);
+
+        final ListStateMachinesResult listStateMachinesResult;
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.LIST)) {
+            listStateMachinesResult = proxy.injectCredentialsAndInvoke(
+                    listStateMachinesRequest,
+                    sfnClient::listStateMachines
+            );
+        }
+
+        listStateMachinesResult.getStateMachines()
+                .stream()
+                .map(this::buildResourceModelFromStateMachineListItem)
+                .forEach(models::add);
+
+        return listStateMachinesResult.getNextToken();
+    }
+
     private ResourceModel buildResourceModelFromStateMachineListItem(final StateMachineListItem stateMachineListItem) {
         return ResourceModel.builder()
                 .arn(stateMachineListItem.getStateMachineArn())
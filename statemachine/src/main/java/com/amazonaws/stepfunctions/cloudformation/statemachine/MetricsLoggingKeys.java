@@ -12,8 +12,10 @@ public enum MetricsLoggingKeys {
     DEFINITION_OBJECT_PROVIDED("DefinitionObjectProvided"),
     DEFINITION_STRING_PROVIDED("DefinitionStringProvided"),
     DEFINITION_S3_LOCATION_PROVIDED("DefinitionS3LocationProvided"),
+    DEFINITION_S3_FRAGMENTS_PROVIDED("DefinitionS3FragmentsProvided"),
     S3_DEFINITION_YAML("S3DefinitionYaml"),
     S3_DEFINITION_JSON("S3DefinitionJson"),
+    S3_DEFINITION_GZIP("S3DefinitionGzip"),
     STATE_MACHINE_STANDARD_TYPE("StateMachineStandardType"),
     STATE_MACHINE_EXPRESS_TYPE("StateMachineExpressType"),
     STATE_MACHINE_NAME_GENERATED("StateMachineNameGenerated"),
@@ -23,7 +25,13 @@ public enum MetricsLoggingKeys {
     TEMPLATE_MISSING_DEFINITION("TemplateMissingDefinition"),
     MULTIPLE_DEFINITIONS_PROVIDED("MultipleDefinitionsProvided"),
     S3_DEFINITION_SIZE_LIMIT_EXCEEDED("S3DefinitionSizeLimitExceeded"),
-    DEFINITION_INVALID_FORMAT("DefinitionInvalidFormat");
+    DEFINITION_INVALID_FORMAT("DefinitionInvalidFormat"),
+    DEFINITION_CACHE_HIT("DefinitionCacheHit"),
+    DEFINITION_CACHE_MISS("DefinitionCacheMiss"),
+    DEFINITION_CACHE_EVICTION("DefinitionCacheEviction"),
+    DEFINITION_CACHE_ENTRY_TOO_LARGE("DefinitionCacheEntryTooLarge"),
+    LIST_HYDRATED("ListHydrated"),
+    LIST_HYDRATION_PARTIAL("ListHydrationPartial");
 
     public final String loggingKey;
 
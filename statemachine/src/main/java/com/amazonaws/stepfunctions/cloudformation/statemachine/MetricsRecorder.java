@@ -1,25 +1,27 @@
 package com.amazonaws.stepfunctions.cloudformation.statemachine;
 
-import lombok.Setter;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.exceptions.TerminalException;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_ENTRY_TOO_LARGE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_EVICTION;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_HIT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_MISS;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_INVALID_FORMAT;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_OBJECT_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_S3_FRAGMENTS_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_S3_LOCATION_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_STRING_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_SUBSTITUTIONS_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.LIST_HYDRATED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.LIST_HYDRATION_PARTIAL;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.LOGGING_CONFIGURATION_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.MULTIPLE_DEFINITIONS_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.OPERATION_FAILURE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.OPERATION_STATUS;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.OPERATION_SUCCESS;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.OPERATION_TYPE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_GZIP;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_JSON;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_SIZE_LIMIT_EXCEEDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_YAML;
@@ -33,41 +35,170 @@ import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLog
  *  Class to encapsulate the logic behind tracking resource property usage
  *  Properties that are changed from their default values are included in
  *  the string generated for metrics tracking.
+ *  Properties are stored as bits indexed by their MetricsLoggingKeys ordinal, and the metrics string is assembled
+ *  from fragments built once per class into a builder reused by each thread, so that recording and generating
+ *  metrics only allocates the returned string.
  */
-@Setter
 public class MetricsRecorder {
 
-    // CloudFormation operation type and status
+    // Properties listed in the metrics string, in the order they are listed in
+    private static final MetricsLoggingKeys[] LISTED_KEYS = {
+            DEFINITION_OBJECT_PROVIDED,
+            DEFINITION_STRING_PROVIDED,
+            DEFINITION_S3_LOCATION_PROVIDED,
+            DEFINITION_S3_FRAGMENTS_PROVIDED,
+            S3_DEFINITION_JSON,
+            S3_DEFINITION_YAML,
+            S3_DEFINITION_GZIP,
+            STATE_MACHINE_EXPRESS_TYPE,
+            STATE_MACHINE_STANDARD_TYPE,
+            STATE_MACHINE_NAME_GENERATED,
+            LOGGING_CONFIGURATION_PROVIDED,
+            TRACING_CONFIGURATION_PROVIDED,
+            DEFINITION_SUBSTITUTIONS_PROVIDED,
+            TEMPLATE_MISSING_DEFINITION,
+            MULTIPLE_DEFINITIONS_PROVIDED,
+            S3_DEFINITION_SIZE_LIMIT_EXCEEDED,
+            DEFINITION_INVALID_FORMAT,
+            DEFINITION_CACHE_HIT,
+            DEFINITION_CACHE_MISS,
+            DEFINITION_CACHE_EVICTION,
+            DEFINITION_CACHE_ENTRY_TOO_LARGE,
+            LIST_HYDRATED,
+            LIST_HYDRATION_PARTIAL
+    };
+
+    // The metrics string up to the operation status, by HandlerOperationType ordinal
+    private static final String[] OPERATION_TYPE_FRAGMENTS = new String[HandlerOperationType.values().length];
+    private static final String OPERATION_SUCCESS_FRAGMENT = OPERATION_SUCCESS.loggingKey + ", ";
+    private static final String OPERATION_FAILURE_FRAGMENT = OPERATION_FAILURE.loggingKey + ", ";
+    // A listed property preceded by its separator, by MetricsLoggingKeys ordinal
+    private static final String[] SEPARATED_KEY_FRAGMENTS = new String[MetricsLoggingKeys.values().length];
+    private static final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    static {
+        if (MetricsLoggingKeys.values().length > Long.SIZE) {
+            throw new IllegalStateException("MetricsRecorder stores at most " + Long.SIZE + " properties");
+        }
+        for (final HandlerOperationType operationType : HandlerOperationType.values()) {
+            OPERATION_TYPE_FRAGMENTS[operationType.ordinal()] = String.format("%s - %s: %s, %s: ",
+                    Constants.METRICS_LOGGING_PREFIX, OPERATION_TYPE.loggingKey, operationType, OPERATION_STATUS.loggingKey);
+        }
+        for (final MetricsLoggingKeys key : MetricsLoggingKeys.values()) {
+            SEPARATED_KEY_FRAGMENTS[key.ordinal()] = ", " + key.loggingKey;
+        }
+    }
+
+    // CloudFormation operation type, the status and every other property are bits of the flags
     private final HandlerOperationType operationType;
-    private boolean isOperationSuccessful;
+    private long flags;
+
+    public MetricsRecorder(HandlerOperationType operationType) {
+        this.operationType = operationType;
+    }
+
+    // CloudFormation operation status
+    public void setOperationSuccessful(final boolean value) {
+        set(OPERATION_SUCCESS, value);
+    }
 
     // Definition source
-    private boolean isDefinitionObjectProvided;
-    private boolean isDefinitionStringProvided;
-    private boolean isDefinitionS3LocationProvided;
+    public void setDefinitionObjectProvided(final boolean value) {
+        set(DEFINITION_OBJECT_PROVIDED, value);
+    }
+
+    public void setDefinitionStringProvided(final boolean value) {
+        set(DEFINITION_STRING_PROVIDED, value);
+    }
+
+    public void setDefinitionS3LocationProvided(final boolean value) {
+        set(DEFINITION_S3_LOCATION_PROVIDED, value);
+    }
+
+    public void setAreDefinitionS3FragmentsProvided(final boolean value) {
+        set(DEFINITION_S3_FRAGMENTS_PROVIDED, value);
+    }
 
     // S3 Definition type
-    private boolean isS3DefinitionJson;
-    private boolean isS3DefinitionYaml;
+    public void setS3DefinitionJson(final boolean value) {
+        set(S3_DEFINITION_JSON, value);
+    }
+
+    public void setS3DefinitionYaml(final boolean value) {
+        set(S3_DEFINITION_YAML, value);
+    }
+
+    public void setS3DefinitionGzip(final boolean value) {
+        set(S3_DEFINITION_GZIP, value);
+    }
 
     // State Machine type
-    private boolean isStateMachineExpressType;
-    private boolean isStateMachineStandardType;
+    public void setStateMachineExpressType(final boolean value) {
+        set(STATE_MACHINE_EXPRESS_TYPE, value);
+    }
+
+    public void setStateMachineStandardType(final boolean value) {
+        set(STATE_MACHINE_STANDARD_TYPE, value);
+    }
 
     // Other properties
-    private boolean isStateMachineNameGenerated;
-    private boolean isLoggingConfigurationProvided;
-    private boolean isTracingConfigurationProvided;
-    private boolean areDefinitionSubstitutionsProvided;
+    public void setStateMachineNameGenerated(final boolean value) {
+        set(STATE_MACHINE_NAME_GENERATED, value);
+    }
+
+    public void setLoggingConfigurationProvided(final boolean value) {
+        set(LOGGING_CONFIGURATION_PROVIDED, value);
+    }
+
+    public void setTracingConfigurationProvided(final boolean value) {
+        set(TRACING_CONFIGURATION_PROVIDED, value);
+    }
+
+    public void setAreDefinitionSubstitutionsProvided(final boolean value) {
+        set(DEFINITION_SUBSTITUTIONS_PROVIDED, value);
+    }
 
     // Template failure causes
-    private boolean isTemplateMissingDefinition;
-    private boolean areMultipleDefinitionsProvided;
-    private boolean isS3DefinitionSizeLimitExceeded;
-    private boolean isDefinitionInvalidFormat;
+    public void setTemplateMissingDefinition(final boolean value) {
+        set(TEMPLATE_MISSING_DEFINITION, value);
+    }
 
-    public MetricsRecorder(HandlerOperationType operationType) {
-        this.operationType = operationType;
+    public void setAreMultipleDefinitionsProvided(final boolean value) {
+        set(MULTIPLE_DEFINITIONS_PROVIDED, value);
+    }
+
+    public void setS3DefinitionSizeLimitExceeded(final boolean value) {
+        set(S3_DEFINITION_SIZE_LIMIT_EXCEEDED, value);
+    }
+
+    public void setDefinitionInvalidFormat(final boolean value) {
+        set(DEFINITION_INVALID_FORMAT, value);
+    }
+
+    // Definition cache, whose hit rate is the share of hits among hits and misses
+    public void setDefinitionCacheHit(final boolean value) {
+        set(DEFINITION_CACHE_HIT, value);
+    }
+
+    public void setDefinitionCacheMiss(final boolean value) {
+        set(DEFINITION_CACHE_MISS, value);
+    }
+
+    public void setDefinitionCacheEviction(final boolean value) {
+        set(DEFINITION_CACHE_EVICTION, value);
+    }
+
+    public void setDefinitionCacheEntryTooLarge(final boolean value) {
+        set(DEFINITION_CACHE_ENTRY_TOO_LARGE, value);
+    }
+
+    // List hydration
+    public void setListHydrated(final boolean value) {
+        set(LIST_HYDRATED, value);
+    }
+
+    public void setListHydrationPartial(final boolean value) {
+        set(LIST_HYDRATION_PARTIAL, value);
     }
 
     public void setMetricsFromResourceModel(final ResourceModel model) {
@@ -77,6 +208,10 @@ public class MetricsRecorder {
 
         if (model.getDefinitionS3Location() != null) {
             setDefinitionS3LocationProvided(true);
+
+            if (model.getDefinitionS3Location().getFragments() != null && !model.getDefinitionS3Location().getFragments().isEmpty()) {
+                setAreDefinitionS3FragmentsProvided(true);
+            }
         }
 
         if (model.getDefinition() != null) {
@@ -134,96 +269,38 @@ public class MetricsRecorder {
     }
 
     public String generateMetricsString() {
-        StringBuilder sb = new StringBuilder();
-
-        // Add prefix for identifying logging entries used for metrics
-        sb.append(String.format("%s - ", Constants.METRICS_LOGGING_PREFIX));
-
-        // Add key val metric pairs.
-        Map<String, String> loggingPairsToAdd = getMetricsLoggingKeyValMap();
-        for (Map.Entry<String, String> loggingPair : loggingPairsToAdd.entrySet()) {
-            sb.append(String.format("%s: %s, ", loggingPair.getKey(), loggingPair.getValue()));
+        final StringBuilder sb = builders.get();
+        sb.setLength(0);
+
+        // Prefix for identifying logging entries used for metrics, then the operation type and status
+        sb.append(OPERATION_TYPE_FRAGMENTS[operationType.ordinal()]);
+        sb.append(isSet(OPERATION_SUCCESS) ? OPERATION_SUCCESS_FRAGMENT : OPERATION_FAILURE_FRAGMENT);
+
+        // Listed metric keys, separated by commas
+        boolean isFirstKey = true;
+        for (final MetricsLoggingKeys key : LISTED_KEYS) {
+            if (isSet(key)) {
+                if (isFirstKey) {
+                    sb.append(key.loggingKey);
+                    isFirstKey = false;
+                } else {
+                    sb.append(SEPARATED_KEY_FRAGMENTS[key.ordinal()]);
+                }
+            }
         }
 
-        // Add listed metric keys
-        List<String> loggingKeysToAdd = getMetricsLoggingKeyList();
-        sb.append(String.join(", ", loggingKeysToAdd));
-
         return sb.toString();
     }
 
-    private Map<String, String> getMetricsLoggingKeyValMap() {
-        Map<String, String> loggingPairsToAdd = new LinkedHashMap<>();
-
-        loggingPairsToAdd.put(OPERATION_TYPE.loggingKey, operationType.toString());
-        loggingPairsToAdd.put(OPERATION_STATUS.loggingKey, isOperationSuccessful ? OPERATION_SUCCESS.loggingKey : OPERATION_FAILURE.loggingKey);
-
-        return loggingPairsToAdd;
+    boolean isSet(final MetricsLoggingKeys key) {
+        return (flags & (1L << key.ordinal())) != 0;
     }
 
-    private List<String> getMetricsLoggingKeyList() {
-        List<String> loggingKeysToAdd = new ArrayList<>();
-
-        if (isDefinitionObjectProvided) {
-            loggingKeysToAdd.add(DEFINITION_OBJECT_PROVIDED.loggingKey);
-        }
-
-        if (isDefinitionStringProvided) {
-            loggingKeysToAdd.add(DEFINITION_STRING_PROVIDED.loggingKey);
-        }
-
-        if (isDefinitionS3LocationProvided) {
-            loggingKeysToAdd.add(DEFINITION_S3_LOCATION_PROVIDED.loggingKey);
-        }
-
-        if (isS3DefinitionJson) {
-            loggingKeysToAdd.add(S3_DEFINITION_JSON.loggingKey);
+    private void set(final MetricsLoggingKeys key, final boolean value) {
+        if (value) {
+            flags |= 1L << key.ordinal();
+        } else {
+            flags &= ~(1L << key.ordinal());
         }
-
-        if (isS3DefinitionYaml) {
-            loggingKeysToAdd.add(S3_DEFINITION_YAML.loggingKey);
-        }
-
-        if (isStateMachineExpressType) {
-            loggingKeysToAdd.add(STATE_MACHINE_EXPRESS_TYPE.loggingKey);
-        }
-
-        if (isStateMachineStandardType) {
-            loggingKeysToAdd.add(STATE_MACHINE_STANDARD_TYPE.loggingKey);
-        }
-
-        if (isStateMachineNameGenerated) {
-            loggingKeysToAdd.add(STATE_MACHINE_NAME_GENERATED.loggingKey);
-        }
-
-        if (isLoggingConfigurationProvided) {
-            loggingKeysToAdd.add(LOGGING_CONFIGURATION_PROVIDED.loggingKey);
-        }
-
-        if (isTracingConfigurationProvided) {
-            loggingKeysToAdd.add(TRACING_CONFIGURATION_PROVIDED.loggingKey);
-        }
-
-        if (areDefinitionSubstitutionsProvided) {
-            loggingKeysToAdd.add(DEFINITION_SUBSTITUTIONS_PROVIDED.loggingKey);
-        }
-
-        if (isTemplateMissingDefinition) {
-            loggingKeysToAdd.add(TEMPLATE_MISSING_DEFINITION.loggingKey);
-        }
-
-        if (areMultipleDefinitionsProvided) {
-            loggingKeysToAdd.add(MULTIPLE_DEFINITIONS_PROVIDED.loggingKey);
-        }
-
-        if (isS3DefinitionSizeLimitExceeded) {
-            loggingKeysToAdd.add(S3_DEFINITION_SIZE_LIMIT_EXCEEDED.loggingKey);
-        }
-
-        if (isDefinitionInvalidFormat) {
-            loggingKeysToAdd.add(DEFINITION_INVALID_FORMAT.loggingKey);
-        }
-
-        return loggingKeysToAdd;
     }
 }
@@ -0,0 +1,134 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.Request;
+import com.amazonaws.SDKGlobalConfiguration;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.services.stepfunctions.AWSStepFunctionsClientBuilder;
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineRequest;
+import com.amazonaws.services.stepfunctions.model.Tag;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.collect.ImmutableMap;
+import software.amazon.cloudformation.resource.Serializer;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Runs the code paths of a first Create request while the function is initialised, so that Jackson introspection,
+ *   SDK marshaller class loading, endpoint resolution and TLS setup are not paid for by the first request.
+ * Priming is off by default, and is enabled by setting the PRIMING_ENABLED environment variable to true. It is
+ *   attempted once; a failure is logged to standard error, which Lambda sends to the function's log group.
+ * Nothing is sent over the network and no credentials, connections or request-specific state outlive priming,
+ *   so the initialised function can be safely snapshotted and restored.
+ */
+public class Priming {
+
+    private static final String PRIMING_ROLE_ARN = "arn:aws:iam::123456789012:role/Priming";
+    private static final TypeReference<ResourceModel> RESOURCE_MODEL_TYPE = new TypeReference<ResourceModel>() { };
+
+    private static boolean attempted;
+    private static boolean primed;
+
+    private Priming() {
+    }
+
+    public static void primeIfEnabled() {
+        if (Boolean.parseBoolean(System.getenv(Constants.PRIMING_ENABLED_ENVIRONMENT_VARIABLE))) {
+            prime();
+        }
+    }
+
+    /**
+     * Primes the function once, subsequent calls do nothing
+     * @return Whether every step of priming completed
+     */
+    public static synchronized boolean prime() {
+        if (attempted) {
+            return primed;
+        }
+        attempted = true;
+
+        try {
+            // The representative model has an inline definition, so nothing is fetched from S3
+            final ResourceModel model = primeSerialization(getRepresentativeModel());
+            DefinitionProcessor.processInlineDefinition(model, new MetricsRecorder(HandlerOperationType.CREATE));
+            primeCreateStateMachine(CreateHandler.buildCreateStateMachineRequestFromModel(
+                    model, Collections.singletonList(new Tag().withKey("Priming").withValue("true"))));
+            primed = true;
+        } catch (final Exception e) {
+            // Priming is best effort, the first request initialises whatever was not primed
+            System.err.println(String.format("Priming failed: %s: %s", e.getClass().getName(), e.getMessage()));
+        }
+        return primed;
+    }
+
+    // The Serializer's object mappers are shared with the HandlerWrapper, which deserializes the request the same way
+    private static ResourceModel primeSerialization(final ResourceModel model) throws Exception {
+        final Serializer serializer = new Serializer();
+        return serializer.deserialize(serializer.serialize(model), RESOURCE_MODEL_TYPE);
+    }
+
+    // Marshals the request and resolves the regional endpoint, then aborts the request before it is signed and sent
+    private static void primeCreateStateMachine(final CreateStateMachineRequest request) {
+        final AWSStepFunctions sfnClient = AWSStepFunctionsClientBuilder.standard()
+                .withRegion(getRegion())
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("priming", "priming")))
+                .withClientConfiguration(new ClientConfiguration().withRetryPolicy(ClientBuilder.getRetryPolicy()))
+                .withRequestHandlers(new RequestHandler2() {
+                    @Override
+                    public void beforeRequest(final Request<?> marshalledRequest) {
+                        throw new RequestNotSentException();
+                    }
+                })
+                .build();
+        try {
+            sfnClient.createStateMachine(request);
+        } catch (final RequestNotSentException e) {
+            // Expected, the request is never sent
+        } finally {
+            sfnClient.shutdown();
+        }
+    }
+
+    private static String getRegion() {
+        final String region = System.getenv(SDKGlobalConfiguration.AWS_REGION_ENV_VAR);
+        return region != null ? region : Regions.DEFAULT_REGION.getName();
+    }
+
+    private static ResourceModel getRepresentativeModel() {
+        final LoggingConfiguration loggingConfiguration = new LoggingConfiguration();
+        loggingConfiguration.setLevel("ERROR");
+        loggingConfiguration.setIncludeExecutionData(true);
+        loggingConfiguration.setDestinations(Collections.singletonList(
+                new LogDestination(new CloudWatchLogsLogGroup("arn:aws:logs:us-east-1:123456789012:log-group:Priming:*"))
+        ));
+
+        final TracingConfiguration tracingConfiguration = new TracingConfiguration();
+        tracingConfiguration.setEnabled(false);
+
+        final Map<String, Object> passState = ImmutableMap.of("Type", "Pass", "Result", "${Value}", "End", true);
+        return ResourceModel.builder()
+                .stateMachineName("Priming")
+                .roleArn(PRIMING_ROLE_ARN)
+                .stateMachineType(Constants.STANDARD_STATE_MACHINE_TYPE)
+                .definition(ImmutableMap.of("StartAt", "Pass", "States", ImmutableMap.of("Pass", passState)))
+                .definitionSubstitutions(Collections.singletonMap("Value", "Primed"))
+                .loggingConfiguration(loggingConfiguration)
+                .tracingConfiguration(tracingConfiguration)
+                .tags(Collections.singletonList(new TagsEntry("Priming", "true")))
+                .build();
+    }
+
+    private static class RequestNotSentException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        RequestNotSentException() {
+            super(null, null, false, false);
+        }
+    }
+}
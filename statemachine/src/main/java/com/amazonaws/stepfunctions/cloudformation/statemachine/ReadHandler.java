@@ -23,13 +23,14 @@ public class ReadHandler extends ResourceHandler {
     }
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachine ReadHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "ReadHandler");
+        handlerLogger.info("StateMachine ReadHandler invoked");
 
         final ResourceModel model = request.getDesiredResourceState();
 
@@ -42,24 +43,33 @@ public class ReadHandler extends ResourceHandler {
 
             final DescribeStateMachineRequest describeStateMachineRequest =
                     buildDescribeStateMachineRequestFromModel(model);
-            final DescribeStateMachineResult describeStateMachineResult =
-                    proxy.injectCredentialsAndInvoke(describeStateMachineRequest, sfnClient::describeStateMachine);
+            final DescribeStateMachineResult describeStateMachineResult;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.READ)) {
+                describeStateMachineResult = HedgedInvoker.invoke(proxy, describeStateMachineRequest, sfnClient::describeStateMachine);
+            }
 
+            final String callerIdentity = AccessDeniedCache.getCallerIdentity(describeStateMachineRequest);
             List<Tag> stateMachineTags = null;
-            try {
-                stateMachineTags = TaggingHelper.listTagsForResource(model.getArn(), proxy, sfnClient);
-            } catch (final AmazonServiceException e) {
-                // To provide backwards compatibility, do not fail the request if ListTagsForResource
-                // permissions are not present
-                if (!Constants.ACCESS_DENIED_ERROR_CODE.equals(e.getErrorCode())) {
-                    throw e;
+            if (AccessDeniedCache.isDenied(callerIdentity, Constants.LIST_TAGS_FOR_RESOURCE_API_NAME)) {
+                handlerLogger.info("ListTagsForResource permission recently not present, excluding tags from resource model");
+            } else {
+                try {
+                    stateMachineTags = TaggingHelper.listTagsForResource(model.getArn(), proxy, sfnClient);
+                } catch (final AmazonServiceException e) {
+                    // To provide backwards compatibility, do not fail the request if ListTagsForResource
+                    // permissions are not present
+                    if (!Constants.ACCESS_DENIED_ERROR_CODE.equals(e.getErrorCode())) {
+                        throw e;
+                    }
+
+                    AccessDeniedCache.recordDenied(callerIdentity, Constants.LIST_TAGS_FOR_RESOURCE_API_NAME);
+                    handlerLogger.info("ListTagsForResource permission not present, excluding tags from resource model");
                 }
-
-                logger.log("INFO ListTagsForResource permission not present, excluding tags from resource model");
             }
 
+            // Only the version this resource published is reported, and it is only known from the stored model
             final ResourceModel updatedModel = ResourceModelUtils.getUpdatedResourceModelFromReadResults(
-                    describeStateMachineResult, stateMachineTags);
+                    describeStateMachineResult, stateMachineTags, model.getStateMachineVersionArn());
 
             final ProgressEvent<ResourceModel, CallbackContext> progressEvent =
                     ProgressEvent.<ResourceModel, CallbackContext>builder()
@@ -71,7 +81,7 @@ public class ReadHandler extends ResourceHandler {
 
             return progressEvent;
         } catch (final Exception e) {
-            logger.log("ERROR Reading StateMachine, caused by " + e.toString());
+            handlerLogger.error("Error reading StateMachine", e);
 
             return handleDefaultError(request, e, metricsRecorder);
         } finally {
@@ -3,13 +3,45 @@ package com.amazonaws.stepfunctions.cloudformation.statemachine;
 import com.amazonaws.AmazonServiceException;
 import software.amazon.cloudformation.exceptions.BaseHandlerException;
 import software.amazon.cloudformation.exceptions.TerminalException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 public abstract class ResourceHandler extends BaseHandler<CallbackContext> {
 
+    // The HandlerWrapper creates the handlers while the function is initialised, before the first request
+    static {
+        Priming.primeIfEnabled();
+    }
+
+    /**
+     * Traces the invocation, see {@link Tracing}, and handles it with handleTracedRequest.
+     */
+    @Override
+    public final ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request,
+            final CallbackContext callbackContext,
+            final Logger logger) {
+        Tracing.begin(request, getClass().getSimpleName(), callbackContext != null);
+        ProgressEvent<ResourceModel, CallbackContext> progressEvent = null;
+        try {
+            progressEvent = handleTracedRequest(proxy, request, callbackContext, logger);
+            return progressEvent;
+        } finally {
+            Tracing.end(progressEvent != null ? progressEvent.getStatus() : null, logger);
+        }
+    }
+
+    protected abstract ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
+            AmazonWebServicesClientProxy proxy,
+            ResourceHandlerRequest<ResourceModel> request,
+            CallbackContext callbackContext,
+            Logger logger);
+
     /**
      * Generic strategy to handle errors.
      * https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
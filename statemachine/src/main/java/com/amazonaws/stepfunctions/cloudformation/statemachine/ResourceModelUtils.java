@@ -5,9 +5,14 @@ import com.amazonaws.services.stepfunctions.model.DescribeStateMachineResult;
 import com.amazonaws.services.stepfunctions.model.LoggingConfiguration;
 import com.amazonaws.services.stepfunctions.model.Tag;
 import com.amazonaws.services.stepfunctions.model.TracingConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.cloudformation.exceptions.TerminalException;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.cloudformation.resource.IdentifierUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -15,6 +20,8 @@ import java.util.List;
  */
 public class ResourceModelUtils {
 
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+
     private ResourceModelUtils() {
     }
 
@@ -30,8 +37,22 @@ public class ResourceModelUtils {
         }
     }
 
+    // A version description only applies to the version published with the change, so it is rejected without Publish
+    public static void validateVersionDescription(final ResourceModel model) throws TerminalException {
+        if (model.getVersionDescription() != null && !Boolean.TRUE.equals(model.getPublish())) {
+            throw new TerminalException(Constants.VERSION_DESCRIPTION_WITHOUT_PUBLISH_ERROR_MESSAGE);
+        }
+    }
+
     public static void updateModelFromResult(final ResourceModel model, final CreateStateMachineResult result) {
         model.setArn(result.getStateMachineArn());
+        model.setStateMachineVersionArn(result.getStateMachineVersionArn());
+    }
+
+    public static ResourceModel getUpdatedResourceModelFromReadResults(
+            final DescribeStateMachineResult describeStateMachineResult,
+            final List<Tag> stateMachineTags) {
+        return getUpdatedResourceModelFromReadResults(describeStateMachineResult, stateMachineTags, null);
     }
 
     /**
@@ -39,11 +60,13 @@ public class ResourceModelUtils {
      *
      * @param describeStateMachineResult The result of calling DescribeStateMachine for the state machine
      * @param stateMachineTags           A list of tags associated with the state machine
+     * @param stateMachineVersionArn     The ARN of the version published by the resource, if any
      * @return A resource model containing the state machine resource's properties
      */
     public static ResourceModel getUpdatedResourceModelFromReadResults(
             final DescribeStateMachineResult describeStateMachineResult,
-            final List<Tag> stateMachineTags) {
+            final List<Tag> stateMachineTags,
+            final String stateMachineVersionArn) {
         final ResourceModel model = ResourceModel.builder()
                 .arn(describeStateMachineResult.getStateMachineArn())
                 .name(describeStateMachineResult.getName())
@@ -52,6 +75,7 @@ public class ResourceModelUtils {
                 .stateMachineName(describeStateMachineResult.getName())
                 .stateMachineType(describeStateMachineResult.getType())
                 .stateMachineRevisionId(describeStateMachineResult.getRevisionId() != null ? describeStateMachineResult.getRevisionId() : Constants.STATE_MACHINE_INITIAL_REVISION_ID)
+                .stateMachineVersionArn(stateMachineVersionArn)
                 .build();
 
         final LoggingConfiguration loggingConfiguration = describeStateMachineResult.getLoggingConfiguration();
@@ -71,4 +95,34 @@ public class ResourceModelUtils {
         return model;
     }
 
+    /**
+     * Counts the bytes of the model serialized as JSON, without holding the serialized model in memory
+     *
+     * @param model A resource model
+     * @return The size of the serialized model, including properties that are null
+     */
+    public static long getSerializedSize(final ResourceModel model) {
+        final CountingOutputStream outputStream = new CountingOutputStream();
+        try {
+            jsonMapper.writeValue(outputStream, model);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.count;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(final int b) {
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            count += len;
+        }
+    }
+
 }
@@ -0,0 +1,279 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records how long the phases of a handler invocation take, as the spans of a trace identified by the request's
+ *   clientRequestToken. CloudFormation keeps the token across the callbacks of an operation, so the critical path of
+ *   an operation can be reconstructed offline by ordering the traces with its token by their start time.
+ * A trace is exported as a single JSON line when the invocation completes, either to the handler's Logger or appended
+ *   to a local file, as configured by the TRACE_EXPORTER environment variable ("logger" or "file", with the file set
+ *   by TRACE_FILE). Otherwise nothing is recorded and every span is a shared no-op.
+ * Each thread reuses its trace, spans and output buffer, so tracing does not allocate per span.
+ * Traces are per thread, so a span opened on a worker thread is a no-op. Work handed to a pool is measured by the
+ *   span the handler thread holds while it waits for the results.
+ */
+public class Tracing {
+
+    public enum Phase {
+        VALIDATE("validate"),
+        RESOLVE_DEFINITION("resolveDefinition"),
+        S3_FETCH("s3Fetch"),
+        PARSE("parse"),
+        SUBSTITUTE("substitute"),
+        EXISTENCE_CHECK("existenceCheck"),
+        CREATE("create"),
+        READ("read"),
+        UPDATE("update"),
+        DELETE("delete"),
+        LIST("list"),
+        HYDRATE("hydrate"),
+        TAGGING("tagging"),
+        STABILIZATION_POLL("stabilizationPoll");
+
+        private final String spanName;
+
+        Phase(final String spanName) {
+            this.spanName = spanName;
+        }
+    }
+
+    enum Exporter {
+        NONE,
+        LOGGER,
+        FILE
+    }
+
+    private static final Span NO_OP_SPAN = new Span(null, -1);
+    private static final ThreadLocal<Trace> traces = ThreadLocal.withInitial(Trace::new);
+
+    // Set by tests, read from the environment otherwise
+    private static volatile Exporter exporter = getExporter(System.getenv(Constants.TRACE_EXPORTER_ENVIRONMENT_VARIABLE));
+    private static volatile Path traceFile = getTraceFile(System.getenv(Constants.TRACE_FILE_ENVIRONMENT_VARIABLE));
+
+    private Tracing() {
+    }
+
+    static void setExporter(final Exporter testExporter, final Path testTraceFile) {
+        exporter = testExporter;
+        traceFile = testTraceFile;
+    }
+
+    /**
+     * Starts the trace of a handler invocation on the current thread
+     * @param request The handler request, whose clientRequestToken identifies the trace
+     * @param handlerName The name of the handler, e.g. "CreateHandler"
+     * @param isCallback Whether the handler was invoked with the callback context of a previous invocation
+     */
+    static void begin(final ResourceHandlerRequest<ResourceModel> request, final String handlerName, final boolean isCallback) {
+        if (exporter != Exporter.NONE) {
+            traces.get().begin(request.getClientRequestToken(), handlerName, isCallback);
+        }
+    }
+
+    /**
+     * Ends the trace of the current thread's handler invocation and exports it
+     * @param status The status the handler returned, or null if it threw
+     * @param logger The handler's logger, which is also used to report traces that could not be written
+     */
+    static void end(final OperationStatus status, final Logger logger) {
+        final Exporter currentExporter = exporter;
+        if (currentExporter == Exporter.NONE) {
+            return;
+        }
+
+        final Trace trace = traces.get();
+        if (!trace.active) {
+            return;
+        }
+        trace.active = false;
+
+        if (currentExporter == Exporter.LOGGER) {
+            logger.log(trace.toJson(Constants.TRACE_LOGGING_PREFIX + " - ", status));
+        } else {
+            writeToFile(trace.toJson("", status) + System.lineSeparator(), logger);
+        }
+    }
+
+    /**
+     * Starts a span of the current thread's trace, which ends when the span is closed
+     * @param phase The phase of the handler the span measures
+     * @return The span, which is a no-op if no trace is being recorded
+     */
+    public static Span span(final Phase phase) {
+        if (exporter == Exporter.NONE) {
+            return NO_OP_SPAN;
+        }
+        return traces.get().open(phase);
+    }
+
+    private static synchronized void writeToFile(final String line, final Logger logger) {
+        try {
+            Files.write(traceFile, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (final IOException e) {
+            // Tracing never fails the handler
+            logger.log("WARN Unable to write trace to " + traceFile + ", caused by " + e.toString());
+        }
+    }
+
+    static Exporter getExporter(final String value) {
+        if ("logger".equalsIgnoreCase(value)) {
+            return Exporter.LOGGER;
+        }
+        if ("file".equalsIgnoreCase(value)) {
+            return Exporter.FILE;
+        }
+        return Exporter.NONE;
+    }
+
+    private static Path getTraceFile(final String value) {
+        return Paths.get(value != null && !value.isEmpty() ? value : Constants.DEFAULT_TRACE_FILE);
+    }
+
+    public static final class Span implements AutoCloseable {
+        private final Trace trace;
+        private final int index;
+
+        private Span(final Trace trace, final int index) {
+            this.trace = trace;
+            this.index = index;
+        }
+
+        @Override
+        public void close() {
+            if (trace != null) {
+                trace.close(index);
+            }
+        }
+    }
+
+    /**
+     * The spans of one handler invocation, stored in arrays that are reused by the next invocation on the thread.
+     */
+    private static final class Trace {
+        private final Span[] spans = new Span[Constants.MAX_TRACE_SPANS];
+        private final Phase[] phases = new Phase[Constants.MAX_TRACE_SPANS];
+        private final int[] parents = new int[Constants.MAX_TRACE_SPANS];
+        private final long[] startNanos = new long[Constants.MAX_TRACE_SPANS];
+        private final long[] endNanos = new long[Constants.MAX_TRACE_SPANS];
+        private final StringBuilder json = new StringBuilder(1024);
+
+        private boolean active;
+        private String traceId;
+        private String handlerName;
+        private boolean isCallback;
+        private long traceStartMillis;
+        private long traceStartNanos;
+        private int spanCount;
+        private int droppedSpanCount;
+        private int openSpan;
+
+        Trace() {
+            for (int i = 0; i < spans.length; i++) {
+                spans[i] = new Span(this, i);
+            }
+        }
+
+        void begin(final String traceId, final String handlerName, final boolean isCallback) {
+            this.active = true;
+            this.traceId = traceId;
+            this.handlerName = handlerName;
+            this.isCallback = isCallback;
+            this.traceStartMillis = System.currentTimeMillis();
+            this.traceStartNanos = System.nanoTime();
+            this.spanCount = 0;
+            this.droppedSpanCount = 0;
+            this.openSpan = -1;
+        }
+
+        Span open(final Phase phase) {
+            if (!active) {
+                return NO_OP_SPAN;
+            }
+            if (spanCount == spans.length) {
+                droppedSpanCount++;
+                return NO_OP_SPAN;
+            }
+
+            final int index = spanCount++;
+            phases[index] = phase;
+            parents[index] = openSpan;
+            startNanos[index] = System.nanoTime();
+            endNanos[index] = -1;
+            openSpan = index;
+            return spans[index];
+        }
+
+        void close(final int index) {
+            if (!active || index >= spanCount || endNanos[index] >= 0) {
+                return;
+            }
+            endNanos[index] = System.nanoTime();
+            openSpan = parents[index];
+        }
+
+        String toJson(final String prefix, final OperationStatus status) {
+            final long traceEndNanos = System.nanoTime();
+
+            json.setLength(0);
+            json.append(prefix).append("{\"traceId\":");
+            appendString(traceId);
+            json.append(",\"handler\":");
+            appendString(handlerName);
+            json.append(",\"callback\":").append(isCallback);
+            json.append(",\"startMillis\":").append(traceStartMillis);
+            json.append(",\"durationMicros\":").append(toMicros(traceEndNanos - traceStartNanos));
+            json.append(",\"status\":");
+            appendString(status != null ? status.name() : null);
+            json.append(",\"spans\":[");
+            for (int i = 0; i < spanCount; i++) {
+                // Spans left open by an exception end with the invocation
+                final long spanEndNanos = endNanos[i] >= 0 ? endNanos[i] : traceEndNanos;
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"name\":");
+                appendString(phases[i].spanName);
+                json.append(",\"parent\":").append(parents[i]);
+                json.append(",\"startMicros\":").append(toMicros(startNanos[i] - traceStartNanos));
+                json.append(",\"durationMicros\":").append(toMicros(spanEndNanos - startNanos[i]));
+                json.append('}');
+            }
+            json.append("],\"droppedSpans\":").append(droppedSpanCount).append('}');
+            return json.toString();
+        }
+
+        private void appendString(final String value) {
+            if (value == null) {
+                json.append("null");
+                return;
+            }
+
+            json.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    json.append('\\').append(c);
+                } else if (c < 0x20) {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+            }
+            json.append('"');
+        }
+
+        private static long toMicros(final long nanos) {
+            return nanos / 1000;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.amazonaws.stepfunctions.cloudformation.statemachine;
 
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
-import com.amazonaws.services.stepfunctions.AWSStepFunctionsClientBuilder;
 import com.amazonaws.services.stepfunctions.model.Tag;
 import com.amazonaws.services.stepfunctions.model.UpdateStateMachineRequest;
 import com.amazonaws.services.stepfunctions.model.UpdateStateMachineResult;
@@ -16,17 +15,19 @@ import java.util.Set;
 
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.DefinitionProcessor.processDefinition;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.DefinitionProcessor.validateDefinitionCount;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.ResourceModelUtils.validateVersionDescription;
 
 public class UpdateHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachine UpdateHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "UpdateHandler");
+        handlerLogger.info("StateMachine UpdateHandler invoked");
 
         final ResourceModel model = request.getDesiredResourceState();
 
@@ -36,15 +37,29 @@ public class UpdateHandler extends ResourceHandler {
         try {
             verifyStateMachineArnIsPresent(model.getArn());
 
-            AWSStepFunctions sfnClient = AWSStepFunctionsClientBuilder.defaultClient();
+            AWSStepFunctions sfnClient = ClientBuilder.getClient();
 
-            validateDefinitionCount(model);
-            processDefinition(proxy, model, metricsRecorder);
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.VALIDATE)) {
+                validateDefinitionCount(model);
+                validateVersionDescription(model);
+            }
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.RESOLVE_DEFINITION)) {
+                processDefinition(proxy, model, metricsRecorder);
+            }
 
             UpdateStateMachineRequest updateStateMachineRequest = buildUpdateStateMachineRequestFromModel(model);
 
-            UpdateStateMachineResult updateStateMachineResult = proxy.injectCredentialsAndInvoke(updateStateMachineRequest, sfnClient::updateStateMachine);
+            UpdateStateMachineResult updateStateMachineResult;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.UPDATE)) {
+                updateStateMachineResult = proxy.injectCredentialsAndInvoke(updateStateMachineRequest, sfnClient::updateStateMachine);
+            }
             model.setStateMachineRevisionId(updateStateMachineResult.getRevisionId());
+            // Updates that do not publish leave the latest version in place
+            if (updateStateMachineResult.getStateMachineVersionArn() != null) {
+                model.setStateMachineVersionArn(updateStateMachineResult.getStateMachineVersionArn());
+            } else if (request.getPreviousResourceState() != null) {
+                model.setStateMachineVersionArn(request.getPreviousResourceState().getStateMachineVersionArn());
+            }
             updateTags(request, proxy, sfnClient);
 
             metricsRecorder.setOperationSuccessful(true);
@@ -58,7 +73,7 @@ public class UpdateHandler extends ResourceHandler {
 
             return progressEvent;
         } catch (Exception e) {
-            logger.log("ERROR Updating StateMachine, caused by " + e.toString());
+            handlerLogger.error("Error updating StateMachine", e);
 
             return handleDefaultError(request, e, metricsRecorder);
         } finally {
@@ -71,6 +86,8 @@ public class UpdateHandler extends ResourceHandler {
         updateStateMachineRequest.setStateMachineArn(model.getArn());
         updateStateMachineRequest.setRoleArn(model.getRoleArn());
         updateStateMachineRequest.setDefinition(model.getDefinitionString());
+        updateStateMachineRequest.setPublish(model.getPublish());
+        updateStateMachineRequest.setVersionDescription(model.getVersionDescription());
 
         if (model.getLoggingConfiguration() != null) {
             updateStateMachineRequest.setLoggingConfiguration(Translator.getLoggingConfiguration(model.getLoggingConfiguration()));
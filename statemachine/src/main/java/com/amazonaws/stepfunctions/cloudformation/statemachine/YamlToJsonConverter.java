@@ -0,0 +1,103 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Converts a YAML document to JSON by copying the tokens of a YAML parser straight to a JSON generator, so that
+ *   the document is never held as a tree of nodes.
+ * Only the first document of a YAML stream is converted, and aliases are copied as the name of their anchor, as
+ *   when the document is read into a tree.
+ * Loading this class loads SnakeYAML, so it is only referenced once a definition turned out not to be JSON.
+ */
+public class YamlToJsonConverter {
+
+    public enum KeyOrder {
+        // Keys are written in the order of the YAML document
+        DOCUMENT,
+        // Keys are sorted, which buffers the tokens of each mapping until its last key was read
+        SORTED
+    }
+
+    public enum Layout {
+        // Indented like ObjectMapper.writerWithDefaultPrettyPrinter()
+        PRETTY,
+        COMPACT
+    }
+
+    private static final YAMLFactory yamlFactory = new YAMLFactory();
+    private static final JsonFactory jsonFactory = new JsonFactory()
+            .enable(JsonGenerator.Feature.STRICT_DUPLICATE_DETECTION);
+
+    private YamlToJsonConverter() {
+    }
+
+    /**
+     * @param yaml The YAML document
+     * @param keyOrder The order in which the keys of each mapping are written
+     * @param layout Whether the JSON is indented
+     * @return The JSON document
+     * @throws IOException Thrown if the YAML is invalid, or if a mapping repeats a key while keeping the document
+     *   order, since JSON with duplicate keys is ambiguous
+     */
+    public static String convert(final String yaml, final KeyOrder keyOrder, final Layout layout) throws IOException {
+        final StringWriter json = new StringWriter(yaml.length());
+        try (JsonParser parser = yamlFactory.createParser(yaml);
+             JsonGenerator generator = jsonFactory.createGenerator(json)) {
+            if (layout == Layout.PRETTY) {
+                generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            }
+
+            if (parser.nextToken() == null) {
+                // An empty document reads as a missing node, which is written as null
+                generator.writeNull();
+            } else if (keyOrder == KeyOrder.SORTED) {
+                copySorted(parser, generator);
+            } else {
+                generator.copyCurrentStructure(parser);
+            }
+        }
+        return json.toString();
+    }
+
+    // Copies the value at the parser's current token, writing the keys of its mappings in sorted order
+    private static void copySorted(final JsonParser parser, final JsonGenerator generator) throws IOException {
+        final JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            // Later values of a repeated key replace earlier ones, as when the document is read into a tree
+            final Map<String, TokenBuffer> fields = new TreeMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                final TokenBuffer value = new TokenBuffer(parser);
+                copySorted(parser, value);
+                fields.put(fieldName, value);
+            }
+
+            generator.writeStartObject();
+            for (final Map.Entry<String, TokenBuffer> field : fields.entrySet()) {
+                generator.writeFieldName(field.getKey());
+                field.getValue().serialize(generator);
+            }
+            generator.writeEndObject();
+        } else if (token == JsonToken.START_ARRAY) {
+            generator.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                copySorted(parser, generator);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.copyCurrentEvent(parser);
+        }
+    }
+}
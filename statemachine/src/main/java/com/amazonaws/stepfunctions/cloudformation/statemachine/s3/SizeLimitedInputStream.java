@@ -0,0 +1,61 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine.s3;
+
+import com.amazonaws.stepfunctions.cloudformation.statemachine.Constants;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails reading as soon as more bytes than the definition size limit have been read, so that an object that
+ *   decompresses to far more than it stores is rejected without being inflated in full
+ */
+public class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long bytesRead;
+
+    public SizeLimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long n) {
+        bytesRead += n;
+        if (bytesRead > limit) {
+            throw new CfnInvalidRequestException(Constants.DEFINITION_SIZE_LIMIT_ERROR_MESSAGE);
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccessDeniedCacheTest {
+
+    private static final String API_NAME = Constants.LIST_TAGS_FOR_RESOURCE_API_NAME;
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @AfterEach
+    public void tearDown() {
+        AccessDeniedCache.clear();
+        AccessDeniedCache.setClock(null);
+    }
+
+    @Test
+    public void testDeniedUntilTtlExpires() {
+        final String callerIdentity = AccessDeniedCache.getCallerIdentity(sentRequest("ASIAEXAMPLE1"));
+        AccessDeniedCache.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThat(AccessDeniedCache.isDenied(callerIdentity, API_NAME)).isFalse();
+        AccessDeniedCache.recordDenied(callerIdentity, API_NAME);
+        assertThat(AccessDeniedCache.isDenied(callerIdentity, API_NAME)).isTrue();
+
+        AccessDeniedCache.setClock(Clock.fixed(NOW.plusMillis(Constants.ACCESS_DENIED_CACHE_TTL_MILLIS - 1), ZoneOffset.UTC));
+        assertThat(AccessDeniedCache.isDenied(callerIdentity, API_NAME)).isTrue();
+
+        AccessDeniedCache.setClock(Clock.fixed(NOW.plusMillis(Constants.ACCESS_DENIED_CACHE_TTL_MILLIS), ZoneOffset.UTC));
+        assertThat(AccessDeniedCache.isDenied(callerIdentity, API_NAME)).isFalse();
+    }
+
+    @Test
+    public void testDenialIsScopedToCredentialsAndApi() {
+        final String callerIdentity = AccessDeniedCache.getCallerIdentity(sentRequest("ASIAEXAMPLE1"));
+        final String otherCallerIdentity = AccessDeniedCache.getCallerIdentity(sentRequest("ASIAEXAMPLE2"));
+        AccessDeniedCache.recordDenied(callerIdentity, API_NAME);
+
+        assertThat(AccessDeniedCache.isDenied(AccessDeniedCache.getCallerIdentity(sentRequest("ASIAEXAMPLE1")), API_NAME)).isTrue();
+        assertThat(AccessDeniedCache.isDenied(otherCallerIdentity, API_NAME)).isFalse();
+        assertThat(AccessDeniedCache.isDenied(callerIdentity, "DescribeStateMachine")).isFalse();
+    }
+
+    @Test
+    public void testCallerIdentityDoesNotContainTheAccessKeyId() {
+        final String callerIdentity = AccessDeniedCache.getCallerIdentity(sentRequest("ASIAEXAMPLE1"));
+
+        assertThat(callerIdentity).doesNotContain("ASIAEXAMPLE1");
+        assertThat(callerIdentity).hasSize(64);
+    }
+
+    @Test
+    public void testRequestsSentWithoutCredentialsAreNotCached() {
+        final String callerIdentity = AccessDeniedCache.getCallerIdentity(new DescribeStateMachineRequest());
+
+        AccessDeniedCache.recordDenied(callerIdentity, API_NAME);
+
+        assertThat(callerIdentity).isNull();
+        assertThat(AccessDeniedCache.isDenied(callerIdentity, API_NAME)).isFalse();
+    }
+
+    @Test
+    public void testEvictsWhenFull() {
+        for (int i = 0; i < Constants.ACCESS_DENIED_CACHE_MAX_ENTRIES; i++) {
+            AccessDeniedCache.recordDenied("Caller" + i, API_NAME);
+        }
+        AccessDeniedCache.recordDenied("NewCaller", API_NAME);
+
+        assertThat(AccessDeniedCache.isDenied("NewCaller", API_NAME)).isTrue();
+        assertThat(AccessDeniedCache.isDenied("Caller0", API_NAME)).isFalse();
+    }
+
+    // A request as the proxy leaves it after injecting the caller's credentials
+    private static DescribeStateMachineRequest sentRequest(final String accessKeyId) {
+        final DescribeStateMachineRequest request = new DescribeStateMachineRequest();
+        request.setRequestCredentialsProvider(new AWSStaticCredentialsProvider(
+                new BasicSessionCredentials(accessKeyId, "secretKey", "sessionToken")));
+        return request;
+    }
+}
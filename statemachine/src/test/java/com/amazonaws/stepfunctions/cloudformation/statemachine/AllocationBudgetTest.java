@@ -0,0 +1,216 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineRequest;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ *  Enforces a ceiling on the bytes allocated by a single CreateHandler or UpdateHandler invocation for each way
+ *  of providing a definition close to the 1 MB limit. Ceilings are multiples of the definition size, so that a
+ *  change which makes additional copies of the definition fails the build.
+ */
+public class AllocationBudgetTest {
+
+    // The generator lands within 5% of the target, which keeps the definitions below MAX_DEFINITION_SIZE
+    private static final int DEFINITION_BYTES = 960_000;
+    private static final int WARMUP_INVOCATIONS = 3;
+    private static final int MEASURED_INVOCATIONS = 5;
+    // Strings take two bytes per character before the compact strings of Java 9
+    private static final int BYTES_PER_CHARACTER = System.getProperty("java.specification.version").startsWith("1.") ? 2 : 1;
+    private static final String BUCKET = "definitions";
+    private static final String ROLE_ARN = "arn:aws:iam::123456789012:role/StatesExecutionRole";
+
+    // Ceilings as multiples of the definition size
+    private static final double DEFINITION_STRING_BUDGET = 0.5;
+    private static final double DEFINITION_SUBSTITUTIONS_BUDGET = 4;
+    private static final double DEFINITION_OBJECT_BUDGET = 8;
+    private static final double S3_JSON_DEFINITION_BUDGET = 10;
+    private static final double S3_YAML_DEFINITION_BUDGET = 80;
+
+    private static String jsonDefinition;
+    private static String jsonDefinitionWithPlaceholders;
+    private static String yamlDefinition;
+    private static Map<String, Object> definitionObject;
+    private static com.sun.management.ThreadMXBean threadMXBean;
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final Logger logger = message -> { };
+    private final AtomicInteger invocations = new AtomicInteger();
+    private InMemoryServices services;
+
+    @BeforeAll
+    public static void setupFixtures() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Allocation measurement requires a HotSpot-compatible JVM");
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "Thread allocation measurement is not supported");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        final AslGenerator generator = new AslGenerator(0L)
+                .withMaxNestingDepth(2)
+                .withChoiceFanOut(3)
+                .withTargetBytes(DEFINITION_BYTES);
+        jsonDefinition = generator.generate();
+        definitionObject = generator.generateDefinition();
+        yamlDefinition = generator.withFormat(AslGenerator.Format.YAML).generate();
+        jsonDefinitionWithPlaceholders = new AslGenerator(0L)
+                .withMaxNestingDepth(2)
+                .withChoiceFanOut(3)
+                .withPlaceholderDensity(0.2)
+                .withTargetBytes(DEFINITION_BYTES)
+                .generate();
+    }
+
+    @BeforeEach
+    public void setup() {
+        services = InMemoryServices.install(new FakeServiceBehavior());
+        services.getS3Client().putObject(BUCKET, "definition.json", null, jsonDefinition);
+        services.getS3Client().putObject(BUCKET, "definition.yaml", null, yamlDefinition);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        services.close();
+    }
+
+    @Test
+    public void testCreateWithDefinitionString() {
+        assertCreateWithinBudget(jsonDefinition, DEFINITION_STRING_BUDGET, () -> ResourceModel.builder()
+                .definitionString(jsonDefinition));
+    }
+
+    @Test
+    public void testCreateWithDefinitionSubstitutions() {
+        assertCreateWithinBudget(jsonDefinitionWithPlaceholders, DEFINITION_SUBSTITUTIONS_BUDGET, () -> ResourceModel.builder()
+                .definitionString(jsonDefinitionWithPlaceholders)
+                .definitionSubstitutions(AslGenerator.getSubstitutions()));
+    }
+
+    @Test
+    public void testCreateWithDefinitionObject() {
+        assertCreateWithinBudget(jsonDefinition, DEFINITION_OBJECT_BUDGET, () -> ResourceModel.builder()
+                .definition(definitionObject));
+    }
+
+    @Test
+    public void testCreateWithJsonS3Definition() {
+        assertCreateWithinBudget(jsonDefinition, S3_JSON_DEFINITION_BUDGET, () -> ResourceModel.builder()
+                .definitionS3Location(new S3Location(BUCKET, "definition.json", null, null, null)));
+    }
+
+    @Test
+    public void testCreateWithYamlS3Definition() {
+        assertCreateWithinBudget(yamlDefinition, S3_YAML_DEFINITION_BUDGET, () -> ResourceModel.builder()
+                .definitionS3Location(new S3Location(BUCKET, "definition.yaml", null, null, null)));
+    }
+
+    @Test
+    public void testUpdateWithDefinitionString() {
+        assertUpdateWithinBudget(jsonDefinition, DEFINITION_STRING_BUDGET, () -> ResourceModel.builder()
+                .definitionString(jsonDefinition));
+    }
+
+    @Test
+    public void testUpdateWithDefinitionSubstitutions() {
+        assertUpdateWithinBudget(jsonDefinitionWithPlaceholders, DEFINITION_SUBSTITUTIONS_BUDGET, () -> ResourceModel.builder()
+                .definitionString(jsonDefinitionWithPlaceholders)
+                .definitionSubstitutions(AslGenerator.getSubstitutions()));
+    }
+
+    @Test
+    public void testUpdateWithDefinitionObject() {
+        assertUpdateWithinBudget(jsonDefinition, DEFINITION_OBJECT_BUDGET, () -> ResourceModel.builder()
+                .definition(definitionObject));
+    }
+
+    @Test
+    public void testUpdateWithJsonS3Definition() {
+        assertUpdateWithinBudget(jsonDefinition, S3_JSON_DEFINITION_BUDGET, () -> ResourceModel.builder()
+                .definitionS3Location(new S3Location(BUCKET, "definition.json", null, null, null)));
+    }
+
+    @Test
+    public void testUpdateWithYamlS3Definition() {
+        assertUpdateWithinBudget(yamlDefinition, S3_YAML_DEFINITION_BUDGET, () -> ResourceModel.builder()
+                .definitionS3Location(new S3Location(BUCKET, "definition.yaml", null, null, null)));
+    }
+
+    private void assertCreateWithinBudget(final String definition, final double budget,
+                                          final Supplier<ResourceModel.ResourceModelBuilder> fixture) {
+        assertWithinBudget("Create", definition, budget, fixture, model -> {
+            // Each invocation creates a new state machine, since creating an existing one fails
+            model.setStateMachineName("AllocationBudget-" + invocations.incrementAndGet());
+            return new CreateHandler().handleRequest(proxy, request(model, null), null, logger);
+        });
+    }
+
+    private void assertUpdateWithinBudget(final String definition, final double budget,
+                                          final Supplier<ResourceModel.ResourceModelBuilder> fixture) {
+        final String stateMachineArn = services.getSfnClient().createStateMachine(new CreateStateMachineRequest()
+                .withName("AllocationBudget")
+                .withRoleArn(ROLE_ARN)
+                .withDefinition("{}")).getStateMachineArn();
+        final ResourceModel previousModel = ResourceModel.builder().arn(stateMachineArn).roleArn(ROLE_ARN).build();
+
+        assertWithinBudget("Update", definition, budget, fixture, model -> {
+            model.setArn(stateMachineArn);
+            return new UpdateHandler().handleRequest(proxy, request(model, previousModel), null, logger);
+        });
+    }
+
+    // Records the smallest allocation over several invocations, after warming up class loading and caches
+    private void assertWithinBudget(final String handlerName, final String definition, final double budget,
+                                    final Supplier<ResourceModel.ResourceModelBuilder> fixture,
+                                    final Function<ResourceModel, ProgressEvent<ResourceModel, CallbackContext>> invocation) {
+        long allocatedBytes = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_INVOCATIONS + MEASURED_INVOCATIONS; i++) {
+            // Models are built outside the measurement, since processing the definition mutates them
+            final ResourceModel model = fixture.get().roleArn(ROLE_ARN).build();
+
+            final long start = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            final ProgressEvent<ResourceModel, CallbackContext> event = invocation.apply(model);
+            final long allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - start;
+
+            assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+            if (i >= WARMUP_INVOCATIONS) {
+                allocatedBytes = Math.min(allocatedBytes, allocated);
+            }
+        }
+
+        final long definitionBytes = (long) definition.getBytes(StandardCharsets.UTF_8).length * BYTES_PER_CHARACTER;
+        final long ceiling = (long) (definitionBytes * budget);
+        System.out.printf("%s allocated %d bytes (%.2fx the definition, ceiling %.2fx)%n",
+                handlerName, allocatedBytes, (double) allocatedBytes / definitionBytes, budget);
+        assertThat(allocatedBytes).isLessThanOrEqualTo(ceiling);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model, final ResourceModel previousModel) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .awsPartition(InMemoryServices.PARTITION)
+                .region(InMemoryServices.REGION)
+                .awsAccountId(InMemoryServices.AWS_ACCOUNT_ID)
+                .logicalResourceIdentifier("StateMachine")
+                .clientRequestToken("token")
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+    }
+}
@@ -0,0 +1,306 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ *  Generates synthetic Amazon States Language definitions for benchmarks and allocation tests.
+ *  The shape of the definitions is configurable: the total number of states (including nested ones), how deeply
+ *  Parallel and Map states nest, how many rules each Choice state has and how often string values are
+ *  ${placeholder} definition substitutions. The same seed and configuration always produce the same definition.
+ */
+public class AslGenerator {
+
+    public enum Format {
+        JSON,
+        YAML
+    }
+
+    // Number of distinct placeholders referenced from definitions, see getSubstitutions
+    public static final int PLACEHOLDER_COUNT = 100;
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+    private static final int MAX_BRANCHES = 4;
+    private static final int MAX_SIZE_ITERATIONS = 8;
+    private static final double SIZE_TOLERANCE = 0.05;
+
+    private final long seed;
+    private int stateCount = 10;
+    private int maxNestingDepth = 0;
+    private int choiceFanOut = 0;
+    private double placeholderDensity = 0;
+    private Format format = Format.JSON;
+    private int targetBytes = 0;
+
+    public AslGenerator(final long seed) {
+        this.seed = seed;
+    }
+
+    public AslGenerator withStateCount(final int stateCount) {
+        this.stateCount = stateCount;
+        return this;
+    }
+
+    // A depth of 0 generates no Parallel or Map states
+    public AslGenerator withMaxNestingDepth(final int maxNestingDepth) {
+        this.maxNestingDepth = maxNestingDepth;
+        return this;
+    }
+
+    // A fan-out of 0 generates no Choice states
+    public AslGenerator withChoiceFanOut(final int choiceFanOut) {
+        this.choiceFanOut = choiceFanOut;
+        return this;
+    }
+
+    // The probability that a generated string value is a ${placeholder} rather than a literal
+    public AslGenerator withPlaceholderDensity(final double placeholderDensity) {
+        this.placeholderDensity = placeholderDensity;
+        return this;
+    }
+
+    public AslGenerator withFormat(final Format format) {
+        this.format = format;
+        return this;
+    }
+
+    // When set, the state count is adjusted until the serialized definition is within 5% of the target size
+    public AslGenerator withTargetBytes(final int targetBytes) {
+        this.targetBytes = targetBytes;
+        return this;
+    }
+
+    /**
+     * Generates the definition as an object, as it would appear in the Definition property
+     * @return The definition
+     */
+    public Map<String, Object> generateDefinition() {
+        return generateDefinition(getStateCountForTargetSize());
+    }
+
+    /**
+     * Generates the definition in the configured format, as it would appear in DefinitionString or an S3 object
+     * @return The serialized definition
+     */
+    public String generate() {
+        return serialize(generateDefinition());
+    }
+
+    /**
+     * Values for every placeholder that generated definitions may reference, cycling through the value types
+     * that definition substitutions support
+     * @return The definition substitutions
+     */
+    public static Map<String, Object> getSubstitutions() {
+        final Map<String, Object> substitutions = new LinkedHashMap<>();
+        for (int i = 0; i < PLACEHOLDER_COUNT; i++) {
+            switch (i % 3) {
+                case 0:
+                    substitutions.put(getPlaceholderName(i), "arn:aws:lambda:us-east-1:123456789012:function:Substituted" + i);
+                    break;
+                case 1:
+                    substitutions.put(getPlaceholderName(i), i);
+                    break;
+                default:
+                    substitutions.put(getPlaceholderName(i), i % 2 == 0);
+                    break;
+            }
+        }
+        return substitutions;
+    }
+
+    private int getStateCountForTargetSize() {
+        if (targetBytes <= 0) {
+            return stateCount;
+        }
+        // State sizes vary with their type, so converge on the target by rescaling the state count
+        int count = stateCount;
+        int closestCount = count;
+        int closestDifference = Integer.MAX_VALUE;
+        for (int i = 0; i < MAX_SIZE_ITERATIONS; i++) {
+            final int size = serialize(generateDefinition(count)).getBytes(StandardCharsets.UTF_8).length;
+            final int difference = Math.abs(size - targetBytes);
+            if (difference < closestDifference) {
+                closestCount = count;
+                closestDifference = difference;
+            }
+            if (difference <= targetBytes * SIZE_TOLERANCE) {
+                break;
+            }
+            count = Math.max(1, (int) Math.round((double) count * targetBytes / size));
+        }
+        return closestCount;
+    }
+
+    private Map<String, Object> generateDefinition(final int count) {
+        final Random random = new Random(seed);
+        final Map<String, Object> definition = new LinkedHashMap<>();
+        definition.put("Comment", "Synthetic state machine generated with seed " + seed);
+        definition.putAll(generateStates(random, "", count, 0));
+        return definition;
+    }
+
+    // Generates StartAt and States for a sequence of states that consumes the budget of states, including nested ones
+    private Map<String, Object> generateStates(final Random random, final String prefix, final int budget, final int depth) {
+        final List<String> names = new ArrayList<>();
+        final List<Map<String, Object>> states = new ArrayList<>();
+        int remaining = Math.max(1, budget);
+        while (remaining > 0) {
+            final String name = prefix + "State" + names.size();
+            final int nestedBudget = depth < maxNestingDepth && remaining > 2 && random.nextInt(4) == 0
+                    ? 1 + random.nextInt(Math.min(remaining - 1, Math.max(1, budget / 4)))
+                    : 0;
+            final Map<String, Object> state;
+            if (nestedBudget > 0) {
+                state = random.nextBoolean()
+                        ? generateParallelState(random, name, nestedBudget, depth)
+                        : generateMapState(random, name, nestedBudget, depth);
+            } else if (choiceFanOut > 0 && remaining > 1 && random.nextInt(5) == 0) {
+                // Choice rules are added once the states they can transition to are known
+                state = new LinkedHashMap<>();
+                state.put("Type", "Choice");
+            } else {
+                state = generateLeafState(random, names.size());
+            }
+            names.add(name);
+            states.add(state);
+            remaining -= 1 + nestedBudget;
+        }
+
+        // Transitions are linked once the number of states at this level is known
+        final Map<String, Object> statesByName = new LinkedHashMap<>();
+        for (int i = 0; i < states.size(); i++) {
+            final Map<String, Object> state = states.get(i);
+            final boolean isLast = i == states.size() - 1;
+            if ("Choice".equals(state.get("Type"))) {
+                if (isLast) {
+                    state.clear();
+                    state.putAll(generateLeafState(random, i));
+                } else {
+                    linkChoiceState(random, state, names, i);
+                }
+            }
+            if (!"Choice".equals(state.get("Type"))) {
+                if (isLast) {
+                    state.put("End", true);
+                } else {
+                    state.put("Next", names.get(i + 1));
+                }
+            }
+            statesByName.put(names.get(i), state);
+        }
+
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("StartAt", names.get(0));
+        result.put("States", statesByName);
+        return result;
+    }
+
+    private Map<String, Object> generateLeafState(final Random random, final int index) {
+        final Map<String, Object> state = new LinkedHashMap<>();
+        switch (random.nextInt(3)) {
+            case 0:
+                state.put("Type", "Task");
+                state.put("Resource", "arn:aws:states:::lambda:invoke");
+                state.put("Parameters", generateTaskParameters(random));
+                state.put("ResultPath", "$.result" + index);
+                state.put("Retry", Collections.singletonList(generateRetrier(random)));
+                break;
+            case 1:
+                state.put("Type", "Pass");
+                state.put("Result", Collections.singletonMap("Value", generateString(random, "value-")));
+                state.put("ResultPath", "$.pass" + index);
+                break;
+            default:
+                state.put("Type", "Wait");
+                state.put("Seconds", 1 + random.nextInt(60));
+                break;
+        }
+        return state;
+    }
+
+    private Map<String, Object> generateTaskParameters(final Random random) {
+        final Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("FunctionName", generateString(random, "arn:aws:lambda:us-east-1:123456789012:function:Function"));
+        parameters.put("Payload.$", "$");
+        return parameters;
+    }
+
+    private Map<String, Object> generateRetrier(final Random random) {
+        final Map<String, Object> retrier = new LinkedHashMap<>();
+        retrier.put("ErrorEquals", Collections.singletonList("States.TaskFailed"));
+        retrier.put("IntervalSeconds", 1 + random.nextInt(10));
+        retrier.put("MaxAttempts", random.nextInt(5));
+        retrier.put("BackoffRate", 2.0);
+        return retrier;
+    }
+
+    // Choice rules may only transition to states at the same level, so they target the states that follow
+    private void linkChoiceState(final Random random, final Map<String, Object> state, final List<String> names, final int index) {
+        final List<Map<String, Object>> choices = new ArrayList<>();
+        for (int i = 0; i < choiceFanOut; i++) {
+            final Map<String, Object> choice = new LinkedHashMap<>();
+            choice.put("Variable", "$.value");
+            choice.put("StringEquals", generateString(random, "choice-"));
+            choice.put("Next", names.get(index + 1 + random.nextInt(names.size() - index - 1)));
+            choices.add(choice);
+        }
+        state.put("Choices", choices);
+        state.put("Default", names.get(index + 1));
+    }
+
+    private Map<String, Object> generateParallelState(final Random random, final String name, final int nestedBudget, final int depth) {
+        final int branchCount = Math.min(nestedBudget, 2 + random.nextInt(MAX_BRANCHES - 1));
+        final List<Map<String, Object>> branches = new ArrayList<>();
+        for (int i = 0; i < branchCount; i++) {
+            final int branchBudget = nestedBudget / branchCount + (i < nestedBudget % branchCount ? 1 : 0);
+            branches.add(generateStates(random, name + "Branch" + i, branchBudget, depth + 1));
+        }
+        final Map<String, Object> state = new LinkedHashMap<>();
+        state.put("Type", "Parallel");
+        state.put("Branches", branches);
+        return state;
+    }
+
+    private Map<String, Object> generateMapState(final Random random, final String name, final int nestedBudget, final int depth) {
+        final Map<String, Object> itemProcessor = new LinkedHashMap<>();
+        itemProcessor.put("ProcessorConfig", Collections.singletonMap("Mode", "INLINE"));
+        itemProcessor.putAll(generateStates(random, name + "Item", nestedBudget, depth + 1));
+        final Map<String, Object> state = new LinkedHashMap<>();
+        state.put("Type", "Map");
+        state.put("ItemsPath", "$.items");
+        state.put("MaxConcurrency", random.nextInt(10));
+        state.put("ItemProcessor", itemProcessor);
+        return state;
+    }
+
+    private String generateString(final Random random, final String literalPrefix) {
+        if (random.nextDouble() < placeholderDensity) {
+            return "${" + getPlaceholderName(random.nextInt(PLACEHOLDER_COUNT)) + "}";
+        }
+        return literalPrefix + random.nextInt(1000);
+    }
+
+    private static String getPlaceholderName(final int index) {
+        return "Placeholder" + index;
+    }
+
+    private String serialize(final Map<String, Object> definition) {
+        try {
+            return (format == Format.YAML ? YAML_MAPPER.writer() : JSON_MAPPER.writerWithDefaultPrettyPrinter())
+                    .writeValueAsString(definition);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
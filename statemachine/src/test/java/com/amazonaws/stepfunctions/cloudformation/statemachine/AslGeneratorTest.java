@@ -0,0 +1,118 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class AslGeneratorTest {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    @Test
+    public void testSameSeedGeneratesSameDefinition() {
+        final AslGenerator generator = new AslGenerator(7L).withStateCount(50).withMaxNestingDepth(2).withChoiceFanOut(3);
+
+        assertThat(generator.generate()).isEqualTo(generator.generate());
+        assertThat(new AslGenerator(8L).withStateCount(50).withMaxNestingDepth(2).withChoiceFanOut(3).generate())
+                .isNotEqualTo(generator.generate());
+    }
+
+    @Test
+    public void testGeneratesConfiguredShape() throws IOException {
+        final JsonNode definition = JSON_MAPPER.readTree(new AslGenerator(1L)
+                .withStateCount(500)
+                .withMaxNestingDepth(3)
+                .withChoiceFanOut(4)
+                .generate());
+
+        final ShapeStats stats = new ShapeStats();
+        stats.visit(definition, 0);
+
+        assertThat(stats.states).isEqualTo(500);
+        assertThat(stats.maxDepth).isBetween(1, 3);
+        assertThat(stats.choiceStates).isGreaterThan(0);
+        assertThat(stats.minChoices).isEqualTo(4);
+        assertThat(stats.maxChoices).isEqualTo(4);
+    }
+
+    @Test
+    public void testGeneratesNoNestingOrChoicesByDefault() throws IOException {
+        final ShapeStats stats = new ShapeStats();
+        stats.visit(JSON_MAPPER.readTree(new AslGenerator(1L).withStateCount(200).generate()), 0);
+
+        assertThat(stats.states).isEqualTo(200);
+        assertThat(stats.maxDepth).isEqualTo(0);
+        assertThat(stats.choiceStates).isEqualTo(0);
+    }
+
+    @Test
+    public void testGeneratesNearTargetSize() throws IOException {
+        for (final AslGenerator.Format format : AslGenerator.Format.values()) {
+            final String definition = new AslGenerator(3L)
+                    .withMaxNestingDepth(2)
+                    .withChoiceFanOut(2)
+                    .withFormat(format)
+                    .withTargetBytes(256 * 1024)
+                    .generate();
+
+            assertThat(definition.getBytes(StandardCharsets.UTF_8).length).isBetween(243 * 1024, 269 * 1024);
+            assertThat((format == AslGenerator.Format.YAML ? YAML_MAPPER : JSON_MAPPER).readTree(definition).has("StartAt")).isTrue();
+        }
+    }
+
+    @Test
+    public void testPlaceholdersAreSubstituted() {
+        final String definition = new AslGenerator(5L).withStateCount(100).withPlaceholderDensity(0.5).generate();
+        assertThat(definition).contains("${Placeholder");
+
+        final ResourceModel model = ResourceModel.builder()
+                .definitionString(definition)
+                .definitionSubstitutions(AslGenerator.getSubstitutions())
+                .build();
+        DefinitionProcessor.processDefinition(mock(AmazonWebServicesClientProxy.class), model, new MetricsRecorder(HandlerOperationType.CREATE));
+
+        assertThat(model.getDefinitionString()).doesNotContain("${");
+    }
+
+    private static class ShapeStats {
+        private int states;
+        private int maxDepth;
+        private int choiceStates;
+        private int minChoices = Integer.MAX_VALUE;
+        private int maxChoices;
+
+        private void visit(final JsonNode stateMachine, final int depth) {
+            maxDepth = Math.max(maxDepth, depth);
+            final Iterator<JsonNode> iterator = stateMachine.get("States").elements();
+            while (iterator.hasNext()) {
+                final JsonNode state = iterator.next();
+                states++;
+                switch (state.get("Type").asText()) {
+                    case "Choice":
+                        choiceStates++;
+                        minChoices = Math.min(minChoices, state.get("Choices").size());
+                        maxChoices = Math.max(maxChoices, state.get("Choices").size());
+                        break;
+                    case "Parallel":
+                        state.get("Branches").forEach(branch -> visit(branch, depth + 1));
+                        break;
+                    case "Map":
+                        visit(state.get("ItemProcessor"), depth + 1);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.services.stepfunctions.AWSStepFunctionsClientBuilder;
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineRequest;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FaultInjector;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *  Invokes a single handler in the JVM it is started in and prints how long initialising the handler and its first
+ *  response took, so that {@link ColdStartTest} can measure time-to-first-response in a fresh JVM.
+ *  By default only the Step Functions fake is installed, and Mockito is not used, so that the classes loaded are
+ *  the classes the handler itself needs. With --sdk, Create instead goes through a real SDK client to a local
+ *  HTTP endpoint, so that the first request also pays for marshalling, signing and unmarshalling.
+ *  Usage: ColdStartProbe Create|Read|Update|Delete|List [--sdk]
+ */
+public class ColdStartProbe {
+
+    static final String RESULT_PREFIX = "ColdStartProbe";
+    static final String SDK_OPTION = "--sdk";
+
+    private static final String ROLE_ARN = "arn:aws:iam::123456789012:role/StatesExecutionRole";
+    private static final String DEFINITION = "{\"StartAt\":\"Pass\",\"States\":{\"Pass\":{\"Type\":\"Pass\",\"End\":true}}}";
+
+    public static void main(final String[] args) throws IOException {
+        final String handlerName = args[0];
+        final boolean useSdk = args.length > 1 && SDK_OPTION.equals(args[1]);
+
+        String stateMachineArn = null;
+        if (useSdk) {
+            if (!"Create".equals(handlerName)) {
+                throw new IllegalArgumentException(SDK_OPTION + " is only supported for Create");
+            }
+            ClientBuilder.setClientOverride(newLazySdkClient(LocalEndpoint.start()));
+        } else {
+            final FakeStepFunctions sfnClient = new FakeStepFunctions(new FakeServiceBehavior(), InMemoryServices.REGION, InMemoryServices.AWS_ACCOUNT_ID);
+            ClientBuilder.setClientOverride(sfnClient);
+
+            // Read, Update and Delete act on an existing state machine, which is created directly in the fake
+            if (!"Create".equals(handlerName) && !"List".equals(handlerName)) {
+                stateMachineArn = sfnClient.createStateMachine(new CreateStateMachineRequest()
+                        .withName("ColdStart")
+                        .withRoleArn(ROLE_ARN)
+                        .withDefinition(DEFINITION)).getStateMachineArn();
+            }
+        }
+
+        // Creating the handler runs the static initialisation that the Lambda init phase would run, including priming
+        final long initStart = System.nanoTime();
+        final ResourceHandler handler = newHandler(handlerName);
+        final long initMillis = (System.nanoTime() - initStart) / 1_000_000;
+
+        final Logger logger = message -> { };
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 900_000L);
+
+        final long start = System.nanoTime();
+        final ProgressEvent<ResourceModel, CallbackContext> event = handler.handleRequest(proxy,
+                request(handlerName, stateMachineArn), null, logger);
+        final long handlerMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Only the first response is timed, so a handler that stabilizes through callbacks may still be IN_PROGRESS
+        if (event.getStatus() == OperationStatus.FAILED) {
+            throw new IllegalStateException(handlerName + " failed: " + event.getMessage());
+        }
+        System.out.printf("%s handler=%s uptimeMillis=%d initMillis=%d handlerMillis=%d loadedClasses=%d%n",
+                RESULT_PREFIX, handlerName, ManagementFactory.getRuntimeMXBean().getUptime(), initMillis, handlerMillis,
+                ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+        // The local endpoint runs on a non-daemon thread
+        System.exit(0);
+    }
+
+    private static ResourceHandler newHandler(final String handlerName) {
+        switch (handlerName) {
+            case "Create":
+                return new CreateHandler();
+            case "Read":
+                return new ReadHandler();
+            case "Update":
+                return new UpdateHandler();
+            case "Delete":
+                return new DeleteHandler();
+            case "List":
+                return new ListHandler();
+            default:
+                throw new IllegalArgumentException("Unknown handler " + handlerName);
+        }
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final String handlerName, final String stateMachineArn) {
+        switch (handlerName) {
+            case "Create":
+                return request(ResourceModel.builder()
+                        .stateMachineName("ColdStart")
+                        .roleArn(ROLE_ARN)
+                        .definitionString(DEFINITION)
+                        .build(), null);
+            case "Update":
+                return request(ResourceModel.builder()
+                        .arn(stateMachineArn)
+                        .roleArn(ROLE_ARN)
+                        .definitionString(DEFINITION)
+                        .build(), ResourceModel.builder().arn(stateMachineArn).roleArn(ROLE_ARN).build());
+            case "List":
+                return request(new ResourceModel(), null);
+            default:
+                return request(ResourceModel.builder().arn(stateMachineArn).build(), null);
+        }
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model, final ResourceModel previousModel) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .awsPartition(InMemoryServices.PARTITION)
+                .region(InMemoryServices.REGION)
+                .awsAccountId(InMemoryServices.AWS_ACCOUNT_ID)
+                .logicalResourceIdentifier("StateMachine")
+                .clientRequestToken("token")
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+    }
+
+    // ClientBuilder builds its client inside the handler, so the SDK client is only built on its first call
+    private static AWSStepFunctions newLazySdkClient(final String endpoint) {
+        final InvocationHandler handler = new InvocationHandler() {
+            private AWSStepFunctions client;
+
+            @Override
+            public synchronized Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                if (client == null) {
+                    client = AWSStepFunctionsClientBuilder.standard()
+                            .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, InMemoryServices.REGION))
+                            .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("accessKeyId", "secretAccessKey")))
+                            .withClientConfiguration(new ClientConfiguration().withRetryPolicy(ClientBuilder.getRetryPolicy()))
+                            .build();
+                }
+                return FaultInjector.invoke(client, method, args);
+            }
+        };
+        return (AWSStepFunctions) Proxy.newProxyInstance(AWSStepFunctions.class.getClassLoader(),
+                new Class<?>[] {AWSStepFunctions.class}, handler);
+    }
+
+    /**
+     *  Answers the two calls a Create makes, in the service's JSON protocol.
+     */
+    private static class LocalEndpoint {
+
+        private static final String CONTENT_TYPE = "application/x-amz-json-1.0";
+
+        static String start() throws IOException {
+            final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", LocalEndpoint::handle);
+            server.start();
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        private static void handle(final HttpExchange exchange) throws IOException {
+            try (InputStream body = exchange.getRequestBody()) {
+                while (body.read() != -1) {
+                    // The response does not depend on the request body
+                }
+            }
+
+            final String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+            if ("AWSStepFunctions.DescribeStateMachine".equals(target)) {
+                respond(exchange, 400, "{\"__type\":\"" + Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE
+                        + "\",\"message\":\"" + Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_MESSAGE + "\"}");
+            } else if ("AWSStepFunctions.CreateStateMachine".equals(target)) {
+                respond(exchange, 200, "{\"stateMachineArn\":\"arn:aws:states:us-east-1:123456789012:stateMachine:ColdStart\","
+                        + "\"creationDate\":1.7E9}");
+            } else {
+                respond(exchange, 400, "{\"__type\":\"UnknownOperationException\",\"message\":\"" + target + "\"}");
+            }
+        }
+
+        private static void respond(final HttpExchange exchange, final int statusCode, final String body) throws IOException {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(statusCode, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *  Starts each handler in a fresh JVM through {@link ColdStartProbe}.
+ *  The class loading test always runs and guards against YAML and S3 support being loaded by handlers that do
+ *  not need it. The time-to-first-response benchmark, which compares runs with and without priming, is opt-in:
+ *  mvn test -Dtest=ColdStartTest -DcoldStart=true [-DcoldStart.runs=N]
+ */
+public class ColdStartTest {
+
+    private static final int RUNS = Integer.getInteger("coldStart.runs", 10);
+    private static final List<String> HANDLERS = Arrays.asList("Create", "Read", "Update", "Delete", "List");
+    private static final List<String> LAZILY_LOADED_PACKAGES = Arrays.asList(
+            "org.yaml.snakeyaml.",
+            "com.fasterxml.jackson.dataformat.yaml.",
+            "com.amazonaws.services.s3."
+    );
+    private static final Pattern RESULT_PATTERN = Pattern.compile(ColdStartProbe.RESULT_PREFIX
+            + " handler=(\\w+) uptimeMillis=(\\d+) initMillis=(\\d+) handlerMillis=(\\d+) loadedClasses=(\\d+)");
+    private static final int FIRST_MEASUREMENT_GROUP = 2;
+    private static final int LAST_MEASUREMENT_GROUP = 5;
+
+    @Test
+    public void testInlineDefinitionDoesNotLoadYamlOrS3() throws IOException, InterruptedException {
+        final List<String> output = runProbe(false, Arrays.asList("-verbose:class"), "Create");
+
+        assertThat(output).anyMatch(line -> line.startsWith(ColdStartProbe.RESULT_PREFIX));
+        for (final String lazilyLoadedPackage : LAZILY_LOADED_PACKAGES) {
+            assertThat(output).noneMatch(line -> line.contains(" " + lazilyLoadedPackage));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "coldStart", matches = "true")
+    public void testTimeToFirstResponse() throws IOException, InterruptedException {
+        System.out.printf("%-12s %-8s %14s %14s %14s %14s%n",
+                "Handler", "Priming", "p50 uptime ms", "p50 init ms", "p50 first ms", "p50 classes");
+        for (final String handlerName : HANDLERS) {
+            report(handlerName, handlerName);
+        }
+        // Only a real SDK client pays for marshalling, which priming warms up
+        report("Create (SDK)", "Create", ColdStartProbe.SDK_OPTION);
+    }
+
+    private static void report(final String label, final String... probeArgs) throws IOException, InterruptedException {
+        for (final boolean priming : Arrays.asList(false, true)) {
+            final Map<Integer, List<Long>> samples = new HashMap<>();
+            for (int i = 0; i < RUNS; i++) {
+                final Matcher result = findResult(runProbe(priming, Collections.emptyList(), probeArgs));
+                for (int group = FIRST_MEASUREMENT_GROUP; group <= LAST_MEASUREMENT_GROUP; group++) {
+                    samples.computeIfAbsent(group, k -> new ArrayList<>()).add(Long.parseLong(result.group(group)));
+                }
+            }
+            System.out.printf("%-12s %-8s %14d %14d %14d %14d%n", label, priming ? "on" : "off",
+                    median(samples.get(2)), median(samples.get(3)), median(samples.get(4)), median(samples.get(5)));
+        }
+    }
+
+    private static List<String> runProbe(final boolean priming, final List<String> jvmOptions, final String... probeArgs)
+            throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ColdStartProbe.class.getName());
+        command.addAll(Arrays.asList(probeArgs));
+
+        final ProcessBuilder processBuilder = new ProcessBuilder(command).redirectErrorStream(true);
+        processBuilder.environment().put(Constants.PRIMING_ENABLED_ENVIRONMENT_VARIABLE, String.valueOf(priming));
+        final Process process = processBuilder.start();
+        final List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.add(line);
+            }
+        }
+        assertThat(process.waitFor()).as("ColdStartProbe %s exit code: %s", String.join(" ", probeArgs), output).isEqualTo(0);
+        return output;
+    }
+
+    private static Matcher findResult(final List<String> output) {
+        for (final String line : output) {
+            final Matcher matcher = RESULT_PATTERN.matcher(line);
+            if (matcher.matches()) {
+                return matcher;
+            }
+        }
+        throw new IllegalStateException("ColdStartProbe did not report a result: " + output);
+    }
+
+    private static long median(final List<Long> values) {
+        final List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
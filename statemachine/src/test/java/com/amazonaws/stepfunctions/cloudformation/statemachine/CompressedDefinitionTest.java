@@ -0,0 +1,112 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.TerminalException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_GZIP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompressedDefinitionTest {
+
+    private static final String BUCKET = "definitions";
+    private static final String DEFINITION = "{\n  \"StartAt\" : \"Pass\",\n  \"States\" : {\n    \"Pass\" : {\n      \"Type\" : \"Pass\",\n      \"End\" : true\n    }\n  }\n}";
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        services = InMemoryServices.install(new FakeServiceBehavior());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        services.close();
+    }
+
+    @Test
+    public void testGzipContentEncodingIsDecompressed() throws IOException {
+        services.getS3Client().putObject(BUCKET, "definition.json", null, gzip(DEFINITION), "gzip");
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        final ResourceModel model = model("definition.json");
+
+        DefinitionProcessor.processDefinition(proxy, model, metricsRecorder);
+
+        assertThat(model.getDefinitionString()).isEqualTo(DEFINITION);
+        assertThat(metricsRecorder.generateMetricsString()).contains(S3_DEFINITION_GZIP.loggingKey);
+    }
+
+    @Test
+    public void testGzipMagicBytesAreDetectedWithoutContentEncoding() throws IOException {
+        services.getS3Client().putObject(BUCKET, "definition.yaml.gz", null,
+                gzip("StartAt: Pass\nStates:\n  Pass:\n    Type: Pass\n    End: true\n"), null);
+        final ResourceModel model = model("definition.yaml.gz");
+
+        DefinitionProcessor.processDefinition(proxy, model, new MetricsRecorder(HandlerOperationType.CREATE));
+
+        assertThat(model.getDefinitionString()).isEqualTo(DEFINITION);
+    }
+
+    @Test
+    public void testUncompressedDefinitionIsReadAsIs() {
+        services.getS3Client().putObject(BUCKET, "definition.json", null, DEFINITION);
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        final ResourceModel model = model("definition.json");
+
+        DefinitionProcessor.processDefinition(proxy, model, metricsRecorder);
+
+        assertThat(model.getDefinitionString()).isEqualTo(DEFINITION);
+        assertThat(metricsRecorder.generateMetricsString()).doesNotContain(S3_DEFINITION_GZIP.loggingKey);
+    }
+
+    @Test
+    public void testSizeLimitAppliesToDecompressedDefinition() throws IOException {
+        // Compresses to a few kilobytes
+        final byte[] compressed = gzip("{\"Comment\":\"" + StringUtils.repeat('a', Constants.MAX_DEFINITION_SIZE * 4) + "\"}");
+        assertThat(compressed.length).isLessThan(Constants.MAX_DEFINITION_SIZE / 100);
+        services.getS3Client().putObject(BUCKET, "bomb.json", null, compressed, "gzip");
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+
+        assertThatThrownBy(() -> DefinitionProcessor.processDefinition(proxy, model("bomb.json"), metricsRecorder))
+                .isInstanceOf(CfnInvalidRequestException.class)
+                .hasMessageContaining(Constants.DEFINITION_SIZE_LIMIT_ERROR_MESSAGE);
+    }
+
+    @Test
+    public void testCorruptGzipIsRejected() throws IOException {
+        final byte[] compressed = gzip(DEFINITION);
+        // Breaks the CRC in the trailer
+        compressed[compressed.length - 8] ^= 0xff;
+        services.getS3Client().putObject(BUCKET, "corrupt.json", null, compressed, "gzip");
+
+        assertThatThrownBy(() -> DefinitionProcessor.processDefinition(proxy, model("corrupt.json"), new MetricsRecorder(HandlerOperationType.CREATE)))
+                .isInstanceOf(TerminalException.class)
+                .hasMessage(Constants.DEFINITION_INVALID_FORMAT_ERROR_MESSAGE);
+    }
+
+    private static ResourceModel model(final String key) {
+        return ResourceModel.builder()
+                .definitionS3Location(new S3Location(BUCKET, key, null, null, null))
+                .build();
+    }
+
+    private static byte[] gzip(final String content) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
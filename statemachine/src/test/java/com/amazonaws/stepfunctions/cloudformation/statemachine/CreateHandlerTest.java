@@ -12,6 +12,7 @@ import com.amazonaws.stepfunctions.cloudformation.statemachine.s3.GetObjectResul
 import com.amazonaws.util.StringInputStream;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -87,6 +88,11 @@ public class CreateHandlerTest extends HandlerTestBase {
                 .thenThrow(stateMachineDoesNotExistException);
     }
 
+    @AfterEach
+    public void tearDown() {
+        AccessDeniedCache.clear();
+    }
+
     @Test
     public void handleSuccess() {
         request.getDesiredResourceState().setDefinitionString("{}");
@@ -120,6 +126,52 @@ public class CreateHandlerTest extends HandlerTestBase {
         assertThat(response.getResourceModel().getStateMachineRevisionId()).isEqualTo(Constants.STATE_MACHINE_INITIAL_REVISION_ID);
     }
 
+    @Test
+    public void handleSuccess_whenPublishIsTrue_returnsStateMachineVersionArn() {
+        request.getDesiredResourceState().setDefinitionString("{}");
+        request.getDesiredResourceState().setPublish(true);
+        request.getDesiredResourceState().setVersionDescription(VERSION_DESCRIPTION);
+
+        CreateStateMachineRequest createStateMachineRequest = new CreateStateMachineRequest();
+        createStateMachineRequest.setName(STATE_MACHINE_NAME);
+        createStateMachineRequest.setType(Constants.STANDARD_STATE_MACHINE_TYPE);
+        createStateMachineRequest.setDefinition("{}");
+        createStateMachineRequest.setRoleArn(ROLE_ARN);
+        createStateMachineRequest.setLoggingConfiguration(Translator.getLoggingConfiguration(createLoggingConfiguration()));
+        createStateMachineRequest.setTracingConfiguration(Translator.getTracingConfiguration(createTracingConfiguration(TRACING_CONFIGURATION_DISABLED)));
+        createStateMachineRequest.setTags(new ArrayList<>());
+        createStateMachineRequest.setPublish(true);
+        createStateMachineRequest.setVersionDescription(VERSION_DESCRIPTION);
+
+        CreateStateMachineResult createStateMachineResult = new CreateStateMachineResult();
+        createStateMachineResult.setStateMachineArn(STATE_MACHINE_ARN);
+        createStateMachineResult.setStateMachineVersionArn(STATE_MACHINE_VERSION_ARN);
+
+        Mockito.lenient().when(proxy.injectCredentialsAndInvoke(Mockito.eq(createStateMachineRequest), Mockito.any(Function.class))).thenReturn(createStateMachineResult);
+
+        ProgressEvent<ResourceModel, CallbackContext> response
+            = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_ARN);
+        assertThat(response.getResourceModel().getStateMachineVersionArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+    }
+
+    @Test
+    public void handleVersionDescription_whenPublishIsNotTrue_returnsFailed() {
+        request.getDesiredResourceState().setDefinitionString("{}");
+        request.getDesiredResourceState().setVersionDescription(VERSION_DESCRIPTION);
+
+        ProgressEvent<ResourceModel, CallbackContext> response
+            = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getMessage()).isEqualTo(Constants.VERSION_DESCRIPTION_WITHOUT_PUBLISH_ERROR_MESSAGE);
+        Mockito.verify(proxy, Mockito.never()).injectCredentialsAndInvoke(Mockito.any(CreateStateMachineRequest.class), Mockito.any(Function.class));
+    }
+
     @Test
     public void handleStateMachineAlreadyExists_throwsAlreadyExistsHandlerCode() {
         request.getDesiredResourceState().setDefinitionString("{}");
@@ -134,6 +186,28 @@ public class CreateHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).contains(Constants.STATE_MACHINE_ALREADY_EXISTS_ERROR_MESSAGE);
     }
 
+    @Test
+    public void handleAccessDeniedOnExistenceCheck_checksExistenceOnEveryCreate() {
+        request.getDesiredResourceState().setDefinitionString("{}");
+
+        // A denial to the same caller must not let a later Create adopt a state machine that already exists
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeStateMachineRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(invocation -> {
+                    invocation.<DescribeStateMachineRequest>getArgument(0).setRequestCredentialsProvider(CALLER_CREDENTIALS);
+                    throw accessDeniedException;
+                });
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(CreateStateMachineRequest.class), Mockito.any(Function.class)))
+                .thenReturn(new CreateStateMachineResult().withStateMachineArn(STATE_MACHINE_ARN));
+
+        handler.handleRequest(proxy, request, null, logger);
+        ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        Mockito.verify(proxy, Mockito.times(2)).injectCredentialsAndInvoke(Mockito.any(DescribeStateMachineRequest.class), Mockito.any(Function.class));
+        Mockito.verify(proxy, Mockito.times(2)).injectCredentialsAndInvoke(Mockito.any(CreateStateMachineRequest.class), Mockito.any(Function.class));
+    }
+
     @Test
     public void handleAccessDeniedOnExistenceCheck_returnsSuccess() {
         request.getDesiredResourceState().setDefinitionString("{}");
@@ -280,7 +354,7 @@ public class CreateHandlerTest extends HandlerTestBase {
 
     @Test
     public void testDefinitionFromS3() throws Exception {
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectContent(new StringInputStream("{}"));
@@ -306,7 +380,7 @@ public class CreateHandlerTest extends HandlerTestBase {
                 "  \"Comment\" : \"Hello World\"\n" +
                 "}";
 
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectContent(new StringInputStream("Comment: Hello World"));
@@ -332,7 +406,7 @@ public class CreateHandlerTest extends HandlerTestBase {
                 "  \"Comment\" : \"Hello World\"\n" +
                 "}";
 
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectContent(new StringInputStream("{\n  \"Comment\" : \"Hello World\"\n}"));
@@ -362,7 +436,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("startState", "DummyState");
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String yamlDefinitionInS3 = "StartAt: \"${startState}\"\n  ";
@@ -393,7 +467,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("timeoutSeconds", 60);
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String yamlDefinitionInS3 = "TimeoutSeconds: \"${timeoutSeconds}\"\n  ";
@@ -424,7 +498,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("isEnd", true);
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String yamlDefinitionInS3 = "End: \"${isEnd}\"\n  ";
@@ -451,7 +525,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("timeoutSeconds", 0.5);
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String jsonDefinitionInS3 = "TimeoutSeconds: \"${timeoutSeconds}\"\n  ";
@@ -477,7 +551,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("timeoutSeconds", null);
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String jsonDefinitionInS3 = "TimeoutSeconds: \"${timeoutSeconds}\"\n  ";
@@ -507,7 +581,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("startState", "DummyState");
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String jsonDefinitionInS3 = "{\n  \"StartAt\" : \"${startState}\"\n}";
@@ -538,7 +612,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("timeoutSeconds", 60);
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String jsonDefinitionInS3 = "{\n  \"TimeoutSeconds\" : \"${timeoutSeconds}\"\n}";
@@ -569,7 +643,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("isEnd", true);
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String jsonDefinitionInS3 = "{\n  \"End\" : \"${isEnd}\"\n}";
@@ -596,7 +670,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("timeoutSeconds", 0.5);
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String jsonDefinitionInS3 = "{\n  \"TimeoutSeconds\" : \"${timeoutSeconds}\"\n}";
@@ -622,7 +696,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         substitutions.put("timeoutSeconds", null);
 
         request.getDesiredResourceState().setDefinitionSubstitutions(substitutions);
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         String jsonDefinitionInS3 = "{\n  \"TimeoutSeconds\" : \"${timeoutSeconds}\"\n}";
@@ -644,7 +718,7 @@ public class CreateHandlerTest extends HandlerTestBase {
 
     @Test
     public void testInvalidYamlDefinitionFromS3() throws Exception {
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectContent(new StringInputStream("Invalid: -"));
@@ -664,7 +738,7 @@ public class CreateHandlerTest extends HandlerTestBase {
 
     @Test
     public void testInvalidJsonDefinitionFromS3() throws Exception {
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectContent(new StringInputStream("Invalid: -"));
@@ -711,7 +785,7 @@ public class CreateHandlerTest extends HandlerTestBase {
     @Test
     public void testThrowsDefinitionRedundant_whenMoreThanOneDefinition_DefinitionString_and_DefinitionS3Location() {
         request.getDesiredResourceState().setDefinitionString("{}");
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         ProgressEvent<ResourceModel, CallbackContext> response
                 = handler.handleRequest(proxy, request, null, logger);
@@ -737,7 +811,7 @@ public class CreateHandlerTest extends HandlerTestBase {
     @Test
     public void testThrowsDefinitionRedundant_whenMoreThanOneDefinition_DefinitionObject_and_DefinitionS3Location() {
         request.getDesiredResourceState().setDefinition(new HashMap<>());
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         ProgressEvent<ResourceModel, CallbackContext> response
                 = handler.handleRequest(proxy, request, null, logger);
@@ -751,7 +825,7 @@ public class CreateHandlerTest extends HandlerTestBase {
     public void testThrowsDefinitionRedundant_whenMoreThanOneDefinition_DefinitionObject_and_DefinitionS3Location_and_DefinitionString() {
         request.getDesiredResourceState().setDefinitionString("{}");
         request.getDesiredResourceState().setDefinition(new HashMap<>());
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         ProgressEvent<ResourceModel, CallbackContext> response
                 = handler.handleRequest(proxy, request, null, logger);
@@ -975,7 +1049,7 @@ public class CreateHandlerTest extends HandlerTestBase {
     @Test
     public void testLogsMultipleDefinitions_whenMultipleDefinitionsProvided() {
         request.getDesiredResourceState().setDefinitionString("{}");
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         ProgressEvent<ResourceModel, CallbackContext> response
                 = handler.handleRequest(proxy, request, null, logger);
@@ -1005,7 +1079,7 @@ public class CreateHandlerTest extends HandlerTestBase {
 
     @Test
     public void testLogsS3DefinitionFormat_whenJson() throws Exception {
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectContent(new StringInputStream("{}"));
@@ -1029,7 +1103,7 @@ public class CreateHandlerTest extends HandlerTestBase {
 
     @Test
     public void testLogsS3DefinitionFormat_whenYaml() throws Exception {
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectContent(new StringInputStream("Comment: Hello World"));
@@ -1053,7 +1127,7 @@ public class CreateHandlerTest extends HandlerTestBase {
 
     @Test
     public void testLogsS3DefinitionInvalidFormat_whenInvalidJson() throws Exception {
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectContent(new StringInputStream("{"));
@@ -1076,7 +1150,7 @@ public class CreateHandlerTest extends HandlerTestBase {
 
     @Test
     public void testLogsS3DefinitionInvalidFormat_whenInvalidYaml() throws Exception {
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectContent(new StringInputStream(",,,"));
@@ -1099,7 +1173,7 @@ public class CreateHandlerTest extends HandlerTestBase {
 
     @Test
     public void testLogsS3DefinitionSizeLimitExceeded_whenSizeLimitExceeded() throws Exception {
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
 
         S3Object s3Object = new S3Object();
         s3Object.setObjectMetadata(mockS3ObjectMetadata);
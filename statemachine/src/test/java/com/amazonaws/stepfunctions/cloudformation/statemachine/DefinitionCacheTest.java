@@ -0,0 +1,143 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_ENTRY_TOO_LARGE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_EVICTION;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_HIT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_MISS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DefinitionCacheTest {
+
+    private static final String DEFINITION_WITH_PLACEHOLDER = "{\"StartAt\":\"${startState}\",\"States\":{}}";
+
+    @AfterEach
+    public void tearDown() {
+        DefinitionCache.clear();
+    }
+
+    @Test
+    public void testProcessedDefinitionIsCached() {
+        final MetricsRecorder firstMetrics = new MetricsRecorder(HandlerOperationType.CREATE);
+        final ResourceModel first = definitionObjectModel();
+        DefinitionProcessor.processDefinition(null, first, firstMetrics);
+
+        final MetricsRecorder secondMetrics = new MetricsRecorder(HandlerOperationType.UPDATE);
+        final ResourceModel second = definitionObjectModel();
+        DefinitionProcessor.processDefinition(null, second, secondMetrics);
+
+        assertThat(second.getDefinitionString()).isSameAs(first.getDefinitionString());
+        assertThat(firstMetrics.generateMetricsString()).contains(DEFINITION_CACHE_MISS.loggingKey).doesNotContain(DEFINITION_CACHE_HIT.loggingKey);
+        assertThat(secondMetrics.generateMetricsString()).contains(DEFINITION_CACHE_HIT.loggingKey).doesNotContain(DEFINITION_CACHE_MISS.loggingKey);
+    }
+
+    @Test
+    public void testSubstitutedDefinitionIsCachedPerSubstitutions() {
+        final ResourceModel first = definitionStringModel("Wait");
+        DefinitionProcessor.processDefinition(null, first, new MetricsRecorder(HandlerOperationType.CREATE));
+        final ResourceModel second = definitionStringModel("Pass");
+        DefinitionProcessor.processDefinition(null, second, new MetricsRecorder(HandlerOperationType.CREATE));
+
+        assertThat(first.getDefinitionString()).isEqualTo("{\"StartAt\":\"Wait\",\"States\":{}}");
+        assertThat(second.getDefinitionString()).isEqualTo("{\"StartAt\":\"Pass\",\"States\":{}}");
+        assertThat(DefinitionCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDefinitionsThatAreNotProcessedAreNotCached() {
+        assertThat(DefinitionCache.getKey(ResourceModel.builder().definitionString(DEFINITION_WITH_PLACEHOLDER).build())).isNull();
+        assertThat(DefinitionCache.getKey(ResourceModel.builder()
+                .definitionS3Location(new S3Location("bucket", "key", null, null, null))
+                .definitionSubstitutions(Collections.singletonMap("startState", "Wait"))
+                .build())).isNull();
+        assertThat(DefinitionCache.getKey(ResourceModel.builder()
+                .definition(Collections.singletonMap("StartAt", new Object()))
+                .build())).isNull();
+    }
+
+    @Test
+    public void testKeyIgnoresOrderOfDefinitionKeys() {
+        final Map<String, Object> ordered = new LinkedHashMap<>();
+        ordered.put("StartAt", "Wait");
+        ordered.put("States", Collections.emptyMap());
+        final Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("States", Collections.emptyMap());
+        reversed.put("StartAt", "Wait");
+
+        assertThat(DefinitionCache.getKey(ResourceModel.builder().definition(ordered).build()))
+                .isEqualTo(DefinitionCache.getKey(ResourceModel.builder().definition(reversed).build()));
+    }
+
+    @Test
+    public void testKeyDistinguishesValueTypes() {
+        assertThat(DefinitionCache.getKey(ResourceModel.builder().definition(Collections.singletonMap("TimeoutSeconds", 1)).build()))
+                .isNotEqualTo(DefinitionCache.getKey(ResourceModel.builder().definition(Collections.singletonMap("TimeoutSeconds", 1.0)).build()))
+                .isNotEqualTo(DefinitionCache.getKey(ResourceModel.builder().definition(Collections.singletonMap("TimeoutSeconds", "1")).build()));
+        assertThat(DefinitionCache.getKey(ResourceModel.builder().definition(Collections.singletonMap("States", Arrays.asList("a", "b"))).build()))
+                .isNotEqualTo(DefinitionCache.getKey(ResourceModel.builder().definition(Collections.singletonMap("States", Arrays.asList("ab"))).build()));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        for (int i = 0; i < Constants.DEFINITION_CACHE_MAX_ENTRIES; i++) {
+            DefinitionCache.put("key" + i, "definition" + i, metricsRecorder);
+        }
+        // Reading the first entry makes the second one the least recently used
+        assertThat(DefinitionCache.get("key0", metricsRecorder)).isEqualTo("definition0");
+        assertThat(metricsRecorder.generateMetricsString()).doesNotContain(DEFINITION_CACHE_EVICTION.loggingKey);
+
+        DefinitionCache.put("key" + Constants.DEFINITION_CACHE_MAX_ENTRIES, "definition", metricsRecorder);
+
+        assertThat(DefinitionCache.size()).isEqualTo(Constants.DEFINITION_CACHE_MAX_ENTRIES);
+        assertThat(DefinitionCache.get("key0", metricsRecorder)).isEqualTo("definition0");
+        assertThat(DefinitionCache.get("key1", metricsRecorder)).isNull();
+        assertThat(metricsRecorder.generateMetricsString()).contains(DEFINITION_CACHE_EVICTION.loggingKey);
+    }
+
+    @Test
+    public void testCachedBytesAreCapped() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        final String definition = StringUtils.repeat('a', (int) (Constants.DEFINITION_CACHE_MAX_ENTRY_BYTES / 2));
+        final int entriesWithinCap = (int) (Constants.DEFINITION_CACHE_MAX_BYTES / Constants.DEFINITION_CACHE_MAX_ENTRY_BYTES);
+        for (int i = 0; i <= entriesWithinCap; i++) {
+            DefinitionCache.put("key" + i, definition, metricsRecorder);
+        }
+
+        assertThat(DefinitionCache.size()).isEqualTo(entriesWithinCap);
+        assertThat(metricsRecorder.generateMetricsString()).contains(DEFINITION_CACHE_EVICTION.loggingKey);
+    }
+
+    @Test
+    public void testEntryLargerThanCapIsNotCached() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        final String definition = StringUtils.repeat('a', (int) (Constants.DEFINITION_CACHE_MAX_ENTRY_BYTES / 2) + 1);
+
+        DefinitionCache.put("key", definition, metricsRecorder);
+
+        assertThat(DefinitionCache.size()).isZero();
+        assertThat(metricsRecorder.generateMetricsString()).contains(DEFINITION_CACHE_ENTRY_TOO_LARGE.loggingKey);
+    }
+
+    private static ResourceModel definitionObjectModel() {
+        final Map<String, Object> definition = new LinkedHashMap<>();
+        definition.put("StartAt", "Wait");
+        definition.put("States", Collections.singletonMap("Wait", Collections.singletonMap("Type", "Succeed")));
+        return ResourceModel.builder().definition(definition).build();
+    }
+
+    private static ResourceModel definitionStringModel(final String startState) {
+        return ResourceModel.builder()
+                .definitionString(DEFINITION_WITH_PLACEHOLDER)
+                .definitionSubstitutions(Collections.singletonMap("startState", startState))
+                .build();
+    }
+}
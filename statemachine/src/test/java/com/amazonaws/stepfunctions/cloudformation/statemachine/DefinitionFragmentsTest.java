@@ -0,0 +1,158 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.TerminalException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_S3_FRAGMENTS_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_JSON;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_YAML;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DefinitionFragmentsTest {
+
+    private static final String BUCKET = "definitions";
+    private static final String ROOT = "{\"StartAt\":\"Process\",\"States\":{\"Process\":{\"Type\":\"Map\",\"Next\":\"${next}\"}}}";
+    private static final String ERROR_HANDLERS = "{\"States\":{\"HandleError\":{\"Type\":\"Fail\"}}}";
+    private static final String YAML_FRAGMENT = "States:\n  Done:\n    Type: Succeed\n";
+    private static final long FETCH_LATENCY_MILLIS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private FakeServiceBehavior behavior;
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        behavior = new FakeServiceBehavior();
+        services = InMemoryServices.install(behavior);
+        services.getS3Client().putObject(BUCKET, "root.json", null, ROOT);
+        services.getS3Client().putObject(BUCKET, "errors.json", null, ERROR_HANDLERS);
+        services.getS3Client().putObject(BUCKET, "done.yaml", null, YAML_FRAGMENT);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        services.close();
+    }
+
+    @Test
+    public void testFragmentStatesAreMergedIntoRoot() throws IOException {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        final ResourceModel model = model("MergeStates", "errors.json", "done.yaml");
+        metricsRecorder.setMetricsFromResourceModel(model);
+
+        DefinitionProcessor.processDefinition(proxy, model, metricsRecorder);
+
+        assertThat(objectMapper.readTree(model.getDefinitionString())).isEqualTo(objectMapper.readTree(
+                "{\"StartAt\":\"Process\",\"States\":{" +
+                        "\"Process\":{\"Type\":\"Map\",\"Next\":\"Done\"}," +
+                        "\"HandleError\":{\"Type\":\"Fail\"}," +
+                        "\"Done\":{\"Type\":\"Succeed\"}}}"));
+        assertThat(metricsRecorder.generateMetricsString())
+                .contains(DEFINITION_S3_FRAGMENTS_PROVIDED.loggingKey, S3_DEFINITION_JSON.loggingKey, S3_DEFINITION_YAML.loggingKey);
+    }
+
+    @Test
+    public void testMergeRuleDefaultsToMergeStates() {
+        final ResourceModel model = model(null, "errors.json");
+
+        DefinitionProcessor.processDefinition(proxy, model, new MetricsRecorder(HandlerOperationType.CREATE));
+
+        assertThat(model.getDefinitionString()).contains("\"HandleError\"");
+    }
+
+    @Test
+    public void testFragmentsAreFetchedConcurrently() {
+        final List<String> fragmentKeys = new ArrayList<>();
+        for (int i = 0; i < Constants.MAX_DEFINITION_FRAGMENTS; i++) {
+            services.getS3Client().putObject(BUCKET, "fragment" + i + ".json", null, "{\"States\":{\"State" + i + "\":{\"Type\":\"Pass\"}}}");
+            fragmentKeys.add("fragment" + i + ".json");
+        }
+        behavior.withLatency("GetObject", FakeServiceBehavior.LatencyDistribution.fixed(FETCH_LATENCY_MILLIS));
+        final ResourceModel model = model(Constants.MERGE_STATES_RULE, fragmentKeys.toArray(new String[0]));
+
+        final long start = System.nanoTime();
+        DefinitionProcessor.processDefinition(proxy, model, new MetricsRecorder(HandlerOperationType.CREATE));
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(behavior.getCallCount("GetObject")).isEqualTo(Constants.MAX_DEFINITION_FRAGMENTS + 1);
+        // Fetching one after another would take eleven times the latency
+        assertThat(elapsedMillis).isLessThan(FETCH_LATENCY_MILLIS * 4);
+        assertThat(model.getDefinitionString()).contains("\"State" + (Constants.MAX_DEFINITION_FRAGMENTS - 1) + "\"");
+    }
+
+    @Test
+    public void testStateDefinedInTwoFragmentsIsRejected() {
+        services.getS3Client().putObject(BUCKET, "errors-copy.json", null, ERROR_HANDLERS);
+
+        assertThatThrownBy(() -> DefinitionProcessor.processDefinition(proxy, model(Constants.MERGE_STATES_RULE, "errors.json", "errors-copy.json"),
+                new MetricsRecorder(HandlerOperationType.CREATE)))
+                .isInstanceOf(TerminalException.class)
+                .hasMessage(String.format(Constants.DEFINITION_FRAGMENT_DUPLICATE_STATE_ERROR_MESSAGE, "HandleError"));
+    }
+
+    @Test
+    public void testFragmentWithoutStatesIsRejected() {
+        services.getS3Client().putObject(BUCKET, "no-states.json", null, "{\"Comment\":\"No states\"}");
+
+        assertThatThrownBy(() -> DefinitionProcessor.processDefinition(proxy, model(Constants.MERGE_STATES_RULE, "no-states.json"),
+                new MetricsRecorder(HandlerOperationType.CREATE)))
+                .isInstanceOf(TerminalException.class)
+                .hasMessage(Constants.DEFINITION_FRAGMENT_MISSING_STATES_ERROR_MESSAGE);
+    }
+
+    @Test
+    public void testUnsupportedMergeRuleIsRejected() {
+        assertThatThrownBy(() -> DefinitionProcessor.processDefinition(proxy, model("Concatenate", "errors.json"),
+                new MetricsRecorder(HandlerOperationType.CREATE)))
+                .isInstanceOf(TerminalException.class)
+                .hasMessage(Constants.DEFINITION_MERGE_RULE_INVALID_ERROR_MESSAGE);
+        assertThat(behavior.getCallCount("GetObject")).isZero();
+    }
+
+    @Test
+    public void testMissingFragmentFailsWithS3Error() {
+        assertThatThrownBy(() -> DefinitionProcessor.processDefinition(proxy, model(Constants.MERGE_STATES_RULE, "missing.json"),
+                new MetricsRecorder(HandlerOperationType.CREATE)))
+                .isInstanceOf(AmazonS3Exception.class);
+    }
+
+    @Test
+    public void testSizeLimitAppliesToAssembledDefinition() {
+        // Each fragment is below the limit on its own
+        final String padding = StringUtils.repeat('a', Constants.MAX_DEFINITION_SIZE / 2);
+        services.getS3Client().putObject(BUCKET, "large1.json", null, "{\"States\":{\"Large1\":{\"Type\":\"Pass\",\"Comment\":\"" + padding + "\"}}}");
+        services.getS3Client().putObject(BUCKET, "large2.json", null, "{\"States\":{\"Large2\":{\"Type\":\"Pass\",\"Comment\":\"" + padding + "\"}}}");
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+
+        assertThatThrownBy(() -> DefinitionProcessor.processDefinition(proxy, model(Constants.MERGE_STATES_RULE, "large1.json", "large2.json"),
+                metricsRecorder))
+                .isInstanceOf(CfnInvalidRequestException.class)
+                .hasMessageContaining(Constants.DEFINITION_SIZE_LIMIT_ERROR_MESSAGE);
+    }
+
+    private static ResourceModel model(final String mergeRule, final String... fragmentKeys) {
+        final List<S3Fragment> fragments = new ArrayList<>();
+        for (final String fragmentKey : fragmentKeys) {
+            fragments.add(new S3Fragment(BUCKET, fragmentKey, null));
+        }
+        return ResourceModel.builder()
+                .definitionS3Location(new S3Location(BUCKET, "root.json", null, fragments, mergeRule))
+                .definitionSubstitutions(Collections.singletonMap("next", "Done"))
+                .build();
+    }
+}
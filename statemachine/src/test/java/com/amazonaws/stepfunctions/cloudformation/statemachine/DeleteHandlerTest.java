@@ -12,6 +12,7 @@ import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.resource.Serializer;
 
 import java.util.function.Function;
 
@@ -20,6 +21,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 @ExtendWith(MockitoExtension.class)
 public class DeleteHandlerTest extends HandlerTestBase {
 
+    private static final int MAX_DEFINITION_BYTES = 1024 * 1024;
+    private static final int MAX_IN_PROGRESS_PAYLOAD_BYTES = 1024;
+
     private DeleteHandler handler = new DeleteHandler();
 
     private CallbackContext callbackContext;
@@ -57,6 +61,31 @@ public class DeleteHandlerTest extends HandlerTestBase {
         assertThat(response.getErrorCode()).isNull();
     }
 
+    @Test
+    public void testInProgressPayload_excludesDefinition() throws Exception {
+        final ResourceModel model = ResourceModel.builder()
+                .arn(STATE_MACHINE_ARN)
+                .roleArn(ROLE_ARN)
+                .definitionString(new AslGenerator(0L).withTargetBytes(MAX_DEFINITION_BYTES).generate())
+                .build();
+        request.setDesiredResourceState(model);
+        final Serializer serializer = new Serializer();
+
+        ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+        final int initialPayloadBytes = serializer.serialize(response).length();
+
+        // CloudFormation invokes the handler again with the model of the in-progress event
+        request.setDesiredResourceState(response.getResourceModel());
+        response = handler.handleRequest(proxy, request, response.getCallbackContext(), logger);
+        final int callbackPayloadBytes = serializer.serialize(response).length();
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getResourceModel()).isEqualTo(ResourceModel.builder().arn(STATE_MACHINE_ARN).build());
+        assertThat(serializer.serialize(model).length()).isGreaterThan(MAX_DEFINITION_BYTES * 9 / 10);
+        assertThat(initialPayloadBytes).isLessThan(MAX_IN_PROGRESS_PAYLOAD_BYTES);
+        assertThat(callbackPayloadBytes).isLessThan(MAX_IN_PROGRESS_PAYLOAD_BYTES);
+    }
+
     @Test
     public void testSuccess_deletionStarted_andStillDeleting_returnsInProgress() {
         Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeStateMachineRequest.class), Mockito.any(Function.class))).thenReturn(new DescribeStateMachineResult());
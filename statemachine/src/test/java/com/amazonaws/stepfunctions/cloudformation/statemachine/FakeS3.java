@@ -0,0 +1,72 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *  In-memory implementation of the S3 GetObject API used to fetch definitions from DefinitionS3Location.
+ *  Objects are keyed by bucket, key and optional version.
+ */
+public class FakeS3 extends AbstractAmazonS3 {
+
+    private final FakeServiceBehavior behavior;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, String> contentEncodings = new ConcurrentHashMap<>();
+
+    public FakeS3(final FakeServiceBehavior behavior) {
+        this.behavior = behavior;
+    }
+
+    public void putObject(final String bucket, final String key, final String versionId, final String content) {
+        putObject(bucket, key, versionId, content.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    public void putObject(final String bucket, final String key, final String versionId, final byte[] content, final String contentEncoding) {
+        final String objectId = getObjectId(bucket, key, versionId);
+        objects.put(objectId, content);
+        if (contentEncoding == null) {
+            contentEncodings.remove(objectId);
+        } else {
+            contentEncodings.put(objectId, contentEncoding);
+        }
+    }
+
+    @Override
+    public S3Object getObject(final GetObjectRequest request) {
+        behavior.onCall("GetObject");
+        final String objectId = getObjectId(request.getBucketName(), request.getKey(), request.getVersionId());
+        final byte[] content = objects.get(objectId);
+        if (content == null) {
+            final AmazonS3Exception exception = new AmazonS3Exception("The specified key does not exist.");
+            exception.setStatusCode(404);
+            exception.setErrorCode("NoSuchKey");
+            exception.setErrorType(AmazonServiceException.ErrorType.Client);
+            throw exception;
+        }
+
+        final ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(content.length);
+        metadata.setContentEncoding(contentEncodings.get(objectId));
+
+        final S3Object s3Object = new S3Object();
+        s3Object.setBucketName(request.getBucketName());
+        s3Object.setKey(request.getKey());
+        s3Object.setObjectMetadata(metadata);
+        s3Object.setObjectContent(new ByteArrayInputStream(content));
+        return s3Object;
+    }
+
+    private static String getObjectId(final String bucket, final String key, final String versionId) {
+        return bucket + "/" + key + (versionId == null || versionId.isEmpty() ? "" : "?versionId=" + versionId);
+    }
+}
@@ -0,0 +1,283 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.AbstractAWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineRequest;
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineResult;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineRequest;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineResult;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineResult;
+import com.amazonaws.services.stepfunctions.model.InvalidTokenException;
+import com.amazonaws.services.stepfunctions.model.ListStateMachinesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachinesResult;
+import com.amazonaws.services.stepfunctions.model.ListTagsForResourceRequest;
+import com.amazonaws.services.stepfunctions.model.ListTagsForResourceResult;
+import com.amazonaws.services.stepfunctions.model.LoggingConfiguration;
+import com.amazonaws.services.stepfunctions.model.ResourceNotFoundException;
+import com.amazonaws.services.stepfunctions.model.StateMachineAlreadyExistsException;
+import com.amazonaws.services.stepfunctions.model.StateMachineDoesNotExistException;
+import com.amazonaws.services.stepfunctions.model.StateMachineListItem;
+import com.amazonaws.services.stepfunctions.model.Tag;
+import com.amazonaws.services.stepfunctions.model.TagResourceRequest;
+import com.amazonaws.services.stepfunctions.model.TagResourceResult;
+import com.amazonaws.services.stepfunctions.model.TracingConfiguration;
+import com.amazonaws.services.stepfunctions.model.UntagResourceRequest;
+import com.amazonaws.services.stepfunctions.model.UntagResourceResult;
+import com.amazonaws.services.stepfunctions.model.UpdateStateMachineRequest;
+import com.amazonaws.services.stepfunctions.model.UpdateStateMachineResult;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ *  Stateful in-memory implementation of the Step Functions state machine and tagging APIs used by the handlers.
+ *  Every call first goes through the FakeServiceBehavior, which applies the configured latency and throttling.
+ */
+public class FakeStepFunctions extends AbstractAWSStepFunctions {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final FakeServiceBehavior behavior;
+    private final String region;
+    private final String accountId;
+    private final NavigableMap<String, StoredStateMachine> stateMachines = new TreeMap<>();
+
+    public FakeStepFunctions(final FakeServiceBehavior behavior, final String region, final String accountId) {
+        this.behavior = behavior;
+        this.region = region;
+        this.accountId = accountId;
+    }
+
+    @Override
+    public CreateStateMachineResult createStateMachine(final CreateStateMachineRequest request) {
+        behavior.onCall("CreateStateMachine");
+        synchronized (this) {
+            final String stateMachineArn = String.format("arn:aws:states:%s:%s:stateMachine:%s", region, accountId, request.getName());
+            final StoredStateMachine existing = stateMachines.get(stateMachineArn);
+            if (existing != null) {
+                // CreateStateMachine is idempotent only for an identical definition and role
+                if (Objects.equals(existing.definition, request.getDefinition()) && Objects.equals(existing.roleArn, request.getRoleArn())) {
+                    return new CreateStateMachineResult()
+                            .withStateMachineArn(stateMachineArn)
+                            .withCreationDate(existing.creationDate);
+                }
+                throw serviceException(new StateMachineAlreadyExistsException("State Machine Already Exists: '" + stateMachineArn + "'"),
+                        Constants.STATE_MACHINE_ALREADY_EXISTS_ERROR_CODE);
+            }
+
+            final StoredStateMachine stateMachine = new StoredStateMachine(request.getName(),
+                    request.getType() == null ? Constants.STANDARD_STATE_MACHINE_TYPE : request.getType());
+            stateMachine.definition = request.getDefinition();
+            stateMachine.roleArn = request.getRoleArn();
+            stateMachine.loggingConfiguration = request.getLoggingConfiguration();
+            stateMachine.tracingConfiguration = request.getTracingConfiguration();
+            if (request.getTags() != null) {
+                request.getTags().forEach(tag -> stateMachine.tags.put(tag.getKey(), tag.getValue()));
+            }
+            stateMachines.put(stateMachineArn, stateMachine);
+
+            return new CreateStateMachineResult()
+                    .withStateMachineArn(stateMachineArn)
+                    .withCreationDate(stateMachine.creationDate)
+                    .withStateMachineVersionArn(Boolean.TRUE.equals(request.getPublish()) ? stateMachine.publish(stateMachineArn) : null);
+        }
+    }
+
+    @Override
+    public DescribeStateMachineResult describeStateMachine(final DescribeStateMachineRequest request) {
+        behavior.onCall("DescribeStateMachine");
+        synchronized (this) {
+            final StoredStateMachine stateMachine = getStateMachine(request.getStateMachineArn());
+            return new DescribeStateMachineResult()
+                    .withStateMachineArn(request.getStateMachineArn())
+                    .withName(stateMachine.name)
+                    .withType(stateMachine.type)
+                    .withStatus("ACTIVE")
+                    .withDefinition(stateMachine.definition)
+                    .withRoleArn(stateMachine.roleArn)
+                    .withLoggingConfiguration(stateMachine.loggingConfiguration)
+                    .withTracingConfiguration(stateMachine.tracingConfiguration)
+                    .withRevisionId(stateMachine.revisionId)
+                    .withCreationDate(stateMachine.creationDate);
+        }
+    }
+
+    @Override
+    public UpdateStateMachineResult updateStateMachine(final UpdateStateMachineRequest request) {
+        behavior.onCall("UpdateStateMachine");
+        synchronized (this) {
+            final StoredStateMachine stateMachine = getStateMachine(request.getStateMachineArn());
+            if (request.getDefinition() != null) {
+                stateMachine.definition = request.getDefinition();
+            }
+            if (request.getRoleArn() != null) {
+                stateMachine.roleArn = request.getRoleArn();
+            }
+            if (request.getLoggingConfiguration() != null) {
+                stateMachine.loggingConfiguration = request.getLoggingConfiguration();
+            }
+            if (request.getTracingConfiguration() != null) {
+                stateMachine.tracingConfiguration = request.getTracingConfiguration();
+            }
+            stateMachine.revisionId = newRevisionId(request.getStateMachineArn(), ++stateMachine.revisionCount);
+
+            return new UpdateStateMachineResult()
+                    .withUpdateDate(new Date())
+                    .withRevisionId(stateMachine.revisionId)
+                    .withStateMachineVersionArn(Boolean.TRUE.equals(request.getPublish()) ? stateMachine.publish(request.getStateMachineArn()) : null);
+        }
+    }
+
+    @Override
+    public DeleteStateMachineResult deleteStateMachine(final DeleteStateMachineRequest request) {
+        behavior.onCall("DeleteStateMachine");
+        synchronized (this) {
+            stateMachines.remove(request.getStateMachineArn());
+            return new DeleteStateMachineResult();
+        }
+    }
+
+    @Override
+    public ListStateMachinesResult listStateMachines(final ListStateMachinesRequest request) {
+        behavior.onCall("ListStateMachines");
+        synchronized (this) {
+            final List<StateMachineListItem> page = new ArrayList<>();
+            final String nextToken = getPage(stateMachines, request.getNextToken(), request.getMaxResults(), (arn, stateMachine) ->
+                    page.add(new StateMachineListItem()
+                            .withStateMachineArn(arn)
+                            .withName(stateMachine.name)
+                            .withType(stateMachine.type)
+                            .withCreationDate(stateMachine.creationDate))
+            );
+            return new ListStateMachinesResult()
+                    .withStateMachines(page)
+                    .withNextToken(nextToken);
+        }
+    }
+
+    @Override
+    public TagResourceResult tagResource(final TagResourceRequest request) {
+        behavior.onCall("TagResource");
+        synchronized (this) {
+            request.getTags().forEach(tag -> getTaggedStateMachine(request.getResourceArn()).tags.put(tag.getKey(), tag.getValue()));
+            return new TagResourceResult();
+        }
+    }
+
+    @Override
+    public UntagResourceResult untagResource(final UntagResourceRequest request) {
+        behavior.onCall("UntagResource");
+        synchronized (this) {
+            getTaggedStateMachine(request.getResourceArn()).tags.keySet().removeAll(request.getTagKeys());
+            return new UntagResourceResult();
+        }
+    }
+
+    @Override
+    public ListTagsForResourceResult listTagsForResource(final ListTagsForResourceRequest request) {
+        behavior.onCall("ListTagsForResource");
+        synchronized (this) {
+            return new ListTagsForResourceResult().withTags(
+                    getTaggedStateMachine(request.getResourceArn()).tags.entrySet().stream()
+                            .map(tag -> new Tag().withKey(tag.getKey()).withValue(tag.getValue()))
+                            .collect(Collectors.toList())
+            );
+        }
+    }
+
+    public synchronized int getStateMachineCount() {
+        return stateMachines.size();
+    }
+
+    public synchronized int getVersionCount(final String stateMachineArn) {
+        final StoredStateMachine stateMachine = stateMachines.get(stateMachineArn);
+        return stateMachine == null ? 0 : stateMachine.versionCount;
+    }
+
+    private StoredStateMachine getStateMachine(final String stateMachineArn) {
+        final StoredStateMachine stateMachine = stateMachines.get(stateMachineArn);
+        if (stateMachine == null) {
+            throw serviceException(new StateMachineDoesNotExistException("State Machine Does Not Exist: '" + stateMachineArn + "'"),
+                    Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE);
+        }
+        return stateMachine;
+    }
+
+    private StoredStateMachine getTaggedStateMachine(final String resourceArn) {
+        final StoredStateMachine stateMachine = stateMachines.get(resourceArn);
+        if (stateMachine == null) {
+            throw serviceException(new ResourceNotFoundException("Resource not found: '" + resourceArn + "'"), "ResourceNotFound");
+        }
+        return stateMachine;
+    }
+
+    // Revision IDs are derived from the ARN and revision number so that runs are reproducible
+    private static String newRevisionId(final String stateMachineArn, final int revision) {
+        return UUID.nameUUIDFromBytes((stateMachineArn + ":" + revision).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    // Pages are keyed by ARN, and the next token is the last ARN of the current page
+    private static <T> String getPage(final NavigableMap<String, T> resources, final String nextToken, final Integer maxResults,
+                                      final BiConsumer<String, T> pageConsumer) {
+        if (nextToken != null && !resources.containsKey(nextToken)) {
+            throw serviceException(new InvalidTokenException("Invalid token: " + nextToken), "InvalidToken");
+        }
+        final int pageSize = maxResults == null || maxResults == 0 ? DEFAULT_PAGE_SIZE : maxResults;
+        final NavigableMap<String, T> remaining = nextToken == null ? resources : resources.tailMap(nextToken, false);
+
+        String lastKey = null;
+        int count = 0;
+        for (final Map.Entry<String, T> entry : remaining.entrySet()) {
+            if (count == pageSize) {
+                return lastKey;
+            }
+            pageConsumer.accept(entry.getKey(), entry.getValue());
+            lastKey = entry.getKey();
+            count++;
+        }
+        return null;
+    }
+
+    private static <T extends AmazonServiceException> T serviceException(final T exception, final String errorCode) {
+        exception.setStatusCode(400);
+        exception.setErrorCode(errorCode);
+        exception.setErrorType(AmazonServiceException.ErrorType.Client);
+        return exception;
+    }
+
+    private static class StoredStateMachine {
+        private final String name;
+        private final String type;
+        private final Date creationDate = new Date();
+        private final Map<String, String> tags = new LinkedHashMap<>();
+        private String definition;
+        private String roleArn;
+        private LoggingConfiguration loggingConfiguration;
+        private TracingConfiguration tracingConfiguration;
+        // DescribeStateMachine returns no revision ID until the state machine is first updated
+        private String revisionId;
+        private int revisionCount;
+        private int versionCount;
+
+        private StoredStateMachine(final String name, final String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        private String publish(final String stateMachineArn) {
+            return stateMachineArn + ":" + ++versionCount;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HandlerLoggerTest {
+
+    private static final String CLIENT_REQUEST_TOKEN = "log-token";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> logLines = new ArrayList<>();
+    private final Logger logger = logLines::add;
+    private final HandlerLogger handlerLogger = new HandlerLogger(logger, ResourceHandlerRequest.<ResourceModel>builder()
+            .clientRequestToken(CLIENT_REQUEST_TOKEN)
+            .build(), "CreateHandler");
+
+    @AfterEach
+    public void tearDown() {
+        HandlerLogger.setMinimumLevel(HandlerLogger.Level.INFO);
+        HandlerLogger.resetSampling();
+    }
+
+    @Test
+    public void testLinesAreJsonWithHandlerAndRequestToken() throws IOException {
+        handlerLogger.info("StateMachine \"Test\"\ncreated");
+        handlerLogger.error("Error creating StateMachine", new IllegalStateException("failure"));
+
+        assertThat(logLines).hasSize(2);
+        final JsonNode info = objectMapper.readTree(logLines.get(0));
+        assertThat(info.get("level").asText()).isEqualTo("INFO");
+        assertThat(info.get("handler").asText()).isEqualTo("CreateHandler");
+        assertThat(info.get("clientRequestToken").asText()).isEqualTo(CLIENT_REQUEST_TOKEN);
+        assertThat(info.get("message").asText()).isEqualTo("StateMachine \"Test\"\ncreated");
+        assertThat(info.has("error")).isFalse();
+
+        final JsonNode error = objectMapper.readTree(logLines.get(1));
+        assertThat(error.get("level").asText()).isEqualTo("ERROR");
+        assertThat(error.get("error").asText()).isEqualTo("java.lang.IllegalStateException: failure");
+    }
+
+    @Test
+    public void testSuppressedLevelsDoNotBuildMessages() {
+        final AtomicInteger builtMessages = new AtomicInteger();
+        HandlerLogger.setMinimumLevel(HandlerLogger.Level.WARN);
+
+        handlerLogger.debug(() -> "debug " + builtMessages.incrementAndGet());
+        handlerLogger.info(() -> "info " + builtMessages.incrementAndGet());
+        handlerLogger.sampled(HandlerLogger.Level.INFO, "Poll", () -> "poll " + builtMessages.incrementAndGet());
+        handlerLogger.warn(() -> "warn " + builtMessages.incrementAndGet(), new IllegalStateException());
+
+        assertThat(builtMessages.get()).isEqualTo(1);
+        assertThat(logLines).hasSize(1);
+        assertThat(logLines.get(0)).contains("\"level\":\"WARN\"");
+    }
+
+    @Test
+    public void testSampledLinesWriteFirstAndEveryIntervalthOccurrence() throws IOException {
+        final int occurrences = 2 * Constants.LOG_SAMPLE_INTERVAL + 1;
+        for (int i = 0; i < occurrences; i++) {
+            handlerLogger.sampled(HandlerLogger.Level.INFO, "Poll", () -> "Polling");
+        }
+
+        assertThat(logLines).hasSize(3);
+        assertThat(objectMapper.readTree(logLines.get(0)).get("occurrence").asLong()).isEqualTo(1);
+        assertThat(objectMapper.readTree(logLines.get(1)).get("occurrence").asLong()).isEqualTo(Constants.LOG_SAMPLE_INTERVAL + 1);
+        assertThat(objectMapper.readTree(logLines.get(2)).get("occurrence").asLong()).isEqualTo(2 * Constants.LOG_SAMPLE_INTERVAL + 1);
+    }
+
+    @Test
+    public void testLevelIsReadCaseInsensitivelyAndDefaultsToInfo() {
+        assertThat(HandlerLogger.getLevel("debug")).isEqualTo(HandlerLogger.Level.DEBUG);
+        assertThat(HandlerLogger.getLevel(" ERROR ")).isEqualTo(HandlerLogger.Level.ERROR);
+        assertThat(HandlerLogger.getLevel("verbose")).isEqualTo(HandlerLogger.Level.INFO);
+        assertThat(HandlerLogger.getLevel(null)).isEqualTo(HandlerLogger.Level.INFO);
+    }
+}
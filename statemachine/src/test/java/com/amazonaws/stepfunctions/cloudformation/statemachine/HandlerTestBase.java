@@ -1,10 +1,15 @@
 package com.amazonaws.stepfunctions.cloudformation.statemachine;
 
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicSessionCredentials;
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
 import com.amazonaws.services.stepfunctions.model.AWSStepFunctionsException;
 import org.assertj.core.util.Lists;
 import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 
@@ -35,10 +40,17 @@ public abstract class HandlerTestBase {
     protected final static String AWS_ACCOUNT_ID = "1234567890";
     protected final static String REGION = "us-east-1";
     protected final static String PARTITION = "aws";
+    protected final static AWSCredentialsProvider CALLER_CREDENTIALS = new AWSStaticCredentialsProvider(
+            new BasicSessionCredentials("ASIACALLER", "secretKey", "sessionToken"));
+    protected final static AWSCredentialsProvider OTHER_CALLER_CREDENTIALS = new AWSStaticCredentialsProvider(
+            new BasicSessionCredentials("ASIAOTHERCALLER", "secretKey", "sessionToken"));
     protected final static String STATE_MACHINE_NAME = "TestStateMachine";
     protected final static String STATE_MACHINE_REVISION_ID = "0f4506cf-b036-44c1-bae2-0d27f23c59a6";
     protected final static String STATE_MACHINE_ARN =
             "arn:aws:states:us-east-1:1234567890:stateMachine:TestStateMachine";
+    protected final static String STATE_MACHINE_VERSION_ARN =
+            "arn:aws:states:us-east-1:1234567890:stateMachine:TestStateMachine:1";
+    protected final static String VERSION_DESCRIPTION = "TestStateMachine version description.";
 
     static {
         exception400.setStatusCode(400);
@@ -77,4 +89,12 @@ public abstract class HandlerTestBase {
         return tracingConfiguration;
     }
 
+    // Answers like the proxy, which injects the caller's credentials into the requests it sends
+    protected static Answer<Object> withCredentials(final AWSCredentialsProvider credentialsProvider, final Object result) {
+        return invocation -> {
+            invocation.<AmazonWebServiceRequest>getArgument(0).setRequestCredentialsProvider(credentialsProvider);
+            return result;
+        };
+    }
+
 }
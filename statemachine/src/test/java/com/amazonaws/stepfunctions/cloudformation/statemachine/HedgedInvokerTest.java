@@ -0,0 +1,155 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineResult;
+import com.amazonaws.services.stepfunctions.model.StateMachineDoesNotExistException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HedgedInvokerTest {
+
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:StateMachine";
+    private static final long SLOW_ATTEMPT_MILLIS = 30;
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+
+    @BeforeEach
+    public void setup() {
+        HedgedInvoker.reset();
+        HedgedInvoker.setEnabled(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        HedgedInvoker.setEnabled(false);
+        HedgedInvoker.reset();
+    }
+
+    @Test
+    public void testDisabledInvokesOnce() {
+        HedgedInvoker.setEnabled(false);
+        warmUp();
+
+        final DescribeStateMachineRequest request = new DescribeStateMachineRequest().withStateMachineArn(STATE_MACHINE_ARN);
+        final DescribeStateMachineResult result = HedgedInvoker.invoke(proxy, request, slowOriginal(request));
+
+        assertThat(result.getName()).isEqualTo("original");
+        assertThat(HedgedInvoker.getHedgeCount()).isZero();
+    }
+
+    @Test
+    public void testNoHedgeBeforeEnoughLatenciesAreObserved() {
+        final DescribeStateMachineRequest request = new DescribeStateMachineRequest().withStateMachineArn(STATE_MACHINE_ARN);
+        final DescribeStateMachineResult result = HedgedInvoker.invoke(proxy, request, slowOriginal(request));
+
+        assertThat(result.getName()).isEqualTo("original");
+        assertThat(HedgedInvoker.getHedgeCount()).isZero();
+    }
+
+    @Test
+    public void testSlowAttemptIsHedgedAndFastestResultWins() {
+        warmUp();
+
+        final CountDownLatch hedgeAnswered = new CountDownLatch(1);
+        final DescribeStateMachineRequest request = new DescribeStateMachineRequest().withStateMachineArn(STATE_MACHINE_ARN);
+        final DescribeStateMachineResult result = HedgedInvoker.invoke(proxy, request, attempt -> {
+            if (attempt == request) {
+                // The original attempt only answers after the hedge did
+                await(hedgeAnswered);
+                return new DescribeStateMachineResult().withName("original");
+            }
+            hedgeAnswered.countDown();
+            return new DescribeStateMachineResult().withName("hedge");
+        });
+
+        assertThat(result.getName()).isEqualTo("hedge");
+        assertThat(HedgedInvoker.getHedgeCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testHedgeRateIsCapped() {
+        warmUp();
+
+        for (int i = 0; i < 5; i++) {
+            final DescribeStateMachineRequest request = new DescribeStateMachineRequest().withStateMachineArn(STATE_MACHINE_ARN);
+            HedgedInvoker.invoke(proxy, request, slowOriginal(request));
+        }
+
+        // Each call earns a tenth of a hedge, so the warm-up and the slow calls have only paid for two hedges
+        assertThat(HedgedInvoker.getHedgeCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailsWhenAllAttemptsFail() {
+        warmUp();
+
+        final DescribeStateMachineRequest request = new DescribeStateMachineRequest().withStateMachineArn(STATE_MACHINE_ARN);
+        assertThatThrownBy(() -> HedgedInvoker.invoke(proxy, request, attempt -> {
+            if (attempt == request) {
+                sleep(SLOW_ATTEMPT_MILLIS);
+            }
+            throw new StateMachineDoesNotExistException(Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_MESSAGE);
+        })).isInstanceOf(StateMachineDoesNotExistException.class);
+        assertThat(HedgedInvoker.getHedgeCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSucceedsWhenOnlyTheHedgeFails() {
+        warmUp();
+
+        final DescribeStateMachineRequest request = new DescribeStateMachineRequest().withStateMachineArn(STATE_MACHINE_ARN);
+        final DescribeStateMachineResult result = HedgedInvoker.invoke(proxy, request, attempt -> {
+            if (attempt != request) {
+                throw new StateMachineDoesNotExistException(Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_MESSAGE);
+            }
+            sleep(SLOW_ATTEMPT_MILLIS);
+            return new DescribeStateMachineResult().withName("original");
+        });
+
+        assertThat(result.getName()).isEqualTo("original");
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < Constants.HEDGE_MIN_SAMPLES; i++) {
+            HedgedInvoker.invoke(proxy, new DescribeStateMachineRequest().withStateMachineArn(STATE_MACHINE_ARN),
+                    attempt -> new DescribeStateMachineResult().withName("warm-up"));
+        }
+    }
+
+    // The original request is slow, while hedges, which are sent with a copy of the request, answer immediately
+    private static Function<DescribeStateMachineRequest, DescribeStateMachineResult> slowOriginal(
+            final DescribeStateMachineRequest request) {
+        return attempt -> {
+            if (attempt == request) {
+                sleep(SLOW_ATTEMPT_MILLIS);
+                return new DescribeStateMachineResult().withName("original");
+            }
+            return new DescribeStateMachineResult().withName("hedge");
+        };
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (final InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
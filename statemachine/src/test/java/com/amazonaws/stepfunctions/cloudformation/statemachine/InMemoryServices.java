@@ -0,0 +1,68 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.mockito.Mockito;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ *  Installs the in-memory service fakes into the ClientBuilder so that handlers can be exercised end to end
+ *  without an AWS account. Close the instance to restore the real clients.
+ */
+public class InMemoryServices implements AutoCloseable {
+
+    public static final String PARTITION = "aws";
+    public static final String REGION = "us-east-1";
+    public static final String AWS_ACCOUNT_ID = "123456789012";
+
+    private final FakeServiceBehavior behavior;
+    private final FakeStepFunctions sfnClient;
+    private final FakeS3 s3Client;
+
+    private InMemoryServices(final FakeServiceBehavior behavior) {
+        this.behavior = behavior;
+        this.sfnClient = new FakeStepFunctions(behavior, REGION, AWS_ACCOUNT_ID);
+        this.s3Client = new FakeS3(behavior);
+    }
+
+    public static InMemoryServices install(final FakeServiceBehavior behavior) {
+        final InMemoryServices services = new InMemoryServices(behavior);
+        ClientBuilder.setClientOverride(services.sfnClient);
+        ClientBuilder.setS3ClientOverride(services.s3Client);
+        return services;
+    }
+
+    /**
+     * Creates a proxy that invokes the client function directly instead of injecting credentials
+     * @return A proxy to pass to the handlers
+     */
+    @SuppressWarnings("unchecked")
+    public static AmazonWebServicesClientProxy newProxy() {
+        final AmazonWebServicesClientProxy proxy = Mockito.mock(AmazonWebServicesClientProxy.class, Mockito.withSettings().stubOnly());
+        Mockito.when(proxy.injectCredentialsAndInvoke(any(AmazonWebServiceRequest.class), any(Function.class)))
+                .thenAnswer(invocation -> ((Function<Object, Object>) invocation.getArgument(1)).apply(invocation.getArgument(0)));
+        return proxy;
+    }
+
+    public FakeServiceBehavior getBehavior() {
+        return behavior;
+    }
+
+    public FakeStepFunctions getSfnClient() {
+        return sfnClient;
+    }
+
+    public FakeS3 getS3Client() {
+        return s3Client;
+    }
+
+    @Override
+    public void close() {
+        ClientBuilder.setClientOverride(null);
+        ClientBuilder.setS3ClientOverride(null);
+    }
+}
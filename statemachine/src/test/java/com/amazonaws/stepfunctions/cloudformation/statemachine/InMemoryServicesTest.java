@@ -0,0 +1,199 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineRequest;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class InMemoryServicesTest {
+
+    private static final String DEFINITION = "{\"StartAt\":\"Pass\",\"States\":{\"Pass\":{\"Type\":\"Pass\",\"End\":true}}}";
+    private static final String UPDATED_DEFINITION = "{\"StartAt\":\"Done\",\"States\":{\"Done\":{\"Type\":\"Succeed\"}}}";
+    private static final String ROLE_ARN = "arn:aws:iam::123456789012:role/StatesExecutionRole";
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final Logger logger = mock(Logger.class);
+    private FakeServiceBehavior behavior;
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        behavior = new FakeServiceBehavior();
+        services = InMemoryServices.install(behavior);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        services.close();
+    }
+
+    @Test
+    public void testStateMachineLifecycle() {
+        final ResourceModel model = ResourceModel.builder()
+                .stateMachineName("TestStateMachine")
+                .definitionString(DEFINITION)
+                .roleArn(ROLE_ARN)
+                .tags(Collections.singletonList(new TagsEntry("Key", "Value")))
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> createResponse = new CreateHandler().handleRequest(proxy, request(model), null, logger);
+        assertThat(createResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final String stateMachineArn = createResponse.getResourceModel().getArn();
+
+        final ProgressEvent<ResourceModel, CallbackContext> duplicateCreateResponse = new CreateHandler().handleRequest(
+                proxy, request(ResourceModel.builder().stateMachineName("TestStateMachine").definitionString(DEFINITION).roleArn(ROLE_ARN).build()),
+                null, logger);
+        assertThat(duplicateCreateResponse.getErrorCode()).isEqualTo(HandlerErrorCode.AlreadyExists);
+
+        final ResourceModel updatedModel = ResourceModel.builder()
+                .arn(stateMachineArn)
+                .stateMachineName("TestStateMachine")
+                .definitionString(UPDATED_DEFINITION)
+                .roleArn(ROLE_ARN)
+                .publish(true)
+                .build();
+        final ResourceHandlerRequest<ResourceModel> updateRequest = request(updatedModel);
+        updateRequest.setPreviousResourceState(model);
+        final ProgressEvent<ResourceModel, CallbackContext> updateResponse = new UpdateHandler().handleRequest(proxy, updateRequest, null, logger);
+        assertThat(updateResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(updateResponse.getResourceModel().getStateMachineVersionArn()).isEqualTo(stateMachineArn + ":1");
+
+        final ProgressEvent<ResourceModel, CallbackContext> readResponse = new ReadHandler().handleRequest(
+                proxy, request(ResourceModel.builder()
+                        .arn(stateMachineArn)
+                        .stateMachineVersionArn(updateResponse.getResourceModel().getStateMachineVersionArn())
+                        .build()),
+                null, logger);
+        assertThat(readResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(readResponse.getResourceModel().getDefinitionString()).isEqualTo(UPDATED_DEFINITION);
+        assertThat(readResponse.getResourceModel().getStateMachineRevisionId()).isEqualTo(updateResponse.getResourceModel().getStateMachineRevisionId());
+        assertThat(readResponse.getResourceModel().getTags()).isEmpty();
+        assertThat(readResponse.getResourceModel().getStateMachineVersionArn()).isEqualTo(stateMachineArn + ":1");
+
+        final ResourceHandlerRequest<ResourceModel> deleteRequest = request(ResourceModel.builder().arn(stateMachineArn).build());
+        final ProgressEvent<ResourceModel, CallbackContext> deleteResponse = new DeleteHandler().handleRequest(proxy, deleteRequest, null, logger);
+        assertThat(deleteResponse.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        final ProgressEvent<ResourceModel, CallbackContext> deleteCallbackResponse = new DeleteHandler().handleRequest(
+                proxy, deleteRequest, deleteResponse.getCallbackContext(), logger);
+        assertThat(deleteCallbackResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(services.getSfnClient().getStateMachineCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCreateStateMachine_fetchesDefinitionFromS3() {
+        services.getS3Client().putObject("bucket", "definition.yaml", null,
+                "StartAt: Pass\nStates:\n  Pass:\n    Type: Pass\n    End: true\n");
+        final ResourceModel model = ResourceModel.builder()
+                .stateMachineName("TestStateMachine")
+                .definitionS3Location(new S3Location("bucket", "definition.yaml", null, null, null))
+                .roleArn(ROLE_ARN)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = new CreateHandler().handleRequest(proxy, request(model), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(behavior.getCallCount("GetObject")).isEqualTo(1);
+        final ProgressEvent<ResourceModel, CallbackContext> readResponse = new ReadHandler().handleRequest(
+                proxy, request(ResourceModel.builder().arn(response.getResourceModel().getArn()).build()), null, logger);
+        assertThat(readResponse.getResourceModel().getDefinitionString()).contains("\"StartAt\"");
+    }
+
+    @Test
+    public void testListStateMachines_paginatesThroughAllStateMachines() {
+        for (int i = 0; i < 120; i++) {
+            new CreateHandler().handleRequest(proxy, request(ResourceModel.builder()
+                    .stateMachineName("StateMachine" + i).definitionString(DEFINITION).roleArn(ROLE_ARN).build()), null, logger);
+        }
+
+        final ProgressEvent<ResourceModel, CallbackContext> firstPage = new ListHandler().handleRequest(
+                proxy, request(ResourceModel.builder().build()), null, logger);
+        assertThat(firstPage.getResourceModels()).hasSize(100);
+
+        final ResourceHandlerRequest<ResourceModel> secondPageRequest = request(ResourceModel.builder().build());
+        secondPageRequest.setNextToken(firstPage.getNextToken());
+        final ProgressEvent<ResourceModel, CallbackContext> secondPage = new ListHandler().handleRequest(proxy, secondPageRequest, null, logger);
+        assertThat(secondPage.getResourceModels()).hasSize(20);
+        assertThat(secondPage.getNextToken()).isNull();
+    }
+
+    @Test
+    public void testListStateMachines_coalescesPagesWhenEnabled() {
+        for (int i = 0; i < 1200; i++) {
+            services.getSfnClient().createStateMachine(new CreateStateMachineRequest()
+                    .withName("StateMachine" + i).withDefinition(DEFINITION).withRoleArn(ROLE_ARN));
+        }
+        behavior.resetCounts();
+
+        PageCoalescer.setEnabled(true);
+        try {
+            final ProgressEvent<ResourceModel, CallbackContext> response = new ListHandler().handleRequest(
+                    proxy, request(ResourceModel.builder().build()), null, logger);
+
+            // One page of the maximum size, and one for the rest
+            assertThat(response.getResourceModels()).hasSize(1200);
+            assertThat(response.getNextToken()).isNull();
+            assertThat(behavior.getCallCount("ListStateMachines")).isEqualTo(2);
+        } finally {
+            PageCoalescer.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testListStateMachines_coalescedPagesStopAtItemBudget() {
+        for (int i = 0; i < Constants.LIST_HYDRATION_MAX_ITEMS + 20; i++) {
+            services.getSfnClient().createStateMachine(new CreateStateMachineRequest()
+                    .withName("StateMachine" + i).withDefinition(DEFINITION).withRoleArn(ROLE_ARN));
+        }
+
+        PageCoalescer.setEnabled(true);
+        ListHydrator.setEnabled(true);
+        try {
+            final ProgressEvent<ResourceModel, CallbackContext> firstPage = new ListHandler().handleRequest(
+                    proxy, request(ResourceModel.builder().build()), null, logger);
+            assertThat(firstPage.getResourceModels()).hasSize(Constants.LIST_HYDRATION_MAX_ITEMS);
+            assertThat(firstPage.getNextToken()).isNotNull();
+
+            final ResourceHandlerRequest<ResourceModel> secondPageRequest = request(ResourceModel.builder().build());
+            secondPageRequest.setNextToken(firstPage.getNextToken());
+            final ProgressEvent<ResourceModel, CallbackContext> secondPage = new ListHandler().handleRequest(proxy, secondPageRequest, null, logger);
+            assertThat(secondPage.getResourceModels()).hasSize(20);
+            assertThat(secondPage.getNextToken()).isNull();
+        } finally {
+            PageCoalescer.setEnabled(false);
+            ListHydrator.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testThrottleRate_returnsThrottlingError() {
+        behavior.withThrottleRate("DescribeStateMachine", 1.0);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = new ReadHandler().handleRequest(
+                proxy, request(ResourceModel.builder().arn("arn:aws:states:us-east-1:123456789012:stateMachine:Missing").build()), null, logger);
+
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.Throttling);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .awsPartition(InMemoryServices.PARTITION)
+                .region(InMemoryServices.REGION)
+                .awsAccountId(InMemoryServices.AWS_ACCOUNT_ID)
+                .logicalResourceIdentifier("StateMachine")
+                .clientRequestToken("token")
+                .desiredResourceState(model)
+                .build();
+    }
+}
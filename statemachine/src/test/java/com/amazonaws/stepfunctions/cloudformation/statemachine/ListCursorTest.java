@@ -0,0 +1,40 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ListCursorTest {
+
+    private static final String PAGE_TOKEN = "AAAAKgAAAAIAAAAAAAAAAQ==.page/token+with:separators";
+
+    @Test
+    public void testPageBoundaryTokensAreServiceTokens() {
+        assertThat(new ListCursor(PAGE_TOKEN, 0).encode()).isEqualTo(PAGE_TOKEN);
+
+        final ListCursor cursor = ListCursor.decode(PAGE_TOKEN);
+        assertThat(cursor.getPageToken()).isEqualTo(PAGE_TOKEN);
+        assertThat(cursor.getSkippedItems()).isZero();
+    }
+
+    @Test
+    public void testPartialPageTokensRoundTrip() {
+        final ListCursor cursor = ListCursor.decode(new ListCursor(PAGE_TOKEN, 7).encode());
+        assertThat(cursor.getPageToken()).isEqualTo(PAGE_TOKEN);
+        assertThat(cursor.getSkippedItems()).isEqualTo(7);
+
+        final ListCursor firstPageCursor = ListCursor.decode(new ListCursor(null, 3).encode());
+        assertThat(firstPageCursor.getPageToken()).isNull();
+        assertThat(firstPageCursor.getSkippedItems()).isEqualTo(3);
+    }
+
+    @Test
+    public void testInvalidPartialPageTokensAreRejected() {
+        assertThatThrownBy(() -> ListCursor.decode("page.x.~")).isInstanceOf(CfnInvalidRequestException.class);
+        assertThatThrownBy(() -> ListCursor.decode("page.0.~")).isInstanceOf(CfnInvalidRequestException.class);
+        assertThatThrownBy(() -> ListCursor.decode("page.3")).isInstanceOf(CfnInvalidRequestException.class);
+        assertThatThrownBy(() -> ListCursor.decode("page.3.!!")).isInstanceOf(CfnInvalidRequestException.class);
+    }
+}
@@ -0,0 +1,222 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.LIST_HYDRATED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.LIST_HYDRATION_PARTIAL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ListHydratorTest {
+
+    private static final String DEFINITION = "{\"StartAt\":\"Pass\",\"States\":{\"Pass\":{\"Type\":\"Pass\",\"End\":true}}}";
+    private static final String ROLE_ARN = "arn:aws:iam::123456789012:role/StatesExecutionRole";
+    private static final int STATE_MACHINE_COUNT = 20;
+    private static final int LARGE_STATE_MACHINE_COUNT = 12;
+    // Close to the 1 MB limit of a definition
+    private static final int LARGE_DEFINITION_SIZE = 900 * 1000;
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final List<String> logLines = Collections.synchronizedList(new ArrayList<>());
+    private final Logger logger = logLines::add;
+    private FakeServiceBehavior behavior;
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        behavior = new FakeServiceBehavior();
+        services = InMemoryServices.install(behavior);
+        for (int i = 0; i < STATE_MACHINE_COUNT; i++) {
+            new CreateHandler().handleRequest(proxy, request(ResourceModel.builder()
+                    .stateMachineName(String.format("StateMachine%02d", i))
+                    .definitionString(DEFINITION)
+                    .roleArn(ROLE_ARN)
+                    .tags(Collections.singletonList(new TagsEntry("Index", String.valueOf(i))))
+                    .build()), null, logger);
+        }
+        behavior.resetCounts();
+        logLines.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ListHydrator.setEnabled(false);
+        PageCoalescer.setEnabled(false);
+        AccessDeniedCache.clear();
+        services.close();
+    }
+
+    @Test
+    public void testListedModelsAreNotHydratedByDefault() {
+        final ProgressEvent<ResourceModel, CallbackContext> response = new ListHandler().handleRequest(
+                proxy, request(ResourceModel.builder().build()), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(STATE_MACHINE_COUNT);
+        assertThat(response.getResourceModels()).allMatch(model -> model.getDefinitionString() == null && model.getTags() == null);
+        assertThat(behavior.getCallCount("DescribeStateMachine")).isZero();
+    }
+
+    @Test
+    public void testListedModelsAreHydratedInOrder() {
+        ListHydrator.setEnabled(true);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = new ListHandler().handleRequest(
+                proxy, request(ResourceModel.builder().build()), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final List<ResourceModel> models = response.getResourceModels();
+        assertThat(models).hasSize(STATE_MACHINE_COUNT);
+        for (int i = 0; i < STATE_MACHINE_COUNT; i++) {
+            final ResourceModel model = models.get(i);
+            assertThat(model.getStateMachineName()).isEqualTo(String.format("StateMachine%02d", i));
+            assertThat(model.getDefinitionString()).isEqualTo(DEFINITION);
+            assertThat(model.getRoleArn()).isEqualTo(ROLE_ARN);
+            assertThat(model.getTags()).containsExactly(new TagsEntry("Index", String.valueOf(i)));
+        }
+        assertThat(behavior.getCallCount("DescribeStateMachine")).isEqualTo(STATE_MACHINE_COUNT);
+        assertThat(behavior.getCallCount("ListTagsForResource")).isEqualTo(STATE_MACHINE_COUNT);
+        assertThat(getMetricsLine()).contains(LIST_HYDRATED.loggingKey).doesNotContain(LIST_HYDRATION_PARTIAL.loggingKey);
+    }
+
+    @Test
+    public void testThrottledItemsKeepListedProperties() {
+        ListHydrator.setEnabled(true);
+        behavior.withThrottleRate("DescribeStateMachine", 1.0);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = new ListHandler().handleRequest(
+                proxy, request(ResourceModel.builder().build()), null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(STATE_MACHINE_COUNT);
+        assertThat(response.getResourceModels()).allMatch(model -> model.getArn() != null && model.getDefinitionString() == null);
+        // Every item is attempted as often as allowed before it is given up on
+        assertThat(behavior.getCallCount("DescribeStateMachine")).isEqualTo(STATE_MACHINE_COUNT * Constants.LIST_HYDRATION_MAX_ATTEMPTS);
+        assertThat(getMetricsLine()).contains(LIST_HYDRATED.loggingKey, LIST_HYDRATION_PARTIAL.loggingKey);
+    }
+
+    @Test
+    public void testItemsThatFailAreKeptAlongsideHydratedItems() {
+        ListHydrator.setEnabled(true);
+        // Deleted between the list and its hydration
+        final String deletedArn = "arn:aws:states:us-east-1:123456789012:stateMachine:Deleted";
+        final List<ResourceModel> models = new ArrayList<>();
+        models.add(ResourceModel.builder().arn(deletedArn).stateMachineName("Deleted").build());
+        models.add(new ListHandler().handleRequest(proxy, request(ResourceModel.builder().build()), null, logger).getResourceModels().get(0));
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.LIST);
+        final ResourceHandlerRequest<ResourceModel> listRequest = request(ResourceModel.builder().build());
+        final List<ResourceModel> hydratedModels = ListHydrator.hydrate(proxy, services.getSfnClient(), models,
+                Constants.LIST_RESPONSE_MAX_BYTES, new HandlerLogger(logger, listRequest, "ListHandler"), metricsRecorder);
+
+        assertThat(hydratedModels.get(0)).isSameAs(models.get(0));
+        assertThat(hydratedModels.get(1).getDefinitionString()).isEqualTo(DEFINITION);
+        assertThat(metricsRecorder.generateMetricsString()).contains(LIST_HYDRATION_PARTIAL.loggingKey);
+    }
+
+    @Test
+    public void testLargeDefinitionsAreSplitAcrossResponses() {
+        ListHydrator.setEnabled(true);
+        createLargeStateMachines();
+
+        assertListsEveryStateMachineWithinResponseLimit();
+    }
+
+    @Test
+    public void testLargeDefinitionsAreSplitAcrossResponses_whenPagesAreCoalesced() {
+        ListHydrator.setEnabled(true);
+        PageCoalescer.setEnabled(true);
+        createLargeStateMachines();
+
+        assertListsEveryStateMachineWithinResponseLimit();
+    }
+
+    @Test
+    public void testRemainingItemsAreNotHydrated_onceResponseIsFull() {
+        ListHydrator.setEnabled(true);
+        createLargeStateMachines();
+        behavior.resetCounts();
+        behavior.withLatency("DescribeStateMachine", FakeServiceBehavior.LatencyDistribution.fixed(50));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = new ListHandler().handleRequest(
+                proxy, request(ResourceModel.builder().build()), null, logger);
+
+        assertThat(response.getNextToken()).isNotNull();
+        // The response fills up within the first wave of workers, so later items are cancelled before they start
+        assertThat(behavior.getCallCount("DescribeStateMachine")).isLessThan(LARGE_STATE_MACHINE_COUNT + STATE_MACHINE_COUNT);
+    }
+
+    // Sorted before the other state machines, so that they fill the first responses
+    private void createLargeStateMachines() {
+        final StringBuilder comment = new StringBuilder();
+        while (comment.length() < LARGE_DEFINITION_SIZE) {
+            comment.append("0123456789");
+        }
+        for (int i = 0; i < LARGE_STATE_MACHINE_COUNT; i++) {
+            new CreateHandler().handleRequest(proxy, request(ResourceModel.builder()
+                    .stateMachineName(String.format("Large%02d", i))
+                    .definitionString("{\"Comment\":\"" + comment + "\",\"StartAt\":\"Pass\",\"States\":{\"Pass\":{\"Type\":\"Pass\",\"End\":true}}}")
+                    .roleArn(ROLE_ARN)
+                    .build()), null, logger);
+        }
+    }
+
+    private void assertListsEveryStateMachineWithinResponseLimit() {
+        final List<String> listedNames = new ArrayList<>();
+        int responseCount = 0;
+        String nextToken = null;
+        do {
+            final ResourceHandlerRequest<ResourceModel> listRequest = request(ResourceModel.builder().build());
+            listRequest.setNextToken(nextToken);
+            final ProgressEvent<ResourceModel, CallbackContext> response = new ListHandler().handleRequest(proxy, listRequest, null, logger);
+
+            assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+            assertThat(response.getResourceModels()).isNotEmpty();
+            assertThat(response.getResourceModels().stream().mapToLong(ResourceModelUtils::getSerializedSize).sum())
+                    .isLessThanOrEqualTo(Constants.LIST_RESPONSE_MAX_BYTES);
+            response.getResourceModels().forEach(model -> listedNames.add(model.getStateMachineName()));
+            nextToken = response.getNextToken();
+            responseCount++;
+        } while (nextToken != null);
+
+        final List<String> expectedNames = new ArrayList<>();
+        for (int i = 0; i < LARGE_STATE_MACHINE_COUNT; i++) {
+            expectedNames.add(String.format("Large%02d", i));
+        }
+        for (int i = 0; i < STATE_MACHINE_COUNT; i++) {
+            expectedNames.add(String.format("StateMachine%02d", i));
+        }
+        assertThat(listedNames).isEqualTo(expectedNames);
+        final long largeModelsPerResponse = Constants.LIST_RESPONSE_MAX_BYTES / LARGE_DEFINITION_SIZE;
+        assertThat(responseCount).isGreaterThan((int) (LARGE_STATE_MACHINE_COUNT / largeModelsPerResponse));
+    }
+
+    private String getMetricsLine() {
+        return logLines.stream()
+                .filter(line -> line.startsWith(Constants.METRICS_LOGGING_PREFIX))
+                .reduce((first, second) -> second)
+                .orElse("");
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .awsPartition(InMemoryServices.PARTITION)
+                .region(InMemoryServices.REGION)
+                .awsAccountId(InMemoryServices.AWS_ACCOUNT_ID)
+                .logicalResourceIdentifier("StateMachine")
+                .clientRequestToken("token")
+                .desiredResourceState(model)
+                .build();
+    }
+}
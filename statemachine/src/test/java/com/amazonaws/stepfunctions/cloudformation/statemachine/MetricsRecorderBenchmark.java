@@ -0,0 +1,74 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *  Compares recording a typical set of properties and generating the metrics string with String.format, as
+ *  MetricsRecorder used to, against the bitset and precomputed fragments, reporting the median time and the bytes
+ *  allocated per metrics string.
+ *  Run with: mvn test -Dtest=MetricsRecorderBenchmark -Dbenchmark=true [-Dbenchmark.iterations=N]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class MetricsRecorderBenchmark {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 100_000);
+    private static final int WARMUP_ITERATIONS = 20_000;
+
+    // The properties recorded by a CreateHandler invocation with a YAML definition in S3
+    private static final List<MetricsLoggingKeys> KEYS = Arrays.asList(
+            MetricsLoggingKeys.DEFINITION_S3_LOCATION_PROVIDED,
+            MetricsLoggingKeys.S3_DEFINITION_YAML,
+            MetricsLoggingKeys.STATE_MACHINE_STANDARD_TYPE,
+            MetricsLoggingKeys.LOGGING_CONFIGURATION_PROVIDED,
+            MetricsLoggingKeys.DEFINITION_SUBSTITUTIONS_PROVIDED,
+            MetricsLoggingKeys.DEFINITION_CACHE_MISS
+    );
+
+    @Test
+    public void testFormatAgainstFragments() {
+        assertThat(MetricsRecorderTest.newMetricsRecorder(HandlerOperationType.CREATE, true, KEYS).generateMetricsString())
+                .isEqualTo(MetricsRecorderTest.generateThroughFormat(HandlerOperationType.CREATE, true, KEYS));
+
+        System.out.printf("%-12s %12s %18s%n", "Encoding", "p50 ns", "Allocated bytes");
+        report("Format", () -> MetricsRecorderTest.generateThroughFormat(HandlerOperationType.CREATE, true, KEYS));
+        report("Fragments", () -> MetricsRecorderTest.newMetricsRecorder(HandlerOperationType.CREATE, true, KEYS).generateMetricsString());
+    }
+
+    private static void report(final String label, final Supplier<String> encoding) {
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            encoding.get();
+        }
+
+        final long allocatedStart = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        int length = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            length += encoding.get().length();
+        }
+        final long allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart;
+
+        // Timed in batches, as a single encoding is close to the resolution of nanoTime
+        final int batchSize = 100;
+        final List<Long> nanos = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS / batchSize; i++) {
+            final long start = System.nanoTime();
+            for (int j = 0; j < batchSize; j++) {
+                length += encoding.get().length();
+            }
+            nanos.add((System.nanoTime() - start) / batchSize);
+        }
+        nanos.sort(Long::compare);
+
+        assertThat(length).isPositive();
+        System.out.printf("%-12s %12d %18.1f%n", label, nanos.get(nanos.size() / 2), (double) allocated / ITERATIONS);
+    }
+}
@@ -2,18 +2,34 @@ package com.amazonaws.stepfunctions.cloudformation.statemachine;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.Constants.METRICS_LOGGING_PREFIX;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_ENTRY_TOO_LARGE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_EVICTION;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_HIT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_CACHE_MISS;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_INVALID_FORMAT;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_OBJECT_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_S3_FRAGMENTS_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_S3_LOCATION_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_STRING_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.DEFINITION_SUBSTITUTIONS_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.LIST_HYDRATED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.LIST_HYDRATION_PARTIAL;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.LOGGING_CONFIGURATION_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.MULTIPLE_DEFINITIONS_PROVIDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.OPERATION_FAILURE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.OPERATION_STATUS;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.OPERATION_SUCCESS;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.OPERATION_TYPE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_GZIP;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_JSON;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_SIZE_LIMIT_EXCEEDED;
 import static com.amazonaws.stepfunctions.cloudformation.statemachine.MetricsLoggingKeys.S3_DEFINITION_YAML;
@@ -26,6 +42,130 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 public class MetricsRecorderTest {
 
+    // The setter of every listed property, in the order the metrics string has always listed them in
+    static final Map<MetricsLoggingKeys, BiConsumer<MetricsRecorder, Boolean>> LISTED_KEY_SETTERS = new LinkedHashMap<>();
+
+    static {
+        LISTED_KEY_SETTERS.put(DEFINITION_OBJECT_PROVIDED, MetricsRecorder::setDefinitionObjectProvided);
+        LISTED_KEY_SETTERS.put(DEFINITION_STRING_PROVIDED, MetricsRecorder::setDefinitionStringProvided);
+        LISTED_KEY_SETTERS.put(DEFINITION_S3_LOCATION_PROVIDED, MetricsRecorder::setDefinitionS3LocationProvided);
+        LISTED_KEY_SETTERS.put(DEFINITION_S3_FRAGMENTS_PROVIDED, MetricsRecorder::setAreDefinitionS3FragmentsProvided);
+        LISTED_KEY_SETTERS.put(S3_DEFINITION_JSON, MetricsRecorder::setS3DefinitionJson);
+        LISTED_KEY_SETTERS.put(S3_DEFINITION_YAML, MetricsRecorder::setS3DefinitionYaml);
+        LISTED_KEY_SETTERS.put(S3_DEFINITION_GZIP, MetricsRecorder::setS3DefinitionGzip);
+        LISTED_KEY_SETTERS.put(STATE_MACHINE_EXPRESS_TYPE, MetricsRecorder::setStateMachineExpressType);
+        LISTED_KEY_SETTERS.put(STATE_MACHINE_STANDARD_TYPE, MetricsRecorder::setStateMachineStandardType);
+        LISTED_KEY_SETTERS.put(STATE_MACHINE_NAME_GENERATED, MetricsRecorder::setStateMachineNameGenerated);
+        LISTED_KEY_SETTERS.put(LOGGING_CONFIGURATION_PROVIDED, MetricsRecorder::setLoggingConfigurationProvided);
+        LISTED_KEY_SETTERS.put(TRACING_CONFIGURATION_PROVIDED, MetricsRecorder::setTracingConfigurationProvided);
+        LISTED_KEY_SETTERS.put(DEFINITION_SUBSTITUTIONS_PROVIDED, MetricsRecorder::setAreDefinitionSubstitutionsProvided);
+        LISTED_KEY_SETTERS.put(TEMPLATE_MISSING_DEFINITION, MetricsRecorder::setTemplateMissingDefinition);
+        LISTED_KEY_SETTERS.put(MULTIPLE_DEFINITIONS_PROVIDED, MetricsRecorder::setAreMultipleDefinitionsProvided);
+        LISTED_KEY_SETTERS.put(S3_DEFINITION_SIZE_LIMIT_EXCEEDED, MetricsRecorder::setS3DefinitionSizeLimitExceeded);
+        LISTED_KEY_SETTERS.put(DEFINITION_INVALID_FORMAT, MetricsRecorder::setDefinitionInvalidFormat);
+        LISTED_KEY_SETTERS.put(DEFINITION_CACHE_HIT, MetricsRecorder::setDefinitionCacheHit);
+        LISTED_KEY_SETTERS.put(DEFINITION_CACHE_MISS, MetricsRecorder::setDefinitionCacheMiss);
+        LISTED_KEY_SETTERS.put(DEFINITION_CACHE_EVICTION, MetricsRecorder::setDefinitionCacheEviction);
+        LISTED_KEY_SETTERS.put(DEFINITION_CACHE_ENTRY_TOO_LARGE, MetricsRecorder::setDefinitionCacheEntryTooLarge);
+        LISTED_KEY_SETTERS.put(LIST_HYDRATED, MetricsRecorder::setListHydrated);
+        LISTED_KEY_SETTERS.put(LIST_HYDRATION_PARTIAL, MetricsRecorder::setListHydrationPartial);
+    }
+
+    /**
+     * Generates the metrics string the way MetricsRecorder did before it stored its properties as bits
+     */
+    static String generateThroughFormat(final HandlerOperationType operationType, final boolean isOperationSuccessful,
+                                        final List<MetricsLoggingKeys> keys) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s - ", METRICS_LOGGING_PREFIX));
+
+        Map<String, String> loggingPairsToAdd = new LinkedHashMap<>();
+        loggingPairsToAdd.put(OPERATION_TYPE.loggingKey, operationType.toString());
+        loggingPairsToAdd.put(OPERATION_STATUS.loggingKey, isOperationSuccessful ? OPERATION_SUCCESS.loggingKey : OPERATION_FAILURE.loggingKey);
+        for (Map.Entry<String, String> loggingPair : loggingPairsToAdd.entrySet()) {
+            sb.append(String.format("%s: %s, ", loggingPair.getKey(), loggingPair.getValue()));
+        }
+
+        List<String> loggingKeysToAdd = new ArrayList<>();
+        for (MetricsLoggingKeys key : LISTED_KEY_SETTERS.keySet()) {
+            if (keys.contains(key)) {
+                loggingKeysToAdd.add(key.loggingKey);
+            }
+        }
+        sb.append(String.join(", ", loggingKeysToAdd));
+
+        return sb.toString();
+    }
+
+    static MetricsRecorder newMetricsRecorder(final HandlerOperationType operationType, final boolean isOperationSuccessful,
+                                              final List<MetricsLoggingKeys> keys) {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(operationType);
+        metricsRecorder.setOperationSuccessful(isOperationSuccessful);
+        keys.forEach(key -> LISTED_KEY_SETTERS.get(key).accept(metricsRecorder, true));
+        return metricsRecorder;
+    }
+
+    @Test
+    public void testOutputMatchesFormattedOutput_forEveryKeyAndOperation() {
+        final List<MetricsLoggingKeys> allKeys = new ArrayList<>(LISTED_KEY_SETTERS.keySet());
+        for (final HandlerOperationType operationType : HandlerOperationType.values()) {
+            for (final boolean isOperationSuccessful : new boolean[] {false, true}) {
+                for (final MetricsLoggingKeys key : allKeys) {
+                    final List<MetricsLoggingKeys> keys = Arrays.asList(key);
+                    assertThat(newMetricsRecorder(operationType, isOperationSuccessful, keys).generateMetricsString())
+                            .isEqualTo(generateThroughFormat(operationType, isOperationSuccessful, keys));
+                }
+                assertThat(newMetricsRecorder(operationType, isOperationSuccessful, allKeys).generateMetricsString())
+                        .isEqualTo(generateThroughFormat(operationType, isOperationSuccessful, allKeys));
+            }
+        }
+    }
+
+    @Test
+    public void testOutputMatchesFormattedOutput_forRandomKeyCombinations() {
+        final Random random = new Random(0L);
+        final List<MetricsLoggingKeys> allKeys = new ArrayList<>(LISTED_KEY_SETTERS.keySet());
+        final HandlerOperationType[] operationTypes = HandlerOperationType.values();
+        for (int i = 0; i < 1000; i++) {
+            final List<MetricsLoggingKeys> keys = new ArrayList<>();
+            // Set in random order, as handlers do not set properties in the order they are listed in
+            for (final MetricsLoggingKeys key : allKeys) {
+                if (random.nextBoolean()) {
+                    keys.add(random.nextInt(keys.size() + 1), key);
+                }
+            }
+            final HandlerOperationType operationType = operationTypes[random.nextInt(operationTypes.length)];
+            final boolean isOperationSuccessful = random.nextBoolean();
+
+            assertThat(newMetricsRecorder(operationType, isOperationSuccessful, keys).generateMetricsString())
+                    .isEqualTo(generateThroughFormat(operationType, isOperationSuccessful, keys));
+        }
+    }
+
+    @Test
+    public void testKeyNotLogged_whenPropertyResetToDefault() {
+        MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.UPDATE);
+        metricsRecorder.setOperationSuccessful(true);
+        metricsRecorder.setDefinitionCacheHit(true);
+        metricsRecorder.setOperationSuccessful(false);
+        metricsRecorder.setDefinitionCacheHit(false);
+
+        assertThat(metricsRecorder.generateMetricsString())
+                .isEqualTo(generateThroughFormat(HandlerOperationType.UPDATE, false, new ArrayList<>()));
+    }
+
+    @Test
+    public void testRecordersOnTheSameThreadGenerateIndependentStrings() {
+        final MetricsRecorder first = newMetricsRecorder(HandlerOperationType.CREATE, true, Arrays.asList(LIST_HYDRATED));
+        final MetricsRecorder second = newMetricsRecorder(HandlerOperationType.READ, false, new ArrayList<>());
+
+        final String firstString = first.generateMetricsString();
+        final String secondString = second.generateMetricsString();
+
+        assertThat(firstString).isEqualTo(generateThroughFormat(HandlerOperationType.CREATE, true, Arrays.asList(LIST_HYDRATED)));
+        assertThat(secondString).isEqualTo(generateThroughFormat(HandlerOperationType.READ, false, new ArrayList<>()));
+    }
+
     @Test
     public void testOnlyOperationTypeAndStatusLogged_whenOtherPropertiesAreDefaultValues_CreateType_Failure() {
         MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
@@ -145,6 +285,15 @@ public class MetricsRecorderTest {
         assertThat(generatedLoggingString).contains(DEFINITION_S3_LOCATION_PROVIDED.loggingKey);
     }
 
+    @Test
+    public void testKeyLogged_whenPropertyChangedFromDefault_definitionS3FragmentsProvided() {
+        MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setAreDefinitionS3FragmentsProvided(true);
+
+        String generatedLoggingString = metricsRecorder.generateMetricsString();
+        assertThat(generatedLoggingString).contains(DEFINITION_S3_FRAGMENTS_PROVIDED.loggingKey);
+    }
+
     @Test
     public void testKeyLogged_whenPropertyChangedFromDefault_s3DefinitionJson() {
         MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
@@ -163,6 +312,15 @@ public class MetricsRecorderTest {
         assertThat(generatedLoggingString).contains(S3_DEFINITION_YAML.loggingKey);
     }
 
+    @Test
+    public void testKeyLogged_whenPropertyChangedFromDefault_s3DefinitionGzip() {
+        MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setS3DefinitionGzip(true);
+
+        String generatedLoggingString = metricsRecorder.generateMetricsString();
+        assertThat(generatedLoggingString).contains(S3_DEFINITION_GZIP.loggingKey);
+    }
+
     @Test
     public void testKeyLogged_whenPropertyChangedFromDefault_stateMachineExpressType() {
         MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
@@ -253,4 +411,57 @@ public class MetricsRecorderTest {
         assertThat(generatedLoggingString).contains(DEFINITION_INVALID_FORMAT.loggingKey);
     }
 
+    @Test
+    public void testKeyLogged_whenPropertyChangedFromDefault_definitionCacheHit() {
+        MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setDefinitionCacheHit(true);
+
+        String generatedLoggingString = metricsRecorder.generateMetricsString();
+        assertThat(generatedLoggingString).contains(DEFINITION_CACHE_HIT.loggingKey);
+    }
+
+    @Test
+    public void testKeyLogged_whenPropertyChangedFromDefault_definitionCacheMiss() {
+        MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setDefinitionCacheMiss(true);
+
+        String generatedLoggingString = metricsRecorder.generateMetricsString();
+        assertThat(generatedLoggingString).contains(DEFINITION_CACHE_MISS.loggingKey);
+    }
+
+    @Test
+    public void testKeyLogged_whenPropertyChangedFromDefault_definitionCacheEviction() {
+        MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setDefinitionCacheEviction(true);
+
+        String generatedLoggingString = metricsRecorder.generateMetricsString();
+        assertThat(generatedLoggingString).contains(DEFINITION_CACHE_EVICTION.loggingKey);
+    }
+
+    @Test
+    public void testKeyLogged_whenPropertyChangedFromDefault_definitionCacheEntryTooLarge() {
+        MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setDefinitionCacheEntryTooLarge(true);
+
+        String generatedLoggingString = metricsRecorder.generateMetricsString();
+        assertThat(generatedLoggingString).contains(DEFINITION_CACHE_ENTRY_TOO_LARGE.loggingKey);
+    }
+
+    @Test
+    public void testKeyLogged_whenPropertyChangedFromDefault_listHydrated() {
+        MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.LIST);
+        metricsRecorder.setListHydrated(true);
+
+        String generatedLoggingString = metricsRecorder.generateMetricsString();
+        assertThat(generatedLoggingString).contains(LIST_HYDRATED.loggingKey);
+    }
+
+    @Test
+    public void testKeyLogged_whenPropertyChangedFromDefault_listHydrationPartial() {
+        MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.LIST);
+        metricsRecorder.setListHydrationPartial(true);
+
+        String generatedLoggingString = metricsRecorder.generateMetricsString();
+        assertThat(generatedLoggingString).contains(LIST_HYDRATION_PARTIAL.loggingKey);
+    }
 }
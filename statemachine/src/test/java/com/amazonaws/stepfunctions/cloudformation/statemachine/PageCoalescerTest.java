@@ -0,0 +1,86 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PageCoalescerTest {
+
+    private static final int PAGE_COUNT = 10;
+    private static final int ITEMS_PER_PAGE = 10;
+    private static final int DEFINITION_SIZE = 1000;
+
+    private final List<ResourceModel> models = new ArrayList<>();
+    private final List<Integer> requestedPageSizes = new ArrayList<>();
+    private String definition;
+
+    @BeforeEach
+    public void setup() {
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < DEFINITION_SIZE) {
+            sb.append("0123456789");
+        }
+        definition = sb.toString();
+        PageCoalescer.setEnabled(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        PageCoalescer.setEnabled(false);
+    }
+
+    @Test
+    public void testFetchesEveryPage_withinBudgets() {
+        final String nextToken = PageCoalescer.fetchPages(null, models, Integer.MAX_VALUE, Long.MAX_VALUE, this::fetchPage);
+
+        assertThat(nextToken).isNull();
+        assertThat(models).hasSize(PAGE_COUNT * ITEMS_PER_PAGE);
+    }
+
+    @Test
+    public void testStopsAtByteBudget() {
+        final long itemBytes = ResourceModelUtils.getSerializedSize(model(0));
+        final long maxBytes = itemBytes * (ITEMS_PER_PAGE * 2 + ITEMS_PER_PAGE / 2);
+
+        final String nextToken = PageCoalescer.fetchPages(null, models, Integer.MAX_VALUE, maxBytes, this::fetchPage);
+
+        // Later pages are requested for no more items than the rest of the byte budget holds
+        assertThat(nextToken).isNotNull();
+        assertThat(models).hasSize(ITEMS_PER_PAGE * 2 + ITEMS_PER_PAGE / 2);
+        assertThat(requestedPageSizes.get(1)).isLessThanOrEqualTo((int) (maxBytes / itemBytes) - ITEMS_PER_PAGE);
+        final long totalBytes = models.stream().mapToLong(ResourceModelUtils::getSerializedSize).sum();
+        assertThat(totalBytes).isLessThanOrEqualTo(maxBytes);
+    }
+
+    @Test
+    public void testStopsAfterFirstPage_whenItExceedsByteBudget() {
+        final String nextToken = PageCoalescer.fetchPages(null, models, Integer.MAX_VALUE, 1, this::fetchPage);
+
+        assertThat(nextToken).isNotNull();
+        assertThat(models).hasSize(ITEMS_PER_PAGE);
+        assertThat(requestedPageSizes).hasSize(1);
+    }
+
+    // Pages of at most ITEMS_PER_PAGE items, whose tokens are the index of their first item
+    private String fetchPage(final String nextToken, final Integer maxResults) {
+        requestedPageSizes.add(maxResults);
+        final int first = nextToken == null ? 0 : Integer.parseInt(nextToken);
+        final int end = Math.min(PAGE_COUNT * ITEMS_PER_PAGE, first + Math.min(ITEMS_PER_PAGE, maxResults));
+        for (int i = first; i < end; i++) {
+            models.add(model(i));
+        }
+        return end < PAGE_COUNT * ITEMS_PER_PAGE ? String.valueOf(end) : null;
+    }
+
+    private ResourceModel model(final int index) {
+        return ResourceModel.builder()
+                .arn(String.format("arn:aws:states:us-east-1:123456789012:stateMachine:StateMachine%03d", index))
+                .definitionString(definition)
+                .build();
+    }
+}
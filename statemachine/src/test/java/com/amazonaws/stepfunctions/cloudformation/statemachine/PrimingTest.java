@@ -0,0 +1,26 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PrimingTest {
+
+    @Test
+    public void testPrimesWithoutSendingRequests() {
+        // A request that was sent would fail, since priming uses placeholder credentials
+        assertThat(Priming.prime()).isTrue();
+        assertThat(Priming.prime()).isTrue();
+    }
+
+    @Test
+    public void testInlineDefinitionProcessingRejectsS3Definitions() {
+        final ResourceModel model = ResourceModel.builder()
+                .definitionS3Location(new S3Location("Bucket", "Key", null, null, null))
+                .build();
+
+        assertThatThrownBy(() -> DefinitionProcessor.processInlineDefinition(model, new MetricsRecorder(HandlerOperationType.CREATE)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -2,8 +2,11 @@ package com.amazonaws.stepfunctions.cloudformation.statemachine;
 
 import com.amazonaws.services.stepfunctions.model.DescribeStateMachineRequest;
 import com.amazonaws.services.stepfunctions.model.DescribeStateMachineResult;
+import com.amazonaws.services.stepfunctions.model.ListTagsForResourceRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsRequest;
 import com.amazonaws.services.stepfunctions.model.ListTagsForResourceResult;
 import com.amazonaws.services.stepfunctions.model.Tag;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -40,6 +43,11 @@ public class ReadHandlerTest extends HandlerTestBase {
                 .build();
     }
 
+    @AfterEach
+    public void tearDown() {
+        AccessDeniedCache.clear();
+    }
+
     @Test
     public void testSuccess() {
         final DescribeStateMachineResult describeStateMachineResult = new DescribeStateMachineResult();
@@ -66,6 +74,7 @@ public class ReadHandlerTest extends HandlerTestBase {
         Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(), Mockito.any(Function.class)))
                 .thenReturn(describeStateMachineResult)
                 .thenReturn(listTagsForResourceResult);
+        request.getDesiredResourceState().setStateMachineVersionArn(STATE_MACHINE_VERSION_ARN);
 
         final ProgressEvent<ResourceModel, CallbackContext> response
                 = handler.handleRequest(proxy, request, null, logger);
@@ -87,6 +96,9 @@ public class ReadHandlerTest extends HandlerTestBase {
                 null,
                 null,
                 null,
+                null,
+                null,
+                STATE_MACHINE_VERSION_ARN,
                 expectedTagEntries);
 
         assertThat(response).isNotNull();
@@ -145,6 +157,9 @@ public class ReadHandlerTest extends HandlerTestBase {
                 null,
                 null,
                 null,
+                null,
+                null,
+                null,
                 expectedTagEntries);
 
         assertThat(response).isNotNull();
@@ -170,6 +185,54 @@ public class ReadHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).isEqualTo(exception500.getMessage());
     }
 
+    @Test
+    public void testSkipsListTagsForResource_whenRecentlyDeniedToSameCredentials() {
+        final DescribeStateMachineResult describeStateMachineResult = new DescribeStateMachineResult();
+        describeStateMachineResult.setStateMachineArn(STATE_MACHINE_ARN);
+        describeStateMachineResult.setName(STATE_MACHINE_NAME);
+        describeStateMachineResult.setDefinition(DEFINITION);
+        describeStateMachineResult.setRoleArn(ROLE_ARN);
+
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeStateMachineRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(withCredentials(CALLER_CREDENTIALS, describeStateMachineResult));
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class)))
+                .thenThrow(accessDeniedException);
+
+        handler.handleRequest(proxy, request, null, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getTags()).isNull();
+        Mockito.verify(proxy, Mockito.times(1))
+                .injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class));
+    }
+
+    @Test
+    public void testCallsListTagsForResource_whenDeniedToOtherCredentials() {
+        final DescribeStateMachineResult describeStateMachineResult = new DescribeStateMachineResult();
+        describeStateMachineResult.setStateMachineArn(STATE_MACHINE_ARN);
+        describeStateMachineResult.setName(STATE_MACHINE_NAME);
+        describeStateMachineResult.setDefinition(DEFINITION);
+        describeStateMachineResult.setRoleArn(ROLE_ARN);
+
+        // Both callers are in the same stack, but only the first one is denied
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeStateMachineRequest.class), Mockito.any(Function.class)))
+                .thenAnswer(withCredentials(CALLER_CREDENTIALS, describeStateMachineResult))
+                .thenAnswer(withCredentials(OTHER_CALLER_CREDENTIALS, describeStateMachineResult));
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class)))
+                .thenThrow(accessDeniedException)
+                .thenReturn(new ListTagsForResourceResult().withTags(new Tag().withKey("Key").withValue("Value")));
+
+        handler.handleRequest(proxy, request, null, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getResourceModel().getTags()).hasSize(1);
+        Mockito.verify(proxy, Mockito.times(2))
+                .injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class));
+    }
+
     @Test
     public void testRedactsTags_whenListTagsForResourceThrowsAccessDenied() {
         final DescribeStateMachineResult describeStateMachineResult = new DescribeStateMachineResult();
@@ -206,6 +269,9 @@ public class ReadHandlerTest extends HandlerTestBase {
                 null,
                 null,
                 null,
+                null,
+                null,
+                null,
                 null);
 
         assertThat(response).isNotNull();
@@ -213,6 +279,27 @@ public class ReadHandlerTest extends HandlerTestBase {
         assertThat(response.getResourceModel()).isEqualTo(expectedModel);
     }
 
+    @Test
+    public void testReturnsOnlyTheVersionPublishedByTheResource() {
+        final DescribeStateMachineResult describeStateMachineResult = new DescribeStateMachineResult();
+        describeStateMachineResult.setStateMachineArn(STATE_MACHINE_ARN);
+        describeStateMachineResult.setName(STATE_MACHINE_NAME);
+        request.getDesiredResourceState().setStateMachineVersionArn(STATE_MACHINE_VERSION_ARN);
+
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(DescribeStateMachineRequest.class), Mockito.any(Function.class)))
+                .thenReturn(describeStateMachineResult);
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.any(ListTagsForResourceRequest.class), Mockito.any(Function.class)))
+                .thenReturn(new ListTagsForResourceResult());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getStateMachineVersionArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+        Mockito.verify(proxy, Mockito.never()).injectCredentialsAndInvoke(
+                Mockito.any(ListStateMachineVersionsRequest.class), Mockito.any(Function.class));
+    }
+
     @Test
     public void testReturnsFailed_whenListTagsForResourceThrows500() {
         final DescribeStateMachineResult describeStateMachineResult = new DescribeStateMachineResult();
@@ -51,6 +51,9 @@ public class ResourceModelUtilsTest extends HandlerTestBase {
                 null,
                 null,
                 null,
+                null,
+                null,
+                null,
                 expectedTagEntries);
 
         assertThat(outputModel).isEqualTo(expectedModel);
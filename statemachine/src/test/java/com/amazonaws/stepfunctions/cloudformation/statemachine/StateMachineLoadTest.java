@@ -0,0 +1,114 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.ContractTestInputs;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.LoadTestHarness;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *  Replays Create, Read, Update, List and Delete lifecycles concurrently against the in-memory service fakes.
+ *  Run with: mvn test -Dtest=StateMachineLoadTest -DloadTest=true [-DloadTest.lifecycles=N] [-DloadTest.concurrency=N]
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+public class StateMachineLoadTest {
+
+    private static final int LIFECYCLES = Integer.getInteger("loadTest.lifecycles", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("loadTest.concurrency", 64);
+    private static final int MAX_SYNTHETIC_STATES = 200;
+    private static final String ROLE_ARN = "arn:aws:iam::123456789012:role/StatesExecutionRole";
+    private static final Map<String, String> PLACEHOLDER_VALUES = ImmutableMap.of(
+            "awsstepfunctionsstatemachinecto1", ROLE_ARN,
+            "awsstepfunctionsstatemachinecto2", "LoadTestStateMachine",
+            "awsstepfunctionsstatemachinecto3", "arn:aws:logs:us-east-1:123456789012:log-group:LoadTest:*"
+    );
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final Logger logger = message -> { };
+
+    @Test
+    public void testConcurrentLifecycles() throws InterruptedException {
+        final FakeServiceBehavior behavior = new FakeServiceBehavior()
+                .withDefaultLatency(FakeServiceBehavior.LatencyDistribution.logNormal(15, 0.5));
+        final List<ContractTestInputs> contractTestInputs = ContractTestInputs.load();
+        final LoadTestHarness harness = new LoadTestHarness(CONCURRENCY);
+
+        final LoadTestHarness.Report report;
+        try (InMemoryServices services = InMemoryServices.install(behavior)) {
+            report = harness.run(LIFECYCLES, index -> {
+                // Alternate between the contract test inputs and synthetic inputs
+                final ContractTestInputs.Instance inputs = contractTestInputs.get(index / 2 % contractTestInputs.size())
+                        .instantiate(PLACEHOLDER_VALUES);
+                final ResourceModel createModel = index % 2 == 0 ? inputs.getCreateModel(ResourceModel.class) : getSyntheticModel(index, index);
+                final ResourceModel updateModel = index % 2 == 0 ? inputs.getUpdateModel(ResourceModel.class) : getSyntheticModel(index, index + LIFECYCLES);
+                runLifecycle(harness, createModel, updateModel);
+            });
+        }
+
+        System.out.println(report);
+        assertThat(report.getErroredLifecycles()).isEqualTo(0);
+        assertThat(report.getFailures("Create")).isEqualTo(0);
+        assertThat(report.getCallbacks("Delete")).isEqualTo(LIFECYCLES);
+    }
+
+    void runLifecycle(final LoadTestHarness harness, final ResourceModel createModel, final ResourceModel updateModel) {
+        final ProgressEvent<ResourceModel, CallbackContext> createEvent = harness.invoke("Create", context ->
+                new CreateHandler().handleRequest(proxy, request(createModel, null), context, logger));
+        assertThat(createEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final String stateMachineArn = createEvent.getResourceModel().getArn();
+
+        harness.invoke("Read", context ->
+                new ReadHandler().handleRequest(proxy, request(ResourceModel.builder().arn(stateMachineArn).build(), null), context, logger));
+
+        updateModel.setArn(stateMachineArn);
+        updateModel.setStateMachineName(createModel.getStateMachineName());
+        final ProgressEvent<ResourceModel, CallbackContext> updateEvent = harness.invoke("Update", context ->
+                new UpdateHandler().handleRequest(proxy, request(updateModel, createEvent.getResourceModel()), context, logger));
+        assertThat(updateEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+        harness.invoke("List", context ->
+                new ListHandler().handleRequest(proxy, request(new ResourceModel(), null), context, logger));
+
+        final ProgressEvent<ResourceModel, CallbackContext> deleteEvent = harness.invoke("Delete", context ->
+                new DeleteHandler().handleRequest(proxy, request(ResourceModel.builder().arn(stateMachineArn).build(), null), context, logger));
+        assertThat(deleteEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+    }
+
+    // Synthetic inputs vary the number of states and their nesting, which drives the size of the definition
+    static ResourceModel getSyntheticModel(final int index, final long seed) {
+        final Random random = new Random(seed);
+        return ResourceModel.builder()
+                .stateMachineName("LoadTestStateMachine-" + index)
+                .roleArn(ROLE_ARN)
+                .definition(new AslGenerator(seed)
+                        .withStateCount(1 + random.nextInt(MAX_SYNTHETIC_STATES))
+                        .withMaxNestingDepth(2)
+                        .withChoiceFanOut(3)
+                        .generateDefinition())
+                .build();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model, final ResourceModel previousModel) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .awsPartition(InMemoryServices.PARTITION)
+                .region(InMemoryServices.REGION)
+                .awsAccountId(InMemoryServices.AWS_ACCOUNT_ID)
+                .logicalResourceIdentifier("StateMachine")
+                .clientRequestToken("token")
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+    }
+}
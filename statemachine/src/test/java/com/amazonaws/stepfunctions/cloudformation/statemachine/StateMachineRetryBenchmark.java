@@ -0,0 +1,86 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.amazonaws.retry.PredefinedBackoffStrategies;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FaultInjector;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.LoadTestHarness;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.RetryingClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *  Replays lifecycles against the in-memory service fakes with injected faults under several retry configurations,
+ *  and reports the handler wall time and call amplification (attempts per logical call) of each configuration.
+ *  Run with: mvn test -Dtest=StateMachineRetryBenchmark -Dbenchmark=true [-Dbenchmark.lifecycles=N] [-Dbenchmark.concurrency=N]
+ *  [-Dbenchmark.throttleRate=R] [-Dbenchmark.serverErrorRate=R] [-Dbenchmark.managedRuleRate=R] [-Dbenchmark.stsRate=R]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class StateMachineRetryBenchmark {
+
+    private static final int LIFECYCLES = Integer.getInteger("benchmark.lifecycles", 200);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 32);
+    private static final double THROTTLE_RATE = Double.parseDouble(System.getProperty("benchmark.throttleRate", "0.05"));
+    private static final double SERVER_ERROR_RATE = Double.parseDouble(System.getProperty("benchmark.serverErrorRate", "0.02"));
+    private static final double MANAGED_RULE_RATE = Double.parseDouble(System.getProperty("benchmark.managedRuleRate", "0.02"));
+    private static final double STS_RATE = Double.parseDouble(System.getProperty("benchmark.stsRate", "0.01"));
+
+    @Test
+    public void testRetryConfigurations() throws InterruptedException {
+        final Map<String, RetryPolicy> configurations = new LinkedHashMap<>();
+        configurations.put("ClientBuilder", ClientBuilder.getRetryPolicy());
+        for (final int maxErrorRetries : new int[] {0, 3, 5}) {
+            configurations.put("SDK default backoff, " + maxErrorRetries + " retries", new RetryPolicy(
+                    ClientBuilder.CUSTOM_RETRY_CONDITION, PredefinedRetryPolicies.DEFAULT_BACKOFF_STRATEGY, maxErrorRetries, false));
+        }
+        configurations.put("Full jitter 50ms-2s, " + Constants.MAX_ERROR_RETRIES + " retries", new RetryPolicy(
+                ClientBuilder.CUSTOM_RETRY_CONDITION, new PredefinedBackoffStrategies.FullJitterBackoffStrategy(50, 2000),
+                Constants.MAX_ERROR_RETRIES, false));
+
+        final StringBuilder table = new StringBuilder(String.format("%-36s %10s %12s %8s %9s %14s %12s %8s %8s%n",
+                "Configuration", "Wall (s)", "Handler (s)", "Calls", "Attempts", "Amplification", "Backoff (s)", "Faults", "Errored"));
+        for (final Map.Entry<String, RetryPolicy> configuration : configurations.entrySet()) {
+            final FaultInjector faultInjector = new FaultInjector()
+                    .withFaultRate(FaultInjector.Fault.THROTTLING, THROTTLE_RATE)
+                    .withFaultRate(FaultInjector.Fault.SERVER_ERROR, SERVER_ERROR_RATE)
+                    .withFaultRate(FaultInjector.Fault.MANAGED_RULE_ACCESS_DENIED, MANAGED_RULE_RATE)
+                    .withFaultRate(FaultInjector.Fault.STS_ACCESS_DENIED, STS_RATE);
+            final RetryingClient retryingClient = new RetryingClient(configuration.getValue());
+            // The S3 client is built without a custom retry policy, so it keeps the SDK default
+            final RetryingClient retryingS3Client = new RetryingClient(PredefinedRetryPolicies.DEFAULT);
+            final LoadTestHarness harness = new LoadTestHarness(CONCURRENCY);
+            final StateMachineLoadTest loadTest = new StateMachineLoadTest();
+
+            final LoadTestHarness.Report report;
+            try (InMemoryServices services = InMemoryServices.install(new FakeServiceBehavior()
+                    .withDefaultLatency(FakeServiceBehavior.LatencyDistribution.logNormal(15, 0.5)))) {
+                ClientBuilder.setClientOverride(retryingClient.wrap(AWSStepFunctions.class,
+                        faultInjector.wrap(AWSStepFunctions.class, services.getSfnClient())));
+                ClientBuilder.setS3ClientOverride(retryingS3Client.wrap(AmazonS3.class,
+                        faultInjector.wrap(AmazonS3.class, services.getS3Client())));
+
+                report = harness.run(LIFECYCLES, index -> loadTest.runLifecycle(harness,
+                        StateMachineLoadTest.getSyntheticModel(index, index),
+                        StateMachineLoadTest.getSyntheticModel(index, index + LIFECYCLES)));
+            }
+
+            final int calls = retryingClient.getCallCount() + retryingS3Client.getCallCount();
+            assertThat(faultInjector.getAttemptCount()).isGreaterThanOrEqualTo(calls);
+            table.append(String.format("%-36s %10.2f %12.2f %8d %9d %14.3f %12.2f %8d %8d%n",
+                    configuration.getKey(), report.getElapsedMillis() / 1000, report.getTotalHandlerMillis() / 1000,
+                    calls, faultInjector.getAttemptCount(), (double) faultInjector.getAttemptCount() / Math.max(calls, 1),
+                    (retryingClient.getBackoffMillis() + retryingS3Client.getBackoffMillis()) / 1000.0,
+                    faultInjector.getTotalFaultCount(), report.getErroredLifecycles()));
+        }
+
+        System.out.println(table);
+    }
+}
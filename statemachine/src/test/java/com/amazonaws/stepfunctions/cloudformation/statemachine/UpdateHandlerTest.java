@@ -120,6 +120,72 @@ public class UpdateHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).isEqualTo(exception500.getMessage());
     }
 
+    @Test
+    public void testSuccess_whenPublishIsTrue_returnsStateMachineVersionArn() {
+        request.getDesiredResourceState().setDefinitionString("{}");
+        request.getDesiredResourceState().setPublish(true);
+        request.getDesiredResourceState().setVersionDescription(VERSION_DESCRIPTION);
+        request.getPreviousResourceState().setDefinitionString("{}");
+
+        UpdateStateMachineRequest updateStateMachineRequest = new UpdateStateMachineRequest();
+        updateStateMachineRequest.setStateMachineArn(STATE_MACHINE_ARN);
+        updateStateMachineRequest.setRoleArn(ROLE_ARN);
+        updateStateMachineRequest.setDefinition("{}");
+        updateStateMachineRequest.setPublish(true);
+        updateStateMachineRequest.setVersionDescription(VERSION_DESCRIPTION);
+
+        UpdateStateMachineResult updateStateMachineResult = new UpdateStateMachineResult();
+        updateStateMachineResult.setRevisionId(STATE_MACHINE_REVISION_ID);
+        updateStateMachineResult.setStateMachineVersionArn(STATE_MACHINE_VERSION_ARN);
+
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.eq(updateStateMachineRequest), Mockito.any(Function.class))).thenReturn(updateStateMachineResult);
+
+        ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getStateMachineRevisionId()).isEqualTo(STATE_MACHINE_REVISION_ID);
+        assertThat(response.getResourceModel().getStateMachineVersionArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+    }
+
+    @Test
+    public void testFailed_whenVersionDescriptionIsSetWithoutPublish() {
+        request.getDesiredResourceState().setDefinitionString("{}");
+        request.getDesiredResourceState().setPublish(false);
+        request.getDesiredResourceState().setVersionDescription(VERSION_DESCRIPTION);
+        request.getPreviousResourceState().setDefinitionString("{}");
+
+        ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getMessage()).isEqualTo(Constants.VERSION_DESCRIPTION_WITHOUT_PUBLISH_ERROR_MESSAGE);
+        Mockito.verify(proxy, Mockito.never()).injectCredentialsAndInvoke(Mockito.any(UpdateStateMachineRequest.class), Mockito.any(Function.class));
+    }
+
+    @Test
+    public void testSuccess_whenPublishIsNotSet_keepsPreviousStateMachineVersionArn() {
+        request.getDesiredResourceState().setDefinitionString("{}");
+        request.getPreviousResourceState().setDefinitionString("{}");
+        request.getPreviousResourceState().setStateMachineVersionArn(STATE_MACHINE_VERSION_ARN);
+
+        UpdateStateMachineRequest updateStateMachineRequest = new UpdateStateMachineRequest();
+        updateStateMachineRequest.setStateMachineArn(STATE_MACHINE_ARN);
+        updateStateMachineRequest.setRoleArn(ROLE_ARN);
+        updateStateMachineRequest.setDefinition("{}");
+
+        UpdateStateMachineResult updateStateMachineResult = new UpdateStateMachineResult();
+        updateStateMachineResult.setRevisionId(STATE_MACHINE_REVISION_ID);
+
+        Mockito.when(proxy.injectCredentialsAndInvoke(Mockito.eq(updateStateMachineRequest), Mockito.any(Function.class))).thenReturn(updateStateMachineResult);
+
+        ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getStateMachineVersionArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+    }
+
     @Test
     public void testUpdateExpressStateMachineWithLoggingConfiguration() {
         request.getDesiredResourceState().setLoggingConfiguration(createLoggingConfiguration());
@@ -174,7 +240,7 @@ public class UpdateHandlerTest extends HandlerTestBase {
 
     @Test
     public void testDefinitionFromS3() throws Exception {
-        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION));
+        request.getDesiredResourceState().setDefinitionS3Location(new S3Location(DEFAULT_S3_BUCKET, DEFAULT_S3_KEY, DEFAULT_S3_OBJECT_VERSION, null, null));
         request.getPreviousResourceState().setDefinitionString("{}");
 
         S3Object s3Object = new S3Object();
@@ -0,0 +1,82 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *  Compares converting a YAML definition close to the 1 MB limit through a JsonNode tree, as DefinitionProcessor
+ *  used to, with the streaming {@link YamlToJsonConverter}, reporting the median time, the bytes allocated and the
+ *  time spent in garbage collection per conversion.
+ *  Run with: mvn test -Dtest=YamlConversionBenchmark -Dbenchmark=true [-Dbenchmark.iterations=N]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class YamlConversionBenchmark {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50);
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int DEFINITION_BYTES = 960_000;
+
+    private interface Conversion {
+        String convert(String yaml) throws IOException;
+    }
+
+    @Test
+    public void testTreeAgainstStreaming() throws IOException {
+        final String yaml = new AslGenerator(0L)
+                .withMaxNestingDepth(2)
+                .withChoiceFanOut(3)
+                .withFormat(AslGenerator.Format.YAML)
+                .withTargetBytes(DEFINITION_BYTES)
+                .generate();
+        assertThat(YamlToJsonConverter.convert(yaml, YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.PRETTY))
+                .isEqualTo(YamlToJsonConverterTest.convertThroughTree(yaml));
+
+        System.out.printf("%-20s %12s %16s %12s%n", "Conversion", "p50 ms", "Allocated MB", "GC ms");
+        report("Tree", yaml, YamlToJsonConverterTest::convertThroughTree);
+        report("Streaming (pretty)", yaml, definition -> YamlToJsonConverter.convert(definition,
+                YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.PRETTY));
+        report("Streaming (compact)", yaml, definition -> YamlToJsonConverter.convert(definition,
+                YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.COMPACT));
+        report("Streaming (sorted)", yaml, definition -> YamlToJsonConverter.convert(definition,
+                YamlToJsonConverter.KeyOrder.SORTED, YamlToJsonConverter.Layout.PRETTY));
+    }
+
+    private static void report(final String label, final String yaml, final Conversion conversion) throws IOException {
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            conversion.convert(yaml);
+        }
+
+        final List<Long> nanos = new ArrayList<>();
+        final long gcStart = getGcMillis();
+        final long allocatedStart = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            conversion.convert(yaml);
+            nanos.add(System.nanoTime() - start);
+        }
+        final long allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart;
+        final long gcMillis = getGcMillis() - gcStart;
+
+        Collections.sort(nanos);
+        System.out.printf("%-20s %12.2f %16.2f %12.2f%n", label, nanos.get(nanos.size() / 2) / 1_000_000.0,
+                (double) allocated / ITERATIONS / (1024 * 1024), (double) gcMillis / ITERATIONS);
+    }
+
+    private static long getGcMillis() {
+        long millis = 0;
+        for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,105 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachine;
+
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class YamlToJsonConverterTest {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    private static final String YAML = "StartAt: Wait\n" +
+            "States:\n" +
+            "  Wait:\n" +
+            "    Type: Wait\n" +
+            "    Seconds: 10\n" +
+            "    Next: Done\n" +
+            "  Done:\n" +
+            "    Type: Succeed\n" +
+            "    Comment: \"quoted: \\\"value\\\"\"\n" +
+            "TimeoutSeconds: 1.5\n" +
+            "Version: '1.0'\n" +
+            "Tags: [b, a]\n" +
+            "Empty: ~\n";
+
+    @Test
+    public void testPrettyOutputMatchesTree() throws IOException {
+        assertThat(YamlToJsonConverter.convert(YAML, YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.PRETTY))
+                .isEqualTo(convertThroughTree(YAML));
+    }
+
+    @Test
+    public void testGeneratedDefinitionsMatchTree() throws IOException {
+        for (long seed = 0; seed < 5; seed++) {
+            final String yaml = new AslGenerator(seed)
+                    .withMaxNestingDepth(3)
+                    .withChoiceFanOut(3)
+                    .withFormat(AslGenerator.Format.YAML)
+                    .withTargetBytes(50_000)
+                    .generate();
+
+            assertThat(YamlToJsonConverter.convert(yaml, YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.PRETTY))
+                    .as("seed %d", seed)
+                    .isEqualTo(convertThroughTree(yaml));
+        }
+    }
+
+    @Test
+    public void testCompactOutput() throws IOException {
+        final String json = YamlToJsonConverter.convert(YAML, YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.COMPACT);
+
+        assertThat(json).doesNotContain("\n").startsWith("{\"StartAt\":\"Wait\",\"States\":{");
+        assertThat(JSON_MAPPER.readTree(json)).isEqualTo(YAML_MAPPER.readTree(YAML));
+    }
+
+    @Test
+    public void testSortedKeys() throws IOException {
+        final String json = YamlToJsonConverter.convert("b: 1\na:\n  d: [{z: 1, y: 2}]\n  c: 3\n",
+                YamlToJsonConverter.KeyOrder.SORTED, YamlToJsonConverter.Layout.COMPACT);
+
+        assertThat(json).isEqualTo("{\"a\":{\"c\":3,\"d\":[{\"y\":2,\"z\":1}]},\"b\":1}");
+    }
+
+    @Test
+    public void testSortedKeysKeepLastValueOfRepeatedKey() throws IOException {
+        final String json = YamlToJsonConverter.convert("a: 1\nb: 2\na: 3\n",
+                YamlToJsonConverter.KeyOrder.SORTED, YamlToJsonConverter.Layout.COMPACT);
+
+        assertThat(json).isEqualTo("{\"a\":3,\"b\":2}");
+    }
+
+    @Test
+    public void testRepeatedKeyInDocumentOrderIsRejected() {
+        assertThatThrownBy(() -> YamlToJsonConverter.convert("a: 1\nb: 2\na: 3\n",
+                YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.COMPACT))
+                .isInstanceOf(JsonGenerationException.class);
+    }
+
+    @Test
+    public void testInvalidYamlIsRejected() {
+        assertThatThrownBy(() -> YamlToJsonConverter.convert("StartAt: [Wait\n",
+                YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.PRETTY))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void testOnlyFirstDocumentIsConverted() throws IOException {
+        assertThat(YamlToJsonConverter.convert("a: 1\n---\nb: 2\n", YamlToJsonConverter.KeyOrder.DOCUMENT, YamlToJsonConverter.Layout.COMPACT))
+                .isEqualTo("{\"a\":1}");
+    }
+
+    // The conversion that DefinitionProcessor used before streaming, and still uses for repeated keys
+    static String convertThroughTree(final String yaml) throws JsonProcessingException {
+        final JsonNode root = YAML_MAPPER.readTree(yaml);
+        return JSON_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+    }
+}
@@ -0,0 +1,212 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.InvalidTokenException;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesResult;
+import com.amazonaws.services.stepfunctions.model.ListStateMachinesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachinesResult;
+import com.amazonaws.services.stepfunctions.model.StateMachineListItem;
+import lombok.AllArgsConstructor;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lists the aliases of every state machine in the account, for a ListHandler request without a RoutingConfiguration.
+ * Each invocation lists one page of ListStateMachines and the aliases of those state machines on a bounded pool of
+ *   workers. The continuation token only holds the ListStateMachines token of the page, the index of the state
+ *   machine to resume from, and the ListStateMachineAliases token of that state machine if some of its aliases have
+ *   been listed. The page is listed again when the invocation resumes, so the token stays bounded by the size of two
+ *   service tokens however many state machines are on the page.
+ * An invocation stops at the first state machine that has more aliases than one ListStateMachineAliases call
+ *   returns, or whose call was throttled, and the aliases listed before it are returned. Only an invocation that
+ *   could not list any state machine fails, with the throttling error.
+ */
+public class AccountAliasLister {
+
+    private static final String TOKEN_SEPARATOR = ".";
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(Constants.ACCOUNT_LIST_MAX_CONCURRENCY, runnable -> {
+        final Thread thread = new Thread(runnable, "account-alias-listing");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private AccountAliasLister() {
+    }
+
+    /**
+     * Lists the next batch of aliases in the account
+     * @param proxy The proxy that injects the caller's credentials
+     * @param sfnClient The Step Functions client
+     * @param nextToken The token the handler was invoked with, or null to start from the first state machine
+     * @param resourceModels The handler's models, which the listed aliases are added to
+     * @return The token to continue listing from, or null if every alias has been listed
+     * @throws AmazonServiceException The ThrottlingException of the first state machine to resume from, if it was throttled
+     */
+    public static String listAliases(final AmazonWebServicesClientProxy proxy, final AWSStepFunctions sfnClient,
+                                     final String nextToken, final List<ResourceModel> resourceModels) {
+        final Cursor cursor = Cursor.decode(nextToken);
+        final ListStateMachinesResult listStateMachinesResult = listStateMachines(proxy, sfnClient, cursor.stateMachinesToken);
+        final List<StateMachineListItem> stateMachines = listStateMachinesResult.getStateMachines() == null ?
+                Collections.emptyList()
+                :
+                listStateMachinesResult.getStateMachines();
+
+        final List<CompletableFuture<ListStateMachineAliasesResult>> resultFutures = new ArrayList<>();
+        for (int i = cursor.index; i < stateMachines.size(); i++) {
+            final String stateMachineArn = stateMachines.get(i).getStateMachineArn();
+            final String aliasesNextToken = i == cursor.index ? cursor.aliasesNextToken : null;
+            resultFutures.add(CompletableFuture.supplyAsync(
+                    () -> listStateMachineAliases(proxy, sfnClient, stateMachineArn, aliasesNextToken),
+                    executor
+            ));
+        }
+
+        // The aliases are listed on the pool's threads, which are not traced, so this span measures the wait for them
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.LIST)) {
+            for (int i = 0; i < resultFutures.size(); i++) {
+                final int index = cursor.index + i;
+                final ListStateMachineAliasesResult result;
+                try {
+                    result = join(resultFutures.get(i));
+                } catch (final AmazonServiceException e) {
+                    cancel(resultFutures);
+                    if (i == 0 || !Constants.THROTTLING_ERROR_CODE.equals(e.getErrorCode())) {
+                        throw e;
+                    }
+                    // The throttled state machine is listed from its start by the next invocation
+                    return new Cursor(cursor.stateMachinesToken, index, null).encode();
+                }
+
+                resourceModels.addAll(Translator.translateFromListResult(result));
+                if (result.getNextToken() != null) {
+                    cancel(resultFutures);
+                    return new Cursor(cursor.stateMachinesToken, index, result.getNextToken()).encode();
+                }
+            }
+        }
+
+        if (listStateMachinesResult.getNextToken() == null) {
+            return null;
+        }
+        return new Cursor(listStateMachinesResult.getNextToken(), 0, null).encode();
+    }
+
+    private static ListStateMachinesResult listStateMachines(final AmazonWebServicesClientProxy proxy, final AWSStepFunctions sfnClient,
+                                                             final String stateMachinesToken) {
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.LIST)) {
+            return proxy.injectCredentialsAndInvoke(
+                    new ListStateMachinesRequest()
+                            .withNextToken(stateMachinesToken)
+                            .withMaxResults(Constants.ACCOUNT_LIST_STATE_MACHINES_PAGE_SIZE),
+                    sfnClient::listStateMachines
+            );
+        }
+    }
+
+    private static ListStateMachineAliasesResult listStateMachineAliases(final AmazonWebServicesClientProxy proxy,
+                                                                         final AWSStepFunctions sfnClient,
+                                                                         final String stateMachineArn,
+                                                                         final String aliasesNextToken) {
+        try {
+            return proxy.injectCredentialsAndInvoke(
+                    new ListStateMachineAliasesRequest()
+                            .withStateMachineArn(stateMachineArn)
+                            .withNextToken(aliasesNextToken)
+                            .withMaxResults(Constants.LIST_MAX_PAGE_SIZE),
+                    sfnClient::listStateMachineAliases
+            );
+        } catch (final AmazonServiceException e) {
+            // A state machine deleted since it was listed has no aliases left to list
+            if (Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE.equals(e.getErrorCode())
+                    || Constants.RESOURCE_NOT_FOUND_ERROR_CODE.equals(e.getErrorCode())) {
+                return new ListStateMachineAliasesResult();
+            }
+            throw e;
+        }
+    }
+
+    // Rethrows the failure of a worker as is, so that the handler maps its error code
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Calls that have not started are not made once the invocation has stopped
+    private static void cancel(final List<CompletableFuture<ListStateMachineAliasesResult>> resultFutures) {
+        for (final CompletableFuture<ListStateMachineAliasesResult> resultFuture : resultFutures) {
+            resultFuture.cancel(false);
+        }
+    }
+
+    /**
+     * The continuation token of an account-wide listing, encoded as the index, the length of the ListStateMachines
+     *   token and then both service tokens as they are. Service tokens are never empty, so an empty token is null,
+     *   and no separator has to be escaped.
+     */
+    @AllArgsConstructor
+    private static class Cursor {
+        private final String stateMachinesToken;
+        private final int index;
+        private final String aliasesNextToken;
+
+        String encode() {
+            final String stateMachinesPart = stateMachinesToken == null ? "" : stateMachinesToken;
+            final String aliasesPart = aliasesNextToken == null ? "" : aliasesNextToken;
+            return index + TOKEN_SEPARATOR + stateMachinesPart.length() + TOKEN_SEPARATOR + stateMachinesPart + aliasesPart;
+        }
+
+        static Cursor decode(final String token) {
+            if (token == null) {
+                return new Cursor(null, 0, null);
+            }
+
+            final int indexEnd = token.indexOf(TOKEN_SEPARATOR);
+            final int lengthEnd = indexEnd < 0 ? -1 : token.indexOf(TOKEN_SEPARATOR, indexEnd + 1);
+            if (lengthEnd < 0) {
+                throw invalidToken(token);
+            }
+            try {
+                final int index = Integer.parseInt(token.substring(0, indexEnd));
+                final int stateMachinesTokenLength = Integer.parseInt(token.substring(indexEnd + 1, lengthEnd));
+                final String tokens = token.substring(lengthEnd + 1);
+                if (index < 0 || index >= Constants.ACCOUNT_LIST_STATE_MACHINES_PAGE_SIZE
+                        || stateMachinesTokenLength < 0 || stateMachinesTokenLength > tokens.length()) {
+                    throw invalidToken(token);
+                }
+                final String stateMachinesToken = tokens.substring(0, stateMachinesTokenLength);
+                final String aliasesNextToken = tokens.substring(stateMachinesTokenLength);
+                return new Cursor(
+                        stateMachinesToken.isEmpty() ? null : stateMachinesToken,
+                        index,
+                        aliasesNextToken.isEmpty() ? null : aliasesNextToken
+                );
+            } catch (final NumberFormatException e) {
+                throw invalidToken(token);
+            }
+        }
+
+        private static AmazonServiceException invalidToken(final String token) {
+            final InvalidTokenException exception = new InvalidTokenException("Invalid token: " + token);
+            exception.setStatusCode(400);
+            exception.setErrorCode(Constants.INVALID_TOKEN_ERROR_CODE);
+            exception.setErrorType(AmazonServiceException.ErrorType.Client);
+            return exception;
+        }
+    }
+}
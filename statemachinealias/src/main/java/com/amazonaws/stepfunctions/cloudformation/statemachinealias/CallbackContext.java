@@ -23,4 +23,11 @@ public class CallbackContext extends StdCallbackContext {
     private Integer originVersionWeight;
     private Integer targetVersionWeight;
     private Instant lastShiftedTime;
+    @Builder.Default
+    private int consecutiveHealthyEvaluations = 0;
+    // Reported in the metrics of the deployment
+    @Builder.Default
+    private int trafficShiftCount = 0;
+    @Builder.Default
+    private int stabilizationPollCount = 0;
 }
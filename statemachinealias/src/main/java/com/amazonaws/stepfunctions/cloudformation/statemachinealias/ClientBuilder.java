@@ -12,7 +12,23 @@ import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatchClientBuilder;
 
 public class ClientBuilder {
+    // Set by tests to run the handlers against in-memory implementations of the services
+    private static volatile AWSStepFunctions sfnClientOverride;
+    private static volatile AmazonCloudWatch cwClientOverride;
+
+    static void setSfnClientOverride(final AWSStepFunctions sfnClient) {
+        sfnClientOverride = sfnClient;
+    }
+
+    static void setCwClientOverride(final AmazonCloudWatch cwClient) {
+        cwClientOverride = cwClient;
+    }
+
     public static AWSStepFunctions getSfnClient() {
+        if (sfnClientOverride != null) {
+            return sfnClientOverride;
+        }
+
         ClientConfiguration clientConfiguration = new ClientConfiguration()
                 .withRetryPolicy(getRetryPolicy());
 
@@ -22,6 +38,10 @@ public class ClientBuilder {
     }
 
     public static AmazonCloudWatch getCwClient() {
+        if (cwClientOverride != null) {
+            return cwClientOverride;
+        }
+
         ClientConfiguration clientConfiguration = new ClientConfiguration()
                 .withRetryPolicy(getRetryPolicy());
 
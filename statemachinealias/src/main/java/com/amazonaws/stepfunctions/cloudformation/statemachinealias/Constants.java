@@ -11,6 +11,17 @@ public class Constants {
     public static final int STATE_MACHINE_ALIAS_NAME_MAXLEN = 80;
     public static final int MAX_DEPLOYMENT_TIME_MINUTES = 2100;
     public static final int GRADUAL_DEPLOYMENT_HANDLER_DELAY_SECONDS = 60;
+    public static final int DEFAULT_MINIMUM_SHIFT_INTERVAL_MINUTES = 1;
+
+    // Hedged requests
+    public static final String HEDGED_REQUESTS_ENABLED_ENVIRONMENT_VARIABLE = "HEDGED_REQUESTS_ENABLED";
+    public static final int HEDGE_LATENCY_WINDOW = 128;
+    public static final int HEDGE_MIN_SAMPLES = 20;
+    // Hedges are paid for in tokens: every call earns a tenth of a hedge, so at most 10% of calls are hedged after
+    // a burst of 10
+    public static final long HEDGE_COST_TOKENS = 1000;
+    public static final long HEDGE_TOKENS_PER_CALL = 100;
+    public static final long MAX_HEDGE_TOKENS = 10 * HEDGE_COST_TOKENS;
 
     // Error codes
     public static final String THROTTLING_ERROR_CODE = "ThrottlingException";
@@ -29,4 +40,26 @@ public class Constants {
     // Error messages
     public static final String STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE = "StateMachineDoesNotExist";
     public static final String INTERNAL_FAILURE_MESSAGE = "Internal Failure";
+
+    // Tracing
+    public static final String TRACE_EXPORTER_ENVIRONMENT_VARIABLE = "TRACE_EXPORTER";
+    public static final String TRACE_FILE_ENVIRONMENT_VARIABLE = "TRACE_FILE";
+    public static final String DEFAULT_TRACE_FILE = "/tmp/traces.jsonl";
+    public static final String TRACE_LOGGING_PREFIX = "TRACE";
+    public static final int MAX_TRACE_SPANS = 64;
+
+    // List pagination
+    public static final String LIST_PAGE_COALESCING_ENABLED_ENVIRONMENT_VARIABLE = "LIST_PAGE_COALESCING_ENABLED";
+    public static final int LIST_MAX_PAGE_SIZE = 1000;
+    public static final int LIST_COALESCING_MAX_ITEMS = 5000;
+    public static final long LIST_COALESCING_TIME_BUDGET_MILLIS = 20 * 1000;
+    public static final int ACCOUNT_LIST_STATE_MACHINES_PAGE_SIZE = 100;
+    public static final int ACCOUNT_LIST_MAX_CONCURRENCY = 8;
+
+    // Logging
+    public static final String LOG_LEVEL_ENVIRONMENT_VARIABLE = "LOG_LEVEL";
+    public static final int LOG_SAMPLE_INTERVAL = 10;
+
+    // Metrics
+    public static final String METRICS_LOGGING_PREFIX = "METRICS";
 }
@@ -17,21 +17,27 @@ import java.util.Set;
 
 public class CreateHandler extends ResourceHandler {
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachineAlias CreateHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "CreateHandler");
+        handlerLogger.info("StateMachineAlias CreateHandler invoked");
 
         final ResourceModel model = request.getDesiredResourceState();
         ResourceModelUtils.generateAliasNameIfNotProvided(request, model);
 
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setMetricsFromResourceModel(model);
+
         try {
             final DeploymentPreference deploymentPreference = model.getDeploymentPreference();
             if (deploymentPreference != null) {
-                ResourceModelUtils.validateDeploymentPreference(deploymentPreference);
+                try (Tracing.Span span = Tracing.span(Tracing.Phase.VALIDATE)) {
+                    ResourceModelUtils.validateDeploymentPreference(deploymentPreference);
+                }
 
                 final String stateMachineVersionArn = deploymentPreference.getStateMachineVersionArn();
                 final RoutingConfigurationVersion routingConfigVersion = new RoutingConfigurationVersion(stateMachineVersionArn, 100);
@@ -43,24 +49,33 @@ public class CreateHandler extends ResourceHandler {
 
             final AWSStepFunctions sfnClient = ClientBuilder.getSfnClient();
 
-            if (doesAliasAlreadyExist(sfnClient, proxy, model.getRoutingConfiguration(), model.getName())) {
-                throw getStateMachineAliasAlreadyExistException();
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.EXISTENCE_CHECK)) {
+                if (doesAliasAlreadyExist(sfnClient, proxy, model.getRoutingConfiguration(), model.getName(), metricsRecorder)) {
+                    metricsRecorder.setAliasAlreadyExists(true);
+                    throw getStateMachineAliasAlreadyExistException();
+                }
             }
 
             final CreateStateMachineAliasRequest createStateMachineAliasRequest = Translator.translateToCreateRequest(model);
-            final CreateStateMachineAliasResult createStateMachineAliasResult = proxy.injectCredentialsAndInvoke(
-                    createStateMachineAliasRequest, sfnClient::createStateMachineAlias
-            );
+            final CreateStateMachineAliasResult createStateMachineAliasResult;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.CREATE)) {
+                createStateMachineAliasResult = proxy.injectCredentialsAndInvoke(
+                        createStateMachineAliasRequest, sfnClient::createStateMachineAlias
+                );
+            }
 
             model.setArn(createStateMachineAliasResult.getStateMachineAliasArn());
+            metricsRecorder.setOperationSuccessful(true);
 
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
                     .resourceModel(model)
                     .status(OperationStatus.SUCCESS)
                     .build();
         } catch (Exception e) {
-            logger.log("ERROR Creating StateMachineAlias, caused by " + e);
+            handlerLogger.error("Error creating StateMachineAlias", e);
             return handleDefaultError(e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 
@@ -79,8 +94,9 @@ public class CreateHandler extends ResourceHandler {
     }
 
     private boolean doesAliasAlreadyExist(final AWSStepFunctions sfnClient, final AmazonWebServicesClientProxy proxy,
-                                          final String stateMachineArn, final String aliasName) {
+                                          final String stateMachineArn, final String aliasName, final MetricsRecorder metricsRecorder) {
         final String stateMachineAliasArn = String.format("%s:%s", stateMachineArn, aliasName);
+        metricsRecorder.incrementExistenceCheckCallCount();
         try {
             describeStateMachineAlias(sfnClient, proxy, stateMachineAliasArn);
         } catch (final AmazonServiceException e) {
@@ -101,10 +117,11 @@ public class CreateHandler extends ResourceHandler {
     //  3. Describe the state machine alias
     //  4. Return true if the state machine alias already exists
     private boolean doesAliasAlreadyExist(final AWSStepFunctions sfnClient, final AmazonWebServicesClientProxy proxy,
-                                          final Set<RoutingConfigurationVersion> routingConfiguration, final String aliasName) {
+                                          final Set<RoutingConfigurationVersion> routingConfiguration, final String aliasName,
+                                          final MetricsRecorder metricsRecorder) {
         return routingConfiguration.stream()
                 .map(RoutingConfigurationVersion::getStateMachineVersionArn)
                 .map(this::parseStateMachineArnFromVersionArn)
-                .anyMatch(stateMachineArn -> doesAliasAlreadyExist(sfnClient, proxy, stateMachineArn, aliasName));
+                .anyMatch(stateMachineArn -> doesAliasAlreadyExist(sfnClient, proxy, stateMachineArn, aliasName, metricsRecorder));
     }
 }
@@ -12,13 +12,16 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 public class DeleteHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachineAlias DeleteHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "DeleteHandler");
+        handlerLogger.info("StateMachineAlias DeleteHandler invoked");
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.DELETE);
 
         final ResourceModel model = request.getDesiredResourceState();
 
@@ -29,19 +32,28 @@ public class DeleteHandler extends ResourceHandler {
 
             // Existence check
             final DescribeStateMachineAliasRequest describeStateMachineAliasRequest = Translator.translateToReadRequest(model);
-            proxy.injectCredentialsAndInvoke(describeStateMachineAliasRequest, sfnClient::describeStateMachineAlias);
+            metricsRecorder.incrementExistenceCheckCallCount();
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.EXISTENCE_CHECK)) {
+                HedgedInvoker.invoke(proxy, describeStateMachineAliasRequest, sfnClient::describeStateMachineAlias);
+            }
 
             // Delete alias
             final DeleteStateMachineAliasRequest deleteStateMachineAliasRequest = Translator.translateToDeleteRequest(model);
-            proxy.injectCredentialsAndInvoke(deleteStateMachineAliasRequest, sfnClient::deleteStateMachineAlias);
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.DELETE)) {
+                proxy.injectCredentialsAndInvoke(deleteStateMachineAliasRequest, sfnClient::deleteStateMachineAlias);
+            }
+
+            metricsRecorder.setOperationSuccessful(true);
 
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
                     .status(OperationStatus.SUCCESS)
                     .build();
         } catch (Exception e) {
-            logger.log("ERROR Deleting StateMachineAlias, caused by " + e);
+            handlerLogger.error("Error deleting StateMachineAlias", e);
 
             return handleDefaultError(e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 }
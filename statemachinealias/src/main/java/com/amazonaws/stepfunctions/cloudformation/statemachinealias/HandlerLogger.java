@@ -0,0 +1,160 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Writes the log lines of a handler invocation as single-line JSON objects that carry the handler name and the
+ *   request's clientRequestToken, so that the lines of an operation can be queried across its callbacks.
+ * Lines below the level set by the LOG_LEVEL environment variable (DEBUG, INFO, WARN or ERROR, INFO by default) are
+ *   dropped before their message is built: messages that need formatting are passed as suppliers, which are only
+ *   called for lines that are written. Lines repeated on every poll can be sampled, so that only the first and every
+ *   LOG_SAMPLE_INTERVAL-th occurrence in the container is written.
+ * Metrics and trace lines are not written through this logger, as they are parsed by their prefix.
+ */
+public class HandlerLogger {
+
+    public enum Level {
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR
+    }
+
+    private static final ConcurrentMap<String, AtomicLong> sampleCounters = new ConcurrentHashMap<>();
+
+    // Set by tests, read from the environment otherwise
+    private static volatile Level minimumLevel = getLevel(System.getenv(Constants.LOG_LEVEL_ENVIRONMENT_VARIABLE));
+
+    private final Logger logger;
+    private final String handlerName;
+    private final String clientRequestToken;
+
+    /**
+     * @param logger The handler's logger, which the JSON lines are written to
+     * @param request The handler request, whose clientRequestToken is added to every line
+     * @param handlerName The name of the handler, e.g. "CreateHandler"
+     */
+    public HandlerLogger(final Logger logger, final ResourceHandlerRequest<ResourceModel> request, final String handlerName) {
+        this.logger = logger;
+        this.handlerName = handlerName;
+        this.clientRequestToken = request.getClientRequestToken();
+    }
+
+    static void setMinimumLevel(final Level level) {
+        minimumLevel = level;
+    }
+
+    static void resetSampling() {
+        sampleCounters.clear();
+    }
+
+    public boolean isEnabled(final Level level) {
+        return level.compareTo(minimumLevel) >= 0;
+    }
+
+    public void debug(final Supplier<String> message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    public void info(final String message) {
+        log(Level.INFO, message, null);
+    }
+
+    public void info(final Supplier<String> message) {
+        log(Level.INFO, message, null);
+    }
+
+    public void warn(final Supplier<String> message, final Exception cause) {
+        log(Level.WARN, message, cause);
+    }
+
+    public void error(final String message, final Exception cause) {
+        log(Level.ERROR, message, cause);
+    }
+
+    /**
+     * Writes the first and every LOG_SAMPLE_INTERVAL-th occurrence of a line that is repeated on every poll
+     * @param level The level of the line
+     * @param sampleKey Identifies the line, occurrences are counted per key across invocations
+     * @param message Builds the message of an occurrence that is written
+     */
+    public void sampled(final Level level, final String sampleKey, final Supplier<String> message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+
+        final long occurrence = sampleCounters.computeIfAbsent(sampleKey, key -> new AtomicLong()).incrementAndGet();
+        if ((occurrence - 1) % Constants.LOG_SAMPLE_INTERVAL == 0) {
+            write(level, message.get(), null, occurrence);
+        }
+    }
+
+    private void log(final Level level, final Supplier<String> message, final Exception cause) {
+        if (isEnabled(level)) {
+            write(level, message.get(), cause, 0);
+        }
+    }
+
+    private void log(final Level level, final String message, final Exception cause) {
+        if (isEnabled(level)) {
+            write(level, message, cause, 0);
+        }
+    }
+
+    private void write(final Level level, final String message, final Exception cause, final long occurrence) {
+        final StringBuilder json = new StringBuilder(128 + (message != null ? message.length() : 0));
+        json.append("{\"level\":\"").append(level.name()).append('"');
+        json.append(",\"handler\":");
+        appendString(json, handlerName);
+        json.append(",\"clientRequestToken\":");
+        appendString(json, clientRequestToken);
+        json.append(",\"message\":");
+        appendString(json, message);
+        if (cause != null) {
+            json.append(",\"error\":");
+            appendString(json, cause.toString());
+        }
+        if (occurrence > 0) {
+            json.append(",\"occurrence\":").append(occurrence);
+        }
+        json.append('}');
+        logger.log(json.toString());
+    }
+
+    private static void appendString(final StringBuilder json, final String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    static Level getLevel(final String value) {
+        if (value != null) {
+            for (final Level level : Level.values()) {
+                if (level.name().equalsIgnoreCase(value.trim())) {
+                    return level;
+                }
+            }
+        }
+        return Level.INFO;
+    }
+}
@@ -0,0 +1,198 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Invokes idempotent read calls with a hedge: if the first attempt has not answered within the p95 latency observed
+ *   for the same API, a second attempt is sent and whichever answers first is used.
+ * Hedges are paid for from a budget that grows with every call, which caps them at a fixed share of all calls so
+ *   that throttling quotas are not doubled. Hedging is enabled by setting the HEDGED_REQUESTS_ENABLED environment
+ *   variable to true, otherwise calls go straight to the proxy.
+ */
+public class HedgedInvoker {
+
+    private static final Map<Class<?>, LatencyTracker> latencyTrackers = new ConcurrentHashMap<>();
+    private static final AtomicLong hedgeTokens = new AtomicLong();
+    private static final AtomicLong hedgeCount = new AtomicLong();
+
+    // Set by tests, read from the environment otherwise
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getenv(Constants.HEDGED_REQUESTS_ENABLED_ENVIRONMENT_VARIABLE));
+
+    private HedgedInvoker() {
+    }
+
+    static void setEnabled(final boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    static void reset() {
+        latencyTrackers.clear();
+        hedgeTokens.set(0);
+        hedgeCount.set(0);
+    }
+
+    static long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * Invokes an idempotent call through the proxy, hedging it when it is slower than usual
+     * @param proxy The proxy that injects the caller's credentials
+     * @param request The request, which is cloned for the hedge
+     * @param requestFunction The client method to invoke
+     * @return The result of whichever attempt answered first
+     */
+    @SuppressWarnings("unchecked")
+    public static <RequestT extends AmazonWebServiceRequest, ResultT> ResultT invoke(
+            final AmazonWebServicesClientProxy proxy,
+            final RequestT request,
+            final Function<RequestT, ResultT> requestFunction) {
+        if (!enabled) {
+            return proxy.injectCredentialsAndInvoke(request, requestFunction);
+        }
+
+        final LatencyTracker latencyTracker = latencyTrackers.computeIfAbsent(request.getClass(), k -> new LatencyTracker());
+        depositHedgeBudget();
+
+        final long hedgeDelayNanos = latencyTracker.getHedgeDelayNanos();
+        if (hedgeDelayNanos < 0) {
+            final long start = System.nanoTime();
+            final ResultT result = proxy.injectCredentialsAndInvoke(request, requestFunction);
+            latencyTracker.record(System.nanoTime() - start);
+            return result;
+        }
+
+        final HedgedCall<ResultT> call = new HedgedCall<>(latencyTracker);
+        call.start(() -> proxy.injectCredentialsAndInvoke(request, requestFunction));
+        return call.await(hedgeDelayNanos, () -> {
+            // The SDK mutates requests while sending them, so the hedge sends a copy
+            final RequestT hedgeRequest = (RequestT) request.clone();
+            return proxy.injectCredentialsAndInvoke(hedgeRequest, requestFunction);
+        });
+    }
+
+    private static void depositHedgeBudget() {
+        hedgeTokens.updateAndGet(budget -> Math.min(budget + Constants.HEDGE_TOKENS_PER_CALL,
+                Constants.MAX_HEDGE_TOKENS));
+    }
+
+    private static boolean tryWithdrawHedgeBudget() {
+        long budget;
+        do {
+            budget = hedgeTokens.get();
+            if (budget < Constants.HEDGE_COST_TOKENS) {
+                return false;
+            }
+        } while (!hedgeTokens.compareAndSet(budget, budget - Constants.HEDGE_COST_TOKENS));
+        hedgeCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Completes with the first attempt that succeeds, or with the first failure once every attempt has failed.
+     * Attempts that lose are left to finish in the background, since interrupting the SDK is not safe.
+     */
+    private static class HedgedCall<ResultT> {
+        private final LatencyTracker latencyTracker;
+        private final CompletableFuture<ResultT> result = new CompletableFuture<>();
+        private final AtomicInteger pendingAttempts = new AtomicInteger();
+        private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+        HedgedCall(final LatencyTracker latencyTracker) {
+            this.latencyTracker = latencyTracker;
+        }
+
+        void start(final Supplier<ResultT> attempt) {
+            pendingAttempts.incrementAndGet();
+            ExecutorHolder.EXECUTOR.execute(() -> {
+                final long start = System.nanoTime();
+                try {
+                    final ResultT attemptResult = attempt.get();
+                    // Only the winning attempt is recorded, so that attempts that lost do not inflate the p95
+                    if (result.complete(attemptResult)) {
+                        latencyTracker.record(System.nanoTime() - start);
+                    }
+                } catch (final Throwable t) {
+                    firstFailure.compareAndSet(null, t);
+                    if (pendingAttempts.decrementAndGet() == 0) {
+                        result.completeExceptionally(firstFailure.get());
+                    }
+                }
+            });
+        }
+
+        ResultT await(final long hedgeDelayNanos, final Supplier<ResultT> hedge) {
+            try {
+                try {
+                    return result.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+                } catch (final TimeoutException e) {
+                    if (tryWithdrawHedgeBudget()) {
+                        start(hedge);
+                    }
+                    return result.get();
+                }
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // The threads are only started once hedging is enabled
+    private static class ExecutorHolder {
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "hedged-request");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Keeps the latencies of the most recent successful calls to one API.
+     */
+    private static class LatencyTracker {
+        private final long[] latencyNanos = new long[Constants.HEDGE_LATENCY_WINDOW];
+        private int count;
+
+        synchronized void record(final long nanos) {
+            latencyNanos[count % latencyNanos.length] = nanos;
+            count++;
+        }
+
+        // Returns -1 until enough latencies were observed to estimate the p95
+        synchronized long getHedgeDelayNanos() {
+            final int samples = Math.min(count, latencyNanos.length);
+            if (samples < Constants.HEDGE_MIN_SAMPLES) {
+                return -1;
+            }
+            final long[] sorted = Arrays.copyOf(latencyNanos, samples);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(samples * 0.95) - 1];
+        }
+    }
+}
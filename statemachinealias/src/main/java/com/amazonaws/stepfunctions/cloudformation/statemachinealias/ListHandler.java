@@ -9,35 +9,40 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class ListHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachineAlias ListHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "ListHandler");
+        handlerLogger.info("StateMachineAlias ListHandler invoked");
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.LIST);
 
         final ResourceModel model = request.getDesiredResourceState();
         try {
             final AWSStepFunctions sfnClient = ClientBuilder.getSfnClient();
 
-            final ListStateMachineAliasesRequest listStateMachineAliasesRequest = Translator.translateToListRequest(
-                    model.getRoutingConfiguration().stream().findFirst().get().getStateMachineVersionArn(),
-                    request.getNextToken()
-            );
+            final List<ResourceModel> resourceModels = new ArrayList<>();
+            final String nextTokenToReturn;
+            if (model == null || model.getRoutingConfiguration() == null || model.getRoutingConfiguration().isEmpty()) {
+                // Without a state machine to list the aliases of, every alias in the account is listed
+                metricsRecorder.setAccountWideList(true);
+                nextTokenToReturn = AccountAliasLister.listAliases(proxy, sfnClient, request.getNextToken(), resourceModels);
+            } else {
+                final String stateMachineVersionArn = model.getRoutingConfiguration().stream().findFirst().get().getStateMachineVersionArn();
+                nextTokenToReturn = PageCoalescer.fetchPages(request.getNextToken(), resourceModels, Constants.LIST_COALESCING_MAX_ITEMS,
+                        (pageNextToken, maxResults) -> listPage(proxy, sfnClient, stateMachineVersionArn, pageNextToken, maxResults, resourceModels));
+            }
 
-            final ListStateMachineAliasesResult listStateMachineAliasesResult = proxy.injectCredentialsAndInvoke(
-                    listStateMachineAliasesRequest,
-                    sfnClient::listStateMachineAliases
-            );
-
-            final List<ResourceModel> resourceModels = Translator.translateFromListResult(listStateMachineAliasesResult);
-            final String nextTokenToReturn = listStateMachineAliasesResult.getNextToken();
+            metricsRecorder.setOperationSuccessful(true);
 
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
                             .resourceModels(resourceModels)
@@ -45,9 +50,28 @@ public class ListHandler extends ResourceHandler {
                             .status(OperationStatus.SUCCESS)
                             .build();
         } catch (final Exception e) {
-            logger.log("ERROR listing state machines aliases, caused by " + e);
+            handlerLogger.error("Error listing state machines aliases", e);
 
             return handleDefaultError(e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
+        }
+    }
+
+    private String listPage(final AmazonWebServicesClientProxy proxy, final AWSStepFunctions sfnClient, final String stateMachineVersionArn,
+                            final String nextToken, final Integer maxResults, final List<ResourceModel> resourceModels) {
+        final ListStateMachineAliasesRequest listStateMachineAliasesRequest =
+                Translator.translateToListRequest(stateMachineVersionArn, nextToken).withMaxResults(maxResults);
+
+        final ListStateMachineAliasesResult listStateMachineAliasesResult;
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.LIST)) {
+            listStateMachineAliasesResult = proxy.injectCredentialsAndInvoke(
+                    listStateMachineAliasesRequest,
+                    sfnClient::listStateMachineAliases
+            );
         }
+
+        resourceModels.addAll(Translator.translateFromListResult(listStateMachineAliasesResult));
+        return listStateMachineAliasesResult.getNextToken();
     }
 }
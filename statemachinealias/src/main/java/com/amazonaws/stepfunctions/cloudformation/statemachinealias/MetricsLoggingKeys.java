@@ -0,0 +1,31 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+/**
+ *  Enum to represent the logging keys used in the metrics string generated
+ *  by the MetricsRecorder class.
+ */
+public enum MetricsLoggingKeys {
+    OPERATION_TYPE("OperationType"),
+    OPERATION_STATUS("OperationStatus"),
+    OPERATION_SUCCESS("SUCCESS"),
+    OPERATION_FAILURE("FAILURE"),
+    EXISTENCE_CHECK_CALL_COUNT("ExistenceCheckCallCount"),
+    TRAFFIC_SHIFT_COUNT("TrafficShiftCount"),
+    STABILIZATION_POLL_COUNT("StabilizationPollCount"),
+    ALARM_CHECK_MILLIS("AlarmCheckMillis"),
+    ROUTING_CONFIGURATION_PROVIDED("RoutingConfigurationProvided"),
+    DEPLOYMENT_ALL_AT_ONCE("DeploymentAllAtOnce"),
+    DEPLOYMENT_LINEAR("DeploymentLinear"),
+    DEPLOYMENT_CANARY("DeploymentCanary"),
+    ALARMS_MONITORED("AlarmsMonitored"),
+    DEPLOYMENT_ROLLBACK("DeploymentRollback"),
+    DEPLOYMENT_ABORTED("DeploymentAborted"),
+    ALIAS_ALREADY_EXISTS("AliasAlreadyExists"),
+    ACCOUNT_WIDE_LIST("AccountWideList");
+
+    public final String loggingKey;
+
+    MetricsLoggingKeys(String loggingKey) {
+        this.loggingKey = loggingKey;
+    }
+}
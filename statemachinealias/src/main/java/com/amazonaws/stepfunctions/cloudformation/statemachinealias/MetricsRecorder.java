@@ -0,0 +1,226 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ACCOUNT_WIDE_LIST;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ALARMS_MONITORED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ALARM_CHECK_MILLIS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ALIAS_ALREADY_EXISTS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_ABORTED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_ALL_AT_ONCE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_CANARY;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_LINEAR;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_ROLLBACK;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_STATUS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_TYPE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ROUTING_CONFIGURATION_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.STABILIZATION_POLL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.TRAFFIC_SHIFT_COUNT;
+
+/**
+ *  Class to encapsulate the logic behind tracking resource property usage and the progress of a deployment
+ *  Properties that are changed from their default values, and the counts and durations that have been recorded,
+ *  are included in the string generated for metrics tracking. A gradual deployment logs a metrics string on every
+ *  callback, whose counts are those of the deployment so far.
+ *  Properties are stored as bits indexed by their MetricsLoggingKeys ordinal, as in the StateMachine resource.
+ */
+public class MetricsRecorder {
+
+    // Counts and durations listed as key-value pairs after the operation status, in the order they are listed in
+    private static final MetricsLoggingKeys[] VALUE_KEYS = {
+            EXISTENCE_CHECK_CALL_COUNT,
+            TRAFFIC_SHIFT_COUNT,
+            STABILIZATION_POLL_COUNT,
+            ALARM_CHECK_MILLIS
+    };
+
+    // Properties listed after the counts, in the order they are listed in
+    private static final MetricsLoggingKeys[] LISTED_KEYS = {
+            ROUTING_CONFIGURATION_PROVIDED,
+            DEPLOYMENT_ALL_AT_ONCE,
+            DEPLOYMENT_LINEAR,
+            DEPLOYMENT_CANARY,
+            ALARMS_MONITORED,
+            DEPLOYMENT_ROLLBACK,
+            DEPLOYMENT_ABORTED,
+            ALIAS_ALREADY_EXISTS,
+            ACCOUNT_WIDE_LIST
+    };
+
+    // The metrics string up to the operation status, by HandlerOperationType ordinal
+    private static final String[] OPERATION_TYPE_FRAGMENTS = new String[HandlerOperationType.values().length];
+    private static final String OPERATION_SUCCESS_FRAGMENT = OPERATION_SUCCESS.loggingKey + ", ";
+    private static final String OPERATION_FAILURE_FRAGMENT = OPERATION_FAILURE.loggingKey + ", ";
+    // A count's key followed by its separator, by MetricsLoggingKeys ordinal
+    private static final String[] VALUE_KEY_FRAGMENTS = new String[MetricsLoggingKeys.values().length];
+    // A listed property preceded by its separator, by MetricsLoggingKeys ordinal
+    private static final String[] SEPARATED_KEY_FRAGMENTS = new String[MetricsLoggingKeys.values().length];
+    private static final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    static {
+        if (MetricsLoggingKeys.values().length > Long.SIZE) {
+            throw new IllegalStateException("MetricsRecorder stores at most " + Long.SIZE + " properties");
+        }
+        for (final HandlerOperationType operationType : HandlerOperationType.values()) {
+            OPERATION_TYPE_FRAGMENTS[operationType.ordinal()] = String.format("%s - %s: %s, %s: ",
+                    Constants.METRICS_LOGGING_PREFIX, OPERATION_TYPE.loggingKey, operationType, OPERATION_STATUS.loggingKey);
+        }
+        for (final MetricsLoggingKeys key : MetricsLoggingKeys.values()) {
+            VALUE_KEY_FRAGMENTS[key.ordinal()] = key.loggingKey + ": ";
+            SEPARATED_KEY_FRAGMENTS[key.ordinal()] = ", " + key.loggingKey;
+        }
+    }
+
+    // CloudFormation operation type, the status and every other property are bits of the flags, as is whether a
+    // count has been recorded
+    private final HandlerOperationType operationType;
+    private final long[] values = new long[MetricsLoggingKeys.values().length];
+    private long flags;
+
+    public MetricsRecorder(HandlerOperationType operationType) {
+        this.operationType = operationType;
+    }
+
+    // CloudFormation operation status
+    public void setOperationSuccessful(final boolean value) {
+        set(OPERATION_SUCCESS, value);
+    }
+
+    // Calls made to determine whether the alias exists
+    public void incrementExistenceCheckCallCount() {
+        add(EXISTENCE_CHECK_CALL_COUNT, 1);
+    }
+
+    // Progress of a gradual deployment
+    public void setTrafficShiftCount(final long count) {
+        record(TRAFFIC_SHIFT_COUNT, count);
+    }
+
+    public void setStabilizationPollCount(final long count) {
+        record(STABILIZATION_POLL_COUNT, count);
+    }
+
+    public void addAlarmCheckMillis(final long millis) {
+        add(ALARM_CHECK_MILLIS, millis);
+    }
+
+    // Deployment type
+    public void setDeploymentAllAtOnce(final boolean value) {
+        set(DEPLOYMENT_ALL_AT_ONCE, value);
+    }
+
+    public void setDeploymentLinear(final boolean value) {
+        set(DEPLOYMENT_LINEAR, value);
+    }
+
+    public void setDeploymentCanary(final boolean value) {
+        set(DEPLOYMENT_CANARY, value);
+    }
+
+    // Other properties
+    public void setRoutingConfigurationProvided(final boolean value) {
+        set(ROUTING_CONFIGURATION_PROVIDED, value);
+    }
+
+    public void setAlarmsMonitored(final boolean value) {
+        set(ALARMS_MONITORED, value);
+    }
+
+    public void setAccountWideList(final boolean value) {
+        set(ACCOUNT_WIDE_LIST, value);
+    }
+
+    // Deployment outcomes and failure causes
+    public void setDeploymentRollback(final boolean value) {
+        set(DEPLOYMENT_ROLLBACK, value);
+    }
+
+    public void setDeploymentAborted(final boolean value) {
+        set(DEPLOYMENT_ABORTED, value);
+    }
+
+    public void setAliasAlreadyExists(final boolean value) {
+        set(ALIAS_ALREADY_EXISTS, value);
+    }
+
+    public void setMetricsFromResourceModel(final ResourceModel model) {
+        if (model.getRoutingConfiguration() != null && !model.getRoutingConfiguration().isEmpty()) {
+            setRoutingConfigurationProvided(true);
+        }
+
+        final DeploymentPreference deploymentPreference = model.getDeploymentPreference();
+        if (deploymentPreference == null) {
+            return;
+        }
+
+        // The type is compared by name, as it has not been validated yet
+        if (DeploymentType.ALL_AT_ONCE.name().equals(deploymentPreference.getType())) {
+            setDeploymentAllAtOnce(true);
+        } else if (DeploymentType.LINEAR.name().equals(deploymentPreference.getType())) {
+            setDeploymentLinear(true);
+        } else if (DeploymentType.CANARY.name().equals(deploymentPreference.getType())) {
+            setDeploymentCanary(true);
+        }
+
+        if (deploymentPreference.getAlarms() != null && !deploymentPreference.getAlarms().isEmpty()) {
+            setAlarmsMonitored(true);
+        }
+    }
+
+    public String generateMetricsString() {
+        final StringBuilder sb = builders.get();
+        sb.setLength(0);
+
+        // Prefix for identifying logging entries used for metrics, then the operation type and status
+        sb.append(OPERATION_TYPE_FRAGMENTS[operationType.ordinal()]);
+        sb.append(isSet(OPERATION_SUCCESS) ? OPERATION_SUCCESS_FRAGMENT : OPERATION_FAILURE_FRAGMENT);
+
+        // Recorded counts and durations, each followed by a comma
+        for (final MetricsLoggingKeys key : VALUE_KEYS) {
+            if (isSet(key)) {
+                sb.append(VALUE_KEY_FRAGMENTS[key.ordinal()]).append(values[key.ordinal()]).append(", ");
+            }
+        }
+
+        // Listed metric keys, separated by commas
+        boolean isFirstKey = true;
+        for (final MetricsLoggingKeys key : LISTED_KEYS) {
+            if (isSet(key)) {
+                if (isFirstKey) {
+                    sb.append(key.loggingKey);
+                    isFirstKey = false;
+                } else {
+                    sb.append(SEPARATED_KEY_FRAGMENTS[key.ordinal()]);
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    boolean isSet(final MetricsLoggingKeys key) {
+        return (flags & (1L << key.ordinal())) != 0;
+    }
+
+    long getValue(final MetricsLoggingKeys key) {
+        return values[key.ordinal()];
+    }
+
+    private void set(final MetricsLoggingKeys key, final boolean value) {
+        if (value) {
+            flags |= 1L << key.ordinal();
+        } else {
+            flags &= ~(1L << key.ordinal());
+        }
+    }
+
+    private void add(final MetricsLoggingKeys key, final long delta) {
+        record(key, values[key.ordinal()] + delta);
+    }
+
+    private void record(final MetricsLoggingKeys key, final long value) {
+        values[key.ordinal()] = value;
+        flags |= 1L << key.ordinal();
+    }
+}
@@ -11,13 +11,16 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 public class ReadHandler extends ResourceHandler {
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachineAlias ReadHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "ReadHandler");
+        handlerLogger.info("StateMachineAlias ReadHandler invoked");
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.READ);
 
         final ResourceModel model = request.getDesiredResourceState();
 
@@ -28,19 +31,26 @@ public class ReadHandler extends ResourceHandler {
 
             final DescribeStateMachineAliasRequest describeStateMachineAliasRequest = Translator.translateToReadRequest(model);
 
-            final DescribeStateMachineAliasResult describeStateMachineAliasResult = proxy.injectCredentialsAndInvoke(
-                    describeStateMachineAliasRequest, sfnClient::describeStateMachineAlias
-            );
+            final DescribeStateMachineAliasResult describeStateMachineAliasResult;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.READ)) {
+                describeStateMachineAliasResult = HedgedInvoker.invoke(proxy,
+                        describeStateMachineAliasRequest, sfnClient::describeStateMachineAlias
+                );
+            }
 
             final ResourceModel updatedModel = Translator.translateFromReadResponse(describeStateMachineAliasResult);
 
+            metricsRecorder.setOperationSuccessful(true);
+
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
                     .resourceModel(updatedModel)
                     .status(OperationStatus.SUCCESS)
                     .build();
         } catch (Exception e) {
-            logger.log("ERROR Reading StateMachineAlias, caused by " + e);
+            handlerLogger.error("Error reading StateMachineAlias", e);
             return handleDefaultError(e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 }
@@ -79,9 +79,11 @@ public class ResourceModelUtils {
             case LINEAR:
                 validateRequiredDeploymentConfigurationProperties(deploymentPreference);
                 validateLinearDeploymentConfiguration(deploymentPreference);
+                validateEarlyShiftConfiguration(deploymentPreference);
                 break;
             case CANARY:
                 validateRequiredDeploymentConfigurationProperties(deploymentPreference);
+                validateEarlyShiftConfiguration(deploymentPreference);
                 break;
             case ALL_AT_ONCE:
                 return;
@@ -170,4 +172,31 @@ public class ResourceModelUtils {
             ));
         }
     }
+
+    private static void validateEarlyShiftConfiguration(final DeploymentPreference deploymentPreference) {
+        if (deploymentPreference.getHealthyEvaluationsToShift() == null) {
+            if (deploymentPreference.getMinimumInterval() != null) {
+                throw ResourceHandler.getValidationException(String.format(
+                        "Deployments of type '%s' only use a minimum interval to shift traffic early based on healthy evaluations. " +
+                        "Configure the deployment preference with the 'healthyEvaluationsToShift' property or remove the 'minimumInterval' property and try again.",
+                        deploymentPreference.getType()
+                ));
+            }
+            return;
+        }
+        if (deploymentPreference.getAlarms() == null || deploymentPreference.getAlarms().isEmpty()) {
+            throw ResourceHandler.getValidationException(String.format(
+                    "Deployments of type '%s' require alarms to shift traffic early based on healthy evaluations. " +
+                    "Configure the deployment preference with the 'alarms' property or remove the 'healthyEvaluationsToShift' property and try again.",
+                    deploymentPreference.getType()
+            ));
+        }
+        if (deploymentPreference.getMinimumInterval() != null && deploymentPreference.getMinimumInterval() > deploymentPreference.getInterval()) {
+            throw ResourceHandler.getValidationException(String.format(
+                    "The minimum interval of %d minutes exceeds the interval of %d minutes. " +
+                    "Configure the deployment preference with a 'minimumInterval' lower than or equal to the 'interval' and try again.",
+                    deploymentPreference.getMinimumInterval(), deploymentPreference.getInterval()
+            ));
+        }
+    }
 }
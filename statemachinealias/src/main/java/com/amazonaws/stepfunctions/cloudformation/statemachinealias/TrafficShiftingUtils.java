@@ -60,7 +60,7 @@ public class TrafficShiftingUtils {
         describeStateMachineAliasRequest.withStateMachineAliasArn(aliasArn);
 
         final AWSStepFunctions sfnClient = ClientBuilder.getSfnClient();
-        final DescribeStateMachineAliasResult describeStateMachineAliasResult = proxy.injectCredentialsAndInvoke(
+        final DescribeStateMachineAliasResult describeStateMachineAliasResult = HedgedInvoker.invoke(proxy,
                 describeStateMachineAliasRequest, sfnClient::describeStateMachineAlias
         );
 
@@ -69,32 +69,15 @@ public class TrafficShiftingUtils {
     }
 
     public static Set<String> getActiveAlarms(final Set<String> alarms, final AmazonWebServicesClientProxy proxy) {
+        return getAlarmStates(alarms, proxy).getActiveAlarms();
+    }
+
+    public static AlarmStates getAlarmStates(final Set<String> alarms, final AmazonWebServicesClientProxy proxy) {
         if (alarms == null) {
-            return new HashSet<>();
+            return new AlarmStates(new HashSet<>(), false);
         }
 
-        final DescribeAlarmsRequest describeAlarmsRequest = new DescribeAlarmsRequest();
-        describeAlarmsRequest.setAlarmNames(alarms);
-        describeAlarmsRequest.setAlarmTypes(Arrays.asList("CompositeAlarm", "MetricAlarm"));
-
-        final AmazonCloudWatch cwClient = ClientBuilder.getCwClient();
-        final DescribeAlarmsResult describeAlarmsResult = proxy.injectCredentialsAndInvoke(
-                describeAlarmsRequest, (Function<DescribeAlarmsRequest, DescribeAlarmsResult>) cwClient::describeAlarms
-        );
-
-        Set<String> activeMetricAlarmNames = describeAlarmsResult.getMetricAlarms().stream()
-                .filter(alarm -> alarm.getStateValue().equals(StateValue.ALARM.toString()))
-                .map(MetricAlarm::getAlarmName)
-                .collect(Collectors.toSet());
-
-        Set<String> activeCompositeAlarmNames = describeAlarmsResult.getCompositeAlarms().stream()
-                .filter(alarm -> alarm.getStateValue().equals(StateValue.ALARM.toString()))
-                .map(CompositeAlarm::getAlarmName)
-                .collect(Collectors.toSet());
-
-        // Combine both sets
-        activeMetricAlarmNames.addAll(activeCompositeAlarmNames);
-        return activeMetricAlarmNames;
+        return CloudWatchAlarms.getAlarmStates(alarms, proxy);
     }
 
     public static boolean shouldPerformTrafficShift(final Instant lastShifted, final int shiftIntervalMinutes) {
@@ -106,6 +89,21 @@ public class TrafficShiftingUtils {
         return now.equals(nextShiftTime) || now.isAfter(nextShiftTime);
     }
 
+    public static boolean shouldPerformEarlyTrafficShift(final Instant lastShifted,
+                                                         final DeploymentPreference deploymentPreference,
+                                                         final int consecutiveHealthyEvaluations) {
+        final Integer healthyEvaluationsToShift = deploymentPreference.getHealthyEvaluationsToShift();
+        if (healthyEvaluationsToShift == null || consecutiveHealthyEvaluations < healthyEvaluationsToShift) {
+            return false;
+        }
+        // Early shifts are still bounded by the minimum interval so that alarms have time to react to each increment
+        final int minimumInterval = deploymentPreference.getMinimumInterval() != null ?
+                deploymentPreference.getMinimumInterval()
+                :
+                Constants.DEFAULT_MINIMUM_SHIFT_INTERVAL_MINUTES;
+        return shouldPerformTrafficShift(lastShifted, minimumInterval);
+    }
+
     public static boolean areCurrentAndDesiredTargetVersionArnsTheSame(final ResourceModel resourceModel) {
         return resourceModel.getRoutingConfiguration().stream()
                 .map(RoutingConfigurationVersion::getStateMachineVersionArn)
@@ -127,4 +125,64 @@ public class TrafficShiftingUtils {
                 deploymentType, expectedRoutingConfig, actualRoutingConfig
         );
     }
+
+    public static class AlarmStates {
+        private final Set<String> activeAlarms;
+        private final boolean allAlarmsOk;
+
+        AlarmStates(final Set<String> activeAlarms, final boolean allAlarmsOk) {
+            this.activeAlarms = activeAlarms;
+            this.allAlarmsOk = allAlarmsOk;
+        }
+
+        public Set<String> getActiveAlarms() {
+            return activeAlarms;
+        }
+
+        // True only when every monitored alarm was returned and is in the 'OK' state
+        public boolean areAllAlarmsOk() {
+            return allAlarmsOk;
+        }
+    }
+
+    // The CloudWatch SDK is only loaded when a deployment monitors alarms
+    private static class CloudWatchAlarms {
+
+        static AlarmStates getAlarmStates(final Set<String> alarms, final AmazonWebServicesClientProxy proxy) {
+            final DescribeAlarmsRequest describeAlarmsRequest = new DescribeAlarmsRequest();
+            describeAlarmsRequest.setAlarmNames(alarms);
+            describeAlarmsRequest.setAlarmTypes(Arrays.asList("CompositeAlarm", "MetricAlarm"));
+
+            final AmazonCloudWatch cwClient = ClientBuilder.getCwClient();
+            final DescribeAlarmsResult describeAlarmsResult = proxy.injectCredentialsAndInvoke(
+                    describeAlarmsRequest, (Function<DescribeAlarmsRequest, DescribeAlarmsResult>) cwClient::describeAlarms
+            );
+
+            Set<String> activeMetricAlarmNames = describeAlarmsResult.getMetricAlarms().stream()
+                    .filter(alarm -> alarm.getStateValue().equals(StateValue.ALARM.toString()))
+                    .map(MetricAlarm::getAlarmName)
+                    .collect(Collectors.toSet());
+
+            Set<String> activeCompositeAlarmNames = describeAlarmsResult.getCompositeAlarms().stream()
+                    .filter(alarm -> alarm.getStateValue().equals(StateValue.ALARM.toString()))
+                    .map(CompositeAlarm::getAlarmName)
+                    .collect(Collectors.toSet());
+
+            // Combine both sets
+            activeMetricAlarmNames.addAll(activeCompositeAlarmNames);
+
+            final Set<String> okAlarmNames = describeAlarmsResult.getMetricAlarms().stream()
+                    .filter(alarm -> alarm.getStateValue().equals(StateValue.OK.toString()))
+                    .map(MetricAlarm::getAlarmName)
+                    .collect(Collectors.toSet());
+            describeAlarmsResult.getCompositeAlarms().stream()
+                    .filter(alarm -> alarm.getStateValue().equals(StateValue.OK.toString()))
+                    .map(CompositeAlarm::getAlarmName)
+                    .forEach(okAlarmNames::add);
+
+            // Alarms that were not returned or have insufficient data give no health signal
+            final boolean allAlarmsOk = !alarms.isEmpty() && okAlarmNames.containsAll(alarms);
+            return new AlarmStates(activeMetricAlarmNames, allAlarmsOk);
+        }
+    }
 }
@@ -10,34 +10,46 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.time.Instant;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.BooleanUtils;
 
 public class UpdateHandler extends ResourceHandler {
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
         final CallbackContext context = (callbackContext == null) ? new CallbackContext() : callbackContext;
-        logger.log("INFO StateMachineAlias UpdateHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "UpdateHandler");
+        handlerLogger.info("StateMachineAlias UpdateHandler invoked");
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.UPDATE);
         try {
             final ResourceModel model = request.getDesiredResourceState();
+            metricsRecorder.setMetricsFromResourceModel(model);
             verifyStateMachineAliasArnIsPresent(model.getArn());
 
+            final ProgressEvent<ResourceModel, CallbackContext> progressEvent;
             if (ResourceModelUtils.isSimpleUpdate(model)) {
-                logger.log("INFO StateMachineAlias UpdateHandler performing simple update");
-                return handleSimpleDeployment(proxy, model);
+                handlerLogger.info("StateMachineAlias UpdateHandler performing simple update");
+                progressEvent = handleSimpleDeployment(proxy, model);
             } else {
-                logger.log(String.format(
-                        "INFO StateMachineAlias UpdateHandler performing %s gradual deployment",
+                // Gradual deployments call back every minute for hours, so only a sample of their callbacks is logged
+                handlerLogger.sampled(HandlerLogger.Level.INFO, "GradualDeployment", () -> String.format(
+                        "StateMachineAlias UpdateHandler performing %s gradual deployment",
                         model.getDeploymentPreference().getType())
                 );
-                return handleGradualDeployment(proxy,  request, context);
+                progressEvent = handleGradualDeployment(proxy,  request, context, metricsRecorder);
             }
+
+            // An aborted deployment fails without an exception, once traffic has been shifted back to the origin version
+            metricsRecorder.setOperationSuccessful(progressEvent.getStatus() != OperationStatus.FAILED);
+            return progressEvent;
         } catch (Exception e) {
-            logger.log("ERROR Updating StateMachineAlias, caused by " + e.toString());
+            handlerLogger.error("Error updating StateMachineAlias", e);
             return handleDefaultError(e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 
@@ -52,10 +64,13 @@ public class UpdateHandler extends ResourceHandler {
 
     private ProgressEvent<ResourceModel, CallbackContext> handleGradualDeployment(final AmazonWebServicesClientProxy proxy,
                                                                                   final ResourceHandlerRequest<ResourceModel> request,
-                                                                                  final CallbackContext context) {
+                                                                                  final CallbackContext context,
+                                                                                  final MetricsRecorder metricsRecorder) {
         final ResourceModel model = request.getDesiredResourceState();
+        restoreName(model, request.getPreviousResourceState());
 
         if (BooleanUtils.isTrue(request.getRollback())) {
+            metricsRecorder.setDeploymentRollback(true);
             return handleAllAtOnceUpdate(proxy, model);
         }
 
@@ -63,10 +78,13 @@ public class UpdateHandler extends ResourceHandler {
         final DeploymentType deploymentType = DeploymentType.valueOf(deploymentPreference.getType());
 
         if (!context.isTrafficShifting()) {
-            ResourceModelUtils.validateDeploymentPreference(deploymentPreference);
+            final Set<RoutingConfigurationVersion> currRoutingConfig;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.VALIDATE)) {
+                ResourceModelUtils.validateDeploymentPreference(deploymentPreference);
 
-            final Set<RoutingConfigurationVersion> currRoutingConfig = ResourceModelUtils.getRoutingConfigFromResourceState(request.getPreviousResourceState());
-            TrafficShiftingUtils.performPreflightCheck(currRoutingConfig, deploymentType);
+                currRoutingConfig = ResourceModelUtils.getRoutingConfigFromResourceState(request.getPreviousResourceState());
+                TrafficShiftingUtils.performPreflightCheck(currRoutingConfig, deploymentType);
+            }
             model.setRoutingConfiguration(currRoutingConfig);
 
             if (TrafficShiftingUtils.areCurrentAndDesiredTargetVersionArnsTheSame(model)) {
@@ -75,18 +93,25 @@ public class UpdateHandler extends ResourceHandler {
 
             initializeTrafficShiftingContext(context, model);
         } else {
-            final Set<RoutingConfigurationVersion> currRoutingConfig = TrafficShiftingUtils.getCurrRoutingConfig(model.getArn(), proxy);
-            TrafficShiftingUtils.performInflightCheck(currRoutingConfig, context, deploymentType);
+            final Set<RoutingConfigurationVersion> currRoutingConfig;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.STABILIZATION_POLL)) {
+                currRoutingConfig = TrafficShiftingUtils.getCurrRoutingConfig(model.getArn(), proxy);
+                TrafficShiftingUtils.performInflightCheck(currRoutingConfig, context, deploymentType);
+            }
             model.setRoutingConfiguration(currRoutingConfig);
+
+            context.setStabilizationPollCount(context.getStabilizationPollCount() + 1);
+            metricsRecorder.setStabilizationPollCount(context.getStabilizationPollCount());
+            metricsRecorder.setTrafficShiftCount(context.getTrafficShiftCount());
         }
 
         switch (deploymentType) {
             case ALL_AT_ONCE:
                 return handleAllAtOnceUpdate(proxy, model);
             case LINEAR:
-                return handleLinearUpdate(proxy, context, model);
+                return handleLinearUpdate(proxy, context, model, metricsRecorder);
             case CANARY:
-                return handleCanaryUpdate(proxy, context, model);
+                return handleCanaryUpdate(proxy, context, model, metricsRecorder);
             default:
                 // This should never happen because the deployment types are enumerated in the resource type schema
                 throw new IllegalStateException();
@@ -96,7 +121,9 @@ public class UpdateHandler extends ResourceHandler {
     private ProgressEvent<ResourceModel, CallbackContext> abortDeployment(final AmazonWebServicesClientProxy proxy,
                                                                           final CallbackContext context,
                                                                           final ResourceModel model,
-                                                                          final Set<String> activeAlarms) {
+                                                                          final Set<String> activeAlarms,
+                                                                          final MetricsRecorder metricsRecorder) {
+        metricsRecorder.setDeploymentAborted(true);
         model.setRoutingConfiguration(ResourceModelUtils.getSingleVersionRoutingConfig(context.getOriginVersionArn()));
         updateStateMachineAlias(proxy, model);
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
@@ -113,7 +140,7 @@ public class UpdateHandler extends ResourceHandler {
     private ProgressEvent<ResourceModel, CallbackContext> skipUpdate(final CallbackContext context,
                                                                      final ResourceModel model) {
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
-                .resourceModel(model)
+                .resourceModel(getInProgressModel(model))
                 .callbackContext(context)
                 .callbackDelaySeconds(Constants.GRADUAL_DEPLOYMENT_HANDLER_DELAY_SECONDS)
                 .status(OperationStatus.IN_PROGRESS)
@@ -130,13 +157,14 @@ public class UpdateHandler extends ResourceHandler {
 
     private ProgressEvent<ResourceModel, CallbackContext> handleLinearUpdate(final AmazonWebServicesClientProxy proxy,
                                                                              final CallbackContext context,
-                                                                             final ResourceModel model) {
-        final Set<String> alarmsToMonitor = model.getDeploymentPreference().getAlarms();
-        final Set<String> activeAlarms = TrafficShiftingUtils.getActiveAlarms(alarmsToMonitor, proxy);
-        if (activeAlarms.size() > 0) {
-            return abortDeployment(proxy, context, model, activeAlarms);
+                                                                             final ResourceModel model,
+                                                                             final MetricsRecorder metricsRecorder) {
+        final TrafficShiftingUtils.AlarmStates alarmStates = getAlarmStates(proxy, model.getDeploymentPreference().getAlarms(), metricsRecorder);
+        if (alarmStates.getActiveAlarms().size() > 0) {
+            return abortDeployment(proxy, context, model, alarmStates.getActiveAlarms(), metricsRecorder);
         }
-        if (!TrafficShiftingUtils.shouldPerformTrafficShift(context.getLastShiftedTime(), model.getDeploymentPreference().getInterval())) {
+        recordEvaluation(context, alarmStates);
+        if (!isTrafficShiftDue(context, model.getDeploymentPreference())) {
             return skipUpdate(context, model);
         }
 
@@ -150,6 +178,9 @@ public class UpdateHandler extends ResourceHandler {
         model.setRoutingConfiguration(updatedRoutingConfig);
         updateStateMachineAlias(proxy, model);
         context.setLastShiftedTime(Instant.now());
+        context.setConsecutiveHealthyEvaluations(0);
+        context.setTrafficShiftCount(context.getTrafficShiftCount() + 1);
+        metricsRecorder.setTrafficShiftCount(context.getTrafficShiftCount());
         model.getRoutingConfiguration().forEach(routingConfig -> {
             if (routingConfig.getStateMachineVersionArn().equals(context.getOriginVersionArn())) {
                 context.setOriginVersionWeight(routingConfig.getWeight());
@@ -165,7 +196,7 @@ public class UpdateHandler extends ResourceHandler {
                         .build()
                 :
                 ProgressEvent.<ResourceModel, CallbackContext>builder()
-                        .resourceModel(model)
+                        .resourceModel(getInProgressModel(model))
                         .callbackContext(context)
                         .callbackDelaySeconds(Constants.GRADUAL_DEPLOYMENT_HANDLER_DELAY_SECONDS)
                         .status(OperationStatus.IN_PROGRESS)
@@ -175,13 +206,14 @@ public class UpdateHandler extends ResourceHandler {
 
     private ProgressEvent<ResourceModel, CallbackContext> handleCanaryUpdate(final AmazonWebServicesClientProxy proxy,
                                                                              final CallbackContext context,
-                                                                             final ResourceModel model) {
-        final Set<String> alarmsToMonitor = model.getDeploymentPreference().getAlarms();
-        final Set<String> activeAlarms = TrafficShiftingUtils.getActiveAlarms(alarmsToMonitor, proxy);
-        if (activeAlarms.size() > 0) {
-            return abortDeployment(proxy, context, model, activeAlarms);
+                                                                             final ResourceModel model,
+                                                                             final MetricsRecorder metricsRecorder) {
+        final TrafficShiftingUtils.AlarmStates alarmStates = getAlarmStates(proxy, model.getDeploymentPreference().getAlarms(), metricsRecorder);
+        if (alarmStates.getActiveAlarms().size() > 0) {
+            return abortDeployment(proxy, context, model, alarmStates.getActiveAlarms(), metricsRecorder);
         }
-        if (!TrafficShiftingUtils.shouldPerformTrafficShift(context.getLastShiftedTime(), model.getDeploymentPreference().getInterval())) {
+        recordEvaluation(context, alarmStates);
+        if (!isTrafficShiftDue(context, model.getDeploymentPreference())) {
             return skipUpdate(context, model);
         }
 
@@ -195,6 +227,9 @@ public class UpdateHandler extends ResourceHandler {
         model.setRoutingConfiguration(updatedRoutingConfig);
         updateStateMachineAlias(proxy, model);
         context.setLastShiftedTime(Instant.now());
+        context.setConsecutiveHealthyEvaluations(0);
+        context.setTrafficShiftCount(context.getTrafficShiftCount() + 1);
+        metricsRecorder.setTrafficShiftCount(context.getTrafficShiftCount());
         model.getRoutingConfiguration().forEach(routingConfig -> {
             if (routingConfig.getStateMachineVersionArn().equals(context.getOriginVersionArn())) {
                 context.setOriginVersionWeight(routingConfig.getWeight());
@@ -210,13 +245,59 @@ public class UpdateHandler extends ResourceHandler {
                         .build()
                 :
                 ProgressEvent.<ResourceModel, CallbackContext>builder()
-                        .resourceModel(model)
+                        .resourceModel(getInProgressModel(model))
                         .callbackContext(context)
                         .callbackDelaySeconds(Constants.GRADUAL_DEPLOYMENT_HANDLER_DELAY_SECONDS)
                         .status(OperationStatus.IN_PROGRESS)
                         .build();
     }
 
+    private TrafficShiftingUtils.AlarmStates getAlarmStates(final AmazonWebServicesClientProxy proxy,
+                                                            final Set<String> alarmsToMonitor,
+                                                            final MetricsRecorder metricsRecorder) {
+        final long startNanos = System.nanoTime();
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.ALARM_CHECK)) {
+            return TrafficShiftingUtils.getAlarmStates(alarmsToMonitor, proxy);
+        } finally {
+            metricsRecorder.addAlarmCheckMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+
+    private void recordEvaluation(final CallbackContext context, final TrafficShiftingUtils.AlarmStates alarmStates) {
+        // Only an evaluation in which every alarm is 'OK' counts towards an early shift. Missing alarms and alarms with
+        // insufficient data give no health signal, so they restart the streak
+        if (alarmStates.areAllAlarmsOk()) {
+            context.setConsecutiveHealthyEvaluations(context.getConsecutiveHealthyEvaluations() + 1);
+        } else {
+            context.setConsecutiveHealthyEvaluations(0);
+        }
+    }
+
+    private boolean isTrafficShiftDue(final CallbackContext context, final DeploymentPreference deploymentPreference) {
+        return TrafficShiftingUtils.shouldPerformTrafficShift(context.getLastShiftedTime(), deploymentPreference.getInterval()) ||
+                TrafficShiftingUtils.shouldPerformEarlyTrafficShift(
+                        context.getLastShiftedTime(), deploymentPreference, context.getConsecutiveHealthyEvaluations()
+                );
+    }
+
+    // The model is sent back to the handler every minute until the deployment completes. The routing configuration is
+    // read back from the alias on every callback and the name is restored from the previous resource state, so
+    // intermediate events only carry the properties the next traffic shift needs
+    private ResourceModel getInProgressModel(final ResourceModel model) {
+        return ResourceModel.builder()
+                .arn(model.getArn())
+                .description(model.getDescription())
+                .deploymentPreference(model.getDeploymentPreference())
+                .build();
+    }
+
+    // The name cannot be updated, so the final event reports the name of the existing alias
+    private void restoreName(final ResourceModel model, final ResourceModel previousModel) {
+        if (model.getName() == null && previousModel != null) {
+            model.setName(previousModel.getName());
+        }
+    }
+
     private void initializeTrafficShiftingContext(final CallbackContext context,
                                                   final ResourceModel model) {
         final String originVersionArn = TrafficShiftingUtils.getCurrentTargetVersion(model);
@@ -231,6 +312,8 @@ public class UpdateHandler extends ResourceHandler {
     private void updateStateMachineAlias(final AmazonWebServicesClientProxy proxy, final ResourceModel model) {
         final AWSStepFunctions sfnClient = ClientBuilder.getSfnClient();
         final UpdateStateMachineAliasRequest updateStateMachineAliasRequest = Translator.translateToUpdateRequest(model);
-        proxy.injectCredentialsAndInvoke(updateStateMachineAliasRequest, sfnClient::updateStateMachineAlias);
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.UPDATE)) {
+            proxy.injectCredentialsAndInvoke(updateStateMachineAliasRequest, sfnClient::updateStateMachineAlias);
+        }
     }
 }
@@ -0,0 +1,109 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineAliasRequest;
+import com.amazonaws.services.stepfunctions.model.RoutingConfigurationListItem;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ *  Invokes a single handler in the JVM it is started in and prints how long the first response took, so that
+ *  {@link ColdStartTest} can measure time-to-first-response in a fresh JVM.
+ *  Only the Step Functions fake is installed, no alarms are monitored and Mockito is not used, so that the classes
+ *  loaded are the classes the handler itself needs.
+ *  Usage: ColdStartProbe Create|Read|Update|Delete|List
+ */
+public class ColdStartProbe {
+
+    static final String RESULT_PREFIX = "ColdStartProbe";
+
+    private static final String VERSION_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:ColdStart:1";
+
+    public static void main(final String[] args) {
+        final String handlerName = args[0];
+        final FakeStepFunctions sfnClient = new FakeStepFunctions(new FakeServiceBehavior());
+        sfnClient.addVersion(VERSION_ARN);
+        ClientBuilder.setSfnClientOverride(sfnClient);
+
+        // Read, Update and Delete act on an existing alias, which is created directly in the fake
+        String aliasArn = null;
+        if (!"Create".equals(handlerName) && !"List".equals(handlerName)) {
+            aliasArn = sfnClient.createStateMachineAlias(new CreateStateMachineAliasRequest()
+                    .withName("ColdStart")
+                    .withRoutingConfiguration(new RoutingConfigurationListItem()
+                            .withStateMachineVersionArn(VERSION_ARN)
+                            .withWeight(100))).getStateMachineAliasArn();
+        }
+
+        final long start = System.nanoTime();
+        final ProgressEvent<ResourceModel, CallbackContext> event = invoke(handlerName, aliasArn);
+        final long handlerMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Only the first response is timed, so a handler that stabilizes through callbacks may still be IN_PROGRESS
+        if (event.getStatus() == OperationStatus.FAILED) {
+            throw new IllegalStateException(handlerName + " failed: " + event.getMessage());
+        }
+        System.out.printf("%s handler=%s uptimeMillis=%d handlerMillis=%d loadedClasses=%d%n",
+                RESULT_PREFIX, handlerName, ManagementFactory.getRuntimeMXBean().getUptime(), handlerMillis,
+                ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+    }
+
+    private static ProgressEvent<ResourceModel, CallbackContext> invoke(final String handlerName, final String aliasArn) {
+        final Logger logger = message -> { };
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 900_000L);
+
+        switch (handlerName) {
+            case "Create":
+                return new CreateHandler().handleRequest(proxy, request(ResourceModel.builder()
+                        .name("ColdStart")
+                        .routingConfiguration(getRoutingConfiguration())
+                        .build(), null), null, logger);
+            case "Read":
+                return new ReadHandler().handleRequest(proxy,
+                        request(ResourceModel.builder().arn(aliasArn).build(), null), null, logger);
+            case "Update":
+                return new UpdateHandler().handleRequest(proxy, request(ResourceModel.builder()
+                        .arn(aliasArn)
+                        .name("ColdStart")
+                        .description("Updated")
+                        .routingConfiguration(getRoutingConfiguration())
+                        .build(), ResourceModel.builder()
+                        .arn(aliasArn)
+                        .name("ColdStart")
+                        .routingConfiguration(getRoutingConfiguration())
+                        .build()), null, logger);
+            case "Delete":
+                return new DeleteHandler().handleRequest(proxy,
+                        request(ResourceModel.builder().arn(aliasArn).build(), null), null, logger);
+            case "List":
+                return new ListHandler().handleRequest(proxy, request(ResourceModel.builder()
+                        .routingConfiguration(getRoutingConfiguration())
+                        .build(), null), null, logger);
+            default:
+                throw new IllegalArgumentException("Unknown handler " + handlerName);
+        }
+    }
+
+    private static Set<RoutingConfigurationVersion> getRoutingConfiguration() {
+        return Collections.singleton(new RoutingConfigurationVersion(VERSION_ARN, 100));
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model, final ResourceModel previousModel) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .logicalResourceIdentifier("StateMachineAlias")
+                .clientRequestToken("token")
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *  Starts each handler in a fresh JVM through {@link ColdStartProbe}.
+ *  The class loading test always runs and guards against CloudWatch support being loaded by handlers that do
+ *  not monitor alarms. The time-to-first-response benchmark is opt-in:
+ *  mvn test -Dtest=ColdStartTest -DcoldStart=true [-DcoldStart.runs=N]
+ */
+public class ColdStartTest {
+
+    private static final int RUNS = Integer.getInteger("coldStart.runs", 10);
+    private static final List<String> HANDLERS = Arrays.asList("Create", "Read", "Update", "Delete", "List");
+    private static final List<String> LAZILY_LOADED_PACKAGES = Arrays.asList(
+            "com.amazonaws.services.cloudwatch.",
+            "software.amazon.awssdk.services.cloudwatch."
+    );
+    private static final Pattern RESULT_PATTERN = Pattern.compile(ColdStartProbe.RESULT_PREFIX
+            + " handler=(\\w+) uptimeMillis=(\\d+) handlerMillis=(\\d+) loadedClasses=(\\d+)");
+
+    @Test
+    public void testAliasWithoutAlarmsDoesNotLoadCloudWatch() throws IOException, InterruptedException {
+        final List<String> output = runProbe("Create", "-verbose:class");
+
+        assertThat(output).anyMatch(line -> line.startsWith(ColdStartProbe.RESULT_PREFIX));
+        for (final String lazilyLoadedPackage : LAZILY_LOADED_PACKAGES) {
+            assertThat(output).noneMatch(line -> line.contains(" " + lazilyLoadedPackage));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "coldStart", matches = "true")
+    public void testTimeToFirstResponse() throws IOException, InterruptedException {
+        System.out.printf("%-8s %14s %14s %14s%n", "Handler", "p50 uptime ms", "p50 handler ms", "p50 classes");
+        for (final String handlerName : HANDLERS) {
+            final Map<Integer, List<Long>> samples = new HashMap<>();
+            for (int i = 0; i < RUNS; i++) {
+                final Matcher result = findResult(runProbe(handlerName));
+                for (int group = 2; group <= 4; group++) {
+                    samples.computeIfAbsent(group, k -> new ArrayList<>()).add(Long.parseLong(result.group(group)));
+                }
+            }
+            System.out.printf("%-8s %14d %14d %14d%n", handlerName,
+                    median(samples.get(2)), median(samples.get(3)), median(samples.get(4)));
+        }
+    }
+
+    private static List<String> runProbe(final String handlerName, final String... jvmOptions) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(Arrays.asList(jvmOptions));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ColdStartProbe.class.getName());
+        command.add(handlerName);
+
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.add(line);
+            }
+        }
+        assertThat(process.waitFor()).as("ColdStartProbe %s exit code", handlerName).isEqualTo(0);
+        return output;
+    }
+
+    private static Matcher findResult(final List<String> output) {
+        for (final String line : output) {
+            final Matcher matcher = RESULT_PATTERN.matcher(line);
+            if (matcher.matches()) {
+                return matcher;
+            }
+        }
+        throw new IllegalStateException("ColdStartProbe did not report a result: " + output);
+    }
+
+    private static long median(final List<Long> values) {
+        final List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
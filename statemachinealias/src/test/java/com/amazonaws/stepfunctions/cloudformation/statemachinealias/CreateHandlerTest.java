@@ -28,6 +28,12 @@ import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Const
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.RESOURCE_NOT_FOUND_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.THROTTLING_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.VALIDATION_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ALIAS_ALREADY_EXISTS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_ALL_AT_ONCE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ROUTING_CONFIGURATION_PROVIDED;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -86,6 +92,9 @@ public class CreateHandlerTest extends HandlerTestBase {
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
+        assertThat(getMetricsString())
+                .contains(OPERATION_SUCCESS.loggingKey, ROUTING_CONFIGURATION_PROVIDED.loggingKey, EXISTENCE_CHECK_CALL_COUNT.loggingKey + ": 1")
+                .doesNotContain(DEPLOYMENT_ALL_AT_ONCE.loggingKey);
     }
 
     @Test
@@ -133,6 +142,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, DEPLOYMENT_ALL_AT_ONCE.loggingKey);
     }
 
     @Test
@@ -207,5 +217,6 @@ public class CreateHandlerTest extends HandlerTestBase {
     public void testStateMachineAliasAlreadyExistsError() {
         when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineAliasRequest), any(Function.class))).thenReturn(new DescribeStateMachineAliasResult());
         assertFailure(stateMachineAliasAlreadyExistsException.getMessage(), HandlerErrorCode.AlreadyExists);
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey, ALIAS_ALREADY_EXISTS.loggingKey);
     }
 }
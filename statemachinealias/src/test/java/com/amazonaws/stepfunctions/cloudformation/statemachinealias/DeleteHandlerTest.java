@@ -22,6 +22,9 @@ import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Const
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.RESOURCE_NOT_FOUND_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.THROTTLING_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.VALIDATION_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_SUCCESS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -80,6 +83,7 @@ public class DeleteHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
         assertThat(response.getResourceModel()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, EXISTENCE_CHECK_CALL_COUNT.loggingKey + ": 1");
     }
 
     @Test
@@ -165,6 +169,7 @@ public class DeleteHandlerTest extends HandlerTestBase {
                 .thenReturn(describeStateMachineAliasResult)
                 .thenThrow(exception500);
         assertFailure(exception500.getMessage(), HandlerErrorCode.ServiceInternalError);
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey, EXISTENCE_CHECK_CALL_COUNT.loggingKey + ": 1");
     }
 
     private AmazonServiceException mockExceptionForDelete(final String errorCode) {
@@ -0,0 +1,58 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import com.amazonaws.services.cloudwatch.AbstractAmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.model.CompositeAlarm;
+import com.amazonaws.services.cloudwatch.model.DescribeAlarmsRequest;
+import com.amazonaws.services.cloudwatch.model.DescribeAlarmsResult;
+import com.amazonaws.services.cloudwatch.model.MetricAlarm;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *  In-memory implementation of the CloudWatch DescribeAlarms API used to monitor gradual deployments.
+ *  Alarm states can be changed between handler invocations to simulate alarms firing mid-deployment.
+ */
+public class FakeCloudWatch extends AbstractAmazonCloudWatch {
+
+    private final FakeServiceBehavior behavior;
+    private final Map<String, String> metricAlarmStates = new ConcurrentHashMap<>();
+    private final Map<String, String> compositeAlarmStates = new ConcurrentHashMap<>();
+
+    public FakeCloudWatch(final FakeServiceBehavior behavior) {
+        this.behavior = behavior;
+    }
+
+    public void setAlarmState(final String alarmName, final String stateValue) {
+        metricAlarmStates.put(alarmName, stateValue);
+    }
+
+    public void setCompositeAlarmState(final String alarmName, final String stateValue) {
+        compositeAlarmStates.put(alarmName, stateValue);
+    }
+
+    @Override
+    public DescribeAlarmsResult describeAlarms(final DescribeAlarmsRequest request) {
+        behavior.onCall("DescribeAlarms");
+        final List<String> alarmTypes = request.getAlarmTypes();
+        final List<MetricAlarm> metricAlarms = new ArrayList<>();
+        final List<CompositeAlarm> compositeAlarms = new ArrayList<>();
+
+        // Alarms that do not exist are omitted from the result, as the service does
+        for (final String alarmName : request.getAlarmNames()) {
+            if ((alarmTypes.isEmpty() || alarmTypes.contains("MetricAlarm")) && metricAlarmStates.containsKey(alarmName)) {
+                metricAlarms.add(new MetricAlarm().withAlarmName(alarmName).withStateValue(metricAlarmStates.get(alarmName)));
+            }
+            if (alarmTypes.contains("CompositeAlarm") && compositeAlarmStates.containsKey(alarmName)) {
+                compositeAlarms.add(new CompositeAlarm().withAlarmName(alarmName).withStateValue(compositeAlarmStates.get(alarmName)));
+            }
+        }
+
+        return new DescribeAlarmsResult()
+                .withMetricAlarms(metricAlarms)
+                .withCompositeAlarms(compositeAlarms);
+    }
+}
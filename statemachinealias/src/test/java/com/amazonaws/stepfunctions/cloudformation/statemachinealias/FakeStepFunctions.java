@@ -0,0 +1,262 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.AbstractAWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.ConflictException;
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineAliasRequest;
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineAliasResult;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineAliasRequest;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineAliasResult;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasResult;
+import com.amazonaws.services.stepfunctions.model.InvalidTokenException;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesResult;
+import com.amazonaws.services.stepfunctions.model.ListStateMachinesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachinesResult;
+import com.amazonaws.services.stepfunctions.model.ResourceNotFoundException;
+import com.amazonaws.services.stepfunctions.model.RoutingConfigurationListItem;
+import com.amazonaws.services.stepfunctions.model.StateMachineAliasListItem;
+import com.amazonaws.services.stepfunctions.model.StateMachineListItem;
+import com.amazonaws.services.stepfunctions.model.UpdateStateMachineAliasRequest;
+import com.amazonaws.services.stepfunctions.model.UpdateStateMachineAliasResult;
+import com.amazonaws.services.stepfunctions.model.ValidationException;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ *  Stateful in-memory implementation of the Step Functions alias APIs used by the handlers.
+ *  Versions are not published through this fake; seed them with addVersion before routing aliases to them.
+ *  The state machines listed by ListStateMachines are those that versions have been added for.
+ *  Every call first goes through the FakeServiceBehavior, which applies the configured latency and throttling.
+ */
+public class FakeStepFunctions extends AbstractAWSStepFunctions {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final FakeServiceBehavior behavior;
+    private final Set<String> versionArns = new HashSet<>();
+    private final NavigableMap<String, StoredAlias> aliases = new TreeMap<>();
+
+    public FakeStepFunctions(final FakeServiceBehavior behavior) {
+        this.behavior = behavior;
+    }
+
+    public synchronized void addVersion(final String stateMachineVersionArn) {
+        versionArns.add(stateMachineVersionArn);
+    }
+
+    @Override
+    public CreateStateMachineAliasResult createStateMachineAlias(final CreateStateMachineAliasRequest request) {
+        behavior.onCall("CreateStateMachineAlias");
+        synchronized (this) {
+            final String stateMachineArn = validateRoutingConfiguration(request.getRoutingConfiguration());
+            final String aliasArn = stateMachineArn + ":" + request.getName();
+            final StoredAlias existing = aliases.get(aliasArn);
+            if (existing != null) {
+                // CreateStateMachineAlias is idempotent only for an identical description and routing configuration
+                if (existing.isSameAs(request.getDescription(), request.getRoutingConfiguration())) {
+                    return new CreateStateMachineAliasResult()
+                            .withStateMachineAliasArn(aliasArn)
+                            .withCreationDate(existing.creationDate);
+                }
+                throw serviceException(new ConflictException("Alias already exists with a different configuration: '" + aliasArn + "'"),
+                        Constants.CONFLICT_EXCEPTION_ERROR_CODE);
+            }
+
+            final StoredAlias alias = new StoredAlias(request.getName(), stateMachineArn);
+            alias.description = request.getDescription();
+            alias.routingConfiguration = new ArrayList<>(request.getRoutingConfiguration());
+            aliases.put(aliasArn, alias);
+
+            return new CreateStateMachineAliasResult()
+                    .withStateMachineAliasArn(aliasArn)
+                    .withCreationDate(alias.creationDate);
+        }
+    }
+
+    @Override
+    public DescribeStateMachineAliasResult describeStateMachineAlias(final DescribeStateMachineAliasRequest request) {
+        behavior.onCall("DescribeStateMachineAlias");
+        synchronized (this) {
+            final StoredAlias alias = getAlias(request.getStateMachineAliasArn());
+            return new DescribeStateMachineAliasResult()
+                    .withStateMachineAliasArn(request.getStateMachineAliasArn())
+                    .withName(alias.name)
+                    .withDescription(alias.description)
+                    .withRoutingConfiguration(copyOf(alias.routingConfiguration))
+                    .withCreationDate(alias.creationDate)
+                    .withUpdateDate(alias.updateDate);
+        }
+    }
+
+    @Override
+    public UpdateStateMachineAliasResult updateStateMachineAlias(final UpdateStateMachineAliasRequest request) {
+        behavior.onCall("UpdateStateMachineAlias");
+        synchronized (this) {
+            final StoredAlias alias = getAlias(request.getStateMachineAliasArn());
+            if (request.getRoutingConfiguration() != null) {
+                final String stateMachineArn = validateRoutingConfiguration(request.getRoutingConfiguration());
+                if (!stateMachineArn.equals(alias.stateMachineArn)) {
+                    throw serviceException(new ValidationException(
+                            "Routing configuration must reference versions of '" + alias.stateMachineArn + "'"), Constants.VALIDATION_ERROR_CODE);
+                }
+                alias.routingConfiguration = new ArrayList<>(request.getRoutingConfiguration());
+            }
+            if (request.getDescription() != null) {
+                alias.description = request.getDescription();
+            }
+            alias.updateDate = new Date();
+            return new UpdateStateMachineAliasResult().withUpdateDate(alias.updateDate);
+        }
+    }
+
+    @Override
+    public DeleteStateMachineAliasResult deleteStateMachineAlias(final DeleteStateMachineAliasRequest request) {
+        behavior.onCall("DeleteStateMachineAlias");
+        synchronized (this) {
+            aliases.remove(request.getStateMachineAliasArn());
+            return new DeleteStateMachineAliasResult();
+        }
+    }
+
+    @Override
+    public ListStateMachineAliasesResult listStateMachineAliases(final ListStateMachineAliasesRequest request) {
+        behavior.onCall("ListStateMachineAliases");
+        synchronized (this) {
+            final NavigableMap<String, StoredAlias> stateMachineAliases = aliases.entrySet().stream()
+                    .filter(entry -> entry.getValue().stateMachineArn.equals(request.getStateMachineArn()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, TreeMap::new));
+            final List<StateMachineAliasListItem> page = new ArrayList<>();
+            final String nextToken = getPage(stateMachineAliases, request.getNextToken(), request.getMaxResults(), (arn, alias) ->
+                    page.add(new StateMachineAliasListItem().withStateMachineAliasArn(arn).withCreationDate(alias.creationDate))
+            );
+            return new ListStateMachineAliasesResult()
+                    .withStateMachineAliases(page)
+                    .withNextToken(nextToken);
+        }
+    }
+
+    @Override
+    public ListStateMachinesResult listStateMachines(final ListStateMachinesRequest request) {
+        behavior.onCall("ListStateMachines");
+        synchronized (this) {
+            final NavigableMap<String, String> stateMachineNames = versionArns.stream()
+                    .map(versionArn -> versionArn.substring(0, versionArn.lastIndexOf(":")))
+                    .collect(Collectors.toMap(arn -> arn, arn -> arn.substring(arn.lastIndexOf(":") + 1), (a, b) -> a, TreeMap::new));
+            final List<StateMachineListItem> page = new ArrayList<>();
+            final String nextToken = getPage(stateMachineNames, request.getNextToken(), request.getMaxResults(), (arn, name) ->
+                    page.add(new StateMachineListItem().withStateMachineArn(arn).withName(name).withType("STANDARD"))
+            );
+            return new ListStateMachinesResult()
+                    .withStateMachines(page)
+                    .withNextToken(nextToken);
+        }
+    }
+
+    public synchronized int getAliasCount() {
+        return aliases.size();
+    }
+
+    private StoredAlias getAlias(final String aliasArn) {
+        final StoredAlias alias = aliases.get(aliasArn);
+        if (alias == null) {
+            throw serviceException(new ResourceNotFoundException("Resource not found: '" + aliasArn + "'"), Constants.RESOURCE_NOT_FOUND_ERROR_CODE);
+        }
+        return alias;
+    }
+
+    // Returns the ARN of the state machine that all the versions in the routing configuration belong to
+    private String validateRoutingConfiguration(final Collection<RoutingConfigurationListItem> routingConfiguration) {
+        if (routingConfiguration == null || routingConfiguration.isEmpty() || routingConfiguration.size() > 2) {
+            throw serviceException(new ValidationException(
+                    "Routing configuration must contain one or two versions"), Constants.VALIDATION_ERROR_CODE);
+        }
+        if (routingConfiguration.stream().mapToInt(RoutingConfigurationListItem::getWeight).sum() != 100) {
+            throw serviceException(new ValidationException(
+                    "Routing configuration weights must add up to 100"), Constants.VALIDATION_ERROR_CODE);
+        }
+
+        final Set<String> stateMachineArns = new HashSet<>();
+        for (final RoutingConfigurationListItem item : routingConfiguration) {
+            if (!versionArns.contains(item.getStateMachineVersionArn())) {
+                throw serviceException(new ResourceNotFoundException("Resource not found: '" + item.getStateMachineVersionArn() + "'"),
+                        Constants.RESOURCE_NOT_FOUND_ERROR_CODE);
+            }
+            stateMachineArns.add(item.getStateMachineVersionArn().substring(0, item.getStateMachineVersionArn().lastIndexOf(":")));
+        }
+        if (stateMachineArns.size() != 1) {
+            throw serviceException(new ValidationException(
+                    "Routing configuration must reference versions of the same state machine"), Constants.VALIDATION_ERROR_CODE);
+        }
+        return stateMachineArns.iterator().next();
+    }
+
+    private static List<RoutingConfigurationListItem> copyOf(final List<RoutingConfigurationListItem> routingConfiguration) {
+        return routingConfiguration.stream()
+                .map(item -> new RoutingConfigurationListItem()
+                        .withStateMachineVersionArn(item.getStateMachineVersionArn())
+                        .withWeight(item.getWeight()))
+                .collect(Collectors.toList());
+    }
+
+    // Pages are keyed by ARN, and the next token is the last ARN of the current page
+    private static <T> String getPage(final NavigableMap<String, T> resources, final String nextToken, final Integer maxResults,
+                                      final BiConsumer<String, T> pageConsumer) {
+        if (nextToken != null && !resources.containsKey(nextToken)) {
+            throw serviceException(new InvalidTokenException("Invalid token: " + nextToken), Constants.INVALID_TOKEN_ERROR_CODE);
+        }
+        final int pageSize = maxResults == null || maxResults == 0 ? DEFAULT_PAGE_SIZE : maxResults;
+        final NavigableMap<String, T> remaining = nextToken == null ? resources : resources.tailMap(nextToken, false);
+
+        String lastKey = null;
+        int count = 0;
+        for (final Map.Entry<String, T> entry : remaining.entrySet()) {
+            if (count == pageSize) {
+                return lastKey;
+            }
+            pageConsumer.accept(entry.getKey(), entry.getValue());
+            lastKey = entry.getKey();
+            count++;
+        }
+        return null;
+    }
+
+    private static <T extends AmazonServiceException> T serviceException(final T exception, final String errorCode) {
+        exception.setStatusCode(400);
+        exception.setErrorCode(errorCode);
+        exception.setErrorType(AmazonServiceException.ErrorType.Client);
+        return exception;
+    }
+
+    private static class StoredAlias {
+        private final String name;
+        private final String stateMachineArn;
+        private final Date creationDate = new Date();
+        private Date updateDate = creationDate;
+        private String description;
+        private List<RoutingConfigurationListItem> routingConfiguration;
+
+        private StoredAlias(final String name, final String stateMachineArn) {
+            this.name = name;
+            this.stateMachineArn = stateMachineArn;
+        }
+
+        private boolean isSameAs(final String otherDescription, final Collection<RoutingConfigurationListItem> otherRoutingConfiguration) {
+            return Objects.equals(description, otherDescription)
+                    && new HashSet<>(routingConfiguration).equals(new HashSet<>(otherRoutingConfiguration));
+        }
+    }
+}
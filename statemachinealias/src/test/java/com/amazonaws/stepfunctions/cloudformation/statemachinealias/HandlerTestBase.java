@@ -6,6 +6,7 @@ import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
 import com.amazonaws.services.stepfunctions.model.AWSStepFunctionsException;
 import com.amazonaws.services.stepfunctions.model.RoutingConfigurationListItem;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.HandlerErrorCode;
@@ -25,6 +26,8 @@ import java.util.function.Function;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class HandlerTestBase {
@@ -100,6 +103,14 @@ public class HandlerTestBase {
     protected AmazonWebServiceRequest awsRequest;
     protected ResourceHandlerRequest<ResourceModel> cfnRequest;
 
+    // The metrics string is the last line each handler logs
+    protected String getMetricsString() {
+        final ArgumentCaptor<String> argumentCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger, atLeastOnce()).log(argumentCaptor.capture());
+        final List<String> loggedStrings = argumentCaptor.getAllValues();
+        return loggedStrings.get(loggedStrings.size() - 1);
+    }
+
     protected AmazonServiceException createAndMockAmazonServiceException(final String errorCode) {
         final AmazonServiceException amazonServiceException = new AmazonServiceException(errorCode);
         amazonServiceException.setStatusCode(400);
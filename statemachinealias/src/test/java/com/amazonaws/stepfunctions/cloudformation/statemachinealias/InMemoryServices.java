@@ -0,0 +1,64 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.mockito.Mockito;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ *  Installs the in-memory service fakes into the ClientBuilder so that handlers can be exercised end to end
+ *  without an AWS account. Close the instance to restore the real clients.
+ */
+public class InMemoryServices implements AutoCloseable {
+
+    private final FakeServiceBehavior behavior;
+    private final FakeStepFunctions sfnClient;
+    private final FakeCloudWatch cwClient;
+
+    private InMemoryServices(final FakeServiceBehavior behavior) {
+        this.behavior = behavior;
+        this.sfnClient = new FakeStepFunctions(behavior);
+        this.cwClient = new FakeCloudWatch(behavior);
+    }
+
+    public static InMemoryServices install(final FakeServiceBehavior behavior) {
+        final InMemoryServices services = new InMemoryServices(behavior);
+        ClientBuilder.setSfnClientOverride(services.sfnClient);
+        ClientBuilder.setCwClientOverride(services.cwClient);
+        return services;
+    }
+
+    /**
+     * Creates a proxy that invokes the client function directly instead of injecting credentials
+     * @return A proxy to pass to the handlers
+     */
+    @SuppressWarnings("unchecked")
+    public static AmazonWebServicesClientProxy newProxy() {
+        final AmazonWebServicesClientProxy proxy = Mockito.mock(AmazonWebServicesClientProxy.class, Mockito.withSettings().stubOnly());
+        Mockito.when(proxy.injectCredentialsAndInvoke(any(AmazonWebServiceRequest.class), any(Function.class)))
+                .thenAnswer(invocation -> ((Function<Object, Object>) invocation.getArgument(1)).apply(invocation.getArgument(0)));
+        return proxy;
+    }
+
+    public FakeServiceBehavior getBehavior() {
+        return behavior;
+    }
+
+    public FakeStepFunctions getSfnClient() {
+        return sfnClient;
+    }
+
+    public FakeCloudWatch getCwClient() {
+        return cwClient;
+    }
+
+    @Override
+    public void close() {
+        ClientBuilder.setSfnClientOverride(null);
+        ClientBuilder.setCwClientOverride(null);
+    }
+}
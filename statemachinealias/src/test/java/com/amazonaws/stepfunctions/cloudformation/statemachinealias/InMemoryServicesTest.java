@@ -0,0 +1,139 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import com.amazonaws.services.cloudwatch.model.StateValue;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class InMemoryServicesTest {
+
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:TestStateMachine";
+    private static final String VERSION_1_ARN = STATE_MACHINE_ARN + ":1";
+    private static final String VERSION_2_ARN = STATE_MACHINE_ARN + ":2";
+    private static final String ALARM_NAME = "TestAlarm";
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final Logger logger = mock(Logger.class);
+    private FakeServiceBehavior behavior;
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        behavior = new FakeServiceBehavior();
+        services = InMemoryServices.install(behavior);
+        services.getSfnClient().addVersion(VERSION_1_ARN);
+        services.getSfnClient().addVersion(VERSION_2_ARN);
+        services.getCwClient().setAlarmState(ALARM_NAME, StateValue.OK.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        services.close();
+    }
+
+    @Test
+    public void testAliasLifecycle() {
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestAlias")
+                .routingConfiguration(Collections.singleton(new RoutingConfigurationVersion(VERSION_1_ARN, 100)))
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> createResponse = new CreateHandler().handleRequest(proxy, request(model), null, logger);
+        assertThat(createResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final String aliasArn = createResponse.getResourceModel().getArn();
+        assertThat(aliasArn).isEqualTo(STATE_MACHINE_ARN + ":TestAlias");
+
+        final ProgressEvent<ResourceModel, CallbackContext> duplicateCreateResponse = new CreateHandler().handleRequest(
+                proxy, request(ResourceModel.builder()
+                        .name("TestAlias")
+                        .routingConfiguration(Collections.singleton(new RoutingConfigurationVersion(VERSION_1_ARN, 100)))
+                        .build()),
+                null, logger);
+        assertThat(duplicateCreateResponse.getErrorCode()).isEqualTo(HandlerErrorCode.AlreadyExists);
+
+        final ProgressEvent<ResourceModel, CallbackContext> listResponse = new ListHandler().handleRequest(proxy, request(model), null, logger);
+        assertThat(listResponse.getResourceModels()).extracting(ResourceModel::getArn).containsExactly(aliasArn);
+
+        final ResourceHandlerRequest<ResourceModel> deleteRequest = request(ResourceModel.builder().arn(aliasArn).build());
+        assertThat(new DeleteHandler().handleRequest(proxy, deleteRequest, null, logger).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(new ReadHandler().handleRequest(proxy, deleteRequest, null, logger).getErrorCode()).isEqualTo(HandlerErrorCode.NotFound);
+    }
+
+    @Test
+    public void testCanaryDeployment_rollsBackWhenAlarmFires() {
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestAlias")
+                .routingConfiguration(Collections.singleton(new RoutingConfigurationVersion(VERSION_1_ARN, 100)))
+                .build();
+        final String aliasArn = new CreateHandler().handleRequest(proxy, request(model), null, logger).getResourceModel().getArn();
+
+        final DeploymentPreference deploymentPreference = new DeploymentPreference();
+        deploymentPreference.setType(DeploymentType.CANARY.toString());
+        deploymentPreference.setStateMachineVersionArn(VERSION_2_ARN);
+        deploymentPreference.setInterval(5);
+        deploymentPreference.setPercentage(10);
+        deploymentPreference.setAlarms(Collections.singleton(ALARM_NAME));
+        final ResourceHandlerRequest<ResourceModel> updateRequest = request(ResourceModel.builder()
+                .arn(aliasArn)
+                .name("TestAlias")
+                .deploymentPreference(deploymentPreference)
+                .build());
+        updateRequest.setPreviousResourceState(ResourceModel.builder()
+                .arn(aliasArn)
+                .name("TestAlias")
+                .routingConfiguration(Collections.singleton(new RoutingConfigurationVersion(VERSION_1_ARN, 100)))
+                .build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> canaryResponse = new UpdateHandler().handleRequest(proxy, updateRequest, null, logger);
+        assertThat(canaryResponse.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(readRoutingConfiguration(aliasArn)).containsExactlyInAnyOrder(
+                new RoutingConfigurationVersion(VERSION_1_ARN, 90), new RoutingConfigurationVersion(VERSION_2_ARN, 10));
+
+        services.getCwClient().setAlarmState(ALARM_NAME, StateValue.ALARM.toString());
+        final ProgressEvent<ResourceModel, CallbackContext> rollbackResponse = new UpdateHandler().handleRequest(
+                proxy, updateRequest, canaryResponse.getCallbackContext(), logger);
+
+        assertThat(rollbackResponse.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(readRoutingConfiguration(aliasArn)).containsExactly(new RoutingConfigurationVersion(VERSION_1_ARN, 100));
+        assertThat(behavior.getCallCount("DescribeAlarms")).isEqualTo(2);
+    }
+
+    @Test
+    public void testCreateAlias_unknownVersionReturnsNotFound() {
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestAlias")
+                .routingConfiguration(Collections.singleton(new RoutingConfigurationVersion(STATE_MACHINE_ARN + ":3", 100)))
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = new CreateHandler().handleRequest(proxy, request(model), null, logger);
+
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotFound);
+        assertThat(services.getSfnClient().getAliasCount()).isEqualTo(0);
+    }
+
+    private Set<RoutingConfigurationVersion> readRoutingConfiguration(final String aliasArn) {
+        return new ReadHandler().handleRequest(proxy, request(ResourceModel.builder().arn(aliasArn).build()), null, logger)
+                .getResourceModel().getRoutingConfiguration();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .logicalResourceIdentifier("StateMachineAlias")
+                .clientRequestToken("token")
+                .desiredResourceState(model)
+                .build();
+    }
+}
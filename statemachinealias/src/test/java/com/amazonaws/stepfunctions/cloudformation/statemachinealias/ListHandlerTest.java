@@ -1,20 +1,29 @@
 package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
 
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.model.CreateStateMachineAliasRequest;
 import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesRequest;
 import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesResult;
+import com.amazonaws.services.stepfunctions.model.RoutingConfigurationListItem;
 import com.amazonaws.services.stepfunctions.model.StateMachineAliasListItem;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE;
@@ -23,6 +32,9 @@ import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Const
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.RESOURCE_NOT_FOUND_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.THROTTLING_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.VALIDATION_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ACCOUNT_WIDE_LIST;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_SUCCESS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -31,8 +43,13 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 public class ListHandlerTest extends HandlerTestBase {
 
+    private static final int PAGE_SIZE = 10;
+
+    private final List<Integer> requestedPageSizes = new ArrayList<>();
+
     final String INPUT_PAGE_TOKEN = "pageTokenInput";
     final String RETURNED_PAGE_TOKEN = "pageTokenReturned";
+    final int MAX_NEXT_TOKEN_LENGTH = 2048;
 
     @BeforeEach
     public void setup() {
@@ -54,6 +71,11 @@ public class ListHandlerTest extends HandlerTestBase {
                 .withNextToken(INPUT_PAGE_TOKEN);
     }
 
+    @AfterEach
+    public void tearDown() {
+        PageCoalescer.setEnabled(false);
+    }
+
     @Test
     public void testSuccess() {
         final ListStateMachineAliasesResult listStateMachineAliasResult = new ListStateMachineAliasesResult()
@@ -79,6 +101,7 @@ public class ListHandlerTest extends HandlerTestBase {
         assertThat(response.getResourceModels().get(0)).isEqualTo(expectedResourceModel);
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey).doesNotContain(ACCOUNT_WIDE_LIST.loggingKey);
     }
 
     @Test
@@ -122,4 +145,208 @@ public class ListHandlerTest extends HandlerTestBase {
         when(proxy.injectCredentialsAndInvoke(eq(awsRequest), any(Function.class))).thenThrow(exception500);
         assertFailure(exception500.getMessage(), HandlerErrorCode.ServiceInternalError);
     }
+
+    @Test
+    public void testCoalescing_followsEveryPageInOneInvocation() {
+        PageCoalescer.setEnabled(true);
+        cfnRequest.setNextToken(null);
+        when(proxy.injectCredentialsAndInvoke(any(ListStateMachineAliasesRequest.class), any(Function.class))).thenAnswer(pagesOf(PAGE_SIZE, PAGE_SIZE * 3));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, cfnRequest, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(PAGE_SIZE * 3);
+        assertThat(response.getNextToken()).isNull();
+        // Every page is requested at the service's maximum page size
+        assertThat(requestedPageSizes).containsExactly(Constants.LIST_MAX_PAGE_SIZE, Constants.LIST_MAX_PAGE_SIZE, Constants.LIST_MAX_PAGE_SIZE);
+    }
+
+    @Test
+    public void testCoalescing_sizesTheLastRequestToTheItemBudget() {
+        PageCoalescer.setEnabled(true);
+        // Pages hold fewer items than the maximum page size, so less than a page is left of the item budget for the last request
+        final int itemsPerPage = Constants.LIST_MAX_PAGE_SIZE - 1;
+        cfnRequest.setNextToken(null);
+        when(proxy.injectCredentialsAndInvoke(any(ListStateMachineAliasesRequest.class), any(Function.class)))
+                .thenAnswer(pagesOf(itemsPerPage, Constants.LIST_COALESCING_MAX_ITEMS * 2));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, cfnRequest, null, logger);
+
+        final int fullPageCount = Constants.LIST_COALESCING_MAX_ITEMS / itemsPerPage;
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(Constants.LIST_COALESCING_MAX_ITEMS);
+        assertThat(requestedPageSizes).hasSize(fullPageCount + 1);
+        assertThat(requestedPageSizes.get(fullPageCount)).isEqualTo(Constants.LIST_COALESCING_MAX_ITEMS - fullPageCount * itemsPerPage);
+        // The token of the last page fetched is returned, so the next invocation starts right after it
+        assertThat(response.getNextToken()).isEqualTo(String.valueOf(Constants.LIST_COALESCING_MAX_ITEMS));
+    }
+
+    @Test
+    public void testCoalescingDisabled_fetchesSinglePageOfDefaultSize() {
+        PageCoalescer.setEnabled(false);
+        cfnRequest.setNextToken(null);
+        when(proxy.injectCredentialsAndInvoke(any(ListStateMachineAliasesRequest.class), any(Function.class))).thenAnswer(pagesOf(PAGE_SIZE, PAGE_SIZE * 3));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, cfnRequest, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(PAGE_SIZE);
+        assertThat(response.getNextToken()).isEqualTo(String.valueOf(PAGE_SIZE));
+        assertThat(requestedPageSizes).containsExactly((Integer) null);
+    }
+
+    // Pages of at most itemsPerPage items, whose tokens are the index of their first item
+    private Answer<ListStateMachineAliasesResult> pagesOf(final int itemsPerPage, final int itemCount) {
+        return invocation -> {
+            final ListStateMachineAliasesRequest listRequest = invocation.getArgument(0);
+            requestedPageSizes.add(listRequest.getMaxResults());
+            final int first = listRequest.getNextToken() == null ? 0 : Integer.parseInt(listRequest.getNextToken());
+            final int pageSize = listRequest.getMaxResults() == null ? itemsPerPage : Math.min(itemsPerPage, listRequest.getMaxResults());
+            final int end = Math.min(itemCount, first + pageSize);
+            final List<StateMachineAliasListItem> aliases = new ArrayList<>();
+            for (int i = first; i < end; i++) {
+                aliases.add(new StateMachineAliasListItem().withStateMachineAliasArn(STATE_MACHINE_ARN + ":Alias" + i).withCreationDate(CREATION_DATE));
+            }
+            return new ListStateMachineAliasesResult()
+                    .withStateMachineAliases(aliases)
+                    .withNextToken(end < itemCount ? String.valueOf(end) : null);
+        };
+    }
+
+    @Test
+    public void testAccountWideList_listsEveryAliasInAccount() {
+        final FakeServiceBehavior behavior = new FakeServiceBehavior();
+        try (InMemoryServices services = InMemoryServices.install(behavior)) {
+            final Set<String> expectedAliasArns = new HashSet<>();
+            for (int i = 0; i < Constants.ACCOUNT_LIST_STATE_MACHINES_PAGE_SIZE + 50; i++) {
+                expectedAliasArns.add(createAlias(services, String.format("StateMachine%03d", i), "Live"));
+            }
+            // More aliases than fit in one ListStateMachineAliases page
+            for (int i = 0; i < Constants.LIST_MAX_PAGE_SIZE; i++) {
+                expectedAliasArns.add(createAlias(services, "StateMachine000", "Alias" + i));
+            }
+            behavior.resetCounts();
+
+            final List<String> listedAliasArns = new ArrayList<>();
+            String nextToken = null;
+            int invocationCount = 0;
+            do {
+                final ProgressEvent<ResourceModel, CallbackContext> response = listAccountAliases(nextToken);
+                assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+                response.getResourceModels().forEach(model -> listedAliasArns.add(model.getArn()));
+                nextToken = response.getNextToken();
+                invocationCount++;
+            } while (nextToken != null);
+
+            assertThat(listedAliasArns).hasSize(expectedAliasArns.size());
+            assertThat(listedAliasArns).containsExactlyInAnyOrderElementsOf(expectedAliasArns);
+            // The first page of state machines is listed again to finish the aliases of StateMachine000
+            assertThat(invocationCount).isEqualTo(3);
+            assertThat(behavior.getCallCount("ListStateMachines")).isEqualTo(3);
+        }
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, ACCOUNT_WIDE_LIST.loggingKey);
+    }
+
+    @Test
+    public void testAccountWideList_keepsTheTokenBoundedWhenEveryStateMachineHasMorePages() {
+        final int stateMachineCount = 3;
+        try (InMemoryServices services = InMemoryServices.install(new FakeServiceBehavior())) {
+            final Set<String> expectedAliasArns = new HashSet<>();
+            // Every state machine has more aliases than fit in one ListStateMachineAliases page
+            for (int i = 0; i < stateMachineCount; i++) {
+                for (int j = 0; j <= Constants.LIST_MAX_PAGE_SIZE; j++) {
+                    expectedAliasArns.add(createAlias(services, String.format("StateMachine%03d", i), "Alias" + j));
+                }
+            }
+
+            final List<String> listedAliasArns = new ArrayList<>();
+            String nextToken = null;
+            int invocationCount = 0;
+            do {
+                final ProgressEvent<ResourceModel, CallbackContext> response = listAccountAliases(nextToken);
+                assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+                response.getResourceModels().forEach(model -> listedAliasArns.add(model.getArn()));
+                nextToken = response.getNextToken();
+                if (nextToken != null) {
+                    assertThat(nextToken.length()).isLessThanOrEqualTo(MAX_NEXT_TOKEN_LENGTH);
+                }
+                invocationCount++;
+            } while (nextToken != null);
+
+            assertThat(listedAliasArns).hasSize(expectedAliasArns.size());
+            assertThat(listedAliasArns).containsExactlyInAnyOrderElementsOf(expectedAliasArns);
+            // Each invocation stops at the state machine whose aliases did not fit
+            assertThat(invocationCount).isEqualTo(stateMachineCount + 1);
+        }
+    }
+
+    @Test
+    public void testAccountWideList_returnsPartialProgressWhenThrottled() {
+        final FakeServiceBehavior behavior = new FakeServiceBehavior();
+        try (InMemoryServices services = InMemoryServices.install(behavior)) {
+            final Set<String> expectedAliasArns = new HashSet<>();
+            for (int i = 0; i < Constants.ACCOUNT_LIST_STATE_MACHINES_PAGE_SIZE; i++) {
+                expectedAliasArns.add(createAlias(services, String.format("StateMachine%03d", i), "Live"));
+            }
+            behavior.withThrottleRate("ListStateMachineAliases", 0.5);
+
+            final List<String> listedAliasArns = new ArrayList<>();
+            String nextToken = null;
+            boolean finished = false;
+            int partialResponseCount = 0;
+            for (int invocation = 0; invocation < 1000 && !finished; invocation++) {
+                final ProgressEvent<ResourceModel, CallbackContext> response = listAccountAliases(nextToken);
+                if (response.getStatus() == OperationStatus.FAILED) {
+                    // The state machine to resume from was throttled, so the invocation is retried with the same token
+                    assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.Throttling);
+                    continue;
+                }
+                response.getResourceModels().forEach(model -> listedAliasArns.add(model.getArn()));
+                nextToken = response.getNextToken();
+                if (nextToken == null) {
+                    finished = true;
+                } else {
+                    partialResponseCount++;
+                }
+            }
+
+            assertThat(finished).isTrue();
+            assertThat(behavior.getThrottleCount("ListStateMachineAliases")).isGreaterThan(0);
+            // The aliases listed before the throttled state machine are returned, and it is resumed from the token
+            assertThat(partialResponseCount).isGreaterThan(0);
+            assertThat(listedAliasArns).hasSize(expectedAliasArns.size());
+            assertThat(listedAliasArns).containsExactlyInAnyOrderElementsOf(expectedAliasArns);
+        }
+    }
+
+    @Test
+    public void testAccountWideList_rejectsInvalidToken() {
+        try (InMemoryServices services = InMemoryServices.install(new FakeServiceBehavior())) {
+            final ProgressEvent<ResourceModel, CallbackContext> response = listAccountAliases("not.a.token");
+
+            assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+            assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.InvalidRequest);
+        }
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey, ACCOUNT_WIDE_LIST.loggingKey);
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> listAccountAliases(final String nextToken) {
+        final AmazonWebServicesClientProxy inMemoryProxy = InMemoryServices.newProxy();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .region(REGION)
+                .awsAccountId(AWS_ACCOUNT_ID)
+                .desiredResourceState(ResourceModel.builder().build())
+                .nextToken(nextToken)
+                .build();
+        return handler.handleRequest(inMemoryProxy, request, null, logger);
+    }
+
+    private static String createAlias(final InMemoryServices services, final String stateMachineName, final String aliasName) {
+        final String versionArn = "arn:aws:states:us-east-1:123456789012:stateMachine:" + stateMachineName + ":1";
+        services.getSfnClient().addVersion(versionArn);
+        return services.getSfnClient().createStateMachineAlias(new CreateStateMachineAliasRequest()
+                        .withName(aliasName)
+                        .withRoutingConfiguration(new RoutingConfigurationListItem().withStateMachineVersionArn(versionArn).withWeight(100)))
+                .getStateMachineAliasArn();
+    }
 }
@@ -0,0 +1,64 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsRecorderTest {
+
+    private static final String VERSION_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:TestStateMachine:1";
+
+    @Test
+    public void testDefaultRecorder_listsOperationOnly() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.DELETE);
+
+        assertThat(metricsRecorder.generateMetricsString()).isEqualTo("METRICS - OperationType: DELETE, OperationStatus: FAILURE, ");
+    }
+
+    @Test
+    public void testRoutingConfiguration() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setMetricsFromResourceModel(ResourceModel.builder()
+                .routingConfiguration(Collections.singleton(new RoutingConfigurationVersion(VERSION_ARN, 100)))
+                .build());
+        metricsRecorder.incrementExistenceCheckCallCount();
+        metricsRecorder.setAliasAlreadyExists(true);
+
+        assertThat(metricsRecorder.generateMetricsString()).isEqualTo("METRICS - OperationType: CREATE, OperationStatus: FAILURE, "
+                + "ExistenceCheckCallCount: 1, RoutingConfigurationProvided, AliasAlreadyExists");
+    }
+
+    @Test
+    public void testGradualDeployment_listsDeploymentProgress() {
+        final DeploymentPreference deploymentPreference = new DeploymentPreference();
+        deploymentPreference.setType(DeploymentType.LINEAR.toString());
+        deploymentPreference.setStateMachineVersionArn(VERSION_ARN);
+        deploymentPreference.setAlarms(Collections.singleton("TestAlarm"));
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.UPDATE);
+        metricsRecorder.setMetricsFromResourceModel(ResourceModel.builder().deploymentPreference(deploymentPreference).build());
+        metricsRecorder.setStabilizationPollCount(12);
+        metricsRecorder.setTrafficShiftCount(3);
+        metricsRecorder.addAlarmCheckMillis(20);
+        metricsRecorder.addAlarmCheckMillis(5);
+        metricsRecorder.setOperationSuccessful(true);
+
+        assertThat(metricsRecorder.generateMetricsString()).isEqualTo("METRICS - OperationType: UPDATE, OperationStatus: SUCCESS, "
+                + "TrafficShiftCount: 3, StabilizationPollCount: 12, AlarmCheckMillis: 25, DeploymentLinear, AlarmsMonitored");
+    }
+
+    @Test
+    public void testUnknownDeploymentType_isNotListed() {
+        final DeploymentPreference deploymentPreference = new DeploymentPreference();
+        deploymentPreference.setType("BLUE_GREEN");
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.UPDATE);
+        metricsRecorder.setMetricsFromResourceModel(ResourceModel.builder().deploymentPreference(deploymentPreference).build());
+
+        assertThat(metricsRecorder.isSet(MetricsLoggingKeys.DEPLOYMENT_ALL_AT_ONCE)).isFalse();
+        assertThat(metricsRecorder.isSet(MetricsLoggingKeys.DEPLOYMENT_LINEAR)).isFalse();
+        assertThat(metricsRecorder.isSet(MetricsLoggingKeys.DEPLOYMENT_CANARY)).isFalse();
+    }
+}
@@ -3,10 +3,12 @@ package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasRequest;
 import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasResult;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
@@ -14,6 +16,9 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.ACCESS_DENIED_ERROR_CODE;
@@ -21,9 +26,13 @@ import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Const
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.RESOURCE_NOT_FOUND_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.THROTTLING_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.Constants.VALIDATION_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_SUCCESS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +54,12 @@ public class ReadHandlerTest extends HandlerTestBase {
                 .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN);
     }
 
+    @AfterEach
+    public void tearDown() {
+        HedgedInvoker.setEnabled(false);
+        HedgedInvoker.reset();
+    }
+
     @Test
     public void testSuccess() {
         final DescribeStateMachineAliasResult describeStateMachineAliasResult = new DescribeStateMachineAliasResult()
@@ -73,6 +88,7 @@ public class ReadHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
         assertThat(response.getResourceModel()).isEqualTo(expectedModel);
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey);
     }
 
     @Test
@@ -120,5 +136,82 @@ public class ReadHandlerTest extends HandlerTestBase {
     public void testServiceInternalError() {
         when(proxy.injectCredentialsAndInvoke(eq(awsRequest), any(Function.class))).thenThrow(exception500);
         assertFailure(exception500.getMessage(), HandlerErrorCode.ServiceInternalError);
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey);
+    }
+
+    @Test
+    public void testHedgingEnabled_slowDescribeIsHedged() {
+        final DescribeStateMachineAliasResult describeStateMachineAliasResult = new DescribeStateMachineAliasResult()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN)
+                .withName(ALIAS_NAME)
+                .withRoutingConfiguration(SDK_ROUTING_CONFIGURATION);
+
+        when(proxy.injectCredentialsAndInvoke(eq(awsRequest), any(Function.class)))
+                .thenAnswer(slowUntilHedged(invocation -> describeStateMachineAliasResult));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = readWithHedgingEnabled();
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_ALIAS_ARN);
+        assertThat(HedgedInvoker.getHedgeCount()).isEqualTo(1);
+        verify(proxy, times(Constants.HEDGE_MIN_SAMPLES + 2)).injectCredentialsAndInvoke(eq(awsRequest), any(Function.class));
+    }
+
+    @Test
+    public void testHedgingEnabled_whenBothAttemptsFail_thenReturnsNotFound() {
+        final AmazonServiceException exceptionNotFound = new AmazonServiceException("Alias not found");
+        exceptionNotFound.setErrorCode(RESOURCE_NOT_FOUND_ERROR_CODE);
+        exceptionNotFound.setStatusCode(400);
+        final DescribeStateMachineAliasResult describeStateMachineAliasResult = new DescribeStateMachineAliasResult()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN)
+                .withName(ALIAS_NAME)
+                .withRoutingConfiguration(SDK_ROUTING_CONFIGURATION);
+
+        // The warm-up reads succeed, both attempts of the hedged read find the alias deleted
+        final AtomicInteger describeCount = new AtomicInteger();
+        when(proxy.injectCredentialsAndInvoke(eq(awsRequest), any(Function.class)))
+                .thenAnswer(slowUntilHedged(invocation -> {
+                    if (describeCount.incrementAndGet() > Constants.HEDGE_MIN_SAMPLES) {
+                        throw exceptionNotFound;
+                    }
+                    return describeStateMachineAliasResult;
+                }));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = readWithHedgingEnabled();
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotFound);
+        assertThat(HedgedInvoker.getHedgeCount()).isEqualTo(1);
+    }
+
+    /**
+     * Reads the alias often enough for the hedge delay to be known, then returns the response of one more read
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> readWithHedgingEnabled() {
+        HedgedInvoker.reset();
+        HedgedInvoker.setEnabled(true);
+        for (int i = 0; i < Constants.HEDGE_MIN_SAMPLES; i++) {
+            assertThat(handler.handleRequest(proxy, cfnRequest, null, logger).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        }
+        assertThat(HedgedInvoker.getHedgeCount()).isZero();
+        return handler.handleRequest(proxy, cfnRequest, null, logger);
+    }
+
+    /**
+     * Answers the warm-up describes at once. The first attempt of the next describe only answers once its hedge
+     * has been sent, so that the read can only complete through the hedge.
+     */
+    private static Answer<Object> slowUntilHedged(final Answer<Object> answer) {
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch hedgeSent = new CountDownLatch(1);
+        return invocation -> {
+            final int attempt = attempts.incrementAndGet();
+            if (attempt == Constants.HEDGE_MIN_SAMPLES + 1) {
+                hedgeSent.await(10, TimeUnit.SECONDS);
+            } else if (attempt == Constants.HEDGE_MIN_SAMPLES + 2) {
+                hedgeSent.countDown();
+            }
+            return answer.answer(invocation);
+        };
     }
 }
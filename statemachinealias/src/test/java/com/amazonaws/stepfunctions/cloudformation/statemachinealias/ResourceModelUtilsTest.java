@@ -163,6 +163,55 @@ public class ResourceModelUtilsTest extends HandlerTestBase {
         assertThat(thrownException.getMessage()).isEqualTo("No enum constant com.amazonaws.stepfunctions.cloudformation.statemachinealias.DeploymentType.UnknownDeploymentType");
     }
 
+    @Test
+    public void testValidateDeploymentPreference_withHealthyEvaluationsToShiftAndAlarms_succeeds() {
+        final DeploymentPreference deploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        deploymentPreference.setAlarms(new HashSet<>(Collections.singletonList("alarm")));
+        deploymentPreference.setHealthyEvaluationsToShift(3);
+        deploymentPreference.setMinimumInterval(5);
+
+        ResourceModelUtils.validateDeploymentPreference(deploymentPreference);
+    }
+
+    @Test
+    public void testValidateDeploymentPreference_withHealthyEvaluationsToShiftAndNoAlarms_throwsValidationException() {
+        final DeploymentPreference deploymentPreference = getCanaryDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        deploymentPreference.setHealthyEvaluationsToShift(3);
+
+        assertDeploymentPreferenceValidationFailure(
+                deploymentPreference,
+                "Deployments of type 'CANARY' require alarms to shift traffic early based on healthy evaluations. " +
+                "Configure the deployment preference with the 'alarms' property or remove the 'healthyEvaluationsToShift' property and try again."
+        );
+    }
+
+    @Test
+    public void testValidateDeploymentPreference_withMinimumIntervalAndNoHealthyEvaluationsToShift_throwsValidationException() {
+        final DeploymentPreference deploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        deploymentPreference.setAlarms(new HashSet<>(Collections.singletonList("alarm")));
+        deploymentPreference.setMinimumInterval(5);
+
+        assertDeploymentPreferenceValidationFailure(
+                deploymentPreference,
+                "Deployments of type 'LINEAR' only use a minimum interval to shift traffic early based on healthy evaluations. " +
+                "Configure the deployment preference with the 'healthyEvaluationsToShift' property or remove the 'minimumInterval' property and try again."
+        );
+    }
+
+    @Test
+    public void testValidateDeploymentPreference_withMinimumIntervalGreaterThanInterval_throwsValidationException() {
+        final DeploymentPreference deploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        deploymentPreference.setAlarms(new HashSet<>(Collections.singletonList("alarm")));
+        deploymentPreference.setHealthyEvaluationsToShift(3);
+        deploymentPreference.setMinimumInterval(11);
+
+        assertDeploymentPreferenceValidationFailure(
+                deploymentPreference,
+                "The minimum interval of 11 minutes exceeds the interval of 10 minutes. " +
+                "Configure the deployment preference with a 'minimumInterval' lower than or equal to the 'interval' and try again."
+        );
+    }
+
     @Test
     public void testGetUpdatedLinearDeploymentRoutingConfig_forInitialTrafficShift_returnsInitiallyShiftedConfig() {
         final Set<RoutingConfigurationVersion> routingConfig = new HashSet<>(Collections.singletonList(
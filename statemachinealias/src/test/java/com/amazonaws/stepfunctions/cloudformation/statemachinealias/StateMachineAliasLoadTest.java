@@ -0,0 +1,116 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.ContractTestInputs;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.LoadTestHarness;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *  Replays Create, Read, Update, List and Delete lifecycles concurrently against the in-memory service fakes.
+ *  Run with: mvn test -Dtest=StateMachineAliasLoadTest -DloadTest=true [-DloadTest.lifecycles=N] [-DloadTest.concurrency=N]
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+public class StateMachineAliasLoadTest {
+
+    private static final int LIFECYCLES = Integer.getInteger("loadTest.lifecycles", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("loadTest.concurrency", 64);
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:LoadTestStateMachine";
+    static final String VERSION_1_ARN = STATE_MACHINE_ARN + ":1";
+    static final String VERSION_2_ARN = STATE_MACHINE_ARN + ":2";
+    private static final Map<String, String> PLACEHOLDER_VALUES = ImmutableMap.of(
+            "awsstepfunctionsstatemachinealiascto1", VERSION_1_ARN
+    );
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final Logger logger = message -> { };
+
+    @Test
+    public void testConcurrentLifecycles() throws InterruptedException {
+        final FakeServiceBehavior behavior = new FakeServiceBehavior()
+                .withDefaultLatency(FakeServiceBehavior.LatencyDistribution.logNormal(15, 0.5));
+        final List<ContractTestInputs> contractTestInputs = ContractTestInputs.load();
+        final LoadTestHarness harness = new LoadTestHarness(CONCURRENCY);
+
+        final LoadTestHarness.Report report;
+        try (InMemoryServices services = InMemoryServices.install(behavior)) {
+            services.getSfnClient().addVersion(VERSION_1_ARN);
+            services.getSfnClient().addVersion(VERSION_2_ARN);
+
+            report = harness.run(LIFECYCLES, index -> {
+                // Alternate between the contract test inputs and synthetic inputs
+                final ContractTestInputs.Instance inputs = contractTestInputs.get(index / 2 % contractTestInputs.size())
+                        .instantiate(PLACEHOLDER_VALUES);
+                final ResourceModel createModel = index % 2 == 0 ? inputs.getCreateModel(ResourceModel.class) : getSyntheticModel(index, index);
+                final ResourceModel updateModel = index % 2 == 0 ? inputs.getUpdateModel(ResourceModel.class) : getSyntheticModel(index, index + LIFECYCLES);
+                runLifecycle(harness, createModel, updateModel, inputs.getListModel(ResourceModel.class));
+            });
+        }
+
+        System.out.println(report);
+        assertThat(report.getErroredLifecycles()).isEqualTo(0);
+        assertThat(report.getFailures("Create")).isEqualTo(0);
+    }
+
+    void runLifecycle(final LoadTestHarness harness, final ResourceModel createModel, final ResourceModel updateModel,
+                      final ResourceModel listModel) {
+        final ProgressEvent<ResourceModel, CallbackContext> createEvent = harness.invoke("Create", context ->
+                new CreateHandler().handleRequest(proxy, request(createModel, null), context, logger));
+        assertThat(createEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final String aliasArn = createEvent.getResourceModel().getArn();
+
+        harness.invoke("Read", context ->
+                new ReadHandler().handleRequest(proxy, request(ResourceModel.builder().arn(aliasArn).build(), null), context, logger));
+
+        updateModel.setArn(aliasArn);
+        updateModel.setName(createModel.getName());
+        final ProgressEvent<ResourceModel, CallbackContext> updateEvent = harness.invoke("Update", context ->
+                new UpdateHandler().handleRequest(proxy, request(updateModel, createEvent.getResourceModel()), context, logger));
+        assertThat(updateEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+        if (listModel.getRoutingConfiguration() != null) {
+            harness.invoke("List", context -> new ListHandler().handleRequest(proxy, request(listModel, null), context, logger));
+        }
+
+        final ProgressEvent<ResourceModel, CallbackContext> deleteEvent = harness.invoke("Delete", context ->
+                new DeleteHandler().handleRequest(proxy, request(ResourceModel.builder().arn(aliasArn).build(), null), context, logger));
+        assertThat(deleteEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+    }
+
+    // Synthetic inputs split the traffic between two versions with a random weight
+    static ResourceModel getSyntheticModel(final int index, final long seed) {
+        final Random random = new Random(seed);
+        final int version1Weight = 1 + random.nextInt(99);
+        return ResourceModel.builder()
+                .name("LoadTestAlias-" + index)
+                .description("Synthetic alias " + random.nextInt())
+                .routingConfiguration(new HashSet<>(Arrays.asList(
+                        new RoutingConfigurationVersion(VERSION_1_ARN, version1Weight),
+                        new RoutingConfigurationVersion(VERSION_2_ARN, 100 - version1Weight)
+                )))
+                .build();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model, final ResourceModel previousModel) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .logicalResourceIdentifier("StateMachineAlias")
+                .clientRequestToken("token")
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+    }
+}
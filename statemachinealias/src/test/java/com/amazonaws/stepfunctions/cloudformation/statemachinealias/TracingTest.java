@@ -0,0 +1,178 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachinealias;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracingTest {
+
+    private static final String CLIENT_REQUEST_TOKEN = "trace-token";
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:TestStateMachine";
+    private static final String VERSION_ARN = STATE_MACHINE_ARN + ":1";
+    private static final String TRACE_PREFIX = Constants.TRACE_LOGGING_PREFIX + " - ";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final List<String> logLines = new ArrayList<>();
+    private final Logger logger = logLines::add;
+
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        services = InMemoryServices.install(new FakeServiceBehavior());
+        services.getSfnClient().addVersion(VERSION_ARN);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Tracing.setExporter(Tracing.Exporter.NONE, null);
+        services.close();
+    }
+
+    @Test
+    public void testDisabledTracingReturnsNoOpSpans() {
+        Tracing.setExporter(Tracing.Exporter.NONE, null);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = create("Untraced");
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(Tracing.span(Tracing.Phase.CREATE)).isSameAs(Tracing.span(Tracing.Phase.READ));
+        assertThat(logLines.stream().anyMatch(line -> line.startsWith(TRACE_PREFIX))).isFalse();
+    }
+
+    @Test
+    public void testLoggerExporterLogsSpansOfTheInvocation() throws IOException {
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = create("Traced");
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("traceId").asText()).isEqualTo(CLIENT_REQUEST_TOKEN);
+        assertThat(trace.get("handler").asText()).isEqualTo("CreateHandler");
+        assertThat(trace.get("callback").asBoolean()).isFalse();
+        assertThat(trace.get("status").asText()).isEqualTo("SUCCESS");
+        assertThat(trace.get("droppedSpans").asInt()).isZero();
+        assertThat(getSpanNames(trace)).containsExactly("existenceCheck", "create");
+    }
+
+    @Test
+    public void testFailedInvocationIsTraced() throws IOException {
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+        create("Duplicate");
+        logLines.clear();
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = create("Duplicate");
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.FAILED);
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("status").asText()).isEqualTo("FAILED");
+        assertThat(getSpanNames(trace)).containsExactly("existenceCheck");
+    }
+
+    @Test
+    public void testAccountWideListTracesTheWaitForItsWorkers() throws IOException {
+        create("First");
+        create("Second");
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = new ListHandler().handleRequest(
+                proxy, request(ResourceModel.builder().build()), null, logger);
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(event.getResourceModels()).hasSize(2);
+        // The aliases are listed on the pool's threads, which have no spans of their own
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("handler").asText()).isEqualTo("ListHandler");
+        assertThat(getSpanNames(trace)).containsExactly("list", "list");
+        assertThat(trace.get("droppedSpans").asInt()).isZero();
+    }
+
+    @Test
+    public void testFileExporterAppendsOneLinePerInvocation(@TempDir final Path tempDir) throws IOException {
+        final Path traceFile = tempDir.resolve("traces.jsonl");
+        Tracing.setExporter(Tracing.Exporter.FILE, traceFile);
+
+        create("First");
+        create("Second");
+
+        final List<String> lines = Files.readAllLines(traceFile, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2);
+        for (final String line : lines) {
+            assertThat(objectMapper.readTree(line).get("traceId").asText()).isEqualTo(CLIENT_REQUEST_TOKEN);
+        }
+        assertThat(logLines.stream().anyMatch(line -> line.startsWith(TRACE_PREFIX))).isFalse();
+    }
+
+    @Test
+    public void testSpansBeyondTheLimitAreDropped() throws IOException {
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+        final ResourceHandlerRequest<ResourceModel> request = request(ResourceModel.builder().build());
+
+        Tracing.begin(request, "TestHandler", true);
+        for (int i = 0; i < Constants.MAX_TRACE_SPANS + 3; i++) {
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.STABILIZATION_POLL)) {
+                // Spans are closed immediately
+            }
+        }
+        Tracing.end(OperationStatus.IN_PROGRESS, logger);
+
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("callback").asBoolean()).isTrue();
+        assertThat(trace.get("spans")).hasSize(Constants.MAX_TRACE_SPANS);
+        assertThat(trace.get("droppedSpans").asInt()).isEqualTo(3);
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> create(final String aliasName) {
+        final ResourceModel model = ResourceModel.builder()
+                .name(aliasName)
+                .routingConfiguration(Collections.singleton(new RoutingConfigurationVersion(VERSION_ARN, 100)))
+                .build();
+        return new CreateHandler().handleRequest(proxy, request(model), null, logger);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .logicalResourceIdentifier("StateMachineAlias")
+                .clientRequestToken(CLIENT_REQUEST_TOKEN)
+                .desiredResourceState(model)
+                .build();
+    }
+
+    private JsonNode getLoggedTrace() throws IOException {
+        final List<String> traces = new ArrayList<>();
+        for (final String line : logLines) {
+            if (line.startsWith(TRACE_PREFIX)) {
+                traces.add(line.substring(TRACE_PREFIX.length()));
+            }
+        }
+        assertThat(traces).hasSize(1);
+        return objectMapper.readTree(traces.get(0));
+    }
+
+    private static List<String> getSpanNames(final JsonNode trace) {
+        final List<String> names = new ArrayList<>();
+        trace.get("spans").forEach(span -> names.add(span.get("name").asText()));
+        return names;
+    }
+}
@@ -12,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -417,4 +418,66 @@ public class TrafficShiftingUtilsTest extends HandlerTestBase {
 
         assertThat(expected).isEqualTo(actual);
     }
+
+    @Test
+    public void testShouldPerformEarlyTrafficShift_whenHealthyEvaluationsToShiftIsNotConfigured_returnsFalse() {
+        final DeploymentPreference deploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+
+        final boolean actual = TrafficShiftingUtils.shouldPerformEarlyTrafficShift(
+                Instant.now().minusSeconds(120), deploymentPreference, 5
+        );
+
+        assertThat(actual).isFalse();
+    }
+
+    @Test
+    public void testShouldPerformEarlyTrafficShift_whenHealthyStreakIsTooShort_returnsFalse() {
+        final DeploymentPreference deploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        deploymentPreference.setHealthyEvaluationsToShift(3);
+
+        final boolean actual = TrafficShiftingUtils.shouldPerformEarlyTrafficShift(
+                Instant.now().minusSeconds(120), deploymentPreference, 2
+        );
+
+        assertThat(actual).isFalse();
+    }
+
+    @Test
+    public void testShouldPerformEarlyTrafficShift_whenHealthyStreakIsReachedAndMinimumIntervalHasPassed_returnsTrue() {
+        final DeploymentPreference deploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        deploymentPreference.setHealthyEvaluationsToShift(3);
+        deploymentPreference.setMinimumInterval(2);
+
+        final boolean actual = TrafficShiftingUtils.shouldPerformEarlyTrafficShift(
+                Instant.now().minusSeconds(120), deploymentPreference, 3
+        );
+
+        assertThat(actual).isTrue();
+    }
+
+    @Test
+    public void testShouldPerformEarlyTrafficShift_whenHealthyStreakIsReachedAndMinimumIntervalHasNotPassed_returnsFalse() {
+        final DeploymentPreference deploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        deploymentPreference.setHealthyEvaluationsToShift(3);
+        deploymentPreference.setMinimumInterval(5);
+
+        final boolean actual = TrafficShiftingUtils.shouldPerformEarlyTrafficShift(
+                Instant.now().minusSeconds(120), deploymentPreference, 3
+        );
+
+        assertThat(actual).isFalse();
+    }
+
+    @Test
+    public void testShouldPerformEarlyTrafficShift_whenMinimumIntervalIsNotConfigured_usesDefaultMinimumInterval() {
+        final DeploymentPreference deploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        deploymentPreference.setHealthyEvaluationsToShift(1);
+
+        assertThat(TrafficShiftingUtils.shouldPerformEarlyTrafficShift(
+                Instant.now().minusSeconds(60L * Constants.DEFAULT_MINIMUM_SHIFT_INTERVAL_MINUTES), deploymentPreference, 1
+        )).isTrue();
+        assertThat(TrafficShiftingUtils.shouldPerformEarlyTrafficShift(
+                Instant.now(), deploymentPreference, 1
+        )).isFalse();
+    }
 }
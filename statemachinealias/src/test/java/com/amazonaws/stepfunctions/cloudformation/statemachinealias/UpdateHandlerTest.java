@@ -10,18 +10,23 @@ import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasResul
 import com.amazonaws.services.stepfunctions.model.RoutingConfigurationListItem;
 import com.amazonaws.services.stepfunctions.model.UpdateStateMachineAliasRequest;
 import com.amazonaws.services.stepfunctions.model.UpdateStateMachineAliasResult;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.resource.Serializer;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -30,10 +35,24 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
-
+import java.util.stream.Collectors;
+
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ALARMS_MONITORED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.ALARM_CHECK_MILLIS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_ABORTED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_ALL_AT_ONCE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_CANARY;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_LINEAR;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.DEPLOYMENT_ROLLBACK;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.STABILIZATION_POLL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachinealias.MetricsLoggingKeys.TRAFFIC_SHIFT_COUNT;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -228,6 +247,7 @@ public class UpdateHandlerTest extends HandlerTestBase {
         assertThat(actual.getResourceModels()).isNull();
         assertThat(actual.getMessage()).isNull();
         assertThat(actual.getErrorCode()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, DEPLOYMENT_ALL_AT_ONCE.loggingKey);
     }
 
     @Test
@@ -361,9 +381,7 @@ public class UpdateHandlerTest extends HandlerTestBase {
 
         final ResourceModel expectedResourceModel = ResourceModel.builder()
                 .arn(STATE_MACHINE_ALIAS_ARN)
-                .name(ALIAS_NAME)
                 .description(DESCRIPTION)
-                .routingConfiguration(getVersionRoutingConfigCfn(STATE_MACHINE_VERSION_1_ARN, 90, STATE_MACHINE_VERSION_2_ARN, 10))
                 .deploymentPreference(desiredDeploymentPreference)
                 .build();
 
@@ -391,6 +409,9 @@ public class UpdateHandlerTest extends HandlerTestBase {
         assertThat(actual.getResourceModels()).isNull();
         assertThat(actual.getMessage()).isNull();
         assertThat(actual.getErrorCode()).isNull();
+        assertThat(getMetricsString())
+                .contains(OPERATION_SUCCESS.loggingKey, DEPLOYMENT_LINEAR.loggingKey, TRAFFIC_SHIFT_COUNT.loggingKey + ": 1")
+                .doesNotContain(STABILIZATION_POLL_COUNT.loggingKey);
     }
 
     @Test
@@ -410,9 +431,7 @@ public class UpdateHandlerTest extends HandlerTestBase {
 
         final ResourceModel expectedResourceModel = ResourceModel.builder()
                 .arn(STATE_MACHINE_ALIAS_ARN)
-                .name(ALIAS_NAME)
                 .description(DESCRIPTION)
-                .routingConfiguration(getVersionRoutingConfigCfn(STATE_MACHINE_VERSION_1_ARN, 80, STATE_MACHINE_VERSION_2_ARN, 20))
                 .deploymentPreference(desiredDeploymentPreference)
                 .build();
 
@@ -516,6 +535,8 @@ public class UpdateHandlerTest extends HandlerTestBase {
         assertThat(actual.getResourceModels()).isNull();
         assertThat(actual.getMessage()).isNull();
         assertThat(actual.getErrorCode()).isNull();
+        assertThat(getMetricsString())
+                .contains(OPERATION_SUCCESS.loggingKey, DEPLOYMENT_LINEAR.loggingKey, STABILIZATION_POLL_COUNT.loggingKey + ": 1");
     }
 
     @Test
@@ -535,9 +556,7 @@ public class UpdateHandlerTest extends HandlerTestBase {
 
         final ResourceModel expectedResourceModel = ResourceModel.builder()
                 .arn(STATE_MACHINE_ALIAS_ARN)
-                .name(ALIAS_NAME)
                 .description(DESCRIPTION)
-                .routingConfiguration(getVersionRoutingConfigCfn(STATE_MACHINE_VERSION_1_ARN, 90, STATE_MACHINE_VERSION_2_ARN, 10))
                 .deploymentPreference(desiredDeploymentPreference)
                 .build();
 
@@ -575,6 +594,319 @@ public class UpdateHandlerTest extends HandlerTestBase {
         assertThat(actual.getErrorCode()).isNull();
     }
 
+    @Test
+    public void testHandleLinearDeployment_whenCalledBackRepeatedly_thenLogsOnlyASampleOfTheCallbacks() {
+        final DeploymentPreference desiredDeploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 1, 50);
+
+        cfnRequest = ResourceHandlerRequest.<ResourceModel>builder()
+                .region(REGION)
+                .awsAccountId(AWS_ACCOUNT_ID)
+                .desiredResourceState(ResourceModel.builder()
+                        .arn(STATE_MACHINE_ALIAS_ARN)
+                        .name(ALIAS_NAME)
+                        .description(DESCRIPTION)
+                        .deploymentPreference(desiredDeploymentPreference)
+                        .build())
+                .build();
+
+        final DescribeStateMachineAliasRequest describeStateMachineAliasRequest = new DescribeStateMachineAliasRequest()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN);
+
+        final DescribeStateMachineAliasResult describeStateMachineAliasResult = new DescribeStateMachineAliasResult()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN)
+                .withRoutingConfiguration(getVersionRoutingConfigSdk(STATE_MACHINE_VERSION_1_ARN, 90, STATE_MACHINE_VERSION_2_ARN, 10));
+
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineAliasRequest), any(Function.class))).thenReturn(describeStateMachineAliasResult);
+
+        final int callbackCount = 2 * Constants.LOG_SAMPLE_INTERVAL + 1;
+        HandlerLogger.resetSampling();
+        try {
+            for (int i = 0; i < callbackCount; i++) {
+                final CallbackContext callbackContext = CallbackContext.builder()
+                        .isTrafficShifting(true)
+                        .originVersionArn(STATE_MACHINE_VERSION_1_ARN)
+                        .originVersionWeight(90)
+                        .targetVersionArn(STATE_MACHINE_VERSION_2_ARN)
+                        .targetVersionWeight(10)
+                        .lastShiftedTime(Instant.now())
+                        .build();
+                final ProgressEvent<ResourceModel, CallbackContext> actual = handler.handleRequest(proxy, cfnRequest, callbackContext, logger);
+                assertThat(actual.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+            }
+        } finally {
+            HandlerLogger.resetSampling();
+        }
+
+        // The first and every LOG_SAMPLE_INTERVAL-th callback are logged, the metrics of every callback are
+        final ArgumentCaptor<String> logLines = ArgumentCaptor.forClass(String.class);
+        verify(logger, atLeastOnce()).log(logLines.capture());
+        final List<String> deploymentLines = logLines.getAllValues().stream()
+                .filter(line -> line.contains("performing LINEAR gradual deployment"))
+                .collect(Collectors.toList());
+        assertThat(deploymentLines).hasSize(3);
+        assertThat(deploymentLines.get(0)).contains("\"occurrence\":1");
+        assertThat(deploymentLines.get(1)).contains("\"occurrence\":" + (Constants.LOG_SAMPLE_INTERVAL + 1));
+        assertThat(deploymentLines.get(2)).contains("\"occurrence\":" + callbackCount);
+        final long metricsLineCount = logLines.getAllValues().stream().filter(line -> line.startsWith("METRICS")).count();
+        assertThat(metricsLineCount).isEqualTo(callbackCount);
+    }
+
+    @Test
+    public void testHandleLinearDeployment_whenHealthyEvaluationsReachedAndMinimumIntervalHasPassed_thenShiftsEarlyAndReturnsInProgress() {
+        final DeploymentPreference desiredDeploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        desiredDeploymentPreference.setAlarms(new HashSet<>(Collections.singleton("alarm name")));
+        desiredDeploymentPreference.setHealthyEvaluationsToShift(2);
+        desiredDeploymentPreference.setMinimumInterval(1);
+
+        cfnRequest = ResourceHandlerRequest.<ResourceModel>builder()
+                .region(REGION)
+                .awsAccountId(AWS_ACCOUNT_ID)
+                .desiredResourceState(ResourceModel.builder()
+                        .arn(STATE_MACHINE_ALIAS_ARN)
+                        .name(ALIAS_NAME)
+                        .description(DESCRIPTION)
+                        .deploymentPreference(desiredDeploymentPreference)
+                        .build())
+                .build();
+
+        final ResourceModel expectedResourceModel = ResourceModel.builder()
+                .arn(STATE_MACHINE_ALIAS_ARN)
+                .description(DESCRIPTION)
+                .deploymentPreference(desiredDeploymentPreference)
+                .build();
+
+        final DescribeStateMachineAliasRequest describeStateMachineAliasRequest = new DescribeStateMachineAliasRequest()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN);
+
+        final DescribeStateMachineAliasResult describeStateMachineAliasResult = new DescribeStateMachineAliasResult()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN)
+                .withRoutingConfiguration(getVersionRoutingConfigSdk(STATE_MACHINE_VERSION_1_ARN, 90, STATE_MACHINE_VERSION_2_ARN, 10));
+
+        final DescribeAlarmsRequest describeAlarmsRequest = new DescribeAlarmsRequest()
+                .withAlarmNames(new HashSet<>(Collections.singleton("alarm name")))
+                .withAlarmTypes(ALARM_TYPES);
+
+        final DescribeAlarmsResult describeAlarmsResult = new DescribeAlarmsResult()
+                .withMetricAlarms(new MetricAlarm().withAlarmName("alarm name").withStateValue(StateValue.OK));
+
+        final UpdateStateMachineAliasRequest updateStateMachineAliasRequest = new UpdateStateMachineAliasRequest()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN)
+                .withDescription(DESCRIPTION)
+                .withRoutingConfiguration(getVersionRoutingConfigSdk(STATE_MACHINE_VERSION_1_ARN, 80, STATE_MACHINE_VERSION_2_ARN, 20));
+
+        final UpdateStateMachineAliasResult updateStateMachineAliasResult = new UpdateStateMachineAliasResult()
+                .withUpdateDate(UPDATE_DATE);
+
+        final CallbackContext callbackContext = CallbackContext.builder()
+                .isTrafficShifting(true)
+                .originVersionArn(STATE_MACHINE_VERSION_1_ARN)
+                .originVersionWeight(90)
+                .targetVersionArn(STATE_MACHINE_VERSION_2_ARN)
+                .targetVersionWeight(10)
+                .lastShiftedTime(Instant.now().minusSeconds(60))
+                .consecutiveHealthyEvaluations(1)
+                .build();
+
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineAliasRequest), any(Function.class))).thenReturn(describeStateMachineAliasResult);
+        when(proxy.injectCredentialsAndInvoke(eq(describeAlarmsRequest), any(Function.class))).thenReturn(describeAlarmsResult);
+        when(proxy.injectCredentialsAndInvoke(eq(updateStateMachineAliasRequest), any(Function.class))).thenReturn(updateStateMachineAliasResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> actual = handler.handleRequest(proxy, cfnRequest, callbackContext, logger);
+        assertThat(actual).isNotNull();
+        assertThat(actual.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(actual.getResourceModel()).isEqualTo(expectedResourceModel);
+        assertThat(actual.getCallbackDelaySeconds()).isEqualTo(Constants.GRADUAL_DEPLOYMENT_HANDLER_DELAY_SECONDS);
+        assertThat(actual.getCallbackContext()).isNotNull();
+        assertThat(actual.getCallbackContext().getOriginVersionWeight()).isEqualTo(80);
+        assertThat(actual.getCallbackContext().getTargetVersionWeight()).isEqualTo(20);
+        assertThat(actual.getCallbackContext().getConsecutiveHealthyEvaluations()).isEqualTo(0);
+        assertThat(actual.getResourceModels()).isNull();
+        assertThat(actual.getMessage()).isNull();
+        assertThat(actual.getErrorCode()).isNull();
+    }
+
+    @Test
+    public void testHandleLinearDeployment_whenHealthyEvaluationsReachedAndMinimumIntervalHasNotPassed_thenDoesNothingAndReturnsInProgress() {
+        final DeploymentPreference desiredDeploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        desiredDeploymentPreference.setAlarms(new HashSet<>(Collections.singleton("alarm name")));
+        desiredDeploymentPreference.setHealthyEvaluationsToShift(2);
+        desiredDeploymentPreference.setMinimumInterval(1);
+
+        cfnRequest = ResourceHandlerRequest.<ResourceModel>builder()
+                .region(REGION)
+                .awsAccountId(AWS_ACCOUNT_ID)
+                .desiredResourceState(ResourceModel.builder()
+                        .arn(STATE_MACHINE_ALIAS_ARN)
+                        .name(ALIAS_NAME)
+                        .description(DESCRIPTION)
+                        .deploymentPreference(desiredDeploymentPreference)
+                        .build())
+                .build();
+
+        final ResourceModel expectedResourceModel = ResourceModel.builder()
+                .arn(STATE_MACHINE_ALIAS_ARN)
+                .description(DESCRIPTION)
+                .deploymentPreference(desiredDeploymentPreference)
+                .build();
+
+        final DescribeStateMachineAliasRequest describeStateMachineAliasRequest = new DescribeStateMachineAliasRequest()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN);
+
+        final DescribeStateMachineAliasResult describeStateMachineAliasResult = new DescribeStateMachineAliasResult()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN)
+                .withRoutingConfiguration(getVersionRoutingConfigSdk(STATE_MACHINE_VERSION_1_ARN, 90, STATE_MACHINE_VERSION_2_ARN, 10));
+
+        final DescribeAlarmsRequest describeAlarmsRequest = new DescribeAlarmsRequest()
+                .withAlarmNames(new HashSet<>(Collections.singleton("alarm name")))
+                .withAlarmTypes(ALARM_TYPES);
+
+        final DescribeAlarmsResult describeAlarmsResult = new DescribeAlarmsResult()
+                .withMetricAlarms(new MetricAlarm().withAlarmName("alarm name").withStateValue(StateValue.OK));
+
+        final CallbackContext callbackContext = CallbackContext.builder()
+                .isTrafficShifting(true)
+                .originVersionArn(STATE_MACHINE_VERSION_1_ARN)
+                .originVersionWeight(90)
+                .targetVersionArn(STATE_MACHINE_VERSION_2_ARN)
+                .targetVersionWeight(10)
+                .lastShiftedTime(Instant.now())
+                .consecutiveHealthyEvaluations(1)
+                .build();
+
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineAliasRequest), any(Function.class))).thenReturn(describeStateMachineAliasResult);
+        when(proxy.injectCredentialsAndInvoke(eq(describeAlarmsRequest), any(Function.class))).thenReturn(describeAlarmsResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> actual = handler.handleRequest(proxy, cfnRequest, callbackContext, logger);
+        assertThat(actual).isNotNull();
+        assertThat(actual.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(actual.getResourceModel()).isEqualTo(expectedResourceModel);
+        assertThat(actual.getCallbackDelaySeconds()).isEqualTo(Constants.GRADUAL_DEPLOYMENT_HANDLER_DELAY_SECONDS);
+        assertThat(actual.getCallbackContext()).isNotNull();
+        assertThat(actual.getCallbackContext().getOriginVersionWeight()).isEqualTo(90);
+        assertThat(actual.getCallbackContext().getTargetVersionWeight()).isEqualTo(10);
+        assertThat(actual.getCallbackContext().getConsecutiveHealthyEvaluations()).isEqualTo(2);
+        assertThat(actual.getResourceModels()).isNull();
+        assertThat(actual.getMessage()).isNull();
+        assertThat(actual.getErrorCode()).isNull();
+    }
+
+    @Test
+    public void testHandleLinearDeployment_whenAlarmHasInsufficientData_thenResetsHealthyEvaluationsAndDoesNotShiftEarly() {
+        final DeploymentPreference desiredDeploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        desiredDeploymentPreference.setAlarms(new HashSet<>(Arrays.asList("alarm name", "insufficient data alarm")));
+        desiredDeploymentPreference.setHealthyEvaluationsToShift(2);
+        desiredDeploymentPreference.setMinimumInterval(1);
+
+        cfnRequest = ResourceHandlerRequest.<ResourceModel>builder()
+                .region(REGION)
+                .awsAccountId(AWS_ACCOUNT_ID)
+                .desiredResourceState(ResourceModel.builder()
+                        .arn(STATE_MACHINE_ALIAS_ARN)
+                        .name(ALIAS_NAME)
+                        .description(DESCRIPTION)
+                        .deploymentPreference(desiredDeploymentPreference)
+                        .build())
+                .build();
+
+        final DescribeStateMachineAliasRequest describeStateMachineAliasRequest = new DescribeStateMachineAliasRequest()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN);
+
+        final DescribeStateMachineAliasResult describeStateMachineAliasResult = new DescribeStateMachineAliasResult()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN)
+                .withRoutingConfiguration(getVersionRoutingConfigSdk(STATE_MACHINE_VERSION_1_ARN, 90, STATE_MACHINE_VERSION_2_ARN, 10));
+
+        final DescribeAlarmsRequest describeAlarmsRequest = new DescribeAlarmsRequest()
+                .withAlarmNames(new HashSet<>(Arrays.asList("alarm name", "insufficient data alarm")))
+                .withAlarmTypes(ALARM_TYPES);
+
+        final DescribeAlarmsResult describeAlarmsResult = new DescribeAlarmsResult()
+                .withMetricAlarms(
+                        new MetricAlarm().withAlarmName("alarm name").withStateValue(StateValue.OK),
+                        new MetricAlarm().withAlarmName("insufficient data alarm").withStateValue(StateValue.INSUFFICIENT_DATA)
+                );
+
+        final CallbackContext callbackContext = CallbackContext.builder()
+                .isTrafficShifting(true)
+                .originVersionArn(STATE_MACHINE_VERSION_1_ARN)
+                .originVersionWeight(90)
+                .targetVersionArn(STATE_MACHINE_VERSION_2_ARN)
+                .targetVersionWeight(10)
+                .lastShiftedTime(Instant.now().minusSeconds(60))
+                .consecutiveHealthyEvaluations(1)
+                .build();
+
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineAliasRequest), any(Function.class))).thenReturn(describeStateMachineAliasResult);
+        when(proxy.injectCredentialsAndInvoke(eq(describeAlarmsRequest), any(Function.class))).thenReturn(describeAlarmsResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> actual = handler.handleRequest(proxy, cfnRequest, callbackContext, logger);
+        assertThat(actual).isNotNull();
+        assertThat(actual.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(actual.getCallbackContext()).isNotNull();
+        assertThat(actual.getCallbackContext().getOriginVersionWeight()).isEqualTo(90);
+        assertThat(actual.getCallbackContext().getTargetVersionWeight()).isEqualTo(10);
+        assertThat(actual.getCallbackContext().getConsecutiveHealthyEvaluations()).isEqualTo(0);
+        assertThat(actual.getCallbackContext().getTrafficShiftCount()).isEqualTo(0);
+        assertThat(actual.getMessage()).isNull();
+        assertThat(actual.getErrorCode()).isNull();
+    }
+
+    @Test
+    public void testHandleLinearDeployment_whenAlarmIsNotReturned_thenResetsHealthyEvaluationsAndDoesNotShiftEarly() {
+        final DeploymentPreference desiredDeploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 10, 10);
+        desiredDeploymentPreference.setAlarms(new HashSet<>(Arrays.asList("alarm name", "missing alarm")));
+        desiredDeploymentPreference.setHealthyEvaluationsToShift(2);
+        desiredDeploymentPreference.setMinimumInterval(1);
+
+        cfnRequest = ResourceHandlerRequest.<ResourceModel>builder()
+                .region(REGION)
+                .awsAccountId(AWS_ACCOUNT_ID)
+                .desiredResourceState(ResourceModel.builder()
+                        .arn(STATE_MACHINE_ALIAS_ARN)
+                        .name(ALIAS_NAME)
+                        .description(DESCRIPTION)
+                        .deploymentPreference(desiredDeploymentPreference)
+                        .build())
+                .build();
+
+        final DescribeStateMachineAliasRequest describeStateMachineAliasRequest = new DescribeStateMachineAliasRequest()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN);
+
+        final DescribeStateMachineAliasResult describeStateMachineAliasResult = new DescribeStateMachineAliasResult()
+                .withStateMachineAliasArn(STATE_MACHINE_ALIAS_ARN)
+                .withRoutingConfiguration(getVersionRoutingConfigSdk(STATE_MACHINE_VERSION_1_ARN, 90, STATE_MACHINE_VERSION_2_ARN, 10));
+
+        final DescribeAlarmsRequest describeAlarmsRequest = new DescribeAlarmsRequest()
+                .withAlarmNames(new HashSet<>(Arrays.asList("alarm name", "missing alarm")))
+                .withAlarmTypes(ALARM_TYPES);
+
+        final DescribeAlarmsResult describeAlarmsResult = new DescribeAlarmsResult()
+                .withMetricAlarms(new MetricAlarm().withAlarmName("alarm name").withStateValue(StateValue.OK));
+
+        final CallbackContext callbackContext = CallbackContext.builder()
+                .isTrafficShifting(true)
+                .originVersionArn(STATE_MACHINE_VERSION_1_ARN)
+                .originVersionWeight(90)
+                .targetVersionArn(STATE_MACHINE_VERSION_2_ARN)
+                .targetVersionWeight(10)
+                .lastShiftedTime(Instant.now().minusSeconds(60))
+                .consecutiveHealthyEvaluations(1)
+                .build();
+
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineAliasRequest), any(Function.class))).thenReturn(describeStateMachineAliasResult);
+        when(proxy.injectCredentialsAndInvoke(eq(describeAlarmsRequest), any(Function.class))).thenReturn(describeAlarmsResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> actual = handler.handleRequest(proxy, cfnRequest, callbackContext, logger);
+        assertThat(actual).isNotNull();
+        assertThat(actual.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(actual.getCallbackContext()).isNotNull();
+        assertThat(actual.getCallbackContext().getOriginVersionWeight()).isEqualTo(90);
+        assertThat(actual.getCallbackContext().getTargetVersionWeight()).isEqualTo(10);
+        assertThat(actual.getCallbackContext().getConsecutiveHealthyEvaluations()).isEqualTo(0);
+        assertThat(actual.getCallbackContext().getTrafficShiftCount()).isEqualTo(0);
+        assertThat(actual.getMessage()).isNull();
+        assertThat(actual.getErrorCode()).isNull();
+    }
+
     @Test
     public void testHandleLinearDeployment_whenCloudWatchAlarmsAreNotOK_thenAbortsDeploymentAndReturnsFailed() {
         final DeploymentPreference desiredDeploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 1, 50);
@@ -667,9 +999,7 @@ public class UpdateHandlerTest extends HandlerTestBase {
 
         final ResourceModel expectedResourceModel = ResourceModel.builder()
                 .arn(STATE_MACHINE_ALIAS_ARN)
-                .name(ALIAS_NAME)
                 .description(DESCRIPTION)
-                .routingConfiguration(getVersionRoutingConfigCfn(STATE_MACHINE_VERSION_1_ARN, 90, STATE_MACHINE_VERSION_2_ARN, 10))
                 .deploymentPreference(desiredDeploymentPreference)
                 .build();
 
@@ -764,9 +1094,7 @@ public class UpdateHandlerTest extends HandlerTestBase {
 
         final ResourceModel expectedResourceModel = ResourceModel.builder()
                 .arn(STATE_MACHINE_ALIAS_ARN)
-                .name(ALIAS_NAME)
                 .description(DESCRIPTION)
-                .routingConfiguration(getVersionRoutingConfigCfn(STATE_MACHINE_VERSION_1_ARN, 90, STATE_MACHINE_VERSION_2_ARN, 10))
                 .deploymentPreference(desiredDeploymentPreference)
                 .build();
 
@@ -881,6 +1209,8 @@ public class UpdateHandlerTest extends HandlerTestBase {
         assertThat(actual.getResourceModels()).isNull();
         assertThat(actual.getMessage()).isEqualTo("Aborting deployment. The following CloudWatch alarms are in an 'ALARM' state: [alarm name].");
         assertThat(actual.getErrorCode()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey, DEPLOYMENT_CANARY.loggingKey, ALARMS_MONITORED.loggingKey,
+                ALARM_CHECK_MILLIS.loggingKey, DEPLOYMENT_ABORTED.loggingKey, STABILIZATION_POLL_COUNT.loggingKey + ": 1");
     }
 
     @Test
@@ -986,5 +1316,69 @@ public class UpdateHandlerTest extends HandlerTestBase {
         assertThat(actual.getResourceModels()).isNull();
         assertThat(actual.getMessage()).isNull();
         assertThat(actual.getErrorCode()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, DEPLOYMENT_ROLLBACK.loggingKey);
+    }
+
+    @Test
+    public void testHandleLinearDeployment_callbackPayloadsOnlyCarryWhatTheNextShiftNeeds() throws Exception {
+        final Serializer serializer = new Serializer();
+        final AmazonWebServicesClientProxy inMemoryProxy = InMemoryServices.newProxy();
+
+        try (InMemoryServices services = InMemoryServices.install(new FakeServiceBehavior())) {
+            services.getSfnClient().addVersion(STATE_MACHINE_VERSION_1_ARN);
+            services.getSfnClient().addVersion(STATE_MACHINE_VERSION_2_ARN);
+
+            final ResourceModel previousModel = new CreateHandler().handleRequest(inMemoryProxy, ResourceHandlerRequest.<ResourceModel>builder()
+                    .desiredResourceState(ResourceModel.builder()
+                            .name(ALIAS_NAME)
+                            .description(DESCRIPTION)
+                            .routingConfiguration(getVersionRoutingConfigCfn(STATE_MACHINE_VERSION_1_ARN))
+                            .build())
+                    .build(), null, logger).getResourceModel();
+            final DeploymentPreference deploymentPreference = getLinearDeploymentPreference(STATE_MACHINE_VERSION_2_ARN, 1, 25);
+
+            ResourceModel desiredModel = ResourceModel.builder()
+                    .arn(previousModel.getArn())
+                    .name(ALIAS_NAME)
+                    .description(DESCRIPTION)
+                    .deploymentPreference(deploymentPreference)
+                    .build();
+            CallbackContext callbackContext = null;
+            ProgressEvent<ResourceModel, CallbackContext> event;
+            final List<Integer> callbackModelBytes = new ArrayList<>();
+            while (true) {
+                final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                        .desiredResourceState(desiredModel)
+                        .previousResourceState(previousModel)
+                        .build();
+                event = handler.handleRequest(inMemoryProxy, request, callbackContext, logger);
+                if (event.getStatus() != OperationStatus.IN_PROGRESS) {
+                    break;
+                }
+
+                callbackModelBytes.add(serializer.serialize(event.getResourceModel()).length());
+                assertThat(event.getResourceModel().getName()).isNull();
+                assertThat(event.getResourceModel().getRoutingConfiguration()).isNull();
+
+                // CloudFormation invokes the handler again with the model and context of the in-progress event
+                desiredModel = event.getResourceModel();
+                callbackContext = event.getCallbackContext();
+                callbackContext.setLastShiftedTime(callbackContext.getLastShiftedTime().minusSeconds(60));
+            }
+
+            assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+            assertThat(event.getResourceModel()).isEqualTo(ResourceModel.builder()
+                    .arn(previousModel.getArn())
+                    .name(ALIAS_NAME)
+                    .description(DESCRIPTION)
+                    .routingConfiguration(getVersionRoutingConfigCfn(STATE_MACHINE_VERSION_2_ARN))
+                    .deploymentPreference(deploymentPreference)
+                    .build());
+
+            // Shifting 25% at a time takes three callbacks, whose models stay the same size as traffic shifts
+            assertThat(callbackModelBytes).hasSize(3);
+            assertThat(callbackModelBytes).containsOnly(callbackModelBytes.get(0));
+            assertThat(callbackModelBytes.get(0)).isLessThan(serializer.serialize(event.getResourceModel()).length());
+        }
     }
 }
@@ -7,6 +7,8 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import software.amazon.cloudformation.proxy.StdCallbackContext;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,4 +17,13 @@ import software.amazon.cloudformation.proxy.StdCallbackContext;
 public class CallbackContext extends StdCallbackContext {
     @Builder.Default
     private boolean deletionStarted = false;
+    @Builder.Default
+    private boolean versionPublished = false;
+    // Versions that are still to be deleted by the retention policy, null until they have been determined
+    private List<String> versionArnsToPrune;
+    @Builder.Default
+    private int pruningThrottleCount = 0;
+    // Callbacks made after the version was published, reported in the metrics of the operation
+    @Builder.Default
+    private int stabilizationPollCount = 0;
 }
@@ -11,7 +11,18 @@ import com.amazonaws.services.stepfunctions.AWSStepFunctionsClientBuilder;
 
 public class ClientBuilder {
 
+  // Set by tests to run the handlers against an in-memory implementation of the service
+  private static volatile AWSStepFunctions clientOverride;
+
+  static void setClientOverride(final AWSStepFunctions client) {
+    clientOverride = client;
+  }
+
   public static AWSStepFunctions getClient() {
+    if (clientOverride != null) {
+      return clientOverride;
+    }
+
     ClientConfiguration clientConfiguration = new ClientConfiguration()
             .withRetryPolicy(getRetryPolicy());
 
@@ -14,4 +14,21 @@ public class Constants {
 	public static final String STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE = "StateMachineDoesNotExist";
 	public static final String STATE_MACHINE_ALREADY_EXISTS = "StateMachineAlreadyExists";
     public static final String STATE_MACHINE_INITIAL_REVISION_ID = "INITIAL";
+    public static final int MAX_VERSION_PRUNING_PARALLELISM = 4;
+    public static final int MAX_VERSIONS_PRUNED_PER_INVOCATION = 100;
+    public static final int MAX_VERSION_PRUNING_THROTTLE_RETRIES = 8;
+    public static final int VERSION_PRUNING_BASE_BACKOFF_SECONDS = 2;
+    public static final int VERSION_PRUNING_MAX_BACKOFF_SECONDS = 60;
+    public static final String TRACE_EXPORTER_ENVIRONMENT_VARIABLE = "TRACE_EXPORTER";
+    public static final String TRACE_FILE_ENVIRONMENT_VARIABLE = "TRACE_FILE";
+    public static final String DEFAULT_TRACE_FILE = "/tmp/traces.jsonl";
+    public static final String TRACE_LOGGING_PREFIX = "TRACE";
+    public static final int MAX_TRACE_SPANS = 64;
+    public static final String LIST_PAGE_COALESCING_ENABLED_ENVIRONMENT_VARIABLE = "LIST_PAGE_COALESCING_ENABLED";
+    public static final int LIST_MAX_PAGE_SIZE = 1000;
+    public static final int LIST_COALESCING_MAX_ITEMS = 5000;
+    public static final long LIST_COALESCING_TIME_BUDGET_MILLIS = 20 * 1000;
+    public static final String LOG_LEVEL_ENVIRONMENT_VARIABLE = "LOG_LEVEL";
+    public static final int LOG_SAMPLE_INTERVAL = 10;
+    public static final String METRICS_LOGGING_PREFIX = "METRICS";
 }
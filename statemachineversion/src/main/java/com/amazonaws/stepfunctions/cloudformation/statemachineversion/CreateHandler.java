@@ -15,27 +15,52 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class CreateHandler extends ResourceHandler {
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachineVersion CreateHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "CreateHandler");
+        handlerLogger.info("StateMachineVersion CreateHandler invoked");
 
         final ResourceModel model = request.getDesiredResourceState();
+        final CallbackContext currentContext = callbackContext == null ?
+                CallbackContext.builder().build() :
+                callbackContext;
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setMetricsFromResourceModel(model);
 
         try {
             final AWSStepFunctions sfnClient = ClientBuilder.getClient();
 
+            if (currentContext.isVersionPublished()) {
+                currentContext.setStabilizationPollCount(currentContext.getStabilizationPollCount() + 1);
+                metricsRecorder.setStabilizationPollCount(currentContext.getStabilizationPollCount());
+
+                final ProgressEvent<ResourceModel, CallbackContext> progressEvent;
+                try (Tracing.Span span = Tracing.span(Tracing.Phase.PRUNE_VERSIONS)) {
+                    progressEvent = pruneVersions(proxy, sfnClient, model, currentContext, handlerLogger, metricsRecorder);
+                }
+                metricsRecorder.setOperationSuccessful(true);
+                return progressEvent;
+            }
+
             // Existence check
-            if (doesVersionAlreadyExist(sfnClient, proxy, model.getStateMachineArn())) {
-                throw getStateMachineAlreadyExistException();
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.EXISTENCE_CHECK)) {
+                if (doesVersionAlreadyExist(sfnClient, proxy, model, metricsRecorder)) {
+                    metricsRecorder.setVersionAlreadyExists(true);
+                    throw getStateMachineAlreadyExistException();
+                }
             }
 
             final PublishStateMachineVersionRequest publishStateMachineVersionRequest = new PublishStateMachineVersionRequest();
@@ -43,27 +68,133 @@ public class CreateHandler extends ResourceHandler {
             publishStateMachineVersionRequest.setRevisionId(model.getStateMachineRevisionId());
             publishStateMachineVersionRequest.setDescription(model.getDescription());
 
-            final PublishStateMachineVersionResult publishStateMachineVersionResult = proxy.injectCredentialsAndInvoke(
-                    publishStateMachineVersionRequest, sfnClient::publishStateMachineVersion
-            );
+            final PublishStateMachineVersionResult publishStateMachineVersionResult;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.CREATE)) {
+                publishStateMachineVersionResult = proxy.injectCredentialsAndInvoke(
+                        publishStateMachineVersionRequest, sfnClient::publishStateMachineVersion
+                );
+            }
 
             model.setArn(publishStateMachineVersionResult.getStateMachineVersionArn());
 
+            metricsRecorder.setOperationSuccessful(true);
+
+            if (model.getRetentionPolicy() == null) {
+                return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                        .resourceModel(model)
+                        .status(OperationStatus.SUCCESS)
+                        .build();
+            }
+
+            // Report the published version before pruning so that it is tracked even if pruning fails
+            currentContext.setVersionPublished(true);
+
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                    .callbackContext(currentContext)
                     .resourceModel(model)
-                    .status(OperationStatus.SUCCESS)
+                    .status(OperationStatus.IN_PROGRESS)
                     .build();
         } catch (Exception e) {
-            logger.log("ERROR Creating StateMachineVersion, caused by " + e);
+            handlerLogger.error("Error creating StateMachineVersion", e);
             return handleDefaultError(e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
+        }
+    }
+
+    // Deletes a bounded batch of the versions that are no longer retained by the retention policy per invocation.
+    // Throttled deletions, and throttled calls while determining the versions to delete, are retried in a later
+    // invocation after an exponential backoff. The version has already been published, so pruning is best effort: once
+    // the retries are spent, or on any other error, the remaining versions are kept and the version is reported created.
+    private ProgressEvent<ResourceModel, CallbackContext> pruneVersions(final AmazonWebServicesClientProxy proxy,
+                                                                        final AWSStepFunctions sfnClient,
+                                                                        final ResourceModel model,
+                                                                        final CallbackContext currentContext,
+                                                                        final HandlerLogger handlerLogger,
+                                                                        final MetricsRecorder metricsRecorder) {
+        try {
+            if (currentContext.getVersionArnsToPrune() == null) {
+                try {
+                    currentContext.setVersionArnsToPrune(VersionRetentionHelper.getVersionArnsToPrune(
+                            proxy, sfnClient, model.getStateMachineArn(), model.getArn(), model.getRetentionPolicy()
+                    ));
+                } catch (final AmazonServiceException e) {
+                    if (!Constants.THROTTLING_ERROR_CODE.equals(e.getErrorCode())) {
+                        throw e;
+                    }
+                    handlerLogger.info("StateMachineVersion listing the versions to prune was throttled");
+                    return backOffPruning(model, currentContext, handlerLogger, metricsRecorder);
+                }
+            }
+
+            final List<String> pendingVersionArns = currentContext.getVersionArnsToPrune();
+            final int batchSize = Math.min(Constants.MAX_VERSIONS_PRUNED_PER_INVOCATION, pendingVersionArns.size());
+            final List<String> throttledVersionArns = VersionRetentionHelper.deleteVersions(
+                    proxy, sfnClient, new ArrayList<>(pendingVersionArns.subList(0, batchSize))
+            );
+
+            final List<String> remainingVersionArns = new ArrayList<>(throttledVersionArns);
+            remainingVersionArns.addAll(pendingVersionArns.subList(batchSize, pendingVersionArns.size()));
+            currentContext.setVersionArnsToPrune(remainingVersionArns);
+            metricsRecorder.addVersionsPruned(batchSize - throttledVersionArns.size());
+
+            handlerLogger.info(() -> "StateMachineVersion pruned " + (batchSize - throttledVersionArns.size()) + " versions, "
+                    + remainingVersionArns.size() + " remaining");
+
+            if (remainingVersionArns.isEmpty()) {
+                return getPrunedEvent(model);
+            }
+
+            if (!throttledVersionArns.isEmpty()) {
+                return backOffPruning(model, currentContext, handlerLogger, metricsRecorder);
+            }
+
+            currentContext.setPruningThrottleCount(0);
+            return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                    .callbackContext(currentContext)
+                    .resourceModel(model)
+                    .status(OperationStatus.IN_PROGRESS)
+                    .build();
+        } catch (final RuntimeException e) {
+            metricsRecorder.setVersionPruningFailed(true);
+            handlerLogger.warn(() -> "StateMachineVersion pruning failed, the remaining versions are kept", e);
+            return getPrunedEvent(model);
+        }
+    }
+
+    // Counts a throttled pruning attempt and calls back after a backoff, or stops pruning once the retries are spent
+    private ProgressEvent<ResourceModel, CallbackContext> backOffPruning(final ResourceModel model,
+                                                                         final CallbackContext currentContext,
+                                                                         final HandlerLogger handlerLogger,
+                                                                         final MetricsRecorder metricsRecorder) {
+        final int pruningThrottleCount = currentContext.getPruningThrottleCount() + 1;
+        if (pruningThrottleCount > Constants.MAX_VERSION_PRUNING_THROTTLE_RETRIES) {
+            metricsRecorder.setVersionPruningThrottled(true);
+            handlerLogger.info("StateMachineVersion pruning was throttled too often, the remaining versions are kept");
+            return getPrunedEvent(model);
         }
+        currentContext.setPruningThrottleCount(pruningThrottleCount);
+        return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                .callbackContext(currentContext)
+                .callbackDelaySeconds(VersionRetentionHelper.getBackoffDelaySeconds(pruningThrottleCount))
+                .resourceModel(model)
+                .status(OperationStatus.IN_PROGRESS)
+                .build();
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> getPrunedEvent(final ResourceModel model) {
+        return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                .resourceModel(model)
+                .status(OperationStatus.SUCCESS)
+                .build();
     }
 
     private ListStateMachineVersionsResult listLatestVersion(final AWSStepFunctions sfnClient, final AmazonWebServicesClientProxy proxy,
-                                                             final String stateMachineArn) {
+                                                             final String stateMachineArn, final MetricsRecorder metricsRecorder) {
         final ListStateMachineVersionsRequest listStateMachineVersionsRequest = new ListStateMachineVersionsRequest();
         listStateMachineVersionsRequest.setStateMachineArn(stateMachineArn);
         listStateMachineVersionsRequest.setMaxResults(1); // Limit result to the latest version
+        metricsRecorder.incrementExistenceCheckCallCount();
         return proxy.injectCredentialsAndInvoke(listStateMachineVersionsRequest, sfnClient::listStateMachineVersions);
     }
 
@@ -76,8 +207,8 @@ public class CreateHandler extends ResourceHandler {
     }
 
     private Optional<String> getLatestVersionArn(final AWSStepFunctions sfnClient,  final AmazonWebServicesClientProxy proxy,
-                                                 final String stateMachineArn) {
-        final ListStateMachineVersionsResult listStateMachineVersionsResult = listLatestVersion(sfnClient, proxy, stateMachineArn);
+                                                 final String stateMachineArn, final MetricsRecorder metricsRecorder) {
+        final ListStateMachineVersionsResult listStateMachineVersionsResult = listLatestVersion(sfnClient, proxy, stateMachineArn, metricsRecorder);
         final Optional<StateMachineVersionListItem> stateMachineVersionListItem = extractVersionListItem(listStateMachineVersionsResult);
         if (stateMachineVersionListItem.isPresent()) {
             final String stateMachineVersionArn = stateMachineVersionListItem.get().getStateMachineVersionArn();
@@ -87,33 +218,65 @@ public class CreateHandler extends ResourceHandler {
     }
 
     private DescribeStateMachineResult describeStateMachine(final AWSStepFunctions sfnClient,  final AmazonWebServicesClientProxy proxy,
-                                                            final String stateMachineArn) {
+                                                            final String stateMachineArn, final MetricsRecorder metricsRecorder) {
         final DescribeStateMachineRequest describeStateMachineVersionRequest = new DescribeStateMachineRequest();
         describeStateMachineVersionRequest.setStateMachineArn(stateMachineArn);
+        metricsRecorder.incrementExistenceCheckCallCount();
         return proxy.injectCredentialsAndInvoke(describeStateMachineVersionRequest, sfnClient::describeStateMachine);
     }
 
     private String getStateMachineRevision(final AWSStepFunctions sfnClient,  final AmazonWebServicesClientProxy proxy,
-                                           final String stateMachineArn) {
-        final DescribeStateMachineResult describeStateMachineResult = describeStateMachine(sfnClient, proxy, stateMachineArn);
+                                           final String stateMachineArn, final MetricsRecorder metricsRecorder) {
+        final DescribeStateMachineResult describeStateMachineResult = describeStateMachine(sfnClient, proxy, stateMachineArn, metricsRecorder);
         return (describeStateMachineResult.getRevisionId() != null) ? describeStateMachineResult.getRevisionId() : Constants.STATE_MACHINE_INITIAL_REVISION_ID;
     }
 
     private boolean isCurrentRevisionPinnedByVersion(final AWSStepFunctions sfnClient, final AmazonWebServicesClientProxy proxy,
-                                                     final String stateMachineArn, final String latestStateMachineVersionArn) {
-        final String currentRevision = getStateMachineRevision(sfnClient, proxy, stateMachineArn);
-        final String latestPublishedRevision = getStateMachineRevision(sfnClient, proxy, latestStateMachineVersionArn);
+                                                     final String stateMachineArn, final String latestStateMachineVersionArn,
+                                                     final MetricsRecorder metricsRecorder) {
+        // The two describe calls are independent, so the state machine is described in the background
+        // while the latest version is described on the handler thread. The background call is not traced on its own,
+        // the existence check span covers it.
+        final CompletableFuture<String> currentRevisionFuture = CompletableFuture.supplyAsync(
+                () -> getStateMachineRevision(sfnClient, proxy, stateMachineArn, metricsRecorder)
+        );
+        final String latestPublishedRevision = getStateMachineRevision(sfnClient, proxy, latestStateMachineVersionArn, metricsRecorder);
+        final String currentRevision = joinUnwrapped(currentRevisionFuture);
         return currentRevision.equals(latestPublishedRevision);
     }
 
-    // This is a four-step existence check that determines whether the current state machine revision is pinned by a version.
+    private boolean isRevisionPinnedByVersion(final AWSStepFunctions sfnClient, final AmazonWebServicesClientProxy proxy,
+                                              final String revisionId, final String latestStateMachineVersionArn,
+                                              final MetricsRecorder metricsRecorder) {
+        final String latestPublishedRevision = getStateMachineRevision(sfnClient, proxy, latestStateMachineVersionArn, metricsRecorder);
+        return revisionId.equals(latestPublishedRevision);
+    }
+
+    private static <T> T joinUnwrapped(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Surface the service exception itself so that handleDefaultError can map it to the right error code
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // This is an existence check that determines whether the requested state machine revision is pinned by a version.
     // Steps:
     //  1. List the state machine's versions to get the latest version
     //  2. Describe the latest version to get its revision
-    //  3. Describe the state machine to get its current revision
-    //  4. Return true if the latest version's revision is the same as the state machine's current revision
-    private boolean doesVersionAlreadyExist(final AWSStepFunctions sfnClient,  final AmazonWebServicesClientProxy proxy, final String stateMachineArn) {
-        final Optional<String> latestVersionArn = getLatestVersionArn(sfnClient, proxy, stateMachineArn);
-        return latestVersionArn.filter(stateMachineVersionArn -> isCurrentRevisionPinnedByVersion(sfnClient, proxy, stateMachineArn, stateMachineVersionArn)).isPresent();
+    //  3. Use the revision ID from the model if present, otherwise describe the state machine (concurrently with step 2)
+    //     to get its current revision
+    //  4. Return true if the latest version's revision is the same as the requested revision
+    private boolean doesVersionAlreadyExist(final AWSStepFunctions sfnClient,  final AmazonWebServicesClientProxy proxy, final ResourceModel model,
+                                            final MetricsRecorder metricsRecorder) {
+        final Optional<String> latestVersionArn = getLatestVersionArn(sfnClient, proxy, model.getStateMachineArn(), metricsRecorder);
+        if (model.getStateMachineRevisionId() != null) {
+            return latestVersionArn.filter(stateMachineVersionArn -> isRevisionPinnedByVersion(sfnClient, proxy, model.getStateMachineRevisionId(), stateMachineVersionArn, metricsRecorder)).isPresent();
+        }
+        return latestVersionArn.filter(stateMachineVersionArn -> isCurrentRevisionPinnedByVersion(sfnClient, proxy, model.getStateMachineArn(), stateMachineVersionArn, metricsRecorder)).isPresent();
     }
 }
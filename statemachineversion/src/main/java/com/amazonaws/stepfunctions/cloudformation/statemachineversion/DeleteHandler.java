@@ -12,13 +12,16 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 public class DeleteHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachineVersion DeleteHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "DeleteHandler");
+        handlerLogger.info("StateMachineVersion DeleteHandler invoked");
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.DELETE);
 
         final ResourceModel model = request.getDesiredResourceState();
 
@@ -30,20 +33,29 @@ public class DeleteHandler extends ResourceHandler {
             // Existence check
             final DescribeStateMachineRequest describeStateMachineVersionRequest = new DescribeStateMachineRequest();
             describeStateMachineVersionRequest.setStateMachineArn(model.getArn());
-            proxy.injectCredentialsAndInvoke(describeStateMachineVersionRequest, sfnClient::describeStateMachine);
+            metricsRecorder.incrementExistenceCheckCallCount();
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.EXISTENCE_CHECK)) {
+                proxy.injectCredentialsAndInvoke(describeStateMachineVersionRequest, sfnClient::describeStateMachine);
+            }
 
             // Delete version
             final DeleteStateMachineVersionRequest deleteStateMachineVersionRequest = new DeleteStateMachineVersionRequest();
             deleteStateMachineVersionRequest.setStateMachineVersionArn(model.getArn());
-            proxy.injectCredentialsAndInvoke(deleteStateMachineVersionRequest, sfnClient::deleteStateMachineVersion);
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.DELETE)) {
+                proxy.injectCredentialsAndInvoke(deleteStateMachineVersionRequest, sfnClient::deleteStateMachineVersion);
+            }
+
+            metricsRecorder.setOperationSuccessful(true);
 
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
                     .status(OperationStatus.SUCCESS)
                     .build();
         } catch (Exception e) {
-            logger.log("ERROR Deleting StateMachineVersion, caused by " + e);
+            handlerLogger.error("Error deleting StateMachineVersion", e);
 
             return handleDefaultError(e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 }
@@ -17,48 +17,67 @@ import java.util.List;
 public class ListHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachineVersion ListHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "ListHandler");
+        handlerLogger.info("StateMachineVersion ListHandler invoked");
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.LIST);
 
         final List<ResourceModel> models = new ArrayList<>();
 
         try {
             final AWSStepFunctions sfnClient = ClientBuilder.getClient();
 
-            final ListStateMachineVersionsRequest listStateMachineVersionsRequest = new ListStateMachineVersionsRequest();
-            listStateMachineVersionsRequest.setStateMachineArn(request.getDesiredResourceState().getStateMachineArn());
-            listStateMachineVersionsRequest.setNextToken(request.getNextToken());
-
-            final ListStateMachineVersionsResult listStateMachineVersionsResult = proxy.injectCredentialsAndInvoke(
-                    listStateMachineVersionsRequest,
-                    sfnClient::listStateMachineVersions
-            );
-
-            listStateMachineVersionsResult.getStateMachineVersions()
-                    .stream()
-                    .map(this::buildResourceModelFromStateMachineVersionListItem)
-                    .forEach(models::add);
+            final String stateMachineArn = request.getDesiredResourceState().getStateMachineArn();
+            final String nextTokenToReturn = PageCoalescer.fetchPages(request.getNextToken(), models, Constants.LIST_COALESCING_MAX_ITEMS,
+                    (pageNextToken, maxResults) -> listPage(proxy, sfnClient, stateMachineArn, pageNextToken, maxResults, models));
 
             final ProgressEvent<ResourceModel, CallbackContext> progressEvent =
                     ProgressEvent.<ResourceModel, CallbackContext>builder()
                             .resourceModels(models)
-                            .nextToken(listStateMachineVersionsResult.getNextToken())
+                            .nextToken(nextTokenToReturn)
                             .status(OperationStatus.SUCCESS)
                             .build();
 
+            metricsRecorder.setOperationSuccessful(true);
             return progressEvent;
         } catch (final Exception e) {
-            logger.log("ERROR Listing StateMachineVersions, caused by " + e);
+            handlerLogger.error("Error listing StateMachineVersions", e);
 
             return handleDefaultError(e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 
+    private String listPage(final AmazonWebServicesClientProxy proxy, final AWSStepFunctions sfnClient, final String stateMachineArn,
+                            final String nextToken, final Integer maxResults, final List<ResourceModel> models) {
+        final ListStateMachineVersionsRequest listStateMachineVersionsRequest = new ListStateMachineVersionsRequest();
+        listStateMachineVersionsRequest.setStateMachineArn(stateMachineArn);
+        listStateMachineVersionsRequest.setNextToken(nextToken);
+        listStateMachineVersionsRequest.setMaxResults(maxResults);
+
+        final ListStateMachineVersionsResult listStateMachineVersionsResult;
+        try (Tracing.Span span = Tracing.span(Tracing.Phase.LIST)) {
+            listStateMachineVersionsResult = proxy.injectCredentialsAndInvoke(
+                    listStateMachineVersionsRequest,
+                    sfnClient::listStateMachineVersions
+            );
+        }
+
+        listStateMachineVersionsResult.getStateMachineVersions()
+                .stream()
+                .map(this::buildResourceModelFromStateMachineVersionListItem)
+                .forEach(models::add);
+
+        return listStateMachineVersionsResult.getNextToken();
+    }
+
     private ResourceModel buildResourceModelFromStateMachineVersionListItem(final StateMachineVersionListItem stateMachineVersionListItem) {
         return ResourceModel.builder()
                 .arn(stateMachineVersionListItem.getStateMachineVersionArn())
@@ -0,0 +1,27 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+/**
+ *  Enum to represent the logging keys used in the metrics string generated
+ *  by the MetricsRecorder class.
+ */
+public enum MetricsLoggingKeys {
+    OPERATION_TYPE("OperationType"),
+    OPERATION_STATUS("OperationStatus"),
+    OPERATION_SUCCESS("SUCCESS"),
+    OPERATION_FAILURE("FAILURE"),
+    EXISTENCE_CHECK_CALL_COUNT("ExistenceCheckCallCount"),
+    VERSIONS_PRUNED("VersionsPruned"),
+    STABILIZATION_POLL_COUNT("StabilizationPollCount"),
+    DESCRIPTION_PROVIDED("DescriptionProvided"),
+    REVISION_ID_PROVIDED("RevisionIdProvided"),
+    RETENTION_POLICY_PROVIDED("RetentionPolicyProvided"),
+    VERSION_ALREADY_EXISTS("VersionAlreadyExists"),
+    VERSION_PRUNING_THROTTLED("VersionPruningThrottled"),
+    VERSION_PRUNING_FAILED("VersionPruningFailed");
+
+    public final String loggingKey;
+
+    MetricsLoggingKeys(String loggingKey) {
+        this.loggingKey = loggingKey;
+    }
+}
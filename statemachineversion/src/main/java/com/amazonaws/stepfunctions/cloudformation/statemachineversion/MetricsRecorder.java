@@ -0,0 +1,193 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.DESCRIPTION_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_STATUS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_TYPE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.RETENTION_POLICY_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.REVISION_ID_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.STABILIZATION_POLL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.VERSIONS_PRUNED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.VERSION_ALREADY_EXISTS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.VERSION_PRUNING_FAILED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.VERSION_PRUNING_THROTTLED;
+
+/**
+ *  Class to encapsulate the logic behind tracking resource property usage and the calls made by an operation
+ *  Properties that are changed from their default values, and the counts that have been recorded, are included in
+ *  the string generated for metrics tracking.
+ *  Properties are stored as bits indexed by their MetricsLoggingKeys ordinal, as in the StateMachine resource. Counts
+ *  may be recorded from the workers of a handler, so recording is synchronized.
+ */
+public class MetricsRecorder {
+
+    // Counts listed as key-value pairs after the operation status, in the order they are listed in
+    private static final MetricsLoggingKeys[] VALUE_KEYS = {
+            EXISTENCE_CHECK_CALL_COUNT,
+            VERSIONS_PRUNED,
+            STABILIZATION_POLL_COUNT
+    };
+
+    // Properties listed after the counts, in the order they are listed in
+    private static final MetricsLoggingKeys[] LISTED_KEYS = {
+            DESCRIPTION_PROVIDED,
+            REVISION_ID_PROVIDED,
+            RETENTION_POLICY_PROVIDED,
+            VERSION_ALREADY_EXISTS,
+            VERSION_PRUNING_THROTTLED,
+            VERSION_PRUNING_FAILED
+    };
+
+    // The metrics string up to the operation status, by HandlerOperationType ordinal
+    private static final String[] OPERATION_TYPE_FRAGMENTS = new String[HandlerOperationType.values().length];
+    private static final String OPERATION_SUCCESS_FRAGMENT = OPERATION_SUCCESS.loggingKey + ", ";
+    private static final String OPERATION_FAILURE_FRAGMENT = OPERATION_FAILURE.loggingKey + ", ";
+    // A count's key followed by its separator, by MetricsLoggingKeys ordinal
+    private static final String[] VALUE_KEY_FRAGMENTS = new String[MetricsLoggingKeys.values().length];
+    // A listed property preceded by its separator, by MetricsLoggingKeys ordinal
+    private static final String[] SEPARATED_KEY_FRAGMENTS = new String[MetricsLoggingKeys.values().length];
+    private static final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    static {
+        if (MetricsLoggingKeys.values().length > Long.SIZE) {
+            throw new IllegalStateException("MetricsRecorder stores at most " + Long.SIZE + " properties");
+        }
+        for (final HandlerOperationType operationType : HandlerOperationType.values()) {
+            OPERATION_TYPE_FRAGMENTS[operationType.ordinal()] = String.format("%s - %s: %s, %s: ",
+                    Constants.METRICS_LOGGING_PREFIX, OPERATION_TYPE.loggingKey, operationType, OPERATION_STATUS.loggingKey);
+        }
+        for (final MetricsLoggingKeys key : MetricsLoggingKeys.values()) {
+            VALUE_KEY_FRAGMENTS[key.ordinal()] = key.loggingKey + ": ";
+            SEPARATED_KEY_FRAGMENTS[key.ordinal()] = ", " + key.loggingKey;
+        }
+    }
+
+    // CloudFormation operation type, the status and every other property are bits of the flags, as is whether a
+    // count has been recorded
+    private final HandlerOperationType operationType;
+    private final long[] values = new long[MetricsLoggingKeys.values().length];
+    private long flags;
+
+    public MetricsRecorder(HandlerOperationType operationType) {
+        this.operationType = operationType;
+    }
+
+    // CloudFormation operation status
+    public void setOperationSuccessful(final boolean value) {
+        set(OPERATION_SUCCESS, value);
+    }
+
+    // Calls made to determine whether the version exists
+    public void incrementExistenceCheckCallCount() {
+        add(EXISTENCE_CHECK_CALL_COUNT, 1);
+    }
+
+    // Versions deleted by the retention policy
+    public void addVersionsPruned(final long count) {
+        add(VERSIONS_PRUNED, count);
+    }
+
+    // Callbacks made after the version was published, until every version no longer retained has been pruned
+    public void setStabilizationPollCount(final long count) {
+        record(STABILIZATION_POLL_COUNT, count);
+    }
+
+    // Properties
+    public void setDescriptionProvided(final boolean value) {
+        set(DESCRIPTION_PROVIDED, value);
+    }
+
+    public void setRevisionIdProvided(final boolean value) {
+        set(REVISION_ID_PROVIDED, value);
+    }
+
+    public void setRetentionPolicyProvided(final boolean value) {
+        set(RETENTION_POLICY_PROVIDED, value);
+    }
+
+    // Failure causes
+    public void setVersionAlreadyExists(final boolean value) {
+        set(VERSION_ALREADY_EXISTS, value);
+    }
+
+    // Pruning outcomes that keep the remaining versions without failing the operation
+    public void setVersionPruningThrottled(final boolean value) {
+        set(VERSION_PRUNING_THROTTLED, value);
+    }
+
+    public void setVersionPruningFailed(final boolean value) {
+        set(VERSION_PRUNING_FAILED, value);
+    }
+
+    public void setMetricsFromResourceModel(final ResourceModel model) {
+        if (model.getDescription() != null) {
+            setDescriptionProvided(true);
+        }
+
+        if (model.getStateMachineRevisionId() != null) {
+            setRevisionIdProvided(true);
+        }
+
+        if (model.getRetentionPolicy() != null) {
+            setRetentionPolicyProvided(true);
+        }
+    }
+
+    public synchronized String generateMetricsString() {
+        final StringBuilder sb = builders.get();
+        sb.setLength(0);
+
+        // Prefix for identifying logging entries used for metrics, then the operation type and status
+        sb.append(OPERATION_TYPE_FRAGMENTS[operationType.ordinal()]);
+        sb.append(isSet(OPERATION_SUCCESS) ? OPERATION_SUCCESS_FRAGMENT : OPERATION_FAILURE_FRAGMENT);
+
+        // Recorded counts, each followed by a comma
+        for (final MetricsLoggingKeys key : VALUE_KEYS) {
+            if (isSet(key)) {
+                sb.append(VALUE_KEY_FRAGMENTS[key.ordinal()]).append(values[key.ordinal()]).append(", ");
+            }
+        }
+
+        // Listed metric keys, separated by commas
+        boolean isFirstKey = true;
+        for (final MetricsLoggingKeys key : LISTED_KEYS) {
+            if (isSet(key)) {
+                if (isFirstKey) {
+                    sb.append(key.loggingKey);
+                    isFirstKey = false;
+                } else {
+                    sb.append(SEPARATED_KEY_FRAGMENTS[key.ordinal()]);
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    synchronized boolean isSet(final MetricsLoggingKeys key) {
+        return (flags & (1L << key.ordinal())) != 0;
+    }
+
+    synchronized long getValue(final MetricsLoggingKeys key) {
+        return values[key.ordinal()];
+    }
+
+    private synchronized void set(final MetricsLoggingKeys key, final boolean value) {
+        if (value) {
+            flags |= 1L << key.ordinal();
+        } else {
+            flags &= ~(1L << key.ordinal());
+        }
+    }
+
+    private synchronized void add(final MetricsLoggingKeys key, final long delta) {
+        record(key, values[key.ordinal()] + delta);
+    }
+
+    private synchronized void record(final MetricsLoggingKeys key, final long value) {
+        values[key.ordinal()] = value;
+        flags |= 1L << key.ordinal();
+    }
+}
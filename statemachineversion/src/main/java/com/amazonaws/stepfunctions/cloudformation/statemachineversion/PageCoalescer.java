@@ -0,0 +1,62 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows NextToken across service pages within one ListHandler invocation, so that enumerating many resources takes
+ *   far fewer handler invocations. Pages are requested at the service's maximum page size, but never for more items
+ *   than are left in the item budget, and no further page is requested once the time budget is spent. Pages are
+ *   never split, so the NextToken of the last page fetched is the continuation token returned to CloudFormation.
+ * Coalescing is enabled by setting the LIST_PAGE_COALESCING_ENABLED environment variable to true, otherwise a
+ *   single page of the service's default size is fetched per invocation.
+ */
+public class PageCoalescer {
+
+    /**
+     * Fetches one page of a List API
+     */
+    @FunctionalInterface
+    public interface PageFetcher {
+        /**
+         * @param nextToken The token of the page to fetch, or null for the first page
+         * @param maxResults The maximum number of items to fetch, or null for the service's default
+         * @return The NextToken of the fetched page, whose items have been added to the handler's models
+         */
+        String fetchPage(String nextToken, Integer maxResults);
+    }
+
+    // Set by tests, read from the environment otherwise
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getenv(Constants.LIST_PAGE_COALESCING_ENABLED_ENVIRONMENT_VARIABLE));
+
+    private PageCoalescer() {
+    }
+
+    static void setEnabled(final boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    /**
+     * Fetches pages until the last page, the item budget or the time budget is reached
+     * @param nextToken The token the handler was invoked with
+     * @param models The handler's models, which the page fetcher adds the items of each page to
+     * @param maxItems The item budget of the invocation
+     * @param pageFetcher Fetches a single page
+     * @return The token to continue listing from, or null if every page has been fetched
+     */
+    public static String fetchPages(final String nextToken, final List<ResourceModel> models, final int maxItems,
+                                    final PageFetcher pageFetcher) {
+        if (!enabled) {
+            return pageFetcher.fetchPage(nextToken, null);
+        }
+
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Constants.LIST_COALESCING_TIME_BUDGET_MILLIS);
+        String pageNextToken = nextToken;
+        do {
+            pageNextToken = pageFetcher.fetchPage(pageNextToken, Math.min(Constants.LIST_MAX_PAGE_SIZE, maxItems - models.size()));
+        } while (pageNextToken != null && models.size() < maxItems && System.nanoTime() < deadlineNanos);
+
+        return pageNextToken;
+    }
+}
@@ -12,13 +12,16 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 public class ReadHandler extends ResourceHandler {
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    protected ProgressEvent<ResourceModel, CallbackContext> handleTracedRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        logger.log("INFO StateMachineVersion ReadHandler with clientRequestToken: " + request.getClientRequestToken());
+        final HandlerLogger handlerLogger = new HandlerLogger(logger, request, "ReadHandler");
+        handlerLogger.info("StateMachineVersion ReadHandler invoked");
+
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.READ);
 
         final ResourceModel model = request.getDesiredResourceState();
 
@@ -30,10 +33,13 @@ public class ReadHandler extends ResourceHandler {
             final DescribeStateMachineRequest describeStateMachineVersionRequest = new DescribeStateMachineRequest();
             describeStateMachineVersionRequest.setStateMachineArn(model.getArn());
 
-            final DescribeStateMachineResult describeStateMachineVersionResult = proxy.injectCredentialsAndInvoke(
-                    describeStateMachineVersionRequest,
-                    sfnClient::describeStateMachine
-            );
+            final DescribeStateMachineResult describeStateMachineVersionResult;
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.READ)) {
+                describeStateMachineVersionResult = proxy.injectCredentialsAndInvoke(
+                        describeStateMachineVersionRequest,
+                        sfnClient::describeStateMachine
+                );
+            }
 
             final ResourceModel updatedModel = new ResourceModel();
             updatedModel.setArn(describeStateMachineVersionResult.getStateMachineArn());
@@ -41,14 +47,18 @@ public class ReadHandler extends ResourceHandler {
             updatedModel.setStateMachineRevisionId(describeStateMachineVersionResult.getRevisionId() != null ? describeStateMachineVersionResult.getRevisionId() : Constants.STATE_MACHINE_INITIAL_REVISION_ID);
             updatedModel.setDescription(describeStateMachineVersionResult.getDescription());
 
+            metricsRecorder.setOperationSuccessful(true);
+
             return ProgressEvent.<ResourceModel, CallbackContext>builder()
                     .resourceModel(updatedModel)
                     .status(OperationStatus.SUCCESS)
                     .build();
 
         } catch (final Exception e) {
-            logger.log("ERROR Reading StateMachineVersion, caused by " + e);
+            handlerLogger.error("Error reading StateMachineVersion", e);
             return handleDefaultError(e);
+        } finally {
+            logger.log(metricsRecorder.generateMetricsString());
         }
     }
 }
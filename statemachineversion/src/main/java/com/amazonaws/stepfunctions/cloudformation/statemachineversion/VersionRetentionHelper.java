@@ -0,0 +1,220 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineVersionRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasResult;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesResult;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsResult;
+import com.amazonaws.services.stepfunctions.model.RoutingConfigurationListItem;
+import com.amazonaws.services.stepfunctions.model.StateMachineAliasListItem;
+import com.amazonaws.services.stepfunctions.model.StateMachineVersionListItem;
+import software.amazon.cloudformation.exceptions.TerminalException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  Helper class to apply a version retention policy to the versions of a state machine.
+ */
+public class VersionRetentionHelper {
+
+    // Shared across invocations so that deletions never exceed MAX_VERSION_PRUNING_PARALLELISM in flight
+    private static final ExecutorService executor = Executors.newFixedThreadPool(Constants.MAX_VERSION_PRUNING_PARALLELISM, runnable -> {
+        final Thread thread = new Thread(runnable, "version-pruning");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Determines which versions of the state machine are no longer retained by the retention policy. Every version of
+     * the state machine is considered, including versions owned by other StateMachineVersion resources
+     * @param proxy The proxy used to invoke Step Functions
+     * @param sfnClient The Step Functions client
+     * @param stateMachineArn The ARN of the state machine whose versions are evaluated
+     * @param publishedVersionArn The ARN of the version published by this resource, which is always retained
+     * @param retentionPolicy The retention policy of the version resource
+     * @return The ARNs of the versions to delete, newest first
+     */
+    public static List<String> getVersionArnsToPrune(final AmazonWebServicesClientProxy proxy,
+                                                     final AWSStepFunctions sfnClient,
+                                                     final String stateMachineArn,
+                                                     final String publishedVersionArn,
+                                                     final RetentionPolicy retentionPolicy) {
+        final List<String> versionArnsToPrune = new ArrayList<>();
+        if (retentionPolicy.getMaxVersionsToKeep() == null && retentionPolicy.getMaxAgeInDays() == null) {
+            return versionArnsToPrune;
+        }
+
+        final List<StateMachineVersionListItem> versions = listVersions(proxy, sfnClient, stateMachineArn);
+        versions.sort(Comparator.comparing(StateMachineVersionListItem::getCreationDate).reversed());
+
+        final Set<String> versionArnsReferencedByAliases = getVersionArnsReferencedByAliases(proxy, sfnClient, stateMachineArn);
+        final Instant retainedAfter = retentionPolicy.getMaxAgeInDays() != null ?
+                Instant.now().minus(Duration.ofDays(retentionPolicy.getMaxAgeInDays()))
+                :
+                null;
+
+        for (int i = 0; i < versions.size(); i++) {
+            final StateMachineVersionListItem version = versions.get(i);
+            final String versionArn = version.getStateMachineVersionArn();
+
+            final boolean isRetainedByCount = retentionPolicy.getMaxVersionsToKeep() != null && i < retentionPolicy.getMaxVersionsToKeep();
+            final boolean isRetainedByAge = retainedAfter != null && version.getCreationDate().toInstant().isAfter(retainedAfter);
+
+            if (isRetainedByCount || isRetainedByAge || versionArn.equals(publishedVersionArn) || versionArnsReferencedByAliases.contains(versionArn)) {
+                continue;
+            }
+            versionArnsToPrune.add(versionArn);
+        }
+
+        return versionArnsToPrune;
+    }
+
+    /**
+     * Deletes the given versions on the shared pruning pool, with at most MAX_VERSION_PRUNING_PARALLELISM deletions in flight
+     * @param proxy The proxy used to invoke Step Functions
+     * @param sfnClient The Step Functions client
+     * @param versionArns The ARNs of the versions to delete
+     * @return The ARNs of the versions that could not be deleted because the requests were throttled
+     */
+    public static List<String> deleteVersions(final AmazonWebServicesClientProxy proxy,
+                                              final AWSStepFunctions sfnClient,
+                                              final List<String> versionArns) {
+        final List<String> throttledVersionArns = new ArrayList<>();
+        if (versionArns.isEmpty()) {
+            return throttledVersionArns;
+        }
+
+        final List<Future<Boolean>> deletions = new ArrayList<>();
+        try {
+            for (final String versionArn : versionArns) {
+                deletions.add(executor.submit(() -> deleteVersion(proxy, sfnClient, versionArn)));
+            }
+
+            for (int i = 0; i < deletions.size(); i++) {
+                if (!deletions.get(i).get()) {
+                    throttledVersionArns.add(versionArns.get(i));
+                }
+            }
+        } catch (ExecutionException e) {
+            cancel(deletions);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new TerminalException(e.getCause());
+        } catch (InterruptedException e) {
+            cancel(deletions);
+            Thread.currentThread().interrupt();
+            throw new TerminalException(e);
+        }
+
+        return throttledVersionArns;
+    }
+
+    /**
+     * Computes the delay before the next pruning attempt after consecutive throttled attempts
+     * @param throttleCount The number of consecutive throttled attempts, starting at 1
+     * @return The callback delay in seconds
+     */
+    public static int getBackoffDelaySeconds(final int throttleCount) {
+        final long delay = (long) Constants.VERSION_PRUNING_BASE_BACKOFF_SECONDS << Math.min(throttleCount - 1, 30);
+        return (int) Math.min(delay, Constants.VERSION_PRUNING_MAX_BACKOFF_SECONDS);
+    }
+
+    /////////////////
+    /// Helpers
+    /////////////////
+
+    // Deletions that have not started are not attempted once the batch has failed
+    private static void cancel(final List<Future<Boolean>> deletions) {
+        for (final Future<Boolean> deletion : deletions) {
+            deletion.cancel(false);
+        }
+    }
+
+    // Returns false if the deletion was throttled and should be retried later
+    private static boolean deleteVersion(final AmazonWebServicesClientProxy proxy,
+                                         final AWSStepFunctions sfnClient,
+                                         final String versionArn) {
+        final DeleteStateMachineVersionRequest deleteStateMachineVersionRequest = new DeleteStateMachineVersionRequest();
+        deleteStateMachineVersionRequest.setStateMachineVersionArn(versionArn);
+        try {
+            proxy.injectCredentialsAndInvoke(deleteStateMachineVersionRequest, sfnClient::deleteStateMachineVersion);
+            return true;
+        } catch (AmazonServiceException e) {
+            if (Constants.THROTTLING_ERROR_CODE.equals(e.getErrorCode())) {
+                return false;
+            }
+            // The version has started being referenced by an alias since the candidates were determined, so it is retained
+            if (Constants.CONFLICT_EXCEPTION_ERROR_CODE.equals(e.getErrorCode())) {
+                return true;
+            }
+            throw e;
+        }
+    }
+
+    private static List<StateMachineVersionListItem> listVersions(final AmazonWebServicesClientProxy proxy,
+                                                                  final AWSStepFunctions sfnClient,
+                                                                  final String stateMachineArn) {
+        final List<StateMachineVersionListItem> versions = new ArrayList<>();
+        String nextToken = null;
+        do {
+            final ListStateMachineVersionsRequest listStateMachineVersionsRequest = new ListStateMachineVersionsRequest();
+            listStateMachineVersionsRequest.setStateMachineArn(stateMachineArn);
+            listStateMachineVersionsRequest.setNextToken(nextToken);
+
+            final ListStateMachineVersionsResult listStateMachineVersionsResult = proxy.injectCredentialsAndInvoke(
+                    listStateMachineVersionsRequest, sfnClient::listStateMachineVersions
+            );
+            versions.addAll(listStateMachineVersionsResult.getStateMachineVersions());
+            nextToken = listStateMachineVersionsResult.getNextToken();
+        } while (nextToken != null);
+
+        return versions;
+    }
+
+    private static Set<String> getVersionArnsReferencedByAliases(final AmazonWebServicesClientProxy proxy,
+                                                                 final AWSStepFunctions sfnClient,
+                                                                 final String stateMachineArn) {
+        final Set<String> versionArns = new HashSet<>();
+        String nextToken = null;
+        do {
+            final ListStateMachineAliasesRequest listStateMachineAliasesRequest = new ListStateMachineAliasesRequest();
+            listStateMachineAliasesRequest.setStateMachineArn(stateMachineArn);
+            listStateMachineAliasesRequest.setNextToken(nextToken);
+
+            final ListStateMachineAliasesResult listStateMachineAliasesResult = proxy.injectCredentialsAndInvoke(
+                    listStateMachineAliasesRequest, sfnClient::listStateMachineAliases
+            );
+
+            for (final StateMachineAliasListItem alias : listStateMachineAliasesResult.getStateMachineAliases()) {
+                final DescribeStateMachineAliasRequest describeStateMachineAliasRequest = new DescribeStateMachineAliasRequest();
+                describeStateMachineAliasRequest.setStateMachineAliasArn(alias.getStateMachineAliasArn());
+
+                final DescribeStateMachineAliasResult describeStateMachineAliasResult = proxy.injectCredentialsAndInvoke(
+                        describeStateMachineAliasRequest, sfnClient::describeStateMachineAlias
+                );
+                for (final RoutingConfigurationListItem routingConfiguration : describeStateMachineAliasResult.getRoutingConfiguration()) {
+                    versionArns.add(routingConfiguration.getStateMachineVersionArn());
+                }
+            }
+            nextToken = listStateMachineAliasesResult.getNextToken();
+        } while (nextToken != null);
+
+        return versionArns;
+    }
+}
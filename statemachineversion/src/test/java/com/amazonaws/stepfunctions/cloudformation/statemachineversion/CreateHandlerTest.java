@@ -1,8 +1,12 @@
 package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
 
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineVersionRequest;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineVersionResult;
 import com.amazonaws.services.stepfunctions.model.DescribeStateMachineRequest;
 import com.amazonaws.services.stepfunctions.model.DescribeStateMachineResult;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesResult;
 import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsRequest;
 import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsResult;
 import com.amazonaws.services.stepfunctions.model.PublishStateMachineVersionRequest;
@@ -21,17 +25,33 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.ACCESS_DENIED_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.THROTTLING_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.DESCRIPTION_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_SUCCESS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.RETENTION_POLICY_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.REVISION_ID_PROVIDED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.STABILIZATION_POLL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.VERSIONS_PRUNED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.VERSION_ALREADY_EXISTS;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.VERSION_PRUNING_FAILED;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.VERSION_PRUNING_THROTTLED;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -112,6 +132,11 @@ public class CreateHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
         assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+
+        final String metricsString = getMetricsString();
+        assertThat(metricsString).contains(OPERATION_SUCCESS.loggingKey, EXISTENCE_CHECK_CALL_COUNT.loggingKey + ": 1",
+                DESCRIPTION_PROVIDED.loggingKey, REVISION_ID_PROVIDED.loggingKey);
+        assertThat(metricsString).doesNotContain(RETENTION_POLICY_PROVIDED.loggingKey);
     }
 
     @Test
@@ -123,6 +148,7 @@ public class CreateHandlerTest extends HandlerTestBase {
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
         assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.ServiceInternalError);
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey);
     }
 
     @Test
@@ -205,5 +231,245 @@ public class CreateHandlerTest extends HandlerTestBase {
         assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
         assertThat(response.getMessage()).isEqualTo(stateMachineAlreadyExistsException.getMessage());
         assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.AlreadyExists);
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey, VERSION_ALREADY_EXISTS.loggingKey);
+    }
+
+    @Test
+    public void testExistenceCheck_withNoPublishedVersions_doesNotDescribe() {
+        when(proxy.injectCredentialsAndInvoke(eq(publishStateMachineVersionRequest), any(Function.class))).thenReturn(publishStateMachineVersionResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(listLatestStateMachineVersionsRequest), any(Function.class));
+        verify(proxy, never()).injectCredentialsAndInvoke(any(DescribeStateMachineRequest.class), any(Function.class));
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(publishStateMachineVersionRequest), any(Function.class));
+    }
+
+    @Test
+    public void testExistenceCheck_withRevisionIdOnModel_skipsDescribeStateMachine() {
+        listLatestStateMachineVersionsResult.setStateMachineVersions(Collections.singleton(new StateMachineVersionListItem().withStateMachineVersionArn(STATE_MACHINE_VERSION_ARN)));
+        describeStateMachineVersionResult.setRevisionId("previous-revision-id");
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineVersionRequest), any(Function.class))).thenReturn(describeStateMachineVersionResult);
+        when(proxy.injectCredentialsAndInvoke(eq(publishStateMachineVersionRequest), any(Function.class))).thenReturn(publishStateMachineVersionResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(listLatestStateMachineVersionsRequest), any(Function.class));
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(describeStateMachineVersionRequest), any(Function.class));
+        verify(proxy, never()).injectCredentialsAndInvoke(eq(describeStateMachineRequest), any(Function.class));
+    }
+
+    @Test
+    public void testExistenceCheck_withRevisionIdOnModelPinnedByLatestVersion_returnsAlreadyExists() {
+        listLatestStateMachineVersionsResult.setStateMachineVersions(Collections.singleton(new StateMachineVersionListItem().withStateMachineVersionArn(STATE_MACHINE_VERSION_ARN)));
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineVersionRequest), any(Function.class))).thenReturn(describeStateMachineVersionResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.AlreadyExists);
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(describeStateMachineVersionRequest), any(Function.class));
+        verify(proxy, never()).injectCredentialsAndInvoke(eq(describeStateMachineRequest), any(Function.class));
+        verify(proxy, never()).injectCredentialsAndInvoke(eq(publishStateMachineVersionRequest), any(Function.class));
+    }
+
+    @Test
+    public void testExistenceCheck_withoutRevisionIdOnModel_describesStateMachineAndLatestVersionOnce() {
+        request.getDesiredResourceState().setStateMachineRevisionId(null);
+        publishStateMachineVersionRequest.setRevisionId(null);
+        listLatestStateMachineVersionsResult.setStateMachineVersions(Collections.singleton(new StateMachineVersionListItem().withStateMachineVersionArn(STATE_MACHINE_VERSION_ARN)));
+        describeStateMachineVersionResult.setRevisionId("previous-revision-id");
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineRequest), any(Function.class))).thenReturn(describeStateMachineResult);
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineVersionRequest), any(Function.class))).thenReturn(describeStateMachineVersionResult);
+        when(proxy.injectCredentialsAndInvoke(eq(publishStateMachineVersionRequest), any(Function.class))).thenReturn(publishStateMachineVersionResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(listLatestStateMachineVersionsRequest), any(Function.class));
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(describeStateMachineRequest), any(Function.class));
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(describeStateMachineVersionRequest), any(Function.class));
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(publishStateMachineVersionRequest), any(Function.class));
+        assertThat(getMetricsString()).contains(EXISTENCE_CHECK_CALL_COUNT.loggingKey + ": 3");
+    }
+
+    @Test
+    public void testExistenceCheck_whenConcurrentDescribeStateMachineFails_returnsServiceError() {
+        request.getDesiredResourceState().setStateMachineRevisionId(null);
+        listLatestStateMachineVersionsResult.setStateMachineVersions(Collections.singleton(new StateMachineVersionListItem().withStateMachineVersionArn(STATE_MACHINE_VERSION_ARN)));
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineRequest), any(Function.class))).thenThrow(throttlingException);
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineVersionRequest), any(Function.class))).thenReturn(describeStateMachineVersionResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.Throttling);
+    }
+
+    @Test
+    public void testRetentionPolicy_afterPublishing_returnsInProgressWithPublishedVersion() {
+        request.getDesiredResourceState().setRetentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(1).build());
+        when(proxy.injectCredentialsAndInvoke(eq(publishStateMachineVersionRequest), any(Function.class))).thenReturn(publishStateMachineVersionResult);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+        assertThat(response.getCallbackContext().isVersionPublished()).isTrue();
+        assertThat(response.getCallbackContext().getVersionArnsToPrune()).isNull();
+        verify(proxy, never()).injectCredentialsAndInvoke(any(DeleteStateMachineVersionRequest.class), any(Function.class));
+    }
+
+    @Test
+    public void testRetentionPolicy_whenVersionPublished_prunesVersionsAndReturnsSuccess() {
+        final String previousVersionArn = STATE_MACHINE_ARN + ":0";
+        request.getDesiredResourceState().setArn(STATE_MACHINE_VERSION_ARN);
+        request.getDesiredResourceState().setRetentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(1).build());
+
+        final ListStateMachineVersionsRequest listStateMachineVersionsRequest = new ListStateMachineVersionsRequest()
+                .withStateMachineArn(STATE_MACHINE_ARN);
+        final DeleteStateMachineVersionRequest deleteStateMachineVersionRequest = new DeleteStateMachineVersionRequest()
+                .withStateMachineVersionArn(previousVersionArn);
+
+        when(proxy.injectCredentialsAndInvoke(eq(listStateMachineVersionsRequest), any(Function.class))).thenReturn(
+                new ListStateMachineVersionsResult().withStateMachineVersions(
+                        new StateMachineVersionListItem().withStateMachineVersionArn(STATE_MACHINE_VERSION_ARN).withCreationDate(new Date(2000)),
+                        new StateMachineVersionListItem().withStateMachineVersionArn(previousVersionArn).withCreationDate(new Date(1000))
+                )
+        );
+        when(proxy.injectCredentialsAndInvoke(any(ListStateMachineAliasesRequest.class), any(Function.class))).thenReturn(new ListStateMachineAliasesResult());
+        when(proxy.injectCredentialsAndInvoke(eq(deleteStateMachineVersionRequest), any(Function.class))).thenReturn(new DeleteStateMachineVersionResult());
+
+        final CallbackContext callbackContext = CallbackContext.builder().versionPublished(true).build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+        verify(proxy, times(1)).injectCredentialsAndInvoke(eq(deleteStateMachineVersionRequest), any(Function.class));
+        verify(proxy, never()).injectCredentialsAndInvoke(any(PublishStateMachineVersionRequest.class), any(Function.class));
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, VERSIONS_PRUNED.loggingKey + ": 1",
+                STABILIZATION_POLL_COUNT.loggingKey + ": 1", RETENTION_POLICY_PROVIDED.loggingKey);
+    }
+
+    @Test
+    public void testRetentionPolicy_whenPruningThrottled_returnsInProgressWithBackoff() {
+        final String previousVersionArn = STATE_MACHINE_ARN + ":0";
+        request.getDesiredResourceState().setArn(STATE_MACHINE_VERSION_ARN);
+        request.getDesiredResourceState().setRetentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(1).build());
+
+        when(proxy.injectCredentialsAndInvoke(any(DeleteStateMachineVersionRequest.class), any(Function.class))).thenThrow(throttlingException);
+
+        final CallbackContext callbackContext = CallbackContext.builder()
+                .versionPublished(true)
+                .versionArnsToPrune(Arrays.asList(previousVersionArn))
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(Constants.VERSION_PRUNING_BASE_BACKOFF_SECONDS);
+        assertThat(response.getCallbackContext().getVersionArnsToPrune()).containsExactly(previousVersionArn);
+        assertThat(response.getCallbackContext().getPruningThrottleCount()).isEqualTo(1);
+        verify(proxy, never()).injectCredentialsAndInvoke(any(ListStateMachineVersionsRequest.class), any(Function.class));
+    }
+
+    @Test
+    public void testRetentionPolicy_whenListingVersionsThrottled_returnsInProgressWithBackoff() {
+        request.getDesiredResourceState().setArn(STATE_MACHINE_VERSION_ARN);
+        request.getDesiredResourceState().setRetentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(1).build());
+
+        when(proxy.injectCredentialsAndInvoke(eq(new ListStateMachineVersionsRequest().withStateMachineArn(STATE_MACHINE_ARN)), any(Function.class)))
+                .thenThrow(throttlingException);
+
+        final CallbackContext callbackContext = CallbackContext.builder().versionPublished(true).build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(Constants.VERSION_PRUNING_BASE_BACKOFF_SECONDS);
+        assertThat(response.getCallbackContext().getVersionArnsToPrune()).isNull();
+        assertThat(response.getCallbackContext().getPruningThrottleCount()).isEqualTo(1);
+        verify(proxy, never()).injectCredentialsAndInvoke(any(DeleteStateMachineVersionRequest.class), any(Function.class));
+    }
+
+    @Test
+    public void testRetentionPolicy_whenListingAliasesThrottledTooOften_keepsVersionsAndReturnsSuccess() {
+        request.getDesiredResourceState().setArn(STATE_MACHINE_VERSION_ARN);
+        request.getDesiredResourceState().setRetentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(1).build());
+
+        when(proxy.injectCredentialsAndInvoke(eq(new ListStateMachineVersionsRequest().withStateMachineArn(STATE_MACHINE_ARN)), any(Function.class)))
+                .thenReturn(new ListStateMachineVersionsResult().withStateMachineVersions(
+                        new StateMachineVersionListItem().withStateMachineVersionArn(STATE_MACHINE_VERSION_ARN).withCreationDate(new Date(2000))
+                ));
+        when(proxy.injectCredentialsAndInvoke(any(ListStateMachineAliasesRequest.class), any(Function.class))).thenThrow(throttlingException);
+
+        final CallbackContext callbackContext = CallbackContext.builder()
+                .versionPublished(true)
+                .pruningThrottleCount(Constants.MAX_VERSION_PRUNING_THROTTLE_RETRIES)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+        assertThat(response.getCallbackContext()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, VERSION_PRUNING_THROTTLED.loggingKey);
+        verify(proxy, never()).injectCredentialsAndInvoke(any(DeleteStateMachineVersionRequest.class), any(Function.class));
+    }
+
+    @Test
+    public void testRetentionPolicy_whenPruningThrottledTooOften_keepsVersionsAndReturnsSuccess() {
+        request.getDesiredResourceState().setArn(STATE_MACHINE_VERSION_ARN);
+        request.getDesiredResourceState().setRetentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(1).build());
+
+        when(proxy.injectCredentialsAndInvoke(any(DeleteStateMachineVersionRequest.class), any(Function.class))).thenThrow(throttlingException);
+
+        final CallbackContext callbackContext = CallbackContext.builder()
+                .versionPublished(true)
+                .versionArnsToPrune(Arrays.asList(STATE_MACHINE_ARN + ":0"))
+                .pruningThrottleCount(Constants.MAX_VERSION_PRUNING_THROTTLE_RETRIES)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+        assertThat(response.getErrorCode()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, VERSION_PRUNING_THROTTLED.loggingKey);
+    }
+
+    @Test
+    public void testRetentionPolicy_whenDeletionAccessDenied_keepsVersionsAndReturnsSuccess() {
+        request.getDesiredResourceState().setArn(STATE_MACHINE_VERSION_ARN);
+        request.getDesiredResourceState().setRetentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(1).build());
+
+        when(proxy.injectCredentialsAndInvoke(any(DeleteStateMachineVersionRequest.class), any(Function.class))).thenThrow(accessDeniedException);
+
+        final CallbackContext callbackContext = CallbackContext.builder()
+                .versionPublished(true)
+                .versionArnsToPrune(Arrays.asList(STATE_MACHINE_ARN + ":0"))
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+        assertThat(response.getErrorCode()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, VERSION_PRUNING_FAILED.loggingKey);
+    }
+
+    @Test
+    public void testRetentionPolicy_whenListingVersionsAccessDenied_keepsVersionsAndReturnsSuccess() {
+        request.getDesiredResourceState().setArn(STATE_MACHINE_VERSION_ARN);
+        request.getDesiredResourceState().setRetentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(1).build());
+
+        when(proxy.injectCredentialsAndInvoke(eq(new ListStateMachineVersionsRequest().withStateMachineArn(STATE_MACHINE_ARN)), any(Function.class)))
+                .thenThrow(accessDeniedException);
+
+        final CallbackContext callbackContext = CallbackContext.builder().versionPublished(true).build();
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(STATE_MACHINE_VERSION_ARN);
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, VERSION_PRUNING_FAILED.loggingKey);
+        verify(proxy, never()).injectCredentialsAndInvoke(any(DeleteStateMachineVersionRequest.class), any(Function.class));
     }
 }
@@ -29,6 +29,9 @@ import static org.mockito.Mockito.when;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.ACCESS_DENIED_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.THROTTLING_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_SUCCESS;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -75,6 +78,7 @@ public class DeleteHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
         assertThat(response.getResourceModel()).isNull();
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey, EXISTENCE_CHECK_CALL_COUNT.loggingKey + ": 1");
     }
 
     @Test
@@ -130,6 +134,7 @@ public class DeleteHandlerTest extends HandlerTestBase {
         when(proxy.injectCredentialsAndInvoke(any(), any(Function.class))).thenReturn(null).thenThrow(exception500);
 
         assertFailure(exception500.getMessage(), HandlerErrorCode.ServiceInternalError);
+        assertThat(getMetricsString()).contains(EXISTENCE_CHECK_CALL_COUNT.loggingKey + ": 1");
     }
 
     private AmazonServiceException createAndMockAmazonServiceExceptionForDescribe(final String errorCode) {
@@ -159,5 +164,6 @@ public class DeleteHandlerTest extends HandlerTestBase {
         assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
         assertThat(response.getMessage()).isEqualTo(message);
         assertThat(response.getErrorCode()).isEqualTo(code);
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey);
     }
 }
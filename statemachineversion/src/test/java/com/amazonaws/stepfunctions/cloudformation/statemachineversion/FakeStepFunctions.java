@@ -0,0 +1,295 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.AbstractAWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.ConflictException;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineVersionRequest;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineVersionResult;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasResult;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineResult;
+import com.amazonaws.services.stepfunctions.model.InvalidTokenException;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesResult;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsResult;
+import com.amazonaws.services.stepfunctions.model.PublishStateMachineVersionRequest;
+import com.amazonaws.services.stepfunctions.model.PublishStateMachineVersionResult;
+import com.amazonaws.services.stepfunctions.model.ResourceNotFoundException;
+import com.amazonaws.services.stepfunctions.model.RoutingConfigurationListItem;
+import com.amazonaws.services.stepfunctions.model.StateMachineAliasListItem;
+import com.amazonaws.services.stepfunctions.model.StateMachineDoesNotExistException;
+import com.amazonaws.services.stepfunctions.model.StateMachineVersionListItem;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ *  Stateful in-memory implementation of the Step Functions version and alias APIs used by the handlers.
+ *  State machines and aliases are seeded directly since their resources are managed by other modules.
+ *  Every call first goes through the FakeServiceBehavior, which applies the configured latency and throttling.
+ */
+public class FakeStepFunctions extends AbstractAWSStepFunctions {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final FakeServiceBehavior behavior;
+    private final Map<String, StoredStateMachine> stateMachines = new HashMap<>();
+    private final Map<String, StoredVersion> versions = new HashMap<>();
+    private final Map<String, StoredAlias> aliases = new TreeMap<>();
+
+    public FakeStepFunctions(final FakeServiceBehavior behavior) {
+        this.behavior = behavior;
+    }
+
+    public synchronized void addStateMachine(final String stateMachineArn) {
+        stateMachines.put(stateMachineArn, new StoredStateMachine());
+    }
+
+    /**
+     * Simulates an update to the state machine, which creates a new revision
+     * @param stateMachineArn The ARN of a seeded state machine
+     * @return The ID of the new revision
+     */
+    public synchronized String updateStateMachine(final String stateMachineArn) {
+        final StoredStateMachine stateMachine = stateMachines.get(stateMachineArn);
+        stateMachine.revisionId = UUID.nameUUIDFromBytes((stateMachineArn + ":" + ++stateMachine.revisionCount)
+                .getBytes(StandardCharsets.UTF_8)).toString();
+        return stateMachine.revisionId;
+    }
+
+    /**
+     * Publishes a version directly with the given creation date, to seed versions of different ages
+     * @param stateMachineArn The ARN of a seeded state machine
+     * @param creationDate The creation date of the version
+     * @return The ARN of the version
+     */
+    public synchronized String addVersion(final String stateMachineArn, final Date creationDate) {
+        return publish(stateMachineArn, stateMachines.get(stateMachineArn), null, creationDate);
+    }
+
+    public synchronized void addAlias(final String stateMachineArn, final String aliasName, final Map<String, Integer> routingConfiguration) {
+        aliases.put(stateMachineArn + ":" + aliasName, new StoredAlias(aliasName, stateMachineArn, routingConfiguration));
+    }
+
+    @Override
+    public PublishStateMachineVersionResult publishStateMachineVersion(final PublishStateMachineVersionRequest request) {
+        behavior.onCall("PublishStateMachineVersion");
+        synchronized (this) {
+            final StoredStateMachine stateMachine = getStateMachine(request.getStateMachineArn());
+            if (request.getRevisionId() != null && !request.getRevisionId().equals(getRevisionId(stateMachine.revisionId))) {
+                throw serviceException(new ConflictException("The revision ID does not match the current revision of the state machine"),
+                        Constants.CONFLICT_EXCEPTION_ERROR_CODE);
+            }
+
+            // Publishing an already published revision returns the latest version instead of creating a new one
+            final StoredVersion latestVersion = getVersions(request.getStateMachineArn()).stream().findFirst().orElse(null);
+            final String versionArn = latestVersion != null && Objects.equals(latestVersion.revisionId, stateMachine.revisionId) ?
+                    latestVersion.arn
+                    :
+                    publish(request.getStateMachineArn(), stateMachine, request.getDescription(), new Date());
+            return new PublishStateMachineVersionResult()
+                    .withStateMachineVersionArn(versionArn)
+                    .withCreationDate(versions.get(versionArn).creationDate);
+        }
+    }
+
+    @Override
+    public DescribeStateMachineResult describeStateMachine(final DescribeStateMachineRequest request) {
+        behavior.onCall("DescribeStateMachine");
+        synchronized (this) {
+            final StoredVersion version = versions.get(request.getStateMachineArn());
+            if (version != null) {
+                return new DescribeStateMachineResult()
+                        .withStateMachineArn(version.arn)
+                        .withRevisionId(version.revisionId)
+                        .withDescription(version.description)
+                        .withCreationDate(version.creationDate);
+            }
+            final StoredStateMachine stateMachine = getStateMachine(request.getStateMachineArn());
+            return new DescribeStateMachineResult()
+                    .withStateMachineArn(request.getStateMachineArn())
+                    .withRevisionId(stateMachine.revisionId)
+                    .withCreationDate(stateMachine.creationDate);
+        }
+    }
+
+    @Override
+    public DeleteStateMachineVersionResult deleteStateMachineVersion(final DeleteStateMachineVersionRequest request) {
+        behavior.onCall("DeleteStateMachineVersion");
+        synchronized (this) {
+            final boolean isReferencedByAlias = aliases.values().stream()
+                    .anyMatch(alias -> alias.routingConfiguration.containsKey(request.getStateMachineVersionArn()));
+            if (isReferencedByAlias) {
+                throw serviceException(new ConflictException("Version is referenced by an alias: '" + request.getStateMachineVersionArn() + "'"),
+                        Constants.CONFLICT_EXCEPTION_ERROR_CODE);
+            }
+            versions.remove(request.getStateMachineVersionArn());
+            return new DeleteStateMachineVersionResult();
+        }
+    }
+
+    @Override
+    public ListStateMachineVersionsResult listStateMachineVersions(final ListStateMachineVersionsRequest request) {
+        behavior.onCall("ListStateMachineVersions");
+        synchronized (this) {
+            final List<StateMachineVersionListItem> page = new ArrayList<>();
+            final String nextToken = getPage(getVersions(request.getStateMachineArn()), version -> version.arn,
+                    request.getNextToken(), request.getMaxResults(), version ->
+                            page.add(new StateMachineVersionListItem()
+                                    .withStateMachineVersionArn(version.arn)
+                                    .withCreationDate(version.creationDate))
+            );
+            return new ListStateMachineVersionsResult()
+                    .withStateMachineVersions(page)
+                    .withNextToken(nextToken);
+        }
+    }
+
+    @Override
+    public ListStateMachineAliasesResult listStateMachineAliases(final ListStateMachineAliasesRequest request) {
+        behavior.onCall("ListStateMachineAliases");
+        synchronized (this) {
+            final List<Map.Entry<String, StoredAlias>> stateMachineAliases = aliases.entrySet().stream()
+                    .filter(entry -> entry.getValue().stateMachineArn.equals(request.getStateMachineArn()))
+                    .collect(Collectors.toList());
+            final List<StateMachineAliasListItem> page = new ArrayList<>();
+            final String nextToken = getPage(stateMachineAliases, Map.Entry::getKey, request.getNextToken(), request.getMaxResults(), alias ->
+                    page.add(new StateMachineAliasListItem()
+                            .withStateMachineAliasArn(alias.getKey())
+                            .withCreationDate(alias.getValue().creationDate))
+            );
+            return new ListStateMachineAliasesResult()
+                    .withStateMachineAliases(page)
+                    .withNextToken(nextToken);
+        }
+    }
+
+    @Override
+    public DescribeStateMachineAliasResult describeStateMachineAlias(final DescribeStateMachineAliasRequest request) {
+        behavior.onCall("DescribeStateMachineAlias");
+        synchronized (this) {
+            final StoredAlias alias = aliases.get(request.getStateMachineAliasArn());
+            if (alias == null) {
+                throw serviceException(new ResourceNotFoundException("Resource not found: '" + request.getStateMachineAliasArn() + "'"),
+                        Constants.RESOURCE_NOT_FOUND_ERROR_CODE);
+            }
+            return new DescribeStateMachineAliasResult()
+                    .withStateMachineAliasArn(request.getStateMachineAliasArn())
+                    .withName(alias.name)
+                    .withRoutingConfiguration(alias.routingConfiguration.entrySet().stream()
+                            .map(entry -> new RoutingConfigurationListItem()
+                                    .withStateMachineVersionArn(entry.getKey())
+                                    .withWeight(entry.getValue()))
+                            .collect(Collectors.toList()))
+                    .withCreationDate(alias.creationDate);
+        }
+    }
+
+    public synchronized List<String> getVersionArns(final String stateMachineArn) {
+        return getVersions(stateMachineArn).stream().map(version -> version.arn).collect(Collectors.toList());
+    }
+
+    private String publish(final String stateMachineArn, final StoredStateMachine stateMachine, final String description, final Date creationDate) {
+        final StoredVersion version = new StoredVersion(stateMachineArn + ":" + ++stateMachine.versionCount,
+                stateMachineArn, stateMachine.versionCount, stateMachine.revisionId, description, creationDate);
+        versions.put(version.arn, version);
+        return version.arn;
+    }
+
+    // Versions are listed newest first, like the service does
+    private List<StoredVersion> getVersions(final String stateMachineArn) {
+        return versions.values().stream()
+                .filter(version -> version.stateMachineArn.equals(stateMachineArn))
+                .sorted((a, b) -> Integer.compare(b.number, a.number))
+                .collect(Collectors.toList());
+    }
+
+    private StoredStateMachine getStateMachine(final String stateMachineArn) {
+        final StoredStateMachine stateMachine = stateMachines.get(stateMachineArn);
+        if (stateMachine == null) {
+            throw serviceException(new StateMachineDoesNotExistException("State Machine Does Not Exist: '" + stateMachineArn + "'"),
+                    Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE);
+        }
+        return stateMachine;
+    }
+
+    private static String getRevisionId(final String revisionId) {
+        return revisionId != null ? revisionId : Constants.STATE_MACHINE_INITIAL_REVISION_ID;
+    }
+
+    // The next token is the key of the last resource of the current page
+    private static <T> String getPage(final List<T> resources, final Function<T, String> keyFunction, final String nextToken,
+                                      final Integer maxResults, final Consumer<T> pageConsumer) {
+        int start = 0;
+        if (nextToken != null) {
+            start = resources.stream().map(keyFunction).collect(Collectors.toList()).indexOf(nextToken) + 1;
+            if (start == 0) {
+                throw serviceException(new InvalidTokenException("Invalid token: " + nextToken), Constants.INVALID_TOKEN);
+            }
+        }
+        final int pageSize = maxResults == null || maxResults == 0 ? DEFAULT_PAGE_SIZE : maxResults;
+        final int end = Math.min(start + pageSize, resources.size());
+        resources.subList(start, end).forEach(pageConsumer);
+        return end < resources.size() ? keyFunction.apply(resources.get(end - 1)) : null;
+    }
+
+    private static <T extends AmazonServiceException> T serviceException(final T exception, final String errorCode) {
+        exception.setStatusCode(400);
+        exception.setErrorCode(errorCode);
+        exception.setErrorType(AmazonServiceException.ErrorType.Client);
+        return exception;
+    }
+
+    private static class StoredStateMachine {
+        private final Date creationDate = new Date();
+        // DescribeStateMachine returns no revision ID until the state machine is first updated
+        private String revisionId;
+        private int revisionCount;
+        private int versionCount;
+    }
+
+    private static class StoredVersion {
+        private final String arn;
+        private final String stateMachineArn;
+        private final int number;
+        private final String revisionId;
+        private final String description;
+        private final Date creationDate;
+
+        private StoredVersion(final String arn, final String stateMachineArn, final int number, final String revisionId,
+                              final String description, final Date creationDate) {
+            this.arn = arn;
+            this.stateMachineArn = stateMachineArn;
+            this.number = number;
+            this.revisionId = revisionId;
+            this.description = description;
+            this.creationDate = creationDate;
+        }
+    }
+
+    private static class StoredAlias {
+        private final String name;
+        private final String stateMachineArn;
+        private final Map<String, Integer> routingConfiguration;
+        private final Date creationDate = new Date();
+
+        private StoredAlias(final String name, final String stateMachineArn, final Map<String, Integer> routingConfiguration) {
+            this.name = name;
+            this.stateMachineArn = stateMachineArn;
+            this.routingConfiguration = new HashMap<>(routingConfiguration);
+        }
+    }
+}
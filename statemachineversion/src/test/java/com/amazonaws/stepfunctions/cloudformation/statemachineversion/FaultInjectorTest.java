@@ -0,0 +1,76 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsRequest;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FaultInjector;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.RetryingClient;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+public class FaultInjectorTest {
+
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:TestStateMachine";
+    private static final RetryPolicy.BackoffStrategy NO_BACKOFF = (request, e, retriesAttempted) -> 0L;
+
+    private final FakeStepFunctions fakeClient = new FakeStepFunctions(new FakeServiceBehavior());
+
+    @Test
+    public void testNoFaults() {
+        final FaultInjector faultInjector = new FaultInjector();
+        final RetryingClient retryingClient = new RetryingClient(ClientBuilder.getRetryPolicy());
+        final AWSStepFunctions client = retryingClient.wrap(AWSStepFunctions.class, faultInjector.wrap(AWSStepFunctions.class, fakeClient));
+
+        assertThat(client.listStateMachineVersions(new ListStateMachineVersionsRequest().withStateMachineArn(STATE_MACHINE_ARN)).getStateMachineVersions()).isEmpty();
+        assertThat(retryingClient.getCallCount()).isEqualTo(1);
+        assertThat(faultInjector.getAttemptCount()).isEqualTo(1);
+        assertThat(faultInjector.getTotalFaultCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRetriesFaultsTreatedSpeciallyByRetryCondition() {
+        for (final FaultInjector.Fault fault : FaultInjector.Fault.values()) {
+            final FaultInjector faultInjector = new FaultInjector().withFaultRate(fault, 1);
+            final RetryingClient retryingClient = new RetryingClient(new RetryPolicy(ClientBuilder.CUSTOM_RETRY_CONDITION, NO_BACKOFF, 3, false));
+            final AWSStepFunctions client = retryingClient.wrap(AWSStepFunctions.class, faultInjector.wrap(AWSStepFunctions.class, fakeClient));
+
+            final AmazonServiceException exception = catchThrowableOfType(
+                    () -> client.listStateMachineVersions(new ListStateMachineVersionsRequest().withStateMachineArn(STATE_MACHINE_ARN)), AmazonServiceException.class);
+
+            assertThat(exception.getErrorCode()).isEqualTo(fault.toException().getErrorCode());
+            assertThat(retryingClient.getRetryCount()).isEqualTo(3);
+            assertThat(faultInjector.getFaultCount(fault)).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void testDoesNotRetryWithoutRetries() {
+        final FaultInjector faultInjector = new FaultInjector().withFaultRate(FaultInjector.Fault.THROTTLING, 1);
+        final RetryingClient retryingClient = new RetryingClient(new RetryPolicy(ClientBuilder.CUSTOM_RETRY_CONDITION, NO_BACKOFF, 0, false));
+        final AWSStepFunctions client = retryingClient.wrap(AWSStepFunctions.class, faultInjector.wrap(AWSStepFunctions.class, fakeClient));
+
+        catchThrowableOfType(() -> client.listStateMachineVersions(new ListStateMachineVersionsRequest().withStateMachineArn(STATE_MACHINE_ARN)), AmazonServiceException.class);
+
+        assertThat(retryingClient.getRetryCount()).isEqualTo(0);
+        assertThat(faultInjector.getAttemptCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRecoversFromIntermittentFaults() {
+        final FaultInjector faultInjector = new FaultInjector(42L).withFaultRate(FaultInjector.Fault.SERVER_ERROR, 0.5);
+        final RetryingClient retryingClient = new RetryingClient(new RetryPolicy(ClientBuilder.CUSTOM_RETRY_CONDITION, NO_BACKOFF, 50, false));
+        final AWSStepFunctions client = retryingClient.wrap(AWSStepFunctions.class, faultInjector.wrap(AWSStepFunctions.class, fakeClient));
+
+        for (int i = 0; i < 20; i++) {
+            client.listStateMachineVersions(new ListStateMachineVersionsRequest().withStateMachineArn(STATE_MACHINE_ARN));
+        }
+
+        assertThat(retryingClient.getCallCount()).isEqualTo(20);
+        assertThat(faultInjector.getAttemptCount()).isEqualTo(20 + retryingClient.getRetryCount());
+        assertThat(faultInjector.getTotalFaultCount()).isEqualTo(retryingClient.getRetryCount());
+    }
+}
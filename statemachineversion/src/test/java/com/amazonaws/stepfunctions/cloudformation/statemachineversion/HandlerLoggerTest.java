@@ -0,0 +1,95 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HandlerLoggerTest {
+
+    private static final String CLIENT_REQUEST_TOKEN = "log-token";
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:TestStateMachine";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> logLines = new ArrayList<>();
+    private final Logger logger = logLines::add;
+    private final HandlerLogger handlerLogger = new HandlerLogger(logger, ResourceHandlerRequest.<ResourceModel>builder()
+            .clientRequestToken(CLIENT_REQUEST_TOKEN)
+            .build(), "CreateHandler");
+
+    @AfterEach
+    public void tearDown() {
+        HandlerLogger.setMinimumLevel(HandlerLogger.Level.INFO);
+    }
+
+    @Test
+    public void testLinesAreJsonWithHandlerAndRequestToken() throws IOException {
+        handlerLogger.info("StateMachineVersion \"Test\"\ncreated");
+        handlerLogger.error("Error creating StateMachineVersion", new IllegalStateException("failure"));
+
+        assertThat(logLines).hasSize(2);
+        final JsonNode info = objectMapper.readTree(logLines.get(0));
+        assertThat(info.get("level").asText()).isEqualTo("INFO");
+        assertThat(info.get("handler").asText()).isEqualTo("CreateHandler");
+        assertThat(info.get("clientRequestToken").asText()).isEqualTo(CLIENT_REQUEST_TOKEN);
+        assertThat(info.get("message").asText()).isEqualTo("StateMachineVersion \"Test\"\ncreated");
+        assertThat(info.has("error")).isFalse();
+
+        final JsonNode error = objectMapper.readTree(logLines.get(1));
+        assertThat(error.get("level").asText()).isEqualTo("ERROR");
+        assertThat(error.get("error").asText()).isEqualTo("java.lang.IllegalStateException: failure");
+    }
+
+    @Test
+    public void testSuppressedLevelsDoNotBuildMessages() {
+        final AtomicInteger builtMessages = new AtomicInteger();
+        HandlerLogger.setMinimumLevel(HandlerLogger.Level.WARN);
+
+        handlerLogger.debug(() -> "debug " + builtMessages.incrementAndGet());
+        handlerLogger.info(() -> "info " + builtMessages.incrementAndGet());
+        handlerLogger.warn(() -> "warn " + builtMessages.incrementAndGet(), new IllegalStateException());
+
+        assertThat(builtMessages.get()).isEqualTo(1);
+        assertThat(logLines).hasSize(1);
+        assertThat(logLines.get(0)).contains("\"level\":\"WARN\"");
+    }
+
+    @Test
+    public void testHandlerWritesOnlyItsMetricsBelowTheMinimumLevel() {
+        HandlerLogger.setMinimumLevel(HandlerLogger.Level.WARN);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event;
+        try (InMemoryServices services = InMemoryServices.install(new FakeServiceBehavior())) {
+            services.getSfnClient().addStateMachine(STATE_MACHINE_ARN);
+            event = new CreateHandler().handleRequest(InMemoryServices.newProxy(), ResourceHandlerRequest.<ResourceModel>builder()
+                    .clientRequestToken(CLIENT_REQUEST_TOKEN)
+                    .desiredResourceState(ResourceModel.builder().stateMachineArn(STATE_MACHINE_ARN).build())
+                    .build(), null, logger);
+        }
+
+        // The info lines of a successful invocation are suppressed, while the metrics line is always written
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(logLines).hasSize(1);
+        assertThat(logLines.get(0)).startsWith("METRICS - OperationType: CREATE, OperationStatus: SUCCESS");
+    }
+
+    @Test
+    public void testLevelIsReadCaseInsensitivelyAndDefaultsToInfo() {
+        assertThat(HandlerLogger.getLevel("debug")).isEqualTo(HandlerLogger.Level.DEBUG);
+        assertThat(HandlerLogger.getLevel(" ERROR ")).isEqualTo(HandlerLogger.Level.ERROR);
+        assertThat(HandlerLogger.getLevel("verbose")).isEqualTo(HandlerLogger.Level.INFO);
+        assertThat(HandlerLogger.getLevel(null)).isEqualTo(HandlerLogger.Level.INFO);
+    }
+}
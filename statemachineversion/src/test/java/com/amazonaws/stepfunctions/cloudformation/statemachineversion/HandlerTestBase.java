@@ -3,10 +3,16 @@ package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
 import com.amazonaws.services.stepfunctions.model.AWSStepFunctionsException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 
+import java.util.List;
+
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
 public abstract class HandlerTestBase {
 
   protected final static AmazonServiceException exception500 = new AmazonServiceException("Server error");
@@ -50,4 +56,12 @@ public abstract class HandlerTestBase {
   @Mock
   protected Logger logger;
 
+  // The metrics string is the last line each handler logs
+  protected String getMetricsString() {
+    final ArgumentCaptor<String> argumentCaptor = ArgumentCaptor.forClass(String.class);
+    verify(logger, atLeastOnce()).log(argumentCaptor.capture());
+    final List<String> loggedStrings = argumentCaptor.getAllValues();
+    return loggedStrings.get(loggedStrings.size() - 1);
+  }
+
 }
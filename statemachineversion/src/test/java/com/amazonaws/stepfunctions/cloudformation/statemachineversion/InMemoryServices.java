@@ -0,0 +1,56 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.mockito.Mockito;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ *  Installs the in-memory service fake into the ClientBuilder so that handlers can be exercised end to end
+ *  without an AWS account. Close the instance to restore the real client.
+ */
+public class InMemoryServices implements AutoCloseable {
+
+    private final FakeServiceBehavior behavior;
+    private final FakeStepFunctions sfnClient;
+
+    private InMemoryServices(final FakeServiceBehavior behavior) {
+        this.behavior = behavior;
+        this.sfnClient = new FakeStepFunctions(behavior);
+    }
+
+    public static InMemoryServices install(final FakeServiceBehavior behavior) {
+        final InMemoryServices services = new InMemoryServices(behavior);
+        ClientBuilder.setClientOverride(services.sfnClient);
+        return services;
+    }
+
+    /**
+     * Creates a proxy that invokes the client function directly instead of injecting credentials
+     * @return A proxy to pass to the handlers
+     */
+    @SuppressWarnings("unchecked")
+    public static AmazonWebServicesClientProxy newProxy() {
+        final AmazonWebServicesClientProxy proxy = Mockito.mock(AmazonWebServicesClientProxy.class, Mockito.withSettings().stubOnly());
+        Mockito.when(proxy.injectCredentialsAndInvoke(any(AmazonWebServiceRequest.class), any(Function.class)))
+                .thenAnswer(invocation -> ((Function<Object, Object>) invocation.getArgument(1)).apply(invocation.getArgument(0)));
+        return proxy;
+    }
+
+    public FakeServiceBehavior getBehavior() {
+        return behavior;
+    }
+
+    public FakeStepFunctions getSfnClient() {
+        return sfnClient;
+    }
+
+    @Override
+    public void close() {
+        ClientBuilder.setClientOverride(null);
+    }
+}
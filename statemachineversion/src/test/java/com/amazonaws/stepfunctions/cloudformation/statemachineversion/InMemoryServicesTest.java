@@ -0,0 +1,109 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class InMemoryServicesTest {
+
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:TestStateMachine";
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final Logger logger = mock(Logger.class);
+    private FakeServiceBehavior behavior;
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        behavior = new FakeServiceBehavior();
+        services = InMemoryServices.install(behavior);
+        services.getSfnClient().addStateMachine(STATE_MACHINE_ARN);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        services.close();
+    }
+
+    @Test
+    public void testVersionLifecycle() {
+        final ResourceModel model = ResourceModel.builder()
+                .stateMachineArn(STATE_MACHINE_ARN)
+                .description("First version")
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> createResponse = new CreateHandler().handleRequest(proxy, request(model), null, logger);
+        assertThat(createResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final String versionArn = createResponse.getResourceModel().getArn();
+        assertThat(versionArn).isEqualTo(STATE_MACHINE_ARN + ":1");
+
+        // The current revision is already pinned by the version
+        final ProgressEvent<ResourceModel, CallbackContext> duplicateCreateResponse = new CreateHandler().handleRequest(
+                proxy, request(ResourceModel.builder().stateMachineArn(STATE_MACHINE_ARN).build()), null, logger);
+        assertThat(duplicateCreateResponse.getErrorCode()).isEqualTo(HandlerErrorCode.AlreadyExists);
+
+        final ProgressEvent<ResourceModel, CallbackContext> readResponse = new ReadHandler().handleRequest(
+                proxy, request(ResourceModel.builder().arn(versionArn).stateMachineArn(STATE_MACHINE_ARN).build()), null, logger);
+        assertThat(readResponse.getResourceModel().getDescription()).isEqualTo("First version");
+        assertThat(readResponse.getResourceModel().getStateMachineRevisionId()).isEqualTo(Constants.STATE_MACHINE_INITIAL_REVISION_ID);
+
+        final ResourceHandlerRequest<ResourceModel> deleteRequest = request(ResourceModel.builder().arn(versionArn).build());
+        assertThat(new DeleteHandler().handleRequest(proxy, deleteRequest, null, logger).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(services.getSfnClient().getVersionArns(STATE_MACHINE_ARN)).isEmpty();
+    }
+
+    @Test
+    public void testRetentionPolicy_prunesVersionsNotRetained() {
+        final long dayMillis = 1000L * 60 * 60 * 24;
+        final String version1Arn = services.getSfnClient().addVersion(STATE_MACHINE_ARN, new Date(System.currentTimeMillis() - 3 * dayMillis));
+        final String version2Arn = services.getSfnClient().addVersion(STATE_MACHINE_ARN, new Date(System.currentTimeMillis() - 2 * dayMillis));
+        final String version3Arn = services.getSfnClient().addVersion(STATE_MACHINE_ARN, new Date(System.currentTimeMillis() - dayMillis));
+        services.getSfnClient().addAlias(STATE_MACHINE_ARN, "Prod", Collections.singletonMap(version1Arn, 100));
+        services.getSfnClient().updateStateMachine(STATE_MACHINE_ARN);
+
+        final ResourceHandlerRequest<ResourceModel> request = request(ResourceModel.builder()
+                .stateMachineArn(STATE_MACHINE_ARN)
+                .retentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(2).build())
+                .build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> publishResponse = new CreateHandler().handleRequest(proxy, request, null, logger);
+        assertThat(publishResponse.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        final ProgressEvent<ResourceModel, CallbackContext> pruneResponse = new CreateHandler().handleRequest(
+                proxy, request, publishResponse.getCallbackContext(), logger);
+
+        assertThat(pruneResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(services.getSfnClient().getVersionArns(STATE_MACHINE_ARN))
+                .containsExactly(STATE_MACHINE_ARN + ":4", version3Arn, version1Arn)
+                .doesNotContain(version2Arn);
+    }
+
+    @Test
+    public void testThrottleRate_returnsThrottlingError() {
+        behavior.withDefaultThrottleRate(1.0);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = new CreateHandler().handleRequest(
+                proxy, request(ResourceModel.builder().stateMachineArn(STATE_MACHINE_ARN).build()), null, logger);
+
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.Throttling);
+        assertThat(behavior.getTotalThrottleCount()).isEqualTo(1);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+    }
+}
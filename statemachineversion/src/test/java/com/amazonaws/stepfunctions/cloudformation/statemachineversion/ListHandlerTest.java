@@ -4,16 +4,20 @@ import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsRequest;
 import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsResult;
 import com.amazonaws.services.stepfunctions.model.StateMachineVersionListItem;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.cloudformation.proxy.HandlerErrorCode;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,12 +28,18 @@ import static org.mockito.Mockito.when;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.ACCESS_DENIED_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.THROTTLING_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_SUCCESS;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.INVALID_TOKEN;
 
 
 @ExtendWith(MockitoExtension.class)
 public class ListHandlerTest extends HandlerTestBase {
 
+    private static final int PAGE_SIZE = 10;
+
+    private final List<Integer> requestedPageSizes = new ArrayList<>();
+
     private ListHandler handler;
     private ResourceHandlerRequest<ResourceModel> request;
     private StateMachineVersionListItem stateMachineVersionListItem;
@@ -65,6 +75,11 @@ public class ListHandlerTest extends HandlerTestBase {
         listStateMachineVersionsResult.setStateMachineVersions(Collections.singleton(stateMachineVersionListItem));
     }
 
+    @AfterEach
+    public void tearDown() {
+        PageCoalescer.setEnabled(false);
+    }
+
     @Test
     public void testSuccess() {
         final ResourceModel expectedModel = ResourceModel.builder()
@@ -78,6 +93,7 @@ public class ListHandlerTest extends HandlerTestBase {
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
         assertThat(response.getResourceModels()).containsExactly(expectedModel);
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey);
     }
 
     @Test
@@ -143,6 +159,52 @@ public class ListHandlerTest extends HandlerTestBase {
         assertFailure(exception500.getMessage(), HandlerErrorCode.ServiceInternalError);
     }
 
+    @Test
+    public void testCoalescing_followsEveryPageInOneInvocation() {
+        PageCoalescer.setEnabled(true);
+        when(proxy.injectCredentialsAndInvoke(any(ListStateMachineVersionsRequest.class), any(Function.class))).thenAnswer(pagesOf(PAGE_SIZE, PAGE_SIZE * 3));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(PAGE_SIZE * 3);
+        assertThat(response.getNextToken()).isNull();
+        // Every page is requested at the service's maximum page size
+        assertThat(requestedPageSizes).containsExactly(Constants.LIST_MAX_PAGE_SIZE, Constants.LIST_MAX_PAGE_SIZE, Constants.LIST_MAX_PAGE_SIZE);
+    }
+
+    @Test
+    public void testCoalescing_sizesTheLastRequestToTheItemBudget() {
+        PageCoalescer.setEnabled(true);
+        // Pages hold fewer items than the maximum page size, so less than a page is left of the item budget for the last request
+        final int itemsPerPage = Constants.LIST_MAX_PAGE_SIZE - 1;
+        when(proxy.injectCredentialsAndInvoke(any(ListStateMachineVersionsRequest.class), any(Function.class)))
+                .thenAnswer(pagesOf(itemsPerPage, Constants.LIST_COALESCING_MAX_ITEMS * 2));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        final int fullPageCount = Constants.LIST_COALESCING_MAX_ITEMS / itemsPerPage;
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(Constants.LIST_COALESCING_MAX_ITEMS);
+        assertThat(requestedPageSizes).hasSize(fullPageCount + 1);
+        assertThat(requestedPageSizes.get(fullPageCount)).isEqualTo(Constants.LIST_COALESCING_MAX_ITEMS - fullPageCount * itemsPerPage);
+        // The token of the last page fetched is returned, so the next invocation starts right after it
+        assertThat(response.getNextToken()).isEqualTo(String.valueOf(Constants.LIST_COALESCING_MAX_ITEMS));
+    }
+
+    @Test
+    public void testCoalescingDisabled_fetchesSinglePageOfDefaultSize() {
+        PageCoalescer.setEnabled(false);
+        when(proxy.injectCredentialsAndInvoke(any(ListStateMachineVersionsRequest.class), any(Function.class))).thenAnswer(pagesOf(PAGE_SIZE, PAGE_SIZE * 3));
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(PAGE_SIZE);
+        assertThat(response.getNextToken()).isEqualTo(String.valueOf(PAGE_SIZE));
+        assertThat(requestedPageSizes).containsExactly((Integer) null);
+    }
+
     private AmazonServiceException createAndMockAmazonServiceException(final String errorCode) {
         final AmazonServiceException amazonServiceException = new AmazonServiceException(errorCode);
         amazonServiceException.setStatusCode(400);
@@ -160,5 +222,24 @@ public class ListHandlerTest extends HandlerTestBase {
         assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
         assertThat(response.getMessage()).isEqualTo(message);
         assertThat(response.getErrorCode()).isEqualTo(code);
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey);
+    }
+
+    // Pages of at most itemsPerPage items, whose tokens are the index of their first item
+    private Answer<ListStateMachineVersionsResult> pagesOf(final int itemsPerPage, final int itemCount) {
+        return invocation -> {
+            final ListStateMachineVersionsRequest listRequest = invocation.getArgument(0);
+            requestedPageSizes.add(listRequest.getMaxResults());
+            final int first = listRequest.getNextToken() == null ? 0 : Integer.parseInt(listRequest.getNextToken());
+            final int pageSize = listRequest.getMaxResults() == null ? itemsPerPage : Math.min(itemsPerPage, listRequest.getMaxResults());
+            final int end = Math.min(itemCount, first + pageSize);
+            final List<StateMachineVersionListItem> versions = new ArrayList<>();
+            for (int i = first; i < end; i++) {
+                versions.add(new StateMachineVersionListItem().withStateMachineVersionArn(STATE_MACHINE_ARN + ":" + (i + 1)));
+            }
+            return new ListStateMachineVersionsResult()
+                    .withStateMachineVersions(versions)
+                    .withNextToken(end < itemCount ? String.valueOf(end) : null);
+        };
     }
 }
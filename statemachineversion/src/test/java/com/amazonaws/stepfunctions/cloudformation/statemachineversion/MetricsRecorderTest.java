@@ -0,0 +1,68 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsRecorderTest {
+
+    @Test
+    public void testDefaultRecorder_listsOperationOnly() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.READ);
+
+        assertThat(metricsRecorder.generateMetricsString()).isEqualTo("METRICS - OperationType: READ, OperationStatus: FAILURE, ");
+    }
+
+    @Test
+    public void testCountsPrecedeProperties() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setMetricsFromResourceModel(ResourceModel.builder()
+                .description("Version")
+                .retentionPolicy(RetentionPolicy.builder().maxVersionsToKeep(2).build())
+                .build());
+        metricsRecorder.setStabilizationPollCount(2);
+        metricsRecorder.addVersionsPruned(100);
+        metricsRecorder.addVersionsPruned(20);
+        metricsRecorder.setVersionPruningThrottled(true);
+        metricsRecorder.setVersionPruningFailed(true);
+        metricsRecorder.setOperationSuccessful(true);
+
+        assertThat(metricsRecorder.generateMetricsString()).isEqualTo("METRICS - OperationType: CREATE, OperationStatus: SUCCESS, "
+                + "VersionsPruned: 120, StabilizationPollCount: 2, DescriptionProvided, RetentionPolicyProvided, VersionPruningThrottled, "
+                + "VersionPruningFailed");
+    }
+
+    @Test
+    public void testSuccessfulExistenceCheck() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        metricsRecorder.setMetricsFromResourceModel(ResourceModel.builder().stateMachineRevisionId("revision").build());
+        metricsRecorder.incrementExistenceCheckCallCount();
+        metricsRecorder.incrementExistenceCheckCallCount();
+        metricsRecorder.setOperationSuccessful(true);
+
+        assertThat(metricsRecorder.generateMetricsString()).isEqualTo("METRICS - OperationType: CREATE, OperationStatus: SUCCESS, "
+                + "ExistenceCheckCallCount: 2, RevisionIdProvided");
+    }
+
+    @Test
+    public void testCountsRecordedFromWorkers_areNotLost() {
+        final MetricsRecorder metricsRecorder = new MetricsRecorder(HandlerOperationType.CREATE);
+        final int calls = 10_000;
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < calls; j++) {
+                    metricsRecorder.incrementExistenceCheckCallCount();
+                }
+            }));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        assertThat(metricsRecorder.getValue(MetricsLoggingKeys.EXISTENCE_CHECK_CALL_COUNT)).isEqualTo(4L * calls);
+    }
+}
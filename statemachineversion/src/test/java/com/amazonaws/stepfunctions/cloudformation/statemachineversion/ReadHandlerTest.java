@@ -22,6 +22,8 @@ import static org.mockito.Mockito.when;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.ACCESS_DENIED_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.STATE_MACHINE_DOES_NOT_EXIST_ERROR_CODE;
 import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.Constants.THROTTLING_ERROR_CODE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_FAILURE;
+import static com.amazonaws.stepfunctions.cloudformation.statemachineversion.MetricsLoggingKeys.OPERATION_SUCCESS;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -69,6 +71,7 @@ public class ReadHandlerTest extends HandlerTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
         assertThat(response.getResourceModel()).isEqualTo(expectedModel);
+        assertThat(getMetricsString()).contains(OPERATION_SUCCESS.loggingKey);
     }
 
     @Test
@@ -124,5 +127,6 @@ public class ReadHandlerTest extends HandlerTestBase {
         assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
         assertThat(response.getMessage()).isEqualTo(message);
         assertThat(response.getErrorCode()).isEqualTo(code);
+        assertThat(getMetricsString()).contains(OPERATION_FAILURE.loggingKey);
     }
 }
@@ -0,0 +1,113 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.ContractTestInputs;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.amazonaws.stepfunctions.cloudformation.testsupport.LoadTestHarness;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *  Replays Create, Read, List and Delete lifecycles concurrently against the in-memory service fake.
+ *  Run with: mvn test -Dtest=StateMachineVersionLoadTest -DloadTest=true [-DloadTest.lifecycles=N] [-DloadTest.concurrency=N]
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+public class StateMachineVersionLoadTest {
+
+    private static final int LIFECYCLES = Integer.getInteger("loadTest.lifecycles", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("loadTest.concurrency", 64);
+    private static final int MAX_SYNTHETIC_EXISTING_VERSIONS = 50;
+    private static final long DAY_MILLIS = 1000L * 60 * 60 * 24;
+
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final Logger logger = message -> { };
+
+    @Test
+    public void testConcurrentLifecycles() throws InterruptedException {
+        final FakeServiceBehavior behavior = new FakeServiceBehavior()
+                .withDefaultLatency(FakeServiceBehavior.LatencyDistribution.logNormal(15, 0.5));
+        final List<ContractTestInputs> contractTestInputs = ContractTestInputs.load();
+        final LoadTestHarness harness = new LoadTestHarness(CONCURRENCY);
+
+        final LoadTestHarness.Report report;
+        try (InMemoryServices services = InMemoryServices.install(behavior)) {
+            report = harness.run(LIFECYCLES, index -> {
+                // Each lifecycle publishes a version of its own state machine, since a revision can only be published once
+                final String stateMachineArn = "arn:aws:states:us-east-1:123456789012:stateMachine:LoadTestStateMachine-" + index;
+                services.getSfnClient().addStateMachine(stateMachineArn);
+
+                // Alternate between the contract test inputs and synthetic inputs
+                final ResourceModel createModel;
+                final ResourceModel listModel;
+                if (index % 2 == 0) {
+                    final ContractTestInputs.Instance inputs = contractTestInputs.get(index / 2 % contractTestInputs.size()).instantiate(ImmutableMap.of(
+                            "awsstepfunctionsstatemachineversioncto1", stateMachineArn,
+                            "awsstepfunctionsstatemachineversioncto2", services.getSfnClient().updateStateMachine(stateMachineArn)
+                    ));
+                    createModel = inputs.getCreateModel(ResourceModel.class);
+                    listModel = inputs.getListModel(ResourceModel.class);
+                } else {
+                    createModel = getSyntheticModel(services.getSfnClient(), stateMachineArn, index);
+                    listModel = ResourceModel.builder().stateMachineArn(stateMachineArn).build();
+                }
+                runLifecycle(harness, createModel, listModel);
+            });
+        }
+
+        System.out.println(report);
+        assertThat(report.getErroredLifecycles()).isEqualTo(0);
+        assertThat(report.getFailures("Create")).isEqualTo(0);
+    }
+
+    void runLifecycle(final LoadTestHarness harness, final ResourceModel createModel, final ResourceModel listModel) {
+        final ProgressEvent<ResourceModel, CallbackContext> createEvent = harness.invoke("Create", context ->
+                new CreateHandler().handleRequest(proxy, request(createModel), context, logger));
+        assertThat(createEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final String versionArn = createEvent.getResourceModel().getArn();
+
+        harness.invoke("Read", context -> new ReadHandler().handleRequest(
+                proxy, request(ResourceModel.builder().arn(versionArn).stateMachineArn(createModel.getStateMachineArn()).build()), context, logger));
+
+        harness.invoke("List", context -> new ListHandler().handleRequest(proxy, request(listModel), context, logger));
+
+        final ProgressEvent<ResourceModel, CallbackContext> deleteEvent = harness.invoke("Delete", context ->
+                new DeleteHandler().handleRequest(proxy, request(ResourceModel.builder().arn(versionArn).build()), context, logger));
+        assertThat(deleteEvent.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+    }
+
+    // Synthetic inputs seed a random number of existing versions and prune them with a random retention policy
+    static ResourceModel getSyntheticModel(final FakeStepFunctions sfnClient, final String stateMachineArn, final int index) {
+        final Random random = new Random(index);
+        final int existingVersions = random.nextInt(MAX_SYNTHETIC_EXISTING_VERSIONS + 1);
+        for (int i = existingVersions; i > 0; i--) {
+            sfnClient.addVersion(stateMachineArn, new Date(System.currentTimeMillis() - i * DAY_MILLIS));
+        }
+        sfnClient.updateStateMachine(stateMachineArn);
+
+        return ResourceModel.builder()
+                .stateMachineArn(stateMachineArn)
+                .description("Synthetic version " + index)
+                .retentionPolicy(RetentionPolicy.builder()
+                        .maxVersionsToKeep(1 + random.nextInt(10))
+                        .maxAgeInDays(random.nextBoolean() ? 1 + random.nextInt(30) : null)
+                        .build())
+                .build();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+    }
+}
@@ -0,0 +1,178 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import com.amazonaws.stepfunctions.cloudformation.testsupport.FakeServiceBehavior;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracingTest {
+
+    private static final String CLIENT_REQUEST_TOKEN = "trace-token";
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:TestStateMachine";
+    private static final String TRACE_PREFIX = Constants.TRACE_LOGGING_PREFIX + " - ";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmazonWebServicesClientProxy proxy = InMemoryServices.newProxy();
+    private final List<String> logLines = new ArrayList<>();
+    private final Logger logger = logLines::add;
+
+    private FakeServiceBehavior behavior;
+    private InMemoryServices services;
+
+    @BeforeEach
+    public void setup() {
+        behavior = new FakeServiceBehavior();
+        services = InMemoryServices.install(behavior);
+        services.getSfnClient().addStateMachine(STATE_MACHINE_ARN);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Tracing.setExporter(Tracing.Exporter.NONE, null);
+        services.close();
+    }
+
+    @Test
+    public void testDisabledTracingReturnsNoOpSpans() {
+        Tracing.setExporter(Tracing.Exporter.NONE, null);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = create();
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(Tracing.span(Tracing.Phase.CREATE)).isSameAs(Tracing.span(Tracing.Phase.READ));
+        assertThat(logLines).noneMatch(line -> line.startsWith(TRACE_PREFIX));
+    }
+
+    @Test
+    public void testLoggerExporterLogsSpansOfTheInvocation() throws IOException {
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = create();
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("traceId").asText()).isEqualTo(CLIENT_REQUEST_TOKEN);
+        assertThat(trace.get("handler").asText()).isEqualTo("CreateHandler");
+        assertThat(trace.get("callback").asBoolean()).isFalse();
+        assertThat(trace.get("status").asText()).isEqualTo("SUCCESS");
+        assertThat(trace.get("droppedSpans").asInt()).isZero();
+        assertThat(getSpanNames(trace)).containsExactly("existenceCheck", "create");
+    }
+
+    @Test
+    public void testFailedInvocationIsTraced() throws IOException {
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+        create();
+        logLines.clear();
+
+        // The current revision is already pinned by the version
+        final ProgressEvent<ResourceModel, CallbackContext> event = create();
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.FAILED);
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("status").asText()).isEqualTo("FAILED");
+        assertThat(getSpanNames(trace)).containsExactly("existenceCheck");
+    }
+
+    @Test
+    public void testExistenceCheckTracesTheWaitForTheBackgroundDescribe() throws IOException {
+        create();
+        services.getSfnClient().updateStateMachine(STATE_MACHINE_ARN);
+        behavior.resetCounts();
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+
+        final ProgressEvent<ResourceModel, CallbackContext> event = create();
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        // The state machine is described on a worker thread, which has no span of its own
+        assertThat(behavior.getCallCount("DescribeStateMachine")).isEqualTo(2);
+        final JsonNode trace = getLoggedTrace();
+        assertThat(getSpanNames(trace)).containsExactly("existenceCheck", "create");
+        assertThat(trace.get("droppedSpans").asInt()).isZero();
+    }
+
+    @Test
+    public void testFileExporterAppendsOneLinePerInvocation(@TempDir final Path tempDir) throws IOException {
+        final Path traceFile = tempDir.resolve("traces.jsonl");
+        Tracing.setExporter(Tracing.Exporter.FILE, traceFile);
+
+        create();
+        services.getSfnClient().updateStateMachine(STATE_MACHINE_ARN);
+        create();
+
+        final List<String> lines = Files.readAllLines(traceFile, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2);
+        for (final String line : lines) {
+            assertThat(objectMapper.readTree(line).get("traceId").asText()).isEqualTo(CLIENT_REQUEST_TOKEN);
+        }
+        assertThat(logLines).noneMatch(line -> line.startsWith(TRACE_PREFIX));
+    }
+
+    @Test
+    public void testSpansBeyondTheLimitAreDropped() throws IOException {
+        Tracing.setExporter(Tracing.Exporter.LOGGER, null);
+        final ResourceHandlerRequest<ResourceModel> request = request(ResourceModel.builder().build());
+
+        Tracing.begin(request, "TestHandler", true);
+        for (int i = 0; i < Constants.MAX_TRACE_SPANS + 3; i++) {
+            try (Tracing.Span span = Tracing.span(Tracing.Phase.PRUNE_VERSIONS)) {
+                // Spans are closed immediately
+            }
+        }
+        Tracing.end(OperationStatus.IN_PROGRESS, logger);
+
+        final JsonNode trace = getLoggedTrace();
+        assertThat(trace.get("callback").asBoolean()).isTrue();
+        assertThat(trace.get("spans")).hasSize(Constants.MAX_TRACE_SPANS);
+        assertThat(trace.get("droppedSpans").asInt()).isEqualTo(3);
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> create() {
+        final ResourceModel model = ResourceModel.builder()
+                .stateMachineArn(STATE_MACHINE_ARN)
+                .build();
+        return new CreateHandler().handleRequest(proxy, request(model), null, logger);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .logicalResourceIdentifier("StateMachineVersion")
+                .clientRequestToken(CLIENT_REQUEST_TOKEN)
+                .desiredResourceState(model)
+                .build();
+    }
+
+    private JsonNode getLoggedTrace() throws IOException {
+        final List<String> traces = new ArrayList<>();
+        for (final String line : logLines) {
+            if (line.startsWith(TRACE_PREFIX)) {
+                traces.add(line.substring(TRACE_PREFIX.length()));
+            }
+        }
+        assertThat(traces).hasSize(1);
+        return objectMapper.readTree(traces.get(0));
+    }
+
+    private static List<String> getSpanNames(final JsonNode trace) {
+        final List<String> names = new ArrayList<>();
+        trace.get("spans").forEach(span -> names.add(span.get("name").asText()));
+        return names;
+    }
+}
@@ -0,0 +1,236 @@
+package com.amazonaws.stepfunctions.cloudformation.statemachineversion;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineVersionRequest;
+import com.amazonaws.services.stepfunctions.model.DeleteStateMachineVersionResult;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeStateMachineAliasResult;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineAliasesResult;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachineVersionsResult;
+import com.amazonaws.services.stepfunctions.model.RoutingConfigurationListItem;
+import com.amazonaws.services.stepfunctions.model.StateMachineAliasListItem;
+import com.amazonaws.services.stepfunctions.model.StateMachineVersionListItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class VersionRetentionHelperTest extends HandlerTestBase {
+
+    private static final String ALIAS_ARN = STATE_MACHINE_ARN + ":PROD";
+
+    private ListStateMachineVersionsRequest listStateMachineVersionsRequest;
+    private ListStateMachineAliasesRequest listStateMachineAliasesRequest;
+
+    @BeforeEach
+    public void setup() {
+        listStateMachineVersionsRequest = new ListStateMachineVersionsRequest().withStateMachineArn(STATE_MACHINE_ARN);
+        listStateMachineAliasesRequest = new ListStateMachineAliasesRequest().withStateMachineArn(STATE_MACHINE_ARN);
+
+        // Versions 1 to 4, where version 4 is the newest and was created today
+        when(proxy.injectCredentialsAndInvoke(eq(listStateMachineVersionsRequest), any(Function.class))).thenReturn(
+                new ListStateMachineVersionsResult().withStateMachineVersions(
+                        getVersionListItem(4, 0),
+                        getVersionListItem(3, 5),
+                        getVersionListItem(2, 10),
+                        getVersionListItem(1, 20)
+                )
+        );
+        when(proxy.injectCredentialsAndInvoke(eq(listStateMachineAliasesRequest), any(Function.class))).thenReturn(
+                new ListStateMachineAliasesResult()
+        );
+    }
+
+    @Test
+    public void testGetVersionArnsToPrune_withMaxVersionsToKeep_returnsOlderVersions() {
+        final RetentionPolicy retentionPolicy = RetentionPolicy.builder().maxVersionsToKeep(2).build();
+
+        final List<String> versionArnsToPrune = VersionRetentionHelper.getVersionArnsToPrune(
+                proxy, client, STATE_MACHINE_ARN, getVersionArn(4), retentionPolicy
+        );
+
+        assertThat(versionArnsToPrune).containsExactly(getVersionArn(2), getVersionArn(1));
+    }
+
+    @Test
+    public void testGetVersionArnsToPrune_withMaxAgeInDays_returnsVersionsOlderThanMaxAge() {
+        final RetentionPolicy retentionPolicy = RetentionPolicy.builder().maxAgeInDays(7).build();
+
+        final List<String> versionArnsToPrune = VersionRetentionHelper.getVersionArnsToPrune(
+                proxy, client, STATE_MACHINE_ARN, getVersionArn(4), retentionPolicy
+        );
+
+        assertThat(versionArnsToPrune).containsExactly(getVersionArn(2), getVersionArn(1));
+    }
+
+    @Test
+    public void testGetVersionArnsToPrune_withMaxVersionsToKeepAndMaxAgeInDays_retainsVersionsMatchingEither() {
+        final RetentionPolicy retentionPolicy = RetentionPolicy.builder().maxVersionsToKeep(1).maxAgeInDays(15).build();
+
+        final List<String> versionArnsToPrune = VersionRetentionHelper.getVersionArnsToPrune(
+                proxy, client, STATE_MACHINE_ARN, getVersionArn(4), retentionPolicy
+        );
+
+        assertThat(versionArnsToPrune).containsExactly(getVersionArn(1));
+    }
+
+    @Test
+    public void testGetVersionArnsToPrune_withVersionReferencedByAlias_retainsReferencedVersion() {
+        final DescribeStateMachineAliasRequest describeStateMachineAliasRequest = new DescribeStateMachineAliasRequest()
+                .withStateMachineAliasArn(ALIAS_ARN);
+
+        when(proxy.injectCredentialsAndInvoke(eq(listStateMachineAliasesRequest), any(Function.class))).thenReturn(
+                new ListStateMachineAliasesResult().withStateMachineAliases(new StateMachineAliasListItem().withStateMachineAliasArn(ALIAS_ARN))
+        );
+        when(proxy.injectCredentialsAndInvoke(eq(describeStateMachineAliasRequest), any(Function.class))).thenReturn(
+                new DescribeStateMachineAliasResult().withRoutingConfiguration(
+                        new RoutingConfigurationListItem().withStateMachineVersionArn(getVersionArn(4)).withWeight(90),
+                        new RoutingConfigurationListItem().withStateMachineVersionArn(getVersionArn(1)).withWeight(10)
+                )
+        );
+
+        final RetentionPolicy retentionPolicy = RetentionPolicy.builder().maxVersionsToKeep(1).build();
+
+        final List<String> versionArnsToPrune = VersionRetentionHelper.getVersionArnsToPrune(
+                proxy, client, STATE_MACHINE_ARN, getVersionArn(4), retentionPolicy
+        );
+
+        assertThat(versionArnsToPrune).containsExactly(getVersionArn(3), getVersionArn(2));
+    }
+
+    @Test
+    public void testGetVersionArnsToPrune_withPaginatedVersions_listsAllPages() {
+        final ListStateMachineVersionsRequest secondPageRequest = new ListStateMachineVersionsRequest()
+                .withStateMachineArn(STATE_MACHINE_ARN)
+                .withNextToken("token");
+
+        when(proxy.injectCredentialsAndInvoke(eq(listStateMachineVersionsRequest), any(Function.class))).thenReturn(
+                new ListStateMachineVersionsResult()
+                        .withStateMachineVersions(getVersionListItem(4, 0), getVersionListItem(3, 5))
+                        .withNextToken("token")
+        );
+        when(proxy.injectCredentialsAndInvoke(eq(secondPageRequest), any(Function.class))).thenReturn(
+                new ListStateMachineVersionsResult().withStateMachineVersions(getVersionListItem(2, 10), getVersionListItem(1, 20))
+        );
+
+        final RetentionPolicy retentionPolicy = RetentionPolicy.builder().maxVersionsToKeep(3).build();
+
+        final List<String> versionArnsToPrune = VersionRetentionHelper.getVersionArnsToPrune(
+                proxy, client, STATE_MACHINE_ARN, getVersionArn(4), retentionPolicy
+        );
+
+        assertThat(versionArnsToPrune).containsExactly(getVersionArn(1));
+    }
+
+    @Test
+    public void testGetVersionArnsToPrune_withEmptyPolicy_doesNotListVersions() {
+        final List<String> versionArnsToPrune = VersionRetentionHelper.getVersionArnsToPrune(
+                proxy, client, STATE_MACHINE_ARN, getVersionArn(4), RetentionPolicy.builder().build()
+        );
+
+        assertThat(versionArnsToPrune).isEmpty();
+        verify(proxy, never()).injectCredentialsAndInvoke(any(ListStateMachineVersionsRequest.class), any(Function.class));
+    }
+
+    @Test
+    public void testDeleteVersions_deletesEveryVersion() {
+        when(proxy.injectCredentialsAndInvoke(any(DeleteStateMachineVersionRequest.class), any(Function.class)))
+                .thenReturn(new DeleteStateMachineVersionResult());
+
+        final List<String> throttledVersionArns = VersionRetentionHelper.deleteVersions(
+                proxy, client, Arrays.asList(getVersionArn(1), getVersionArn(2), getVersionArn(3), getVersionArn(4), getVersionArn(5))
+        );
+
+        assertThat(throttledVersionArns).isEmpty();
+        verify(proxy, times(5)).injectCredentialsAndInvoke(any(DeleteStateMachineVersionRequest.class), any(Function.class));
+    }
+
+    @Test
+    public void testDeleteVersions_whenThrottled_returnsThrottledVersions() {
+        when(proxy.injectCredentialsAndInvoke(eq(getDeleteRequest(1)), any(Function.class))).thenReturn(new DeleteStateMachineVersionResult());
+        when(proxy.injectCredentialsAndInvoke(eq(getDeleteRequest(2)), any(Function.class))).thenThrow(throttlingException);
+
+        final List<String> throttledVersionArns = VersionRetentionHelper.deleteVersions(
+                proxy, client, Arrays.asList(getVersionArn(1), getVersionArn(2))
+        );
+
+        assertThat(throttledVersionArns).containsExactly(getVersionArn(2));
+    }
+
+    @Test
+    public void testDeleteVersions_whenVersionIsReferencedByAlias_skipsVersion() {
+        final AmazonServiceException conflictException = new AmazonServiceException("Version is referenced by an alias");
+        conflictException.setStatusCode(400);
+        conflictException.setErrorCode(Constants.CONFLICT_EXCEPTION_ERROR_CODE);
+
+        when(proxy.injectCredentialsAndInvoke(eq(getDeleteRequest(1)), any(Function.class))).thenThrow(conflictException);
+
+        final List<String> throttledVersionArns = VersionRetentionHelper.deleteVersions(
+                proxy, client, Collections.singletonList(getVersionArn(1))
+        );
+
+        assertThat(throttledVersionArns).isEmpty();
+    }
+
+    @Test
+    public void testDeleteVersions_whenDeletionFails_throwsServiceException() {
+        when(proxy.injectCredentialsAndInvoke(eq(getDeleteRequest(1)), any(Function.class))).thenThrow(accessDeniedException);
+
+        final AmazonServiceException exception = assertThrows(AmazonServiceException.class, () ->
+                VersionRetentionHelper.deleteVersions(proxy, client, Collections.singletonList(getVersionArn(1)))
+        );
+
+        assertThat(exception.getErrorCode()).isEqualTo(Constants.ACCESS_DENIED_ERROR_CODE);
+    }
+
+    @Test
+    public void testDeleteVersions_withNoVersions_returnsEmptyList() {
+        assertThat(VersionRetentionHelper.deleteVersions(proxy, client, Collections.emptyList())).isEmpty();
+    }
+
+    @Test
+    public void testGetBackoffDelaySeconds_growsExponentiallyUpToMaximum() {
+        assertThat(VersionRetentionHelper.getBackoffDelaySeconds(1)).isEqualTo(2);
+        assertThat(VersionRetentionHelper.getBackoffDelaySeconds(2)).isEqualTo(4);
+        assertThat(VersionRetentionHelper.getBackoffDelaySeconds(5)).isEqualTo(32);
+        assertThat(VersionRetentionHelper.getBackoffDelaySeconds(6)).isEqualTo(Constants.VERSION_PRUNING_MAX_BACKOFF_SECONDS);
+        assertThat(VersionRetentionHelper.getBackoffDelaySeconds(100)).isEqualTo(Constants.VERSION_PRUNING_MAX_BACKOFF_SECONDS);
+    }
+
+    private static String getVersionArn(final int version) {
+        return STATE_MACHINE_ARN + ":" + version;
+    }
+
+    private static StateMachineVersionListItem getVersionListItem(final int version, final int ageInDays) {
+        return new StateMachineVersionListItem()
+                .withStateMachineVersionArn(getVersionArn(version))
+                .withCreationDate(Date.from(Instant.now().minus(Duration.ofDays(ageInDays))));
+    }
+
+    private static DeleteStateMachineVersionRequest getDeleteRequest(final int version) {
+        return new DeleteStateMachineVersionRequest().withStateMachineVersionArn(getVersionArn(version));
+    }
+}
@@ -0,0 +1,150 @@
+package com.amazonaws.stepfunctions.cloudformation.testsupport;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ *  The inputs from contract-tests-artifacts/inputs_*.json, with the create, patched update and list models
+ *  instantiated per lifecycle as the ResourceModel of the module under test. {{uuid}} placeholders are replaced with a random UUID and all other placeholders
+ *  with the given values, which stand in for the outputs of the contract test stack.
+ */
+public class ContractTestInputs {
+
+    private static final Path CONTRACT_TEST_ARTIFACTS = Paths.get("contract-tests-artifacts");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)}}");
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final String name;
+    private final String template;
+
+    private ContractTestInputs(final String name, final String template) {
+        this.name = name;
+        this.template = template;
+    }
+
+    public static List<ContractTestInputs> load() {
+        try (Stream<Path> files = Files.list(CONTRACT_TEST_ARTIFACTS)) {
+            final List<Path> inputFiles = files
+                    .filter(file -> file.getFileName().toString().matches("inputs_\\d+\\.json"))
+                    .sorted()
+                    .collect(Collectors.toList());
+            final List<ContractTestInputs> inputs = new ArrayList<>();
+            for (final Path inputFile : inputFiles) {
+                inputs.add(new ContractTestInputs(inputFile.getFileName().toString(),
+                        new String(Files.readAllBytes(inputFile), StandardCharsets.UTF_8)));
+            }
+            return inputs;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Replaces the placeholders in the inputs
+     * @param placeholderValues The values of the placeholders other than uuid, by placeholder name
+     * @return The instantiated inputs
+     */
+    public Instance instantiate(final Map<String, String> placeholderValues) {
+        final String uuid = UUID.randomUUID().toString();
+        final Matcher matcher = PLACEHOLDER.matcher(template);
+        final StringBuffer inputs = new StringBuffer();
+        while (matcher.find()) {
+            final String placeholder = matcher.group(1);
+            final String value = "uuid".equals(placeholder) ? uuid : placeholderValues.get(placeholder);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for placeholder " + placeholder + " in " + name);
+            }
+            matcher.appendReplacement(inputs, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(inputs);
+
+        try {
+            return new Instance((ObjectNode) MAPPER.readTree(inputs.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     *  Inputs with all placeholders replaced.
+     */
+    public static class Instance {
+        private final ObjectNode inputs;
+
+        private Instance(final ObjectNode inputs) {
+            this.inputs = inputs;
+        }
+
+        public <M> M getCreateModel(final Class<M> modelType) {
+            return MAPPER.convertValue(inputs.get("CreateInputs"), modelType);
+        }
+
+        public boolean hasPatchInputs() {
+            return inputs.has("PatchInputs") && inputs.get("PatchInputs").size() > 0;
+        }
+
+        // The create inputs with the patch inputs applied
+        public <M> M getUpdateModel(final Class<M> modelType) {
+            final JsonNode updateInputs = inputs.get("CreateInputs").deepCopy();
+            if (inputs.has("PatchInputs")) {
+                inputs.get("PatchInputs").forEach(operation -> applyPatchOperation(updateInputs, operation));
+            }
+            return MAPPER.convertValue(updateInputs, modelType);
+        }
+
+        public <M> M getListModel(final Class<M> modelType) {
+            return MAPPER.convertValue(inputs.has("ListInputs") ? inputs.get("ListInputs") : MAPPER.createObjectNode(), modelType);
+        }
+
+        // Applies an add, replace or remove operation of a JSON patch (RFC 6902)
+        private static void applyPatchOperation(final JsonNode document, final JsonNode operation) {
+            final JsonPointer path = JsonPointer.compile(operation.get("path").asText());
+            final JsonNode parent = document.at(path.head());
+            final String field = path.last().getMatchingProperty();
+            final String op = operation.get("op").asText();
+
+            if (parent.isArray()) {
+                final ArrayNode array = (ArrayNode) parent;
+                final int index = "-".equals(field) ? array.size() : Integer.parseInt(field);
+                if ("remove".equals(op) || "replace".equals(op)) {
+                    array.remove(index);
+                }
+                if ("add".equals(op) || "replace".equals(op)) {
+                    array.insert(index, operation.get("value"));
+                }
+            } else if (parent.isObject()) {
+                if ("remove".equals(op)) {
+                    ((ObjectNode) parent).remove(field);
+                } else {
+                    ((ObjectNode) parent).set(field, operation.get("value"));
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported patch operation: " + operation);
+            }
+        }
+    }
+}
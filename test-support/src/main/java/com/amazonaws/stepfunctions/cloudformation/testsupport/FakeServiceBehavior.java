@@ -0,0 +1,125 @@
+package com.amazonaws.stepfunctions.cloudformation.testsupport;
+
+import com.amazonaws.AmazonServiceException;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Configures how the in-memory service fakes respond to each API call.
+ *  Latency and throttle rates are configured per API name (e.g. "DescribeStateMachine"),
+ *  with defaults that apply to every API without its own configuration.
+ *  All randomness is drawn from a seeded generator so that runs are reproducible.
+ */
+public class FakeServiceBehavior {
+
+    private final Random random;
+    private final Map<String, LatencyDistribution> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Double> throttleRates = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> callCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> throttleCounts = new ConcurrentHashMap<>();
+    private volatile LatencyDistribution defaultLatency = LatencyDistribution.none();
+    private volatile double defaultThrottleRate = 0;
+
+    public FakeServiceBehavior() {
+        this(0L);
+    }
+
+    public FakeServiceBehavior(final long seed) {
+        this.random = new Random(seed);
+    }
+
+    public FakeServiceBehavior withLatency(final String apiName, final LatencyDistribution latency) {
+        latencies.put(apiName, latency);
+        return this;
+    }
+
+    public FakeServiceBehavior withDefaultLatency(final LatencyDistribution latency) {
+        defaultLatency = latency;
+        return this;
+    }
+
+    public FakeServiceBehavior withThrottleRate(final String apiName, final double throttleRate) {
+        throttleRates.put(apiName, throttleRate);
+        return this;
+    }
+
+    public FakeServiceBehavior withDefaultThrottleRate(final double throttleRate) {
+        defaultThrottleRate = throttleRate;
+        return this;
+    }
+
+    /**
+     * Records a call to the API, waits for the configured latency and throttles the call at the configured rate
+     * @param apiName The name of the API being called
+     * @throws AmazonServiceException A ThrottlingException if the call is throttled
+     */
+    public void onCall(final String apiName) {
+        callCounts.computeIfAbsent(apiName, k -> new AtomicInteger()).incrementAndGet();
+
+        final long latencyMillis = latencies.getOrDefault(apiName, defaultLatency).sampleMillis(random);
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (random.nextDouble() < throttleRates.getOrDefault(apiName, defaultThrottleRate)) {
+            throttleCounts.computeIfAbsent(apiName, k -> new AtomicInteger()).incrementAndGet();
+            final AmazonServiceException exception = new AmazonServiceException("Rate exceeded");
+            exception.setStatusCode(400);
+            exception.setErrorCode("ThrottlingException");
+            exception.setErrorType(AmazonServiceException.ErrorType.Client);
+            throw exception;
+        }
+    }
+
+    public int getCallCount(final String apiName) {
+        return callCounts.getOrDefault(apiName, new AtomicInteger()).get();
+    }
+
+    public int getTotalCallCount() {
+        return callCounts.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    public int getThrottleCount(final String apiName) {
+        return throttleCounts.getOrDefault(apiName, new AtomicInteger()).get();
+    }
+
+    public int getTotalThrottleCount() {
+        return throttleCounts.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    public void resetCounts() {
+        callCounts.clear();
+        throttleCounts.clear();
+    }
+
+    /**
+     *  Distribution from which the latency of each call is sampled.
+     */
+    public interface LatencyDistribution {
+        long sampleMillis(Random random);
+
+        static LatencyDistribution none() {
+            return random -> 0L;
+        }
+
+        static LatencyDistribution fixed(final long millis) {
+            return random -> millis;
+        }
+
+        static LatencyDistribution uniform(final long minMillis, final long maxMillis) {
+            return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+        }
+
+        // Service latencies are typically long-tailed, which a log-normal distribution models well
+        static LatencyDistribution logNormal(final double medianMillis, final double sigma) {
+            return random -> Math.round(Math.exp(Math.log(medianMillis) + sigma * random.nextGaussian()));
+        }
+    }
+}
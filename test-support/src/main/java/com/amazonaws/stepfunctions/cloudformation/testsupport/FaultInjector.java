@@ -0,0 +1,140 @@
+package com.amazonaws.stepfunctions.cloudformation.testsupport;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Decorates an SDK client so that each request attempt may be delayed or fail with a configurable fault
+ *  before it reaches the underlying client. Wrap the decorated client in a {@link RetryingClient} to observe
+ *  how a retry policy reacts to the injected faults.
+ *  All randomness is drawn from a seeded generator so that runs are reproducible.
+ */
+public class FaultInjector {
+
+    /**
+     *  Faults that can be injected, modelled on the errors the service returns.
+     */
+    public enum Fault {
+        THROTTLING(400, "ThrottlingException", "Rate exceeded"),
+        SERVER_ERROR(500, "InternalFailure", "Internal Failure"),
+        MANAGED_RULE_ACCESS_DENIED(400, "AccessDeniedException",
+                "'arn:aws:iam::123456789012:role/StatesExecutionRole' is not authorized to create managed-rule."),
+        STS_ACCESS_DENIED(400, "AccessDeniedException",
+                "Neither the global service principal states.amazonaws.com, nor the regional one is authorized to assume the provided role.");
+
+        private final int statusCode;
+        private final String errorCode;
+        private final String message;
+
+        Fault(final int statusCode, final String errorCode, final String message) {
+            this.statusCode = statusCode;
+            this.errorCode = errorCode;
+            this.message = message;
+        }
+
+        public AmazonServiceException toException() {
+            final AmazonServiceException exception = new AmazonServiceException(message);
+            exception.setStatusCode(statusCode);
+            exception.setErrorCode(errorCode);
+            exception.setErrorType(statusCode >= 500 ? AmazonServiceException.ErrorType.Service : AmazonServiceException.ErrorType.Client);
+            return exception;
+        }
+    }
+
+    private final Random random;
+    private final Map<Fault, Double> faultRates = new ConcurrentHashMap<>();
+    private final Map<Fault, AtomicInteger> faultCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger attemptCount = new AtomicInteger();
+    private volatile FakeServiceBehavior.LatencyDistribution latency = FakeServiceBehavior.LatencyDistribution.none();
+
+    public FaultInjector() {
+        this(0L);
+    }
+
+    public FaultInjector(final long seed) {
+        this.random = new Random(seed);
+    }
+
+    public FaultInjector withLatency(final FakeServiceBehavior.LatencyDistribution latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public FaultInjector withFaultRate(final Fault fault, final double rate) {
+        faultRates.put(fault, rate);
+        return this;
+    }
+
+    /**
+     * Decorates every request method of the client
+     * @param clientInterface The SDK client interface, e.g. AWSStepFunctions.class
+     * @param client The client to delegate to when no fault is injected
+     * @return A client that injects latency and faults before delegating
+     */
+    public <T> T wrap(final Class<T> clientInterface, final T client) {
+        final InvocationHandler handler = (proxy, method, args) -> {
+            if (isRequestMethod(method, args)) {
+                onAttempt();
+            }
+            return invoke(client, method, args);
+        };
+        return clientInterface.cast(Proxy.newProxyInstance(clientInterface.getClassLoader(), new Class<?>[] {clientInterface}, handler));
+    }
+
+    public int getAttemptCount() {
+        return attemptCount.get();
+    }
+
+    public int getFaultCount(final Fault fault) {
+        return faultCounts.getOrDefault(fault, new AtomicInteger()).get();
+    }
+
+    public int getTotalFaultCount() {
+        return faultCounts.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    private void onAttempt() {
+        attemptCount.incrementAndGet();
+
+        final long latencyMillis = latency.sampleMillis(random);
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // A single draw per attempt makes each fault occur at exactly its configured rate
+        double draw = random.nextDouble();
+        for (final Fault fault : Fault.values()) {
+            final double rate = faultRates.getOrDefault(fault, 0d);
+            if (draw < rate) {
+                faultCounts.computeIfAbsent(fault, k -> new AtomicInteger()).incrementAndGet();
+                throw fault.toException();
+            }
+            draw -= rate;
+        }
+    }
+
+    public static boolean isRequestMethod(final Method method, final Object[] args) {
+        return args != null && args.length == 1 && args[0] instanceof AmazonWebServiceRequest;
+    }
+
+    public static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.amazonaws.stepfunctions.cloudformation.testsupport;
+
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ *  Runs resource lifecycles concurrently and records the latency of every handler invocation.
+ *  Handlers are re-invoked with the returned callback context while they report IN_PROGRESS, the same way
+ *  CloudFormation drives them, except that callback delays are skipped.
+ */
+public class LoadTestHarness {
+
+    // Guards against handlers that never stabilize
+    private static final int MAX_INVOCATIONS_PER_OPERATION = 1000;
+
+    private final int concurrency;
+    private final Map<String, HandlerStats> handlerStats = new ConcurrentHashMap<>();
+
+    public LoadTestHarness(final int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Invokes a handler until it returns a status other than IN_PROGRESS
+     * @param handlerName The name under which the invocations are reported, e.g. "Create"
+     * @param invocation Invokes the handler with the given callback context, which is null on the first invocation
+     * @return The final progress event
+     */
+    public <M, C> ProgressEvent<M, C> invoke(final String handlerName, final Function<C, ProgressEvent<M, C>> invocation) {
+        final HandlerStats stats = handlerStats.computeIfAbsent(handlerName, k -> new HandlerStats());
+        C callbackContext = null;
+        for (int i = 0; i < MAX_INVOCATIONS_PER_OPERATION; i++) {
+            final long start = System.nanoTime();
+            final ProgressEvent<M, C> event = invocation.apply(callbackContext);
+            stats.recordLatency(System.nanoTime() - start);
+
+            if (event.getStatus() != OperationStatus.IN_PROGRESS) {
+                if (event.getStatus() == OperationStatus.FAILED) {
+                    stats.failures.incrementAndGet();
+                }
+                return event;
+            }
+            stats.callbacks.incrementAndGet();
+            callbackContext = event.getCallbackContext();
+        }
+        throw new IllegalStateException(handlerName + " did not complete within " + MAX_INVOCATIONS_PER_OPERATION + " invocations");
+    }
+
+    /**
+     * Runs the lifecycles on a fixed pool of concurrency threads
+     * @param lifecycles The number of lifecycles to run
+     * @param lifecycle Runs the lifecycle with the given index, invoking handlers through this harness
+     * @return The report of all invocations made during the run
+     */
+    public Report run(final int lifecycles, final IntConsumer lifecycle) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        final AtomicInteger erroredLifecycles = new AtomicInteger();
+        final List<Future<?>> futures = new ArrayList<>();
+
+        final long start = System.nanoTime();
+        try {
+            for (int i = 0; i < lifecycles; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        lifecycle.accept(index);
+                    } catch (RuntimeException | AssertionError e) {
+                        erroredLifecycles.incrementAndGet();
+                    }
+                }));
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        } finally {
+            executor.shutdownNow();
+        }
+        final long elapsedNanos = System.nanoTime() - start;
+
+        return new Report(lifecycles, erroredLifecycles.get(), elapsedNanos, new TreeMap<>(handlerStats));
+    }
+
+    /**
+     *  Throughput and per-handler latency percentiles of a load test run.
+     */
+    public static class Report {
+        private final int lifecycles;
+        private final int erroredLifecycles;
+        private final long elapsedNanos;
+        private final Map<String, HandlerStats> handlerStats;
+
+        private Report(final int lifecycles, final int erroredLifecycles, final long elapsedNanos,
+                       final Map<String, HandlerStats> handlerStats) {
+            this.lifecycles = lifecycles;
+            this.erroredLifecycles = erroredLifecycles;
+            this.elapsedNanos = elapsedNanos;
+            this.handlerStats = handlerStats;
+        }
+
+        public int getErroredLifecycles() {
+            return erroredLifecycles;
+        }
+
+        public int getFailures(final String handlerName) {
+            return handlerStats.containsKey(handlerName) ? handlerStats.get(handlerName).failures.get() : 0;
+        }
+
+        public int getCallbacks(final String handlerName) {
+            return handlerStats.containsKey(handlerName) ? handlerStats.get(handlerName).callbacks.get() : 0;
+        }
+
+        public double getThroughput() {
+            return lifecycles / (elapsedNanos / 1e9);
+        }
+
+        public double getElapsedMillis() {
+            return elapsedNanos / 1e6;
+        }
+
+        // Sum of the latencies of every handler invocation, i.e. the handler time billed across all lifecycles
+        public double getTotalHandlerMillis() {
+            return handlerStats.values().stream()
+                    .mapToDouble(stats -> Arrays.stream(stats.getSortedLatencies()).sum() / 1e6)
+                    .sum();
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder report = new StringBuilder(String.format(
+                    "%d lifecycles (%d errored) in %.2fs, %.1f lifecycles/s%n", lifecycles, erroredLifecycles, elapsedNanos / 1e9, getThroughput()
+            ));
+            report.append(String.format("%-10s %12s %10s %10s %10s %10s %10s%n",
+                    "Handler", "Invocations", "Failures", "Callbacks", "p50 (ms)", "p99 (ms)", "p999 (ms)"));
+            handlerStats.forEach((handlerName, stats) -> {
+                final long[] latencies = stats.getSortedLatencies();
+                report.append(String.format("%-10s %12d %10d %10d %10.2f %10.2f %10.2f%n",
+                        handlerName, latencies.length, stats.failures.get(), stats.callbacks.get(),
+                        percentileMillis(latencies, 0.5), percentileMillis(latencies, 0.99), percentileMillis(latencies, 0.999)));
+            });
+            return report.toString();
+        }
+
+        // Nearest-rank percentile
+        private static double percentileMillis(final long[] sortedLatencies, final double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            final int rank = (int) Math.ceil(percentile * sortedLatencies.length);
+            return sortedLatencies[Math.max(rank - 1, 0)] / 1e6;
+        }
+    }
+
+    private static class HandlerStats {
+        private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger callbacks = new AtomicInteger();
+
+        private void recordLatency(final long latencyNanos) {
+            latencies.add(latencyNanos);
+        }
+
+        private long[] getSortedLatencies() {
+            final long[] sorted;
+            synchronized (latencies) {
+                sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            }
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
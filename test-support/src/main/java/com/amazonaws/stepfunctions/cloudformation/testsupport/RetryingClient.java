@@ -0,0 +1,84 @@
+package com.amazonaws.stepfunctions.cloudformation.testsupport;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.retry.RetryPolicy;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Applies a RetryPolicy to a client the way the SDK's HTTP layer does for real clients, so that retry policies
+ *  can be evaluated against in-memory fakes. Each failed attempt is retried while fewer than the policy's
+ *  max error retries have been made and its retry condition allows it, pausing for the delay chosen by its
+ *  backoff strategy. The SDK's client-side retry capacity is not modelled.
+ */
+public class RetryingClient {
+
+    private final RetryPolicy retryPolicy;
+    private final AtomicInteger callCount = new AtomicInteger();
+    private final AtomicInteger retryCount = new AtomicInteger();
+    private final AtomicLong backoffMillis = new AtomicLong();
+
+    public RetryingClient(final RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Decorates every request method of the client with the retry policy
+     * @param clientInterface The SDK client interface, e.g. AWSStepFunctions.class
+     * @param client The client whose attempts are retried, typically decorated by a FaultInjector
+     * @return A client that retries failed attempts
+     */
+    public <T> T wrap(final Class<T> clientInterface, final T client) {
+        final InvocationHandler handler = (proxy, method, args) -> {
+            if (!FaultInjector.isRequestMethod(method, args)) {
+                return FaultInjector.invoke(client, method, args);
+            }
+            callCount.incrementAndGet();
+            final AmazonWebServiceRequest request = (AmazonWebServiceRequest) args[0];
+            int retriesAttempted = 0;
+            while (true) {
+                try {
+                    return FaultInjector.invoke(client, method, args);
+                } catch (AmazonClientException e) {
+                    if (retriesAttempted >= retryPolicy.getMaxErrorRetry()
+                            || !retryPolicy.getRetryCondition().shouldRetry(request, e, retriesAttempted)) {
+                        throw e;
+                    }
+                    pause(retryPolicy.getBackoffStrategy().delayBeforeNextRetry(request, e, retriesAttempted));
+                    retriesAttempted++;
+                    retryCount.incrementAndGet();
+                }
+            }
+        };
+        return clientInterface.cast(Proxy.newProxyInstance(clientInterface.getClassLoader(), new Class<?>[] {clientInterface}, handler));
+    }
+
+    public int getCallCount() {
+        return callCount.get();
+    }
+
+    public int getRetryCount() {
+        return retryCount.get();
+    }
+
+    public long getBackoffMillis() {
+        return backoffMillis.get();
+    }
+
+    private void pause(final long delayMillis) {
+        if (delayMillis <= 0) {
+            return;
+        }
+        backoffMillis.addAndGet(delayMillis);
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException("Interrupted while backing off", e);
+        }
+    }
+}